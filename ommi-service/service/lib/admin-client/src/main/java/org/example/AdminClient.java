@@ -1,13 +1,16 @@
 package org.example;
 
+import feign.Headers;
 import feign.Param;
 import feign.RequestLine;
 import org.example.customer.Customer;
+import org.example.inventory.InventoryRequest;
 import org.example.location.Location;
 import org.example.location.LocationFilter;
 import org.example.product.OrderRouting;
 import org.example.product.OrderRoutingRequest;
 import org.example.product.response.Response;
+import org.example.shipping.ShippingRequest;
 
 import java.util.List;
 
@@ -41,4 +44,19 @@ public interface AdminClient {
             @Param("storeId") int storeId,
             LocationFilter locationFilter
     );
+
+    @RequestLine("POST /admin/inventory_adjustments/commit_inventory")
+    @Headers({"Content-Type: application/json", "X-Store-Id: {storeId}"})
+    void commitInventory(
+            @Param("storeId") int storeId,
+            InventoryRequest request
+    );
+
+    @RequestLine("POST /admin/shipping_requests/batch?delivery_method={deliveryMethod}")
+    @Headers({"Content-Type: application/json", "X-Store-Id: {storeId}"})
+    void shippingRequestBatchCreate(
+            @Param("storeId") int storeId,
+            @Param("deliveryMethod") String deliveryMethod,
+            List<ShippingRequest> requests
+    );
 }
@@ -0,0 +1,64 @@
+package org.example.cache;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache theo key (dùng chung cho các dữ liệu hầu như không đổi như store settings).
+ * - Giới hạn số entry (maximumSize = 0 => không giữ entry nào), hết hạn sau ttl kể từ lúc load
+ * - Nhiều request cùng miss 1 key chỉ load 1 lần (LoadingCache lock theo key)
+ * - loader trả về null => không cache, get trả về null
+ * - Metric: cache.gets{cache=name, result=hit|miss}, cache.evictions, ...
+ */
+public class ReadThroughCache<K, V> {
+
+    private final LoadingCache<K, V> cache;
+
+    public ReadThroughCache(String name, Function<K, V> loader, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        this(name, loader, maximumSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    ReadThroughCache(
+            String name,
+            Function<K, V> loader,
+            long maximumSize,
+            Duration ttl,
+            MeterRegistry meterRegistry,
+            Ticker ticker
+    ) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build(CacheLoader.from(loader::apply));
+        GuavaCacheMetrics.monitor(meterRegistry, this.cache, name);
+    }
+
+    public V get(K key) {
+        try {
+            return this.cache.getUnchecked(key);
+        } catch (CacheLoader.InvalidCacheLoadException notFound) {
+            return null;
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    public void invalidate(K key) {
+        this.cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+}
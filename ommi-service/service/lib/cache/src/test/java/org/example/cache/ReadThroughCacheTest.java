@@ -0,0 +1,153 @@
+package org.example.cache;
+
+import com.google.common.base.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ReadThroughCache: single-flight khi miss, hết hạn theo ttl, invalidate theo key
+ */
+public class ReadThroughCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final Map<Integer, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FakeTicker ticker = new FakeTicker();
+
+    @Test
+    public void concurrent_misses_of_same_key_load_once() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var cache = this.cache(key -> {
+            started.countDown();
+            await(release);
+            return this.load(key);
+        }, 100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1)));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            release.countDown();
+
+            var first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (var result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, this.loads.get(1).get());
+        assertEquals(1.0, this.gets("miss"));
+    }
+
+    @Test
+    public void entry_expires_after_ttl() {
+        var cache = this.cache(this::load, 100);
+
+        cache.get(1);
+        this.ticker.advance(TTL.minusSeconds(1));
+        cache.get(1);
+        assertEquals(1, this.loads.get(1).get());
+
+        this.ticker.advance(Duration.ofSeconds(1));
+        cache.get(1);
+        assertEquals(2, this.loads.get(1).get());
+    }
+
+    @Test
+    public void missing_value_is_not_cached() {
+        var cache = this.cache(key -> {
+            this.load(key);
+            return null;
+        }, 100);
+
+        assertNull(cache.get(1));
+        assertNull(cache.get(1));
+        assertEquals(2, this.loads.get(1).get());
+    }
+
+    @Test
+    public void loader_exception_is_rethrown_and_not_cached() {
+        var failures = new AtomicInteger(1);
+        var cache = this.cache(key -> {
+            if (failures.getAndDecrement() > 0) throw new IllegalStateException("db down");
+            return this.load(key);
+        }, 100);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertEquals("value-1", cache.get(1));
+    }
+
+    @Test
+    public void zero_maximum_size_loads_every_time() {
+        var cache = this.cache(this::load, 0);
+
+        cache.get(1);
+        cache.get(1);
+
+        assertEquals(2, this.loads.get(1).get());
+    }
+
+    private ReadThroughCache<Integer, String> cache(Function<Integer, String> loader, long maximumSize) {
+        return new ReadThroughCache<>("test", loader, maximumSize, TTL, this.meterRegistry, this.ticker);
+    }
+
+    private String load(int key) {
+        this.loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        return new String("value-" + key);
+    }
+
+    private double gets(String result) {
+        return this.meterRegistry.get("cache.gets")
+                .tag("cache", "test")
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return this.nanos.get();
+        }
+
+        void advance(Duration duration) {
+            this.nanos.addAndGet(duration.toNanos());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.idgenerator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * So sánh số id/giây theo số thread:
+ * - perCall*: mỗi id là 1 round trip tới nguồn (giống cách các *IdGenerator đang làm)
+ * - block*: BlockIdAllocator, round trip chỉ xảy ra khi refill block
+ * Nguồn giả lập round trip DB ~ roundTripMicros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockIdAllocatorBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final String ENTITY_TYPE = "line_item";
+
+    @Param({"200"})
+    public long roundTripMicros;
+
+    @Param({"1000"})
+    public int blockSize;
+
+    private SimulatedRangeSource rangeSource;
+    private BlockIdAllocator allocator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.rangeSource = new SimulatedRangeSource(this.roundTripMicros);
+        this.allocator = BlockIdAllocator.builder(this.rangeSource)
+                .blockSize(this.blockSize)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.allocator.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long perCall_1thread() {
+        return this.rangeSource.reserve(STORE_ID, ENTITY_TYPE, 1).start();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long perCall_8threads() {
+        return this.rangeSource.reserve(STORE_ID, ENTITY_TYPE, 1).start();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int block_1thread() {
+        return this.allocator.nextId(STORE_ID, ENTITY_TYPE);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int block_8threads() {
+        return this.allocator.nextId(STORE_ID, ENTITY_TYPE);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int block_32threads() {
+        return this.allocator.nextId(STORE_ID, ENTITY_TYPE);
+    }
+
+    /**
+     * Kích thước giống 1 order ~ 10 line
+     */
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(10)
+    public Deque<Integer> blockBatch10_8threads() {
+        return this.allocator.nextIds(STORE_ID, ENTITY_TYPE, 10);
+    }
+
+    static final class SimulatedRangeSource implements IdRangeSource {
+        private final long roundTripNanos;
+        private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+        SimulatedRangeSource(long roundTripMicros) {
+            this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        }
+
+        @Override
+        public IdRange reserve(int storeId, String entityType, int size) {
+            LockSupport.parkNanos(this.roundTripNanos);
+            var sequence = this.sequences.computeIfAbsent(storeId + "_" + entityType, key -> new AtomicLong(1));
+            var end = sequence.addAndGet(size);
+            return new IdRange(end - size, end);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.idgenerator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cấp id theo block (hi/lo) cho từng cặp (storeId, entityType).
+ * - Fast path: lấy id trong block hiện tại bằng CAS, không lock, không round trip DB
+ * - Khi số id còn lại <= refillThreshold: reserve block kế tiếp ở background
+ * - Khi block hiện tại hết: đổi sang block đã prefetch (hoặc reserve đồng bộ nếu chưa có)
+ * Id có thể có khoảng trống (block bị bỏ dở khi restart), nhưng không bao giờ trùng.
+ */
+public final class BlockIdAllocator implements AutoCloseable {
+
+    /**
+     * Dùng cho các generator không nhận storeId: 1 dải id chung cho tất cả store
+     */
+    public static final int GLOBAL_STORE_ID = 0;
+
+    private final IdRangeSource rangeSource;
+    private final int blockSize;
+    private final int refillThreshold;
+    private final ExecutorService refillExecutor;
+
+    private final ConcurrentHashMap<SegmentKey, Segment> segments = new ConcurrentHashMap<>();
+
+    private BlockIdAllocator(Builder builder) {
+        this.rangeSource = builder.rangeSource;
+        this.blockSize = builder.blockSize;
+        this.refillThreshold = builder.refillThreshold >= 0
+                ? builder.refillThreshold
+                : Math.max(1, builder.blockSize / 5);
+        this.refillExecutor = builder.refillExecutor != null
+                ? builder.refillExecutor
+                : Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "id-block-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder builder(IdRangeSource rangeSource) {
+        return new Builder(rangeSource);
+    }
+
+    public int nextId(int storeId, String entityType) {
+        return Math.toIntExact(segment(storeId, entityType).allocate(1));
+    }
+
+    /**
+     * Trả về size id liên tiếp, đúng kiểu Deque mà các *IdGenerator đang dùng (caller removeFirst())
+     */
+    public Deque<Integer> nextIds(int storeId, String entityType, int size) {
+        var ids = new ArrayDeque<Integer>(Math.max(size, 0));
+        if (size <= 0) return ids;
+
+        long start;
+        if (size > this.blockSize) {
+            // request lớn hơn block => reserve riêng, không làm thủng block đang dùng
+            start = this.rangeSource.reserve(storeId, entityType, size).start();
+        } else {
+            start = segment(storeId, entityType).allocate(size);
+        }
+        for (long id = start; id < start + size; id++) {
+            ids.add(Math.toIntExact(id));
+        }
+        return ids;
+    }
+
+    private Segment segment(int storeId, String entityType) {
+        return this.segments.computeIfAbsent(
+                new SegmentKey(storeId, entityType),
+                key -> new Segment(key.storeId(), key.entityType()));
+    }
+
+    @Override
+    public void close() {
+        this.refillExecutor.shutdownNow();
+    }
+
+    private record SegmentKey(int storeId, String entityType) {
+    }
+
+    private static final class Block {
+        private final long end;
+        private final AtomicLong cursor;
+
+        Block(IdRange range) {
+            this.end = range.end();
+            this.cursor = new AtomicLong(range.start());
+        }
+
+        static final Block EMPTY = new Block(new IdRange(0, 0));
+    }
+
+    private final class Segment {
+        private final int storeId;
+        private final String entityType;
+
+        private volatile Block current = Block.EMPTY;
+        private final AtomicReference<CompletableFuture<IdRange>> next = new AtomicReference<>();
+
+        Segment(int storeId, String entityType) {
+            this.storeId = storeId;
+            this.entityType = entityType;
+        }
+
+        long allocate(int size) {
+            while (true) {
+                var block = this.current;
+                var start = block.cursor.getAndAdd(size);
+                var end = start + size;
+                if (end <= block.end) {
+                    if (block.end - end <= refillThreshold) {
+                        prefetch();
+                    }
+                    return start;
+                }
+                // block hết (phần dư cuối block bị bỏ qua), chỉ 1 thread được đổi block
+                switchBlock(block);
+            }
+        }
+
+        private void prefetch() {
+            if (this.next.get() != null) return;
+            var future = new CompletableFuture<IdRange>();
+            if (!this.next.compareAndSet(null, future)) return;
+            try {
+                refillExecutor.execute(() -> {
+                    try {
+                        future.complete(rangeSource.reserve(this.storeId, this.entityType, blockSize));
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // executor đã shutdown/đầy => để nhánh switchBlock reserve đồng bộ
+                future.completeExceptionally(e);
+            }
+        }
+
+        private synchronized void switchBlock(Block exhausted) {
+            if (this.current != exhausted) return;
+
+            IdRange range = null;
+            var prefetched = this.next.getAndSet(null);
+            if (prefetched != null) {
+                try {
+                    range = prefetched.join();
+                } catch (CompletionException | CancellationException ignored) {
+                    // prefetch lỗi => fallback reserve đồng bộ
+                }
+            }
+            if (range == null) {
+                range = rangeSource.reserve(this.storeId, this.entityType, blockSize);
+            }
+            this.current = new Block(range);
+        }
+    }
+
+    public static final class Builder {
+        private final IdRangeSource rangeSource;
+        private int blockSize = 1000;
+        private int refillThreshold = -1;
+        private ExecutorService refillExecutor;
+
+        private Builder(IdRangeSource rangeSource) {
+            this.rangeSource = Objects.requireNonNull(rangeSource, "rangeSource");
+        }
+
+        public Builder blockSize(int blockSize) {
+            if (blockSize <= 0) {
+                throw new IllegalArgumentException("blockSize must be greater than 0");
+            }
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        /**
+         * Số id còn lại trong block thì bắt đầu prefetch block kế tiếp. Mặc định 20% blockSize
+         */
+        public Builder refillThreshold(int refillThreshold) {
+            this.refillThreshold = refillThreshold;
+            return this;
+        }
+
+        public Builder refillExecutor(ExecutorService refillExecutor) {
+            this.refillExecutor = refillExecutor;
+            return this;
+        }
+
+        public BlockIdAllocator build() {
+            if (this.refillThreshold >= this.blockSize) {
+                throw new IllegalArgumentException("refillThreshold must be less than blockSize");
+            }
+            return new BlockIdAllocator(this);
+        }
+    }
+}
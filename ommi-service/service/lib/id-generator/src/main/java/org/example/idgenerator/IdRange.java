@@ -0,0 +1,17 @@
+package org.example.idgenerator;
+
+/**
+ * Khoảng id đã được reserve: [start, end)
+ */
+public record IdRange(long start, long end) {
+
+    public IdRange {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("invalid id range [%s, %s)".formatted(start, end));
+        }
+    }
+
+    public int size() {
+        return Math.toIntExact(end - start);
+    }
+}
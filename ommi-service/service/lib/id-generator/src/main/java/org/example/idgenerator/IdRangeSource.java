@@ -0,0 +1,10 @@
+package org.example.idgenerator;
+
+/**
+ * Nguồn cấp id (sequence table, redis, ...).
+ * Mỗi lần gọi phải trả về một khoảng id chưa từng được cấp cho (storeId, entityType)
+ */
+public interface IdRangeSource {
+
+    IdRange reserve(int storeId, String entityType, int size);
+}
@@ -0,0 +1,117 @@
+package org.example.idgenerator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Set;
+
+/**
+ * Reserve id theo block trên bảng id_blocks (store_id, entity_type, next_value), khoá chính (store_id, entity_type).
+ * Bảng do service dùng lib tạo qua entity IdBlock (infrastructure.data.schema, ddl-auto).
+ * Mỗi lần reserve là 1 transaction riêng (không tham gia transaction của caller),
+ * nên block đã cấp sẽ không bị rollback theo nghiệp vụ => chấp nhận id có khoảng trống.
+ */
+public class JdbcIdRangeSource implements IdRangeSource {
+
+    private static final String UPDATE_SQL = """
+            UPDATE id_blocks SET next_value = next_value + ?
+            WHERE store_id = ? AND entity_type = ?
+            """;
+    private static final String SELECT_SQL = """
+            SELECT next_value FROM id_blocks
+            WHERE store_id = ? AND entity_type = ?
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO id_blocks (store_id, entity_type, next_value) VALUES (?, ?, ?)
+            """;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Set<Integer> SQL_SERVER_DUPLICATE_KEY_CODES = Set.of(2627, 2601);
+    private static final int SQL_SERVER_DEADLOCK_CODE = 1205;
+
+    private final DataSource dataSource;
+
+    public JdbcIdRangeSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public IdRange reserve(int storeId, String entityType, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        SQLException lastException = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try (var connection = this.dataSource.getConnection()) {
+                var autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    var range = reserve(connection, storeId, entityType, size);
+                    connection.commit();
+                    return range;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                // 2 node cùng insert row đầu tiên => 1 bên bị duplicate key, thử lại sẽ đi nhánh update.
+                // Deadlock / serialization failure cũng thử lại, lỗi khác (mất kết nối, sai bảng, ...) trả ngay
+                if (!isDuplicateKey(e) && !isDeadlock(e)) {
+                    throw new IllegalStateException(
+                            "Unable to reserve %s ids for store %s, entity %s".formatted(size, storeId, entityType), e);
+                }
+                lastException = e;
+            }
+        }
+        throw new IllegalStateException(
+                "Unable to reserve %s ids for store %s, entity %s".formatted(size, storeId, entityType),
+                lastException);
+    }
+
+    /**
+     * Chỉ câu insert row đầu tiên có thể vi phạm khoá chính
+     */
+    private static boolean isDuplicateKey(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || "23505".equals(e.getSQLState())
+                || SQL_SERVER_DUPLICATE_KEY_CODES.contains(e.getErrorCode());
+    }
+
+    private static boolean isDeadlock(SQLException e) {
+        return "40001".equals(e.getSQLState()) || e.getErrorCode() == SQL_SERVER_DEADLOCK_CODE;
+    }
+
+    private IdRange reserve(Connection connection, int storeId, String entityType, int size) throws SQLException {
+        try (var update = connection.prepareStatement(UPDATE_SQL)) {
+            update.setLong(1, size);
+            update.setInt(2, storeId);
+            update.setString(3, entityType);
+            if (update.executeUpdate() == 0) {
+                // id bắt đầu từ 1
+                var end = 1L + size;
+                try (var insert = connection.prepareStatement(INSERT_SQL)) {
+                    insert.setInt(1, storeId);
+                    insert.setString(2, entityType);
+                    insert.setLong(3, end);
+                    insert.executeUpdate();
+                }
+                return new IdRange(1L, end);
+            }
+        }
+        // row đã bị lock bởi câu update phía trên nên giá trị đọc được là của transaction này
+        try (var select = connection.prepareStatement(SELECT_SQL)) {
+            select.setInt(1, storeId);
+            select.setString(2, entityType);
+            try (var resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new SQLException("id block row disappeared for store %s, entity %s".formatted(storeId, entityType));
+                }
+                var end = resultSet.getLong(1);
+                return new IdRange(end - size, end);
+            }
+        }
+    }
+}
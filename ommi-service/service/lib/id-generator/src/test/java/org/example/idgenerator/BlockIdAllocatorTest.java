@@ -0,0 +1,181 @@
+package org.example.idgenerator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BlockIdAllocator với nguồn id trong bộ nhớ: đổi block, prefetch, id trống khi bỏ dở block, nhiều thread
+ */
+public class BlockIdAllocatorTest {
+
+    private static final int STORE_ID = 1;
+    private static final String ENTITY_TYPE = "order";
+
+    private BlockIdAllocator allocator;
+
+    @AfterEach
+    public void tearDown() {
+        if (this.allocator != null) this.allocator.close();
+    }
+
+    @Test
+    public void ids_are_contiguous_across_block_rollover() {
+        var source = new InMemoryRangeSource();
+        this.allocator = BlockIdAllocator.builder(source).blockSize(10).refillThreshold(2).build();
+
+        var ids = IntStream.range(0, 35).map(i -> this.allocator.nextId(STORE_ID, ENTITY_TYPE)).boxed().toList();
+
+        assertEquals(IntStream.rangeClosed(1, 35).boxed().toList(), ids);
+        // block [31, 41) còn nhiều hơn refillThreshold => chưa prefetch block thứ 5
+        assertEquals(4, source.reservations.size());
+        assertTrue(source.reservations.stream().allMatch(range -> range.size() == 10));
+    }
+
+    @Test
+    public void batch_that_does_not_fit_skips_rest_of_block() {
+        var source = new InMemoryRangeSource();
+        this.allocator = BlockIdAllocator.builder(source).blockSize(10).refillThreshold(1).build();
+
+        var first = this.allocator.nextIds(STORE_ID, ENTITY_TYPE, 8);
+        var second = this.allocator.nextIds(STORE_ID, ENTITY_TYPE, 5);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), new ArrayList<>(first));
+        // id 9, 10 bị bỏ (khoảng trống), batch lấy liên tiếp từ block kế tiếp
+        assertEquals(List.of(11, 12, 13, 14, 15), new ArrayList<>(second));
+    }
+
+    @Test
+    public void batch_larger_than_block_is_reserved_separately() {
+        var source = new InMemoryRangeSource();
+        this.allocator = BlockIdAllocator.builder(source).blockSize(10).refillThreshold(1).build();
+
+        assertEquals(1, this.allocator.nextId(STORE_ID, ENTITY_TYPE));
+        var large = new ArrayList<>(this.allocator.nextIds(STORE_ID, ENTITY_TYPE, 25));
+
+        assertEquals(IntStream.range(11, 36).boxed().toList(), large);
+        // block đang dùng không bị ảnh hưởng
+        assertEquals(2, this.allocator.nextId(STORE_ID, ENTITY_TYPE));
+    }
+
+    @Test
+    public void stores_and_entity_types_have_separate_sequences() {
+        var source = new InMemoryRangeSource();
+        this.allocator = BlockIdAllocator.builder(source).blockSize(10).build();
+
+        assertEquals(1, this.allocator.nextId(1, "order"));
+        assertEquals(1, this.allocator.nextId(2, "order"));
+        assertEquals(1, this.allocator.nextId(1, "line_item"));
+        assertEquals(2, this.allocator.nextId(1, "order"));
+    }
+
+    @Test
+    public void failed_prefetch_falls_back_to_synchronous_reserve() {
+        var source = new InMemoryRangeSource();
+        this.allocator = BlockIdAllocator.builder(source).blockSize(10).refillThreshold(5).build();
+        assertEquals(1, this.allocator.nextId(STORE_ID, ENTITY_TYPE));
+
+        // prefetch tiếp theo lỗi
+        source.failures.set(1);
+        var ids = IntStream.range(0, 15).map(i -> this.allocator.nextId(STORE_ID, ENTITY_TYPE)).boxed().toList();
+
+        assertEquals(IntStream.rangeClosed(2, 16).boxed().toList(), ids);
+    }
+
+    @Test
+    public void reserve_error_without_prefetch_is_propagated() {
+        var source = new InMemoryRangeSource();
+        source.failures.set(1);
+        this.allocator = BlockIdAllocator.builder(source).blockSize(10).build();
+
+        assertThrows(IllegalStateException.class, () -> this.allocator.nextId(STORE_ID, ENTITY_TYPE));
+        assertEquals(1, this.allocator.nextId(STORE_ID, ENTITY_TYPE));
+    }
+
+    @Test
+    public void concurrent_allocation_never_returns_duplicate_ids() throws Exception {
+        var source = new InMemoryRangeSource();
+        this.allocator = BlockIdAllocator.builder(source).blockSize(100).build();
+        var threads = 16;
+        var idsPerThread = 5_000;
+
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        var duplicates = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                var batch = thread % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; ) {
+                        if (batch) {
+                            for (var id : this.allocator.nextIds(STORE_ID, ENTITY_TYPE, 7)) {
+                                if (!ids.add(id)) duplicates.incrementAndGet();
+                            }
+                            i += 7;
+                        } else {
+                            if (!ids.add(this.allocator.nextId(STORE_ID, ENTITY_TYPE))) duplicates.incrementAndGet();
+                            i++;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, duplicates.get());
+        // luồng batch lấy 715 lần x 7 id
+        assertEquals(threads / 2 * 5_005 + threads / 2 * idsPerThread, ids.size());
+        // mọi id đều nằm trong block đã reserve, các block không chồng nhau
+        var reservations = new ArrayList<>(source.reservations);
+        reservations.sort((a, b) -> Long.compare(a.start(), b.start()));
+        for (int i = 1; i < reservations.size(); i++) {
+            assertTrue(reservations.get(i - 1).end() <= reservations.get(i).start());
+        }
+        var reservedEnd = reservations.get(reservations.size() - 1).end();
+        assertTrue(ids.stream().allMatch(id -> id >= 1 && id < reservedEnd));
+    }
+
+    /**
+     * Nguồn id tuần tự trong bộ nhớ, ghi lại các khoảng đã reserve, có thể lỗi n lần
+     */
+    private static final class InMemoryRangeSource implements IdRangeSource {
+        private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final List<IdRange> reservations = new CopyOnWriteArrayList<>();
+
+        @Override
+        public IdRange reserve(int storeId, String entityType, int size) {
+            if (this.failures.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                throw new IllegalStateException("source unavailable");
+            }
+            var start = this.sequences.computeIfAbsent(storeId + "_" + entityType, key -> new AtomicLong(1)).getAndAdd(size);
+            var range = new IdRange(start, start + size);
+            this.reservations.add(range);
+            return range;
+        }
+    }
+}
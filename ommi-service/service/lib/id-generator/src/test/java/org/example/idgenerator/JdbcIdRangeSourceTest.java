@@ -0,0 +1,136 @@
+package org.example.idgenerator;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JdbcIdRangeSource trên H2 (pool connection), bảng id_blocks giống entity IdBlock của các service
+ */
+public class JdbcIdRangeSourceTest {
+
+    private JdbcConnectionPool dataSource;
+    private JdbcIdRangeSource rangeSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        this.dataSource.setMaxConnections(16);
+        try (var connection = this.dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE id_blocks (
+                        store_id    INT         NOT NULL,
+                        entity_type VARCHAR(50) NOT NULL,
+                        next_value  BIGINT      NOT NULL,
+                        PRIMARY KEY (store_id, entity_type)
+                    )
+                    """);
+        }
+        this.rangeSource = new JdbcIdRangeSource(this.dataSource);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.dataSource.dispose();
+    }
+
+    @Test
+    public void first_reserve_starts_at_one_and_later_reserves_continue() {
+        assertEquals(new IdRange(1, 11), this.rangeSource.reserve(1, "order", 10));
+        assertEquals(new IdRange(11, 16), this.rangeSource.reserve(1, "order", 5));
+        assertEquals(new IdRange(16, 1016), this.rangeSource.reserve(1, "order", 1000));
+    }
+
+    @Test
+    public void stores_and_entity_types_have_separate_rows() {
+        assertEquals(new IdRange(1, 11), this.rangeSource.reserve(1, "order", 10));
+        assertEquals(new IdRange(1, 11), this.rangeSource.reserve(2, "order", 10));
+        assertEquals(new IdRange(1, 11), this.rangeSource.reserve(1, "line_item", 10));
+        assertEquals(new IdRange(11, 21), this.rangeSource.reserve(1, "order", 10));
+    }
+
+    @Test
+    public void invalid_size_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> this.rangeSource.reserve(1, "order", 0));
+    }
+
+    @Test
+    public void errors_other_than_duplicate_key_or_deadlock_are_not_retried() throws SQLException {
+        try (var connection = this.dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("DROP TABLE id_blocks");
+        }
+        var connections = new AtomicInteger();
+        var countingDataSource = (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) connections.incrementAndGet();
+                    return method.invoke(this.dataSource, args);
+                });
+
+        var e = assertThrows(IllegalStateException.class, () -> new JdbcIdRangeSource(countingDataSource).reserve(1, "order", 10));
+
+        assertEquals(1, connections.get());
+        assertInstanceOf(SQLException.class, e.getCause());
+    }
+
+    /**
+     * Nhiều node cùng reserve (kể cả lần insert row đầu tiên): các khoảng không chồng nhau, không mất id nào
+     */
+    @Test
+    public void concurrent_reserves_never_overlap() throws Exception {
+        var threads = 8;
+        var reservesPerThread = 50;
+        var size = 10;
+        List<IdRange> ranges = new CopyOnWriteArrayList<>();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                // mỗi thread 1 instance, giống nhiều node dùng chung DB
+                var source = new JdbcIdRangeSource(this.dataSource);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < reservesPerThread; i++) {
+                        ranges.add(source.reserve(1, "order", size));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(IdRange::start));
+        assertEquals(threads * reservesPerThread, sorted.size());
+        var expectedStart = 1L;
+        for (var range : sorted) {
+            assertEquals(expectedStart, range.start());
+            assertEquals(size, range.size());
+            expectedStart = range.end();
+        }
+    }
+}
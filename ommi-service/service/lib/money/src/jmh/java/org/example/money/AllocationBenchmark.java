@@ -0,0 +1,82 @@
+package org.example.money;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chia 1 khoản giảm giá/thuế cho lineCount line:
+ * - bigDecimal*: công thức BigDecimal trước MoneyMath (line cuối nhận phần dư)
+ * - long*: MoneyMath.allocate (largest remainder) trên đơn vị nhỏ nhất của currency (cách OrderWriteService /
+ * CombinationCalculateService đang gọi)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AllocationBenchmark {
+
+    private static final Currency VND = Currency.getInstance("VND");
+
+    @Param({"3", "20", "200"})
+    public int lineCount;
+
+    private BigDecimal total;
+    private List<BigDecimal> prices;
+    private long totalMinor;
+    private long[] weights;
+    private long[] out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        this.prices = new ArrayList<>(this.lineCount);
+        this.weights = new long[this.lineCount];
+        this.out = new long[this.lineCount];
+        for (int i = 0; i < this.lineCount; i++) {
+            var price = 1_000L * (1 + random.nextInt(5_000));
+            this.prices.add(BigDecimal.valueOf(price));
+            this.weights[i] = price;
+        }
+        this.totalMinor = 123_457;
+        this.total = BigDecimal.valueOf(this.totalMinor);
+    }
+
+    @Benchmark
+    public List<BigDecimal> bigDecimal_lastAbsorbsRemainder() {
+        var totalPrice = this.prices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<BigDecimal> result = new ArrayList<>(this.lineCount);
+        var allocated = BigDecimal.ZERO;
+        for (int i = 0; i < this.lineCount; i++) {
+            BigDecimal amount;
+            if (i == this.lineCount - 1) {
+                amount = this.total.subtract(allocated);
+            } else {
+                amount = this.prices.get(i).multiply(this.total)
+                        .divide(totalPrice, MoneyMath.scaleOf(VND), RoundingMode.HALF_UP);
+                allocated = allocated.add(amount);
+            }
+            result.add(amount);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long[] long_largestRemainder() {
+        MoneyMath.allocate(this.totalMinor, this.weights, this.out);
+        return this.out;
+    }
+
+    /**
+     * Bao gồm chuyển đổi BigDecimal <-> long ở biên, giống cách service gọi
+     */
+    @Benchmark
+    public List<BigDecimal> long_largestRemainderWithConversion() {
+        return MoneyMath.allocate(this.total, this.prices, VND);
+    }
+}
@@ -0,0 +1,245 @@
+package org.example.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Tính tiền bằng long theo đơn vị nhỏ nhất của currency (VND: 1 đồng, USD: 1 cent).
+ * - Các hàm trên long không tạo object (chỉ fallback sang BigInteger khi tích bị tràn long)
+ * - Phân bổ theo tỉ lệ bằng largest remainder: tổng các phần luôn đúng bằng tổng cần chia,
+ * mỗi phần lệch tỉ lệ chính xác dưới 1 đơn vị, phần dư ưu tiên phần có số dư lớn hơn rồi tới phần đứng trước.
+ * Không dồn phần dư cho 1 phần (phần đó có thể lệch tới số phần - 1 đơn vị, thậm chí âm)
+ * - Các hàm nhận/trả BigDecimal chỉ dùng ở biên (request, entity)
+ */
+public final class MoneyMath {
+
+    private MoneyMath() {
+    }
+
+    public static int scaleOf(Currency currency) {
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+
+    /**
+     * amount làm tròn HALF_UP về đơn vị nhỏ nhất của currency
+     */
+    public static long toMinor(BigDecimal amount, Currency currency) {
+        if (amount == null) return 0;
+        return amount.setScale(scaleOf(currency), RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor, Currency currency) {
+        return BigDecimal.valueOf(minor, scaleOf(currency));
+    }
+
+    /**
+     * value * numerator / denominator, làm tròn theo roundingMode
+     */
+    public static long multiplyDivide(long value, long numerator, long denominator, RoundingMode roundingMode) {
+        if (denominator == 0) throw new ArithmeticException("denominator is zero");
+        var high = Math.multiplyHigh(value, numerator);
+        var low = value * numerator;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divide(low, denominator, roundingMode);
+        }
+        return new BigDecimal(BigInteger.valueOf(value).multiply(BigInteger.valueOf(numerator)))
+                .divide(BigDecimal.valueOf(denominator), 0, roundingMode)
+                .longValueExact();
+    }
+
+    public static long divide(long value, long divisor, RoundingMode roundingMode) {
+        if (divisor == 0) throw new ArithmeticException("divisor is zero");
+        if (divisor == Long.MIN_VALUE) {
+            return BigDecimal.valueOf(value).divide(BigDecimal.valueOf(divisor), 0, roundingMode).longValueExact();
+        }
+        var quotient = value / divisor;
+        var remainder = value % divisor;
+        if (remainder == 0) return quotient;
+
+        // dấu của kết quả chính xác (quotient đang là kết quả cắt về phía 0)
+        int sign = (value < 0) == (divisor < 0) ? 1 : -1;
+        boolean increment = switch (roundingMode) {
+            case UNNECESSARY -> throw new ArithmeticException("rounding necessary");
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> sign < 0;
+            case CEILING -> sign > 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                var twiceRemainder = Math.abs(remainder) * 2;
+                var absDivisor = Math.abs(divisor);
+                // |remainder| < |divisor| nên chỉ tràn khi |divisor| > Long.MAX_VALUE / 2
+                int compare = twiceRemainder < 0 ? 1 : Long.compare(twiceRemainder, absDivisor);
+                if (compare != 0) yield compare > 0;
+                yield switch (roundingMode) {
+                    case HALF_UP -> true;
+                    case HALF_DOWN -> false;
+                    default -> (quotient & 1) != 0;
+                };
+            }
+        };
+        return increment ? quotient + sign : quotient;
+    }
+
+    /**
+     * Chia total theo tỉ lệ weights (largest remainder), kết quả ghi vào out (cùng độ dài weights).
+     * weights không âm; tất cả weight = 0 => chia đều. total âm => chia |total| rồi đổi dấu
+     */
+    public static void allocate(long total, long[] weights, long[] out) {
+        int count = weights.length;
+        if (out.length != count) throw new IllegalArgumentException("out length must equal weights length");
+        if (count == 0) {
+            if (total != 0) throw new IllegalArgumentException("nothing to allocate " + total + " to");
+            return;
+        }
+        if (total < 0) {
+            if (total == Long.MIN_VALUE) throw new ArithmeticException("total overflow");
+            allocate(-total, weights, out);
+            for (int i = 0; i < count; i++) out[i] = -out[i];
+            return;
+        }
+
+        long weightSum = 0;
+        long maxWeight = 0;
+        for (var weight : weights) {
+            if (weight < 0) throw new IllegalArgumentException("weight must not be negative: " + weight);
+            weightSum += weight;
+            if (weightSum < 0) {
+                allocateExact(total, weights, out);
+                return;
+            }
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        boolean equalSplit = weightSum == 0;
+        if (equalSplit) {
+            weightSum = count;
+            maxWeight = 1;
+        }
+        if (Math.multiplyHigh(total, maxWeight) != 0 || total * maxWeight < 0) {
+            allocateExact(total, weights, out);
+            return;
+        }
+
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            var weight = equalSplit ? 1 : weights[i];
+            out[i] = total * weight / weightSum;
+            allocated += out[i];
+        }
+
+        // leftover < count: lần lượt cộng 1 cho phần có (số dư, -index) lớn nhất còn lại,
+        // chọn bằng cách so với phần vừa chọn nên không cần mảng phụ
+        long leftover = total - allocated;
+        long lastRemainder = Long.MAX_VALUE;
+        int lastIndex = -1;
+        for (long round = 0; round < leftover; round++) {
+            long bestRemainder = -1;
+            int bestIndex = -1;
+            for (int i = 0; i < count; i++) {
+                var weight = equalSplit ? 1 : weights[i];
+                var remainder = total * weight % weightSum;
+                boolean belowLast = remainder < lastRemainder || (remainder == lastRemainder && i > lastIndex);
+                if (belowLast && remainder > bestRemainder) {
+                    bestRemainder = remainder;
+                    bestIndex = i;
+                }
+            }
+            out[bestIndex]++;
+            lastRemainder = bestRemainder;
+            lastIndex = bestIndex;
+        }
+    }
+
+    public static long[] allocate(long total, long[] weights) {
+        var out = new long[weights.length];
+        allocate(total, weights, out);
+        return out;
+    }
+
+    /**
+     * Giống allocate(long, long[], long[]) nhưng tính bằng BigInteger, dùng khi total * weight tràn long
+     */
+    static void allocateExact(long total, long[] weights, long[] out) {
+        int count = weights.length;
+        var totalValue = BigInteger.valueOf(total);
+        var weightSum = BigInteger.ZERO;
+        for (var weight : weights) weightSum = weightSum.add(BigInteger.valueOf(weight));
+        boolean equalSplit = weightSum.signum() == 0;
+        if (equalSplit) weightSum = BigInteger.valueOf(count);
+
+        var remainders = new BigInteger[count];
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            var weight = BigInteger.valueOf(equalSplit ? 1 : weights[i]);
+            var division = totalValue.multiply(weight).divideAndRemainder(weightSum);
+            out[i] = division[0].longValueExact();
+            remainders[i] = division[1];
+            allocated += out[i];
+        }
+        long leftover = total - allocated;
+        for (long round = 0; round < leftover; round++) {
+            int bestIndex = -1;
+            for (int i = 0; i < count; i++) {
+                if (remainders[i] == null) continue;
+                if (bestIndex < 0 || remainders[i].compareTo(remainders[bestIndex]) > 0) bestIndex = i;
+            }
+            out[bestIndex]++;
+            remainders[bestIndex] = null;
+        }
+    }
+
+    /**
+     * Chia total (BigDecimal) theo tỉ lệ weights (largest remainder): total quy về đơn vị nhỏ nhất của currency,
+     * weights chỉ dùng tỉ lệ (không làm tròn theo currency)
+     */
+    public static List<BigDecimal> allocate(BigDecimal total, List<BigDecimal> weights, Currency currency) {
+        var scale = ratioScale(weights);
+        var out = new long[weights.size()];
+        allocate(toMinor(total, currency), unscaled(weights, scale), out);
+        return toDecimals(out, currency);
+    }
+
+    /**
+     * value * numerator / denominator, value quy về đơn vị nhỏ nhất của currency, numerator / denominator chỉ dùng tỉ lệ
+     */
+    public static BigDecimal multiplyDivide(
+            BigDecimal value,
+            BigDecimal numerator,
+            BigDecimal denominator,
+            RoundingMode roundingMode,
+            Currency currency
+    ) {
+        var scale = ratioScale(List.of(numerator, denominator));
+        return toDecimal(multiplyDivide(toMinor(value, currency), unscaled(numerator, scale), unscaled(denominator, scale), roundingMode), currency);
+    }
+
+    /**
+     * Scale nhỏ nhất để các giá trị đều là số nguyên. Nhân tất cả với cùng 10^scale không đổi tỉ lệ
+     */
+    private static int ratioScale(List<BigDecimal> weights) {
+        int scale = 0;
+        for (var weight : weights) {
+            scale = Math.max(scale, weight.stripTrailingZeros().scale());
+        }
+        return scale;
+    }
+
+    private static long unscaled(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    private static long[] unscaled(List<BigDecimal> values, int scale) {
+        var result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) result[i] = unscaled(values.get(i), scale);
+        return result;
+    }
+
+    private static List<BigDecimal> toDecimals(long[] values, Currency currency) {
+        List<BigDecimal> result = new ArrayList<>(values.length);
+        for (var value : values) result.add(toDecimal(value, currency));
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh MoneyMath (long) với cách tính tương ứng bằng BigDecimal/BigInteger trên dữ liệu sinh ngẫu nhiên (seed cố định)
+ */
+public class MoneyMathPropertyTest {
+
+    private static final int SAMPLES = 50_000;
+    private static final Currency VND = Currency.getInstance("VND");
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    public void divide_matches_big_decimal_for_every_rounding_mode() {
+        var random = new Random(1);
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            var value = sample % 10 == 0 ? random.nextLong() : random.nextInt(2_000_001) - 1_000_000L;
+            var divisor = random.nextInt(2_001) - 1_000L;
+            if (divisor == 0) divisor = Long.MAX_VALUE;
+            for (var mode : RoundingMode.values()) {
+                if (mode == RoundingMode.UNNECESSARY) continue;
+                var expected = new BigDecimal(value).divide(new BigDecimal(divisor), 0, mode).longValueExact();
+                assertEquals(expected, MoneyMath.divide(value, divisor, mode), value + " / " + divisor + " " + mode);
+            }
+        }
+    }
+
+    @Test
+    public void multiply_divide_matches_big_decimal_including_overflow() {
+        var random = new Random(2);
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            var value = random.nextInt(1_000_000_000) * (sample % 2 == 0 ? 1L : 1_000_000L);
+            var numerator = random.nextInt(1_000_000_000) * (sample % 3 == 0 ? 1_000L : 1L);
+            var denominator = numerator + random.nextInt(1_000) + 1;
+            var expected = new BigDecimal(BigInteger.valueOf(value).multiply(BigInteger.valueOf(numerator)))
+                    .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.FLOOR)
+                    .longValueExact();
+            assertEquals(expected, MoneyMath.multiplyDivide(value, numerator, denominator, RoundingMode.FLOOR));
+        }
+    }
+
+    @Test
+    public void allocate_matches_reference_and_preserves_total() {
+        var random = new Random(3);
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            var total = sample % 50 == 0
+                    ? random.nextLong() / 2
+                    : random.nextInt(20_000_001) - 10_000_000L;
+            var weights = new long[1 + random.nextInt(12)];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = switch (random.nextInt(5)) {
+                    case 0 -> 0;
+                    case 1 -> 1_000; // nhiều weight bằng nhau => kiểm tra thứ tự khi hoà
+                    case 2 -> Long.MAX_VALUE / 64;
+                    default -> random.nextInt(10_000_000);
+                };
+            }
+
+            var actual = MoneyMath.allocate(total, weights);
+            assertArrayEquals(reference(total, weights), actual, () -> total + " " + Arrays.toString(weights));
+
+            long sum = 0;
+            for (var value : actual) sum += value;
+            assertEquals(total, sum);
+            assertWithinOneUnit(total, weights, actual);
+        }
+    }
+
+    @Test
+    public void allocate_big_decimal_matches_reference() {
+        var random = new Random(4);
+        for (int sample = 0; sample < SAMPLES / 10; sample++) {
+            var currency = sample % 2 == 0 ? VND : USD;
+            var scale = MoneyMath.scaleOf(currency);
+            var total = BigDecimal.valueOf(random.nextInt(100_000_000), scale);
+            List<BigDecimal> weights = new ArrayList<>();
+            var minorWeights = new long[1 + random.nextInt(8)];
+            for (int i = 0; i < minorWeights.length; i++) {
+                minorWeights[i] = random.nextInt(5_000_000);
+                weights.add(BigDecimal.valueOf(minorWeights[i], scale));
+            }
+
+            // weight có scale khác currency: chỉ dùng tỉ lệ
+            if (sample % 3 == 0) weights.replaceAll(weight -> weight.movePointLeft(2));
+
+            var actual = MoneyMath.allocate(total, weights, currency);
+            var expected = reference(total.unscaledValue().longValueExact(), minorWeights);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(BigDecimal.valueOf(expected[i], scale), actual.get(i));
+            }
+            assertEquals(0, total.compareTo(actual.stream().reduce(BigDecimal.ZERO, BigDecimal::add)));
+        }
+    }
+
+    @Test
+    public void multiply_divide_big_decimal_matches_big_decimal_formula() {
+        var random = new Random(5);
+        for (int sample = 0; sample < SAMPLES / 10; sample++) {
+            var currency = sample % 2 == 0 ? VND : USD;
+            var scale = MoneyMath.scaleOf(currency);
+            var denominator = BigDecimal.valueOf(1 + random.nextInt(10_000_000), scale);
+            var value = BigDecimal.valueOf(random.nextInt(denominator.unscaledValue().intValueExact() + 1), scale);
+            // numerator có scale khác currency (vd thuế lưu 4 chữ số thập phân)
+            var numerator = BigDecimal.valueOf(random.nextInt(1_000_000_000), 4);
+
+            var expected = value.multiply(numerator).divide(denominator, scale, RoundingMode.FLOOR);
+            assertEquals(expected, MoneyMath.multiplyDivide(value, numerator, denominator, RoundingMode.FLOOR, currency),
+                    () -> value + " * " + numerator + " / " + denominator);
+        }
+    }
+
+    @Test
+    public void allocate_examples() {
+        assertArrayEquals(new long[]{34, 33, 33}, MoneyMath.allocate(100, new long[]{1, 1, 1}));
+        assertArrayEquals(new long[]{-34, -33, -33}, MoneyMath.allocate(-100, new long[]{1, 1, 1}));
+        assertArrayEquals(new long[]{5, 5}, MoneyMath.allocate(10, new long[]{0, 0}));
+        assertArrayEquals(new long[]{0, 10, 0}, MoneyMath.allocate(10, new long[]{0, 7, 0}));
+        assertArrayEquals(new long[]{33_333, 66_667}, MoneyMath.allocate(100_000, new long[]{100, 200}));
+    }
+
+    /**
+     * Largest remainder tính hoàn toàn bằng BigInteger
+     */
+    private static long[] reference(long total, long[] weights) {
+        var sign = BigInteger.valueOf(Long.signum(total));
+        var absTotal = BigInteger.valueOf(total).abs();
+        var weightSum = BigInteger.ZERO;
+        for (var weight : weights) weightSum = weightSum.add(BigInteger.valueOf(weight));
+        var equalSplit = weightSum.signum() == 0;
+        if (equalSplit) weightSum = BigInteger.valueOf(weights.length);
+
+        var shares = new BigInteger[weights.length];
+        var remainders = new BigInteger[weights.length];
+        var leftover = absTotal;
+        for (int i = 0; i < weights.length; i++) {
+            var weight = equalSplit ? BigInteger.ONE : BigInteger.valueOf(weights[i]);
+            var division = absTotal.multiply(weight).divideAndRemainder(weightSum);
+            shares[i] = division[0];
+            remainders[i] = division[1];
+            leftover = leftover.subtract(division[0]);
+        }
+        for (int round = 0; round < leftover.intValueExact(); round++) {
+            int best = -1;
+            for (int i = 0; i < weights.length; i++) {
+                if (remainders[i] != null && (best < 0 || remainders[i].compareTo(remainders[best]) > 0)) best = i;
+            }
+            shares[best] = shares[best].add(BigInteger.ONE);
+            remainders[best] = null;
+        }
+
+        var result = new long[weights.length];
+        for (int i = 0; i < weights.length; i++) result[i] = shares[i].multiply(sign).longValueExact();
+        return result;
+    }
+
+    private static void assertWithinOneUnit(long total, long[] weights, long[] actual) {
+        var weightSum = BigInteger.ZERO;
+        for (var weight : weights) weightSum = weightSum.add(BigInteger.valueOf(weight));
+        if (weightSum.signum() == 0) return;
+        for (int i = 0; i < weights.length; i++) {
+            var exact = new BigDecimal(BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i])))
+                    .divide(new BigDecimal(weightSum), 10, RoundingMode.HALF_UP);
+            var diff = exact.subtract(BigDecimal.valueOf(actual[i])).abs();
+            assertTrue(diff.compareTo(BigDecimal.ONE) < 0, "share " + i + " too far from " + exact);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.order.benchmark;
+
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.ShippingLine;
+import org.example.order.order.domain.order.model.VariantInfo;
+import org.example.order.order.domain.refund.model.OrderAdjustment;
+import org.example.order.order.domain.refund.model.Refund;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Order sinh từ OrderFixtures với số line / số lần hoàn tiền tuỳ ý
+ */
+public class BenchmarkOrders implements OrderFixtures {
+
+    private final int lineCount;
+    private final int refundCount;
+
+    public BenchmarkOrders(int lineCount, int refundCount) {
+        this.lineCount = lineCount;
+        this.refundCount = refundCount;
+    }
+
+    @Override
+    public List<LineItem> lineItems() {
+        List<LineItem> lineItems = new ArrayList<>(this.lineCount);
+        for (int i = 1; i <= this.lineCount; i++) {
+            lineItems.add(new LineItem(i, i % 5 + 1, unitPrice(i),
+                    VariantInfo.builder().variantId(i).productId(i).title("title" + i).build(),
+                    List.of(), List.of(), true, null, null, null
+            ));
+        }
+        return lineItems;
+    }
+
+    @Override
+    public List<ShippingLine> shippingLines() {
+        return List.of(new ShippingLine(1, "Giao hàng tiêu chuẩn", "standard", "manual", BigDecimal.valueOf(30_000)));
+    }
+
+    /**
+     * Order kèm refundCount lần hoàn phí ship trước đó
+     */
+    public Order order() {
+        var order = defaultOrder();
+        for (int i = 1; i <= this.refundCount; i++) {
+            var adjustments = new HashSet<OrderAdjustment>();
+            adjustments.add(new OrderAdjustment(i, BigDecimal.valueOf(100), BigDecimal.ZERO, OrderAdjustment.RefundKind.shipping_refund));
+            order.addRefund(new Refund(i, new HashSet<>(), adjustments, "refund " + i, Instant.now()));
+        }
+        return order;
+    }
+
+    public static BigDecimal unitPrice(int lineIndex) {
+        return BigDecimal.valueOf(9_900L * (lineIndex % 50 + 1));
+    }
+}
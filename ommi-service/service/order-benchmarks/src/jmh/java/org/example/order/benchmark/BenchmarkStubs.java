@@ -0,0 +1,48 @@
+package org.example.order.benchmark;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Stub cho các dependency I/O (dao, repository, client) để benchmark chỉ đo phần tính toán
+ */
+public final class BenchmarkStubs {
+
+    private BenchmarkStubs() {
+    }
+
+    /**
+     * Method trả List/Collection => rỗng, Optional => empty, primitive => 0/false, còn lại null
+     */
+    public static <T> T empty(Class<T> type) {
+        return answering(type, Map.of());
+    }
+
+    /**
+     * Như empty, riêng method có tên trong answers trả về answer(args)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T answering(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            var answer = answers.get(method.getName());
+            if (answer != null) return answer.apply(args);
+            var returnType = method.getReturnType();
+            if (returnType == List.class || returnType == Collection.class) return List.of();
+            if (returnType == Optional.class) return Optional.empty();
+            if (returnType.isPrimitive() && returnType != void.class) return Array.get(Array.newInstance(returnType, 1), 0);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.order.order.application.service.combination;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.benchmark.BenchmarkOrders;
+import org.example.order.order.application.model.combination.request.CombinationCalculateRequest;
+import org.example.order.order.application.model.combination.request.CombinationLineItemRequest;
+import org.example.order.order.application.model.combination.request.ComboPacksizeDiscountAllocations;
+import org.example.order.order.application.model.combination.response.CombinationCalculateResponse;
+import org.example.order.order.application.model.draftorder.response.CalculateProductInfo;
+import org.example.order.order.application.service.draftorder.Combo;
+import org.example.order.order.application.service.draftorder.ComboItem;
+import org.example.order.order.application.service.draftorder.ProductResponse;
+import org.example.order.order.application.service.draftorder.VariantResponse;
+import org.example.order.order.domain.draftorder.model.VariantType;
+import org.example.order.order.infrastructure.configuration.CombinationExpansionCacheProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CombinationCalculateService.calculate với lineCount line combo (mỗi combo componentCount sản phẩm con),
+ * mỗi line có discountCount discount allocation. Product info dựng sẵn (không gọi SapoClient).
+ * expansionCache = true: từ lần thứ 2 template component lấy từ CombinationExpansionCache, chỉ còn tính lại số lượng, giá và chia discount
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CombinationCalculateBenchmark {
+
+    private static final int COMBO_VARIANT_OFFSET = 100_000;
+
+    @Param({"10", "100"})
+    public int lineCount;
+
+    @Param({"3", "10"})
+    public int componentCount;
+
+    @Param({"1", "5"})
+    public int discountCount;
+
+    @Param({"false", "true"})
+    public boolean expansionCache;
+
+    private CombinationCalculateService combinationCalculateService;
+    private CombinationCalculateRequest request;
+    private CalculateProductInfo productInfo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // calculate(request, productInfo) không dùng SapoBatchLoader/TaxHelper khi không tính thuế
+        var expansionCacheProperties = new CombinationExpansionCacheProperties();
+        expansionCacheProperties.setEnabled(this.expansionCache);
+        this.combinationCalculateService = new CombinationCalculateService(null, new CombinationMapperImpl(), null,
+                new CombinationExpansionCache(expansionCacheProperties, new SimpleMeterRegistry()));
+
+        var productMap = new HashMap<Integer, ProductResponse.Product>();
+        var variantMap = new HashMap<Integer, VariantResponse.Variant>();
+        var comboMap = new HashMap<Integer, Combo>();
+        List<CombinationLineItemRequest> lineItems = new ArrayList<>(this.lineCount);
+        for (int line = 1; line <= this.lineCount; line++) {
+            var comboVariantId = COMBO_VARIANT_OFFSET + line;
+            List<ComboItem> comboItems = new ArrayList<>(this.componentCount);
+            var comboPrice = BigDecimal.ZERO;
+            for (int component = 1; component <= this.componentCount; component++) {
+                var childId = line * 100 + component;
+                var comboItem = new ComboItem();
+                comboItem.setVariantId(childId);
+                comboItem.setProductId(childId);
+                comboItem.setTitle("component " + childId);
+                comboItem.setQuantity(BigDecimal.valueOf(component % 3 + 1));
+                comboItem.setPrice(component % 4 == 0 ? BigDecimal.ZERO : BenchmarkOrders.unitPrice(childId));
+                comboItem.setTaxable(true);
+                comboItems.add(comboItem);
+                comboPrice = comboPrice.add(comboItem.getPrice().multiply(comboItem.getQuantity()));
+                productMap.put(childId, ProductResponse.Product.builder().id(childId).name("product " + childId).build());
+            }
+            // giá combo thấp hơn tổng giá sản phẩm con để có phần dư khi chia
+            var price = comboPrice.multiply(new BigDecimal("0.93")).setScale(0, RoundingMode.DOWN);
+            comboMap.put(comboVariantId, Combo.builder().productId(comboVariantId).variantId(comboVariantId).price(price).comboItems(comboItems).build());
+            variantMap.put(comboVariantId, VariantResponse.Variant.builder()
+                    .id(comboVariantId).productId(comboVariantId).price(price).type(VariantType.combo).title("combo " + line).build());
+            productMap.put(comboVariantId, ProductResponse.Product.builder().id(comboVariantId).name("combo " + line).build());
+
+            List<ComboPacksizeDiscountAllocations> discountAllocations = new ArrayList<>(this.discountCount);
+            for (int discount = 1; discount <= this.discountCount; discount++) {
+                discountAllocations.add(ComboPacksizeDiscountAllocations.builder()
+                        .applicationId(discount)
+                        .amount(BigDecimal.valueOf(1_001L * discount))
+                        .build());
+            }
+            lineItems.add(CombinationLineItemRequest.builder()
+                    .variantId(comboVariantId)
+                    .productId(comboVariantId)
+                    .title("combo " + line)
+                    .type(VariantType.combo)
+                    .quantity(BigDecimal.valueOf(line % 3 + 1))
+                    .discountAllocations(discountAllocations)
+                    .build());
+        }
+
+        this.request = CombinationCalculateRequest.builder()
+                .updateProductInfo(true)
+                .lineItems(lineItems)
+                .build();
+        this.productInfo = CalculateProductInfo.builder()
+                .productMap(productMap)
+                .variantMap(variantMap)
+                .comboMap(comboMap)
+                .remainderUnit(BigDecimal.ONE.movePointRight(2))
+                .build();
+    }
+
+    @Benchmark
+    public CombinationCalculateResponse calculate() {
+        return this.combinationCalculateService.calculate(this.request, this.productInfo);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.order.order.application.service.order;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.example.order.benchmark.BenchmarkOrders;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.application.model.order.request.OrderCreateRequest;
+import org.example.order.order.domain.order.model.DiscountAllocation;
+import org.example.order.order.domain.order.model.DiscountApplication;
+import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.model.OrderDiscountCode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phân bổ giảm giá và thuế khi tạo order (OrderWriteService.allocateDiscounts / handleTaxLineOrderRequest).
+ * discountCount line có giảm giá riêng, cộng thêm 1 mã giảm giá toàn order khi discountCount > 0.
+ * 2 method là private => gọi qua MethodHandle (static final để JIT inline như gọi trực tiếp)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderCreatePricingBenchmark {
+
+    private static final Currency VND = Currency.getInstance("VND");
+
+    private static final MethodHandle ALLOCATE_DISCOUNTS;
+    private static final MethodHandle HANDLE_TAX_LINE_ORDER_REQUEST;
+
+    static {
+        try {
+            var lookup = MethodHandles.privateLookupIn(OrderWriteService.class, MethodHandles.lookup());
+            ALLOCATE_DISCOUNTS = lookup.findVirtual(OrderWriteService.class, "allocateDiscounts",
+                    MethodType.methodType(Pair.class, boolean.class, List.class, List.class, List.class, OrderCreateRequest.class, Currency.class));
+            HANDLE_TAX_LINE_ORDER_REQUEST = lookup.findVirtual(OrderWriteService.class, "handleTaxLineOrderRequest",
+                    MethodType.methodType(void.class, OrderCreateRequest.class, List.class, Currency.class, List.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"10", "100", "500"})
+    public int lineCount;
+
+    @Param({"0", "5", "50"})
+    public int discountCount;
+
+    private OrderWriteService orderWriteService;
+    private List<LineItem> lineItems;
+    private List<OrderDiscountCode> discountCodes;
+    private OrderCreateRequest orderRequest;
+    private List<DiscountAllocation> discountAllocations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        // 2 method được đo chỉ dùng idGenerator
+        this.orderWriteService = new OrderWriteService(
+                OrderFixtures.idGenerator,
+                null, null, null,
+                null, null, null,
+                null,
+                null, null, null,
+                null, null,
+                null, null
+        );
+
+        this.lineItems = new BenchmarkOrders(this.lineCount, 0).lineItems();
+        List<OrderCreateRequest.LineItemRequest> lineItemRequests = new ArrayList<>(this.lineCount);
+        for (int i = 0; i < this.lineCount; i++) {
+            var lineItem = this.lineItems.get(i);
+            lineItemRequests.add(OrderCreateRequest.LineItemRequest.builder()
+                    .variantId(lineItem.getVariantInfo().getVariantId())
+                    .price(lineItem.getPrice())
+                    .quantity(lineItem.getQuantity())
+                    .totalDiscount(i < this.discountCount ? BigDecimal.valueOf(1_000L * (i % 7 + 1)) : null)
+                    .build());
+        }
+        this.orderRequest = OrderCreateRequest.builder()
+                .lineItems(lineItemRequests)
+                .taxLines(List.of(
+                        OrderCreateRequest.TaxLineRequest.builder().title("VAT").rate(new BigDecimal("0.08")).price(BigDecimal.valueOf(123_457)).build(),
+                        OrderCreateRequest.TaxLineRequest.builder().title("Phí môi trường").rate(new BigDecimal("0.01")).price(BigDecimal.valueOf(15_001)).build()
+                ))
+                .build();
+
+        this.discountCodes = this.discountCount == 0
+                ? List.of()
+                : List.of(new OrderDiscountCode(1, "SALE", BigDecimal.valueOf(50_000), OrderDiscountCode.ValueType.fixed_amount, false));
+
+        this.discountAllocations = this.allocateDiscounts().getRight();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Pair<List<DiscountApplication>, List<DiscountAllocation>> allocateDiscounts() throws Throwable {
+        return (Pair<List<DiscountApplication>, List<DiscountAllocation>>) ALLOCATE_DISCOUNTS.invokeExact(
+                this.orderWriteService, false, this.discountCodes, this.lineItems, List.of(), this.orderRequest, VND);
+    }
+
+    @Benchmark
+    public void handleTaxLineOrderRequest(Blackhole blackhole) throws Throwable {
+        HANDLE_TAX_LINE_ORDER_REQUEST.invokeExact(this.orderWriteService, this.orderRequest, this.lineItems, VND, this.discountAllocations);
+        blackhole.consume(this.lineItems);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.order.order.application.service.order;
+
+import org.example.AdminClient;
+import org.example.order.benchmark.BenchmarkOrders;
+import org.example.order.benchmark.BenchmarkStubs;
+import org.example.order.order.application.model.refund.request.RefundRequest;
+import org.example.order.order.application.model.refund.response.RefundCalculationResponse;
+import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.refund.model.RefundLineItem;
+import org.example.order.order.domain.transaction.persistence.TransactionRepository;
+import org.example.order.order.infrastructure.data.dao.ProductDao;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RefundCalculationService.calculateRefund: hoàn 1 phần số lượng của mọi line + 1 phần phí ship,
+ * order đã có refundCount lần hoàn trước đó
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RefundCalculationBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int lineCount;
+
+    @Param({"0", "10", "50"})
+    public int refundCount;
+
+    private RefundCalculationService refundCalculationService;
+    private Order order;
+    private RefundRequest refundRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.refundCalculationService = new RefundCalculationService(
+                BenchmarkStubs.empty(AdminClient.class),
+                BenchmarkStubs.empty(ProductDao.class),
+                BenchmarkStubs.empty(FulfillmentOrderRepository.class),
+                BenchmarkStubs.empty(TransactionRepository.class)
+        );
+
+        this.order = new BenchmarkOrders(this.lineCount, this.refundCount).order();
+
+        List<RefundRequest.LineItem> refundLineItems = new ArrayList<>(this.lineCount);
+        for (var lineItem : this.order.getLineItems()) {
+            refundLineItems.add(RefundRequest.LineItem.builder()
+                    .lineItemId(lineItem.getId())
+                    .quantity(Math.max(1, lineItem.getQuantity() / 2))
+                    .restockType(RefundLineItem.RestockType.no_restock)
+                    .build());
+        }
+        this.refundRequest = new RefundRequest();
+        this.refundRequest.setRefundLineItems(refundLineItems);
+        this.refundRequest.setShipping(new RefundRequest.Shipping().setAmount(BigDecimal.valueOf(10_000)));
+        // chỉ tính toán, giống /refunds/calculate
+        this.refundRequest.setOption(new RefundRequest.Option(false, false));
+    }
+
+    @Benchmark
+    public RefundCalculationResponse calculateRefund() {
+        return this.refundCalculationService.calculateRefund(this.order, this.refundRequest);
+    }
+}
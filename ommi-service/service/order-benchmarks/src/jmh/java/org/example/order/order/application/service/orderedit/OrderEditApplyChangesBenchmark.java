@@ -0,0 +1,213 @@
+package org.example.order.order.application.service.orderedit;
+
+import org.example.AdminClient;
+import org.example.location.Location;
+import org.example.order.benchmark.BenchmarkOrders;
+import org.example.order.benchmark.BenchmarkStubs;
+import org.example.order.order.application.model.draftorder.TaxSetting;
+import org.example.order.order.application.model.draftorder.TaxSettingValue;
+import org.example.order.order.application.model.orderedit.request.OrderEditRequest;
+import org.example.order.order.application.service.draftorder.TaxHelper;
+import org.example.order.order.domain.edit.model.AddedLineItem;
+import org.example.order.order.domain.edit.model.OrderEdit;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.domain.edit.persistence.OrderEditRepository;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.data.dao.ProductDao;
+import org.example.order.order.infrastructure.data.dto.ProductDto;
+import org.example.order.order.infrastructure.data.dto.VariantDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sửa 1 order edit với changeCount thao tác: 1/2 thêm variant, 3/10 đổi số lượng line cũ, 1/5 giảm giá line đã thêm.
+ * - per_change: mỗi thao tác gọi API đơn lẻ tương ứng (load order edit, order, location, thuế lại mỗi lần)
+ * - bulk: OrderEditWriteService.applyChanges
+ * Dao/repository/client là stub trong bộ nhớ nên chỉ đo phần tính toán, chưa tính round trip DB/HTTP của per_change
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderEditApplyChangesBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final int ORDER_ID = 1;
+    private static final int EDIT_ID = 1;
+    private static final int LOCATION_ID = 1;
+
+    @Param({"20", "200", "2000"})
+    public int changeCount;
+
+    @Param({"per_change", "bulk"})
+    public String mode;
+
+    private OrderEditWriteService writeService;
+    private OrderEditId orderEditId;
+    private Order order;
+    private OrderEdit orderEdit;
+    private int addCount;
+    private int quantityCount;
+    private int discountCount;
+    private OrderEditRequest.ApplyChanges request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.addCount = this.changeCount / 2;
+        this.quantityCount = this.changeCount * 3 / 10;
+        this.discountCount = this.changeCount - this.addCount - this.quantityCount;
+
+        this.order = new BenchmarkOrders(this.quantityCount, 0).order();
+        this.orderEditId = new OrderEditId(STORE_ID, EDIT_ID);
+
+        var location = new Location();
+        location.setId(LOCATION_ID);
+        location.setDefaultLocation(true);
+
+        Map<String, Function<Object[], Object>> productAnswers = Map.of(
+                "findVariantByListId", args -> variants(castList(args[1])),
+                "findProductByListId", args -> products(castList(args[1])));
+        Map<String, Function<Object[], Object>> orderEditAnswers = Map.of(
+                "findById", args -> this.orderEdit);
+
+        var orderEditContext = new OrderEditContext(
+                BenchmarkStubs.answering(AdminClient.class, Map.of("locationFilter", args -> List.of(location))),
+                BenchmarkStubs.answering(ProductDao.class, productAnswers),
+                BenchmarkStubs.answering(OrderRepository.class, Map.of("findById", args -> this.order)),
+                BenchmarkStubs.answering(OrderEditRepository.class, orderEditAnswers),
+                BenchmarkStubs.answering(TaxHelper.class, Map.of("getTaxSetting", args -> taxSetting(castSet(args[2])))));
+        this.writeService = new OrderEditWriteService(
+                null,
+                BenchmarkStubs.answering(OrderRepository.class, Map.of("findById", args -> this.order)),
+                BenchmarkStubs.answering(OrderEditRepository.class, orderEditAnswers),
+                orderEditContext,
+                null,
+                null);
+    }
+
+    /**
+     * Order edit mới cho mỗi lần sửa, đã có discountCount line tự tạo để giảm giá
+     */
+    @Setup(Level.Invocation)
+    public void newOrderEdit() {
+        this.orderEdit = new OrderEdit(
+                this.orderEditId,
+                ORDER_ID,
+                Currency.getInstance("VND"),
+                BigDecimal.ZERO,
+                BigDecimal.ZERO,
+                BigDecimal.ZERO,
+                BigDecimal.ZERO,
+                BigDecimal.ZERO);
+
+        List<OrderEditRequest.Change> changes = new ArrayList<>(this.changeCount);
+        for (int i = 1; i <= this.addCount; i++) {
+            var addVariant = new OrderEditRequest.AddVariant();
+            addVariant.setVariantId(i % 50 + 1);
+            addVariant.setQuantity(BigDecimal.valueOf(i % 3 + 1));
+            changes.add(change(OrderEditRequest.ChangeType.add_variant, change -> change.setAddVariant(addVariant)));
+        }
+        for (var lineItem : this.order.getLineItems()) {
+            var setItemQuantity = new OrderEditRequest.SetItemQuantity();
+            setItemQuantity.setLineItemId(String.valueOf(lineItem.getId()));
+            setItemQuantity.setQuantity(BigDecimal.valueOf(lineItem.getFulfillableQuantity() + 1L));
+            changes.add(change(OrderEditRequest.ChangeType.set_item_quantity, change -> change.setSetItemQuantity(setItemQuantity)));
+        }
+        for (int i = 1; i <= this.discountCount; i++) {
+            var price = BenchmarkOrders.unitPrice(i);
+            var lineItem = new AddedLineItem(
+                    UUID.randomUUID(), null, null, LOCATION_ID, "custom " + i, null,
+                    true, true, false, BigDecimal.ONE, price);
+            this.orderEdit.addLineItem(lineItem, new TaxContext());
+
+            var setItemDiscount = new OrderEditRequest.SetItemDiscount();
+            setItemDiscount.setLineItemId(lineItem.getId());
+            setItemDiscount.setPercentValue(BigDecimal.TEN);
+            changes.add(change(OrderEditRequest.ChangeType.set_item_discount, change -> change.setSetItemDiscount(setItemDiscount)));
+        }
+
+        this.request = new OrderEditRequest.ApplyChanges();
+        this.request.setChanges(changes);
+    }
+
+    @Benchmark
+    public OrderEdit applyChanges() {
+        if (this.mode.equals("bulk")) {
+            this.writeService.applyChanges(this.orderEditId, this.request);
+            return this.orderEdit;
+        }
+
+        for (var change : this.request.getChanges()) {
+            switch (change.getType()) {
+                case add_variant -> this.writeService.addVariants(this.orderEditId, List.of(change.getAddVariant()));
+                case add_custom_item -> this.writeService.addCustomItem(this.orderEditId, change.getAddCustomItem());
+                case set_item_quantity -> this.writeService.updateItemQuantity(this.orderEditId, change.getSetItemQuantity());
+                case set_item_discount -> this.writeService.setItemDiscount(this.orderEditId, change.getSetItemDiscount());
+            }
+        }
+        return this.orderEdit;
+    }
+
+    private static OrderEditRequest.Change change(OrderEditRequest.ChangeType type, Consumer<OrderEditRequest.Change> body) {
+        var change = new OrderEditRequest.Change();
+        change.setType(type);
+        body.accept(change);
+        return change;
+    }
+
+    private static List<VariantDto> variants(List<Integer> variantIds) {
+        return variantIds.stream()
+                .map(variantId -> {
+                    var variant = new VariantDto();
+                    variant.setId(variantId);
+                    variant.setProductId(variantId);
+                    variant.setTitle("variant " + variantId);
+                    variant.setPrice(BenchmarkOrders.unitPrice(variantId));
+                    variant.setTaxable(true);
+                    variant.setRequiresShipping(true);
+                    return variant;
+                })
+                .toList();
+    }
+
+    private static List<ProductDto> products(List<Integer> productIds) {
+        return productIds.stream()
+                .map(productId -> {
+                    var product = new ProductDto();
+                    product.setId(productId);
+                    product.setName("product " + productId);
+                    return product;
+                })
+                .toList();
+    }
+
+    private static TaxSetting taxSetting(Set<Integer> productIds) {
+        var taxes = productIds.stream()
+                .map(productId -> TaxSettingValue.builder()
+                        .productId(productId)
+                        .rate(new BigDecimal("0.08"))
+                        .title("VAT")
+                        .build())
+                .toList();
+        return TaxSetting.builder()
+                .productIds(productIds)
+                .taxes(taxes)
+                .status(TaxSetting.TaxStatus.active)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> castList(Object value) {
+        return (List<Integer>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Integer> castSet(Object value) {
+        return (Set<Integer>) value;
+    }
+}
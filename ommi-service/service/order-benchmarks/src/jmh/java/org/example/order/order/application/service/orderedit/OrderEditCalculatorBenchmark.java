@@ -0,0 +1,179 @@
+package org.example.order.order.application.service.orderedit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.benchmark.BenchmarkOrders;
+import org.example.order.order.application.model.orderedit.response.CalculatedOrder;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.domain.edit.model.OrderStagedChange;
+import org.example.order.order.domain.order.model.DiscountAllocation;
+import org.example.order.order.domain.order.model.TaxLine;
+import org.example.order.order.infrastructure.configuration.OrderEditSessionCacheProperties;
+import org.example.order.order.infrastructure.data.dao.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderEditCalculatorService.calculateOrder với dữ liệu dao dựng sẵn trong bộ nhớ:
+ * lineCount line cũ (discountCount line có giảm giá, các line còn lại tăng số lượng), thêm lineCount / 10 line mới.
+ * Mỗi lần gọi giả lập 1 thao tác sửa (tăng version order edit + 1 staged change), sessionCache=true đo phần tính lại theo delta
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderEditCalculatorBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final int ORDER_ID = 1;
+    private static final int EDIT_ID = 1;
+
+    @Param({"10", "100", "500"})
+    public int lineCount;
+
+    @Param({"0", "5", "50"})
+    public int discountCount;
+
+    @Param({"false", "true"})
+    public boolean sessionCache;
+
+    private OrderEditCalculatorService calculatorService;
+    private OrderEditId orderEditId;
+    private OrderEditDto orderEdit;
+    private List<OrderEditStagedChangeDto> stagedChanges;
+    private int touched;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var converter = new OrderStagedChange.BaseAction.Converter();
+
+        List<LineItemDto> lineItems = new ArrayList<>(this.lineCount);
+        List<DiscountAllocationDto> allocations = new ArrayList<>();
+        List<TaxLineDto> taxLines = new ArrayList<>(this.lineCount);
+        List<RefundTaxLineDto> refundTaxLines = new ArrayList<>();
+        List<OrderEditStagedChangeDto> stagedChanges = new ArrayList<>();
+        for (int i = 1; i <= this.lineCount; i++) {
+            var lineItem = new LineItemDto();
+            lineItem.setStoreId(STORE_ID);
+            lineItem.setOrderId(ORDER_ID);
+            lineItem.setId(i);
+            lineItem.setQuantity(i % 5 + 1);
+            lineItem.setFulfillableQuantity(i % 5 + 1);
+            lineItem.setPrice(BenchmarkOrders.unitPrice(i));
+            lineItem.setVariantId(i);
+            lineItem.setTitle("title" + i);
+            lineItem.setTaxable(true);
+            lineItems.add(lineItem);
+
+            var taxLine = new TaxLineDto();
+            taxLine.setId(i);
+            taxLine.setStoreId(STORE_ID);
+            taxLine.setOrderId(ORDER_ID);
+            taxLine.setTitle("VAT");
+            taxLine.setRate(new BigDecimal("0.08"));
+            taxLine.setPrice(lineItem.getPrice().multiply(BigDecimal.valueOf(lineItem.getQuantity())).multiply(taxLine.getRate()));
+            taxLine.setQuantity(lineItem.getQuantity());
+            taxLine.setTargetId(i);
+            taxLine.setTargetType(TaxLine.TargetType.line_item);
+            taxLines.add(taxLine);
+
+            if (i % 3 == 0) {
+                var refundTaxLine = new RefundTaxLineDto();
+                refundTaxLine.setStoreId(STORE_ID);
+                refundTaxLine.setOrderId(ORDER_ID);
+                refundTaxLine.setId(i);
+                refundTaxLine.setTaxLineId(i);
+                refundTaxLine.setAmount(BigDecimal.valueOf(100));
+                refundTaxLines.add(refundTaxLine);
+            }
+
+            // line có giảm giá không được sửa số lượng
+            if (i <= this.discountCount) {
+                var allocation = new DiscountAllocationDto();
+                allocation.setId(i);
+                allocation.setStoreId(STORE_ID);
+                allocation.setOrderId(ORDER_ID);
+                allocation.setAmount(BigDecimal.valueOf(1_000L * (i % 7 + 1)));
+                allocation.setTargetId(i);
+                allocation.setTargetType(DiscountAllocation.TargetType.line_item);
+                allocation.setApplicationId(1);
+                allocations.add(allocation);
+            } else {
+                stagedChanges.add(stagedChange(converter, new OrderStagedChange.IncrementItem(i, BigDecimal.ONE)));
+            }
+        }
+
+        int addedCount = Math.max(1, this.lineCount / 10);
+        List<OrderEditLineItemDto> addedLineItems = new ArrayList<>(addedCount);
+        for (int i = 1; i <= addedCount; i++) {
+            var lineItemId = UUID.randomUUID();
+            var price = BenchmarkOrders.unitPrice(i);
+            var lineItem = new OrderEditLineItemDto();
+            lineItem.setStoreId(STORE_ID);
+            lineItem.setEditingId(EDIT_ID);
+            lineItem.setId(lineItemId);
+            lineItem.setTitle("custom " + i);
+            lineItem.setTaxable(true);
+            lineItem.setEditableQuantity(BigDecimal.ONE);
+            lineItem.setOriginalUnitPrice(price);
+            lineItem.setDiscountedUnitPrice(price);
+            lineItem.setEditableSubtotal(price);
+            addedLineItems.add(lineItem);
+
+            stagedChanges.add(stagedChange(converter, new OrderStagedChange.AddCustomItem(
+                    "custom " + i, BigDecimal.ONE, null, price, true, true, lineItemId)));
+        }
+
+        var orderEdit = new OrderEditDto();
+        orderEdit.setStoreId(STORE_ID);
+        orderEdit.setId(EDIT_ID);
+        orderEdit.setOrderId(ORDER_ID);
+        orderEdit.setCurrency(Currency.getInstance("VND"));
+        orderEdit.setSubtotalLineItemQuantity(BigDecimal.valueOf(this.lineCount));
+        orderEdit.setSubtotalPrice(BigDecimal.ZERO);
+        orderEdit.setCartDiscountAmount(BigDecimal.ZERO);
+        orderEdit.setTotalPrice(BigDecimal.ZERO);
+        orderEdit.setTotalOutstanding(BigDecimal.ZERO);
+        orderEdit.setVersion(1);
+
+        var graph = new OrderEditGraphDto();
+        graph.setOrderEdit(orderEdit);
+        graph.setLineItems(lineItems);
+        graph.setDiscountAllocations(allocations);
+        graph.setTaxLines(taxLines);
+        graph.setRefundTaxLines(refundTaxLines);
+        graph.setEditLineItems(addedLineItems);
+        graph.setStagedChanges(stagedChanges);
+        var cacheProperties = new OrderEditSessionCacheProperties();
+        cacheProperties.setEnabled(this.sessionCache);
+        this.calculatorService = new OrderEditCalculatorService(
+                (storeId, orderEditId) -> graph,
+                new OrderEditSessionCache(cacheProperties, new SimpleMeterRegistry()));
+        this.orderEditId = new OrderEditId(STORE_ID, EDIT_ID);
+        this.orderEdit = orderEdit;
+        this.stagedChanges = stagedChanges;
+    }
+
+    private static OrderEditStagedChangeDto stagedChange(OrderStagedChange.BaseAction.Converter converter, OrderStagedChange.BaseAction action) {
+        var stagedChange = new OrderEditStagedChangeDto();
+        stagedChange.setStoreId(STORE_ID);
+        stagedChange.setEditingId(EDIT_ID);
+        stagedChange.setId(UUID.randomUUID());
+        stagedChange.setType(action.getType());
+        stagedChange.setValue(converter.convertToDatabaseColumn(action));
+        stagedChange.setVersion(1);
+        return stagedChange;
+    }
+
+    @Benchmark
+    public CalculatedOrder calculateOrder() {
+        var stagedChange = this.stagedChanges.get(this.touched++ % this.stagedChanges.size());
+        stagedChange.setVersion(stagedChange.getVersion() + 1);
+        this.orderEdit.setVersion(this.orderEdit.getVersion() + 1);
+        return this.calculatorService.calculateOrder(this.orderEditId);
+    }
+}
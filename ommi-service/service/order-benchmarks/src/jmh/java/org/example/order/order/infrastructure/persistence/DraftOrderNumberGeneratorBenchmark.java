@@ -0,0 +1,84 @@
+package org.example.order.order.infrastructure.persistence;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 64 thread cùng tạo số draft order cho 1 store trên H2 trong bộ nhớ.
+ * - read_modify_write: đọc số hiện tại rồi ghi số + 1 trong 1 transaction (cách cũ: find, update, save), có thể cấp trùng số
+ * - atomic: DraftOrderNumberGeneratorImpl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class DraftOrderNumberGeneratorBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+
+    @Param({"read_modify_write", "atomic"})
+    public String mode;
+
+    private JdbcDataSource dataSource;
+    private DraftOrderNumberGeneratorImpl generator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        this.dataSource = new JdbcDataSource();
+        this.dataSource.setURL("jdbc:h2:mem:draft_order_numbers_" + DATABASE_COUNT.incrementAndGet() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        this.dataSource.setUser("sa");
+        try (var connection = this.dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE draft_order_numbers (
+                        id INT AUTO_INCREMENT PRIMARY KEY, store_id INT NOT NULL, current_order_number INT NOT NULL,
+                        CONSTRAINT uk_draft_order_numbers_store UNIQUE (store_id)
+                    )
+                    """);
+            statement.execute("INSERT INTO draft_order_numbers (store_id, current_order_number) VALUES (" + STORE_ID + ", 0)");
+        }
+        this.generator = new DraftOrderNumberGeneratorImpl(this.dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (var connection = this.dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public int generateDraftNumber() throws SQLException {
+        if (this.mode.equals("atomic")) {
+            return this.generator.generateDraftNumber(STORE_ID);
+        }
+        return this.readModifyWrite();
+    }
+
+    private int readModifyWrite() throws SQLException {
+        try (var connection = this.dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            int number;
+            try (var select = connection.prepareStatement(
+                    "SELECT current_order_number FROM draft_order_numbers WHERE store_id = ?")) {
+                select.setInt(1, STORE_ID);
+                try (var resultSet = select.executeQuery()) {
+                    resultSet.next();
+                    number = resultSet.getInt(1) + 1;
+                }
+            }
+            try (var update = connection.prepareStatement(
+                    "UPDATE draft_order_numbers SET current_order_number = ? WHERE store_id = ?")) {
+                update.setInt(1, number);
+                update.setInt(2, STORE_ID);
+                update.executeUpdate();
+            }
+            connection.commit();
+            return number;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.order.order.infrastructure.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 16 thread cùng tạo draft order cho 1 store, mỗi lần trong 1 transaction bên ngoài (như createDraftOrder)
+ * có thêm workMillis giả lập các bước gọi ra ngoài (combination, tax). Row số của store bị lock từ lúc lấy số đến commit:
+ * - before_work: lấy số rồi mới làm các bước khác (cách cũ: lấy số trong constructor DraftOrder) => các transaction nối tiếp nhau cả phần work
+ * - after_work: làm các bước khác rồi lấy số ngay trước khi lưu (DraftOrder.assignNumber)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class DraftOrderNumberInTransactionBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+
+    @Param({"before_work", "after_work"})
+    public String allocation;
+
+    @Param({"2"})
+    public int workMillis;
+
+    private HikariDataSource dataSource;
+    private DraftOrderNumberGeneratorImpl generator;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        this.dataSource = new HikariDataSource();
+        this.dataSource.setJdbcUrl("jdbc:h2:mem:draft_order_numbers_tx_" + DATABASE_COUNT.incrementAndGet() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000");
+        this.dataSource.setUsername("sa");
+        this.dataSource.setMaximumPoolSize(16);
+        try (var connection = this.dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE draft_order_numbers (
+                        id INT AUTO_INCREMENT PRIMARY KEY, store_id INT NOT NULL, current_order_number INT NOT NULL,
+                        CONSTRAINT uk_draft_order_numbers_store UNIQUE (store_id)
+                    )
+                    """);
+            statement.execute("INSERT INTO draft_order_numbers (store_id, current_order_number) VALUES (" + STORE_ID + ", 0)");
+        }
+        this.generator = new DraftOrderNumberGeneratorImpl(this.dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (var connection = this.dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        this.dataSource.close();
+    }
+
+    @Benchmark
+    public Integer createDraftOrder() {
+        return this.transactionTemplate.execute(status -> {
+            if (this.allocation.equals("before_work")) {
+                var number = this.generator.generateDraftNumber(STORE_ID);
+                this.work();
+                return number;
+            }
+            this.work();
+            return this.generator.generateDraftNumber(STORE_ID);
+        });
+    }
+
+    private void work() {
+        try {
+            Thread.sleep(this.workMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
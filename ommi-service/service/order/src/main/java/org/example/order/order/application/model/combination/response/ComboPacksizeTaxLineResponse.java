@@ -6,7 +6,7 @@ import lombok.Getter;
 import java.math.BigDecimal;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class ComboPacksizeTaxLineResponse {
     private String title;
     private BigDecimal rate;
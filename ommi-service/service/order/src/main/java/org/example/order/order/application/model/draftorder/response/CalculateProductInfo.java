@@ -16,6 +16,8 @@ import java.util.Map;
 @Getter
 @Builder
 public class CalculateProductInfo {
+    private int storeId;
+
     @Builder.Default
     private Map<Integer, ProductResponse.Product> productMap = new HashMap<>();
 
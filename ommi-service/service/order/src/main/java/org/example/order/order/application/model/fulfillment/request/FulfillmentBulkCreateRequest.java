@@ -0,0 +1,33 @@
+package org.example.order.order.application.model.fulfillment.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.order.order.application.model.fulfillmentorder.FulfillOrderLineItemRequest;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class FulfillmentBulkCreateRequest {
+    /**
+     * Không @Valid từng phần tử: fulfillment order lỗi chỉ fail riêng item đó, không fail cả batch
+     */
+    private @NotEmpty @Size(max = 1000) List<Item> fulfillments;
+
+    private boolean notifyCustomer;
+
+    private Fulfillment.ShippingStatus shippingStatus;
+
+    @Getter
+    @Setter
+    public static class Item {
+        private int fulfillmentOrderId;
+        /**
+         * Bỏ trống => fulfill toàn bộ số lượng còn lại của fulfillment order
+         */
+        private List<FulfillOrderLineItemRequest> lineItems;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.order.order.application.model.fulfillment.response;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class FulfillmentBulkCreateResponse {
+    private final int created;
+    private final int failed;
+    private final List<FulfillmentBulkItemResult> results;
+
+    public FulfillmentBulkCreateResponse(List<FulfillmentBulkItemResult> results) {
+        this.results = results;
+        this.created = (int) results.stream().filter(FulfillmentBulkItemResult::isSuccess).count();
+        this.failed = results.size() - this.created;
+    }
+}
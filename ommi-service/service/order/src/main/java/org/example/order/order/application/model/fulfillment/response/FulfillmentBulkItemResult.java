@@ -0,0 +1,21 @@
+package org.example.order.order.application.model.fulfillment.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.order.order.infrastructure.configuration.exception.ErrorMessage;
+
+@Getter
+@Builder
+public class FulfillmentBulkItemResult {
+    /**
+     * Vị trí của fulfillment order trong request, bắt đầu từ 0
+     */
+    private final int index;
+    private final int fulfillmentOrderId;
+    private final Integer fulfillmentId;
+    private final ErrorMessage errors;
+
+    public boolean isSuccess() {
+        return this.fulfillmentId != null;
+    }
+}
@@ -3,11 +3,13 @@ package org.example.order.order.application.model.fulfillmentorder;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
 import java.util.List;
 
 @Getter
 @Builder
+@Jacksonized
 @AllArgsConstructor
 public class OrderRoutingResponse {
 
@@ -15,6 +17,7 @@ public class OrderRoutingResponse {
 
     @Builder
     @Getter
+    @Jacksonized
     public static class OrderRoutingResult {
         private OrderRoutingLocation location;
         private List<IndexesItem> indexesItems;
@@ -22,6 +25,7 @@ public class OrderRoutingResponse {
 
     @Getter
     @Builder
+    @Jacksonized
     public static class IndexesItem {
         private int index;
         private Integer variantId;
@@ -31,6 +35,7 @@ public class OrderRoutingResponse {
 
     @Builder
     @Getter
+    @Jacksonized
     public static class OrderRoutingLocation {
         private Long id;
         private Integer storeId;
@@ -0,0 +1,17 @@
+package org.example.order.order.application.model.order.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderBatchCreateRequest {
+    /**
+     * Không @Valid từng phần tử: order lỗi chỉ fail riêng item đó, không fail cả batch
+     */
+    private @NotEmpty @Size(max = 1000) List<OrderCreateRequest> orders;
+}
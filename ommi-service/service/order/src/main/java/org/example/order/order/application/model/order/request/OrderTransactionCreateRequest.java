@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.jackson.Jacksonized;
 import org.example.order.order.domain.order.model.PaymentMethodInfo;
 import org.example.order.order.domain.transaction.model.OrderTransaction;
 import org.example.order.order.domain.transaction.model.PaymentInfo;
@@ -16,6 +17,7 @@ import java.time.Instant;
 @Getter
 @Setter
 @Builder
+@Jacksonized
 public class OrderTransactionCreateRequest {
     private Integer orderId;
     private Integer locationId;
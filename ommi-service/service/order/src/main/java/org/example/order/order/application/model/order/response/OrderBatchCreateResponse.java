@@ -0,0 +1,18 @@
+package org.example.order.order.application.model.order.response;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class OrderBatchCreateResponse {
+    private final int created;
+    private final int failed;
+    private final List<OrderBatchItemResult> results;
+
+    public OrderBatchCreateResponse(List<OrderBatchItemResult> results) {
+        this.results = results;
+        this.created = (int) results.stream().filter(OrderBatchItemResult::isSuccess).count();
+        this.failed = results.size() - this.created;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.order.order.application.model.order.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.order.order.infrastructure.configuration.exception.ErrorMessage;
+
+@Getter
+@Builder
+public class OrderBatchItemResult {
+    /**
+     * Vị trí của order trong request (batch) hoặc số dòng (ndjson), bắt đầu từ 0
+     */
+    private final int index;
+    private final Integer orderId;
+    private final ErrorMessage errors;
+
+    public boolean isSuccess() {
+        return this.orderId != null;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.order.order.application.model.order.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class OrderListResponse {
+    private List<OrderResponse> orders;
+
+    /**
+     * Truyền vào page_info để lấy trang kế tiếp, null nếu đây là trang cuối
+     */
+    private String nextPageInfo;
+
+    /**
+     * Chỉ có khi count=estimate. countExact = false => count là cận dưới (có ít nhất count order)
+     */
+    private Integer count;
+    private Boolean countExact;
+}
@@ -2,12 +2,14 @@ package org.example.order.order.application.model.order.response;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 import org.example.order.order.domain.order.model.Order;
 
 import java.util.List;
 
 @Getter
 @Builder
+@Jacksonized
 public class OrderPaymentResult {
     private final boolean isFromCheckout;
     private final String checkoutToken;
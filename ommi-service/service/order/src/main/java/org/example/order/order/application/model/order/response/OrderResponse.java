@@ -2,9 +2,221 @@ package org.example.order.order.application.model.order.response;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.example.order.order.domain.order.model.Order;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 
 @Getter
 @Setter
 public class OrderResponse {
+    private int id;
+    private int storeId;
+
+    private String name;
+    private int number;
+    private int orderNumber;
+    private String token;
+
+    private Instant createdOn;
+    private Instant modifiedOn;
+    private Instant processedOn;
+    private Instant closedOn;
+    private Instant cancelledOn;
+
+    private Order.CancelReason cancelReason;
+    private Order.OrderStatus status;
+    private Order.FinancialStatus financialStatus;
+    private Order.FulfillmentStatus fulfillmentStatus;
+    private Order.ReturnStatus returnStatus;
+
+    private int totalWeight;
+    private boolean test;
+    private String note;
+    private List<String> tags;
+    private List<NoteAttributeResponse> noteAttributes;
+
+    private Integer customerId;
+    private String email;
+    private String phone;
+    private boolean buyerAcceptMarketing;
+
+    private String source;
+    private String sourceName;
+    private String reference;
+    private String landingSite;
+    private String referringSite;
+
+    private String gateway;
+    private String processingMethod;
+
+    private String currency;
+    private boolean taxExempt;
+    private boolean taxesIncluded;
+
+    private BigDecimal totalPrice;
+    private BigDecimal subtotalPrice;
+    private BigDecimal totalLineItemPrice;
+    private BigDecimal originalTotalPrice;
+    private BigDecimal cartDiscountAmount;
+    private BigDecimal totalDiscounts;
+    private BigDecimal totalShippingPrice;
+    private BigDecimal totalTax;
+    private BigDecimal currentTotalPrice;
+    private BigDecimal currentSubtotalPrice;
+    private BigDecimal currentTotalDiscounts;
+    private BigDecimal currentCartDiscountAmount;
+    private BigDecimal currentTotalTax;
+    private BigDecimal totalOutstanding;
+    private BigDecimal unpaidAmount;
+    private BigDecimal totalRefunded;
+    private BigDecimal totalReceived;
+    private BigDecimal netPayment;
+
+    private Integer locationId;
+    private Integer userId;
+
+    private AddressResponse billingAddress;
+    private AddressResponse shippingAddress;
+
+    private List<LineItemResponse> lineItems;
+    private List<ShippingLineResponse> shippingLines;
+    private List<DiscountCodeResponse> discountCodes;
+    private List<DiscountApplicationResponse> discountApplications;
+    private List<RefundResponse> refunds;
+
+    @Getter
+    @Setter
+    public static class NoteAttributeResponse {
+        private String name;
+        private String value;
+    }
+
+    @Getter
+    @Setter
+    public static class AddressResponse {
+        private String firstName;
+        private String lastName;
+        private String phone;
+        private String address1;
+        private String address2;
+        private String company;
+        private String country;
+        private String countryCode;
+        private String province;
+        private String provinceCode;
+        private String city;
+        private String district;
+        private String districtCode;
+        private String ward;
+        private String wardCode;
+        private String zip;
+    }
+
+    @Getter
+    @Setter
+    public static class LineItemResponse {
+        private int id;
+        private Integer variantId;
+        private Integer productId;
+        private Integer inventoryItemId;
+        private String name;
+        private String title;
+        private String variantTitle;
+        private String vendor;
+        private String sku;
+        private String unit;
+        private int grams;
+        private boolean requireShipping;
+        private boolean restockable;
+        private boolean taxable;
+
+        private int quantity;
+        private int currentQuantity;
+        private int fulfillableQuantity;
+        private int refundableQuantity;
+        private String fulfillmentStatus;
+
+        private BigDecimal price;
+        private BigDecimal discountedUnitPrice;
+        private BigDecimal discountedTotal;
+        private BigDecimal originalTotal;
+
+        private String combinationLineKey;
+
+        private List<TaxLineResponse> taxLines;
+        private List<DiscountAllocationResponse> discountAllocations;
+    }
+
+    @Getter
+    @Setter
+    public static class ShippingLineResponse {
+        private int id;
+        private String code;
+        private String title;
+        private String source;
+        private BigDecimal price;
+
+        private List<TaxLineResponse> taxLines;
+        private List<DiscountAllocationResponse> discountAllocations;
+    }
+
+    @Getter
+    @Setter
+    public static class TaxLineResponse {
+        private String title;
+        private BigDecimal price;
+        private BigDecimal rate;
+    }
+
+    @Getter
+    @Setter
+    public static class DiscountAllocationResponse {
+        private BigDecimal amount;
+        private int discountApplicationIndex;
+    }
+
+    @Getter
+    @Setter
+    public static class DiscountCodeResponse {
+        private String code;
+        private BigDecimal amount;
+        private String type;
+    }
+
+    @Getter
+    @Setter
+    public static class DiscountApplicationResponse {
+        private int id;
+        private String code;
+        private String title;
+        private String description;
+        private BigDecimal value;
+        private String valueType;
+        private String targetType;
+    }
+
+    @Getter
+    @Setter
+    public static class RefundResponse {
+        private int id;
+        private String note;
+        private Instant createdOn;
+        private Instant processedOn;
+        private BigDecimal totalRefunded;
+
+        private List<RefundLineItemResponse> refundLineItems;
+    }
 
+    @Getter
+    @Setter
+    public static class RefundLineItemResponse {
+        private int lineItemId;
+        private int quantity;
+        private Integer locationId;
+        private BigDecimal subtotal;
+        private BigDecimal totalTax;
+        private String restockType;
+    }
 }
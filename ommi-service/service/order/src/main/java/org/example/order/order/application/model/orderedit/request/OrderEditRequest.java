@@ -79,6 +79,39 @@ public final class OrderEditRequest {
         @Max(100) BigDecimal percentValue;
     }
 
+    /**
+     * Nhiều thao tác sửa trong 1 request, áp dụng lần lượt theo thứ tự trên cùng 1 order edit
+     */
+    @Getter
+    @Setter
+    public static class ApplyChanges {
+        @NotEmpty
+        @Size(max = 5000)
+        private List<@NotNull @Valid Change> changes;
+    }
+
+    /**
+     * type quyết định field nào được dùng, các field còn lại bỏ qua
+     */
+    @Getter
+    @Setter
+    public static class Change {
+        @NotNull
+        private ChangeType type;
+
+        private @Valid AddVariant addVariant;
+        private @Valid AddCustomItem addCustomItem;
+        private @Valid SetItemQuantity setItemQuantity;
+        private @Valid SetItemDiscount setItemDiscount;
+    }
+
+    public enum ChangeType {
+        add_variant,
+        add_custom_item,
+        set_item_quantity,
+        set_item_discount
+    }
+
     @Getter
     @Setter
     public static class Commit {
@@ -7,6 +7,7 @@ import org.example.order.order.infrastructure.data.dao.LineItemDto;
 import org.example.order.order.infrastructure.data.dao.OrderEditLineItemDto;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Getter
@@ -40,6 +41,9 @@ public class CalculatedLineItem {
 
     private List<LineItemPropertyResponse> properties;
 
+    private CalculatedLineItem() {
+    }
+
     public CalculatedLineItem(OrderEditLineItemDto lineItem) {
         this.id = lineItem.getId().toString();
 
@@ -77,4 +81,30 @@ public class CalculatedLineItem {
         this.originalUnitPrice = lineItem.getPrice();
         this.discountedUnitPrice = lineItem.getDiscountedUnitPrice();
     }
+
+    /**
+     * Bản sao để trả ra ngoài, list cũng được copy (OrderEditSessionCache giữ bản gốc giữa các lần tính)
+     */
+    public CalculatedLineItem copy() {
+        var copy = new CalculatedLineItem();
+        copy.id = this.id;
+        copy.quantity = this.quantity;
+        copy.editableQuantity = this.editableQuantity;
+        copy.editableQuantityBeforeChanges = this.editableQuantityBeforeChanges;
+        copy.restockable = this.restockable;
+        copy.restocking = this.restocking;
+        copy.originalUnitPrice = this.originalUnitPrice;
+        copy.discountedUnitPrice = this.discountedUnitPrice;
+        copy.editableSubtotal = this.editableSubtotal;
+        copy.uneditableSubtotal = this.uneditableSubtotal;
+        copy.hasStagedLineItemDiscount = this.hasStagedLineItemDiscount;
+        copy.discountAllocations = this.discountAllocations == null ? null : new ArrayList<>(this.discountAllocations);
+        copy.stagedChanges = this.stagedChanges == null ? null : new ArrayList<>(this.stagedChanges);
+        copy.sku = this.sku;
+        copy.title = this.title;
+        copy.variantTitle = this.variantTitle;
+        copy.variantId = this.variantId;
+        copy.properties = this.properties == null ? null : new ArrayList<>(this.properties);
+        return copy;
+    }
 }
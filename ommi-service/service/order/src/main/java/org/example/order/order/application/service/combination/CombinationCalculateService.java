@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.example.money.MoneyMath;
 import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
 import org.example.order.order.infrastructure.configuration.exception.ErrorMessage;
 import org.example.order.order.infrastructure.configuration.exception.UserError;
@@ -11,6 +12,7 @@ import org.example.order.order.application.model.combination.request.Combination
 import org.example.order.order.application.model.combination.request.CombinationLineItemRequest;
 import org.example.order.order.application.model.combination.request.ComboPacksizeDiscountAllocations;
 import org.example.order.order.application.model.combination.response.*;
+import org.example.order.order.application.model.draftorder.TaxSetting;
 import org.example.order.order.application.model.draftorder.TaxSettingValue;
 import org.example.order.order.application.model.draftorder.response.CalculateProductInfo;
 import org.example.order.order.application.service.draftorder.*;
@@ -22,6 +24,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -30,9 +33,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CombinationCalculateService extends CombinationProcessor {
 
-    private final SapoClient sapoClient;
+    private final SapoBatchLoader sapoBatchLoader;
     private final CombinationMapper combinationMapper;
     private final TaxHelper taxHelper;
+    private final CombinationExpansionCache expansionCache;
 
     @Override
     protected CombinationCalculateResponse calculateWithoutUpdateProduct(CombinationCalculateRequest request, CalculateProductInfo productInfo) {
@@ -46,10 +50,11 @@ public class CombinationCalculateService extends CombinationProcessor {
                 for (var component : components) {
                     component.setLinePrice(component.getLinePrice());
                 }
+                initSubtotals(components);
                 var canBeOddComponent = components.stream().filter(CombinationLineItemComponent::isCanBeOdd).findFirst().orElse(components.get(0));
                 var sortComponents = components.stream()
                         .sorted(Comparator.comparing(CombinationLineItemComponent::getRemainder).reversed()).toList();
-                handleDiscountAllocations(canBeOddComponent, components, sortComponents, lineItem.getDiscountAllocations(), lineItemPrice, productInfo, minQuantity);
+                handleDiscountAllocations(canBeOddComponent, components, sortComponents, lineItem.getDiscountAllocations(), productInfo, minQuantity);
             }
             if (request.isCalculateTax()) {
                 handleTaxLines(lineItemResponse, productInfo.getCountryTax(), productInfo.getCurrency(), request.isTaxIncluded(), request.isTaxExempt(), productInfo);
@@ -123,30 +128,16 @@ public class CombinationCalculateService extends CombinationProcessor {
                         lineItem.setComponents(List.of());
                         continue;
                     }
-                    // Tổng số lượng tất cả các component của packsize
-                    var quantity = packsize.getQuantity().multiply(lineItemQuantity);
-                    // Giá của 1 quantity khi phân bổ giá về components
-                    var componentPrice = lineItemPrice.divide(quantity, currency.getDefaultFractionDigits(), RoundingMode.FLOOR);
-                    // Phần dư khi phân bổ giá
-                    var remainder = lineItemPrice.subtract(componentPrice.multiply(quantity));
-
-                    var lineItemComponent = this.combinationMapper.toLineItemComponent(
-                            childProduct,
-                            childVariant,
-                            quantity,
-                            packsize.getQuantity(),
-                            componentPrice,
-                            lineItemPrice,
-                            remainder,
-                            VariantType.packsize
-                    );
-                    if (NumberUtils.isPositive(remainder)) {
-                        lineItemComponent.setCanBeOdd(true);
-                    }
-                    lineItem.setComponents(List.of(lineItemComponent));
+                    var template = this.expansionCache.get(
+                            templateKey(productInfo, VariantType.packsize, variant, packsizeVersion(variant, packsize, childVariant, childProduct)),
+                            () -> List.of(packsizeTemplate(packsize, childProduct, childVariant)));
+                    var components = List.of(expandPacksize(template.get(0), lineItemQuantity, lineItemPrice, currency));
+                    initSubtotals(components);
+                    lineItem.setComponents(components);
                 }
                 case combo -> {
                     var components = buildComboComponents(variant, lineItemPrice, lineItemQuantity, productInfo, lineItemRequest.getDiscountAllocations());
+                    lineItem.setComponents(components);
                 }
             }
         }
@@ -252,37 +243,68 @@ public class CombinationCalculateService extends CombinationProcessor {
             return List.of();
         }
 
+        var template = this.expansionCache.get(
+                templateKey(productInfo, VariantType.combo, variant, comboVersion(variant, comboItems, productInfo)),
+                () -> comboItems.stream()
+                        .map(comboItem -> comboTemplate(comboItem, productInfo.getProductMap().get(comboItem.getProductId())))
+                        .toList());
+        var expansion = expandCombo(template, lineItemPrice, lineItemQuantity, productInfo);
+        var components = expansion.components();
+        initSubtotals(components);
+        handleDiscountAllocations(expansion.canBeOddComponent(), components, expansion.sortedComponents(), discountAllocations, productInfo, expansion.minLineQuantity());
+        return components;
+    }
+
+    /**
+     * @param sortedComponents  components theo thứ tự remainder tăng dần
+     * @param canBeOddComponent component được phép lẻ giá
+     */
+    private record ComboExpansion(
+            List<CombinationLineItemComponent> components,
+            List<CombinationLineItemComponent> sortedComponents,
+            CombinationLineItemComponent canBeOddComponent,
+            BigDecimal minLineQuantity
+    ) {
+    }
+
+    /**
+     * Phân bổ giá line combo về các component (template của CombinationExpansionCache, theo thứ tự combo item) và cộng phần dư
+     */
+    private ComboExpansion expandCombo(
+            List<CombinationLineItemComponent> template,
+            BigDecimal lineItemPrice,
+            BigDecimal lineItemQuantity,
+            CalculateProductInfo productInfo
+    ) {
         var currency = productInfo.getCurrency();
 
-        var originalComboPrice = comboItems.stream()
+        var originalComboPrice = template.stream()
                 .map(item ->
-                        item.getPrice().multiply(item.getQuantity())
+                        item.getPrice().multiply(item.getBaseQuantity())
                                 .setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_UP))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         //Các comboItem có Price > 0
-        var positivePriceComboItems = comboItems.stream().filter(item -> NumberUtils.isPositive(item.getPrice())).toList();
+        var positivePriceComboItems = template.stream().filter(item -> NumberUtils.isPositive(item.getPrice())).toList();
         var positiveCount = positivePriceComboItems.size();
-        var positiveItemQuantity = positivePriceComboItems.stream().map(ComboItem::getQuantity).reduce(BigDecimal.ZERO, BigDecimal::add);
+        var positiveItemQuantity = positivePriceComboItems.stream().map(CombinationLineItemComponent::getBaseQuantity).reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Các comboItems có Price = 0
-        var zeroPriceComboItems = comboItems.stream().filter(item -> !NumberUtils.isPositive(item.getPrice())).toList();
+        var zeroPriceComboItems = template.stream().filter(item -> !NumberUtils.isPositive(item.getPrice())).toList();
         var zeroCount = zeroPriceComboItems.size();
-        var zeroItemQuantity = zeroPriceComboItems.stream().map(ComboItem::getQuantity).reduce(BigDecimal.ZERO, BigDecimal::add);
+        var zeroItemQuantity = zeroPriceComboItems.stream().map(CombinationLineItemComponent::getBaseQuantity).reduce(BigDecimal.ZERO, BigDecimal::add);
 
         List<CombinationLineItemComponent> components = new ArrayList<>();
 
         // Quantity nhỏ nhất của component: Dùng để phân bổ remainder
-        BigDecimal minLineQuantity = lineItemQuantity.multiply(comboItems.get(0).getQuantity());
+        BigDecimal minLineQuantity = lineItemQuantity.multiply(template.get(0).getBaseQuantity());
 
         // Phân bổ giá về các line có price > 0
         BigDecimal appliedPrice = BigDecimal.ZERO;
         for (int i = 0; i < positivePriceComboItems.size(); i++) {
-            var comboItem = positivePriceComboItems.get(i);
-            var childProduct = productInfo.getProductMap().get(comboItem.getProductId());
-            var component = buildComboComponent(
-                    comboItem,
-                    childProduct,
+            var component = positivePriceComboItems.get(i);
+            buildComboComponent(
+                    component,
                     lineItemQuantity,
                     lineItemPrice,
                     appliedPrice,
@@ -300,11 +322,9 @@ public class CombinationCalculateService extends CombinationProcessor {
 
         // Phân bổ giá về các line có price = 0
         for (int i = 0; i < zeroCount; i++) {
-            var comboItem = zeroPriceComboItems.get(i);
-            var childProduct = productInfo.getProductMap().get(comboItem.getProductId());
-            var component = buildComboComponent(
-                    comboItem,
-                    childProduct,
+            var component = zeroPriceComboItems.get(i);
+            buildComboComponent(
+                    component,
                     lineItemQuantity,
                     lineItemPrice,
                     BigDecimal.ZERO,
@@ -322,8 +342,142 @@ public class CombinationCalculateService extends CombinationProcessor {
 
         var sortedComponents = components.stream().sorted(Comparator.comparing(CombinationLineItemComponent::getRemainder)).toList();
         var canBeOddComponent = addRemainder(totalRemainder, minLineQuantity, productInfo, sortedComponents);
-        handleDiscountAllocations(canBeOddComponent, components, sortedComponents, discountAllocations, lineItemPrice, productInfo, minLineQuantity);
-        return components;
+        return new ComboExpansion(components, sortedComponents, canBeOddComponent, minLineQuantity);
+    }
+
+    /**
+     * Template của 1 combo item: quantity = baseQuantity = số lượng trong 1 combo, price = giá combo item
+     */
+    private static CombinationLineItemComponent comboTemplate(ComboItem comboItem, ProductResponse.Product childProduct) {
+        return CombinationLineItemComponent.builder()
+                .variantId(comboItem.getVariantId())
+                .productId(childProduct.getId())
+                .inventoryItemId(comboItem.getInventoryItemId())
+                .sku(comboItem.getSku())
+                .title(childProduct.getName())
+                .variantTitle(comboItem.getTitle())
+                .vendor(childProduct.getVendor())
+                .unit(comboItem.getUnit())
+                .inventoryManagement(comboItem.getInventoryManagement())
+                .inventoryPolicy(comboItem.getInventoryPolicy())
+                .grams(comboItem.getGrams())
+                .requireShipping(comboItem.isRequiresShipping())
+                .taxable(comboItem.isTaxable())
+                .quantity(comboItem.getQuantity())
+                .baseQuantity(comboItem.getQuantity())
+                .price(comboItem.getPrice())
+                .type(VariantType.combo)
+                .build();
+    }
+
+    /**
+     * Template của packsize: quantity = baseQuantity = số lượng variant con trong 1 packsize
+     */
+    private CombinationLineItemComponent packsizeTemplate(
+            Packsize packsize,
+            ProductResponse.Product childProduct,
+            VariantResponse.Variant childVariant
+    ) {
+        return this.combinationMapper.toLineItemComponent(
+                childProduct,
+                childVariant,
+                packsize.getQuantity(),
+                packsize.getQuantity(),
+                BigDecimal.ZERO,
+                null,
+                null,
+                VariantType.packsize
+        );
+    }
+
+    /**
+     * Phân bổ giá line packsize về component (bản copy template của CombinationExpansionCache)
+     */
+    private static CombinationLineItemComponent expandPacksize(
+            CombinationLineItemComponent component,
+            BigDecimal lineItemQuantity,
+            BigDecimal lineItemPrice,
+            Currency currency
+    ) {
+        // Tổng số lượng tất cả các component của packsize
+        var quantity = component.getBaseQuantity().multiply(lineItemQuantity);
+        // Giá của 1 quantity khi phân bổ giá về components
+        var componentPrice = lineItemPrice.divide(quantity, currency.getDefaultFractionDigits(), RoundingMode.FLOOR);
+        // Phần dư khi phân bổ giá
+        var remainder = lineItemPrice.subtract(componentPrice.multiply(quantity));
+
+        component.setQuantity(quantity);
+        component.setPrice(componentPrice);
+        component.setLinePrice(lineItemPrice);
+        component.setRemainder(remainder);
+        if (NumberUtils.isPositive(remainder)) {
+            component.setCanBeOdd(true);
+        }
+        return component;
+    }
+
+    private static CombinationExpansionCache.Key templateKey(
+            CalculateProductInfo productInfo,
+            VariantType type,
+            VariantResponse.Variant variant,
+            List<Object> version
+    ) {
+        return new CombinationExpansionCache.Key(productInfo.getStoreId(), type, variant.getId(), version);
+    }
+
+    private static List<Object> comboVersion(VariantResponse.Variant variant, List<ComboItem> comboItems, CalculateProductInfo productInfo) {
+        List<Object> version = new ArrayList<>(comboItems.size() * 5 + 1);
+        version.add(variant.getModifiedOn());
+        for (var item : comboItems) {
+            var childProduct = productInfo.getProductMap().get(item.getProductId());
+            version.add(item.getVariantId());
+            version.add(item.getModifiedOn());
+            version.add(item.getQuantity());
+            version.add(item.getPrice());
+            version.add(childProduct == null ? null : childProduct.getModifiedOn());
+        }
+        return version;
+    }
+
+    private static List<Object> packsizeVersion(
+            VariantResponse.Variant variant,
+            Packsize packsize,
+            VariantResponse.Variant childVariant,
+            ProductResponse.Product childProduct
+    ) {
+        return Arrays.asList(
+                variant.getModifiedOn(),
+                packsize.getModifiedOn(),
+                packsize.getQuantity(),
+                childVariant.getId(),
+                childVariant.getModifiedOn(),
+                childProduct == null ? null : childProduct.getModifiedOn()
+        );
+    }
+
+    /**
+     * subtotal = giá line sau giảm, khởi tạo bằng linePrice cho mọi component (kể cả line không có giảm giá)
+     * vì thuế của component tính trên subtotal
+     */
+    private static void initSubtotals(List<CombinationLineItemComponent> components) {
+        for (var component : components) {
+            component.setSubtotal(component.getLinePrice());
+        }
+    }
+
+    /**
+     * Chia discountAmount cho các component theo linePrice (largest remainder): tổng đúng bằng discountAmount,
+     * mỗi component lệch tỉ lệ chính xác dưới 1 đơn vị tiền, component giá 0 không nhận
+     */
+    static List<BigDecimal> splitDiscount(
+            List<CombinationLineItemComponent> components,
+            BigDecimal discountAmount,
+            Currency currency
+    ) {
+        var linePrices = components.stream()
+                .map(CombinationLineItemComponent::getLinePrice)
+                .toList();
+        return MoneyMath.allocate(discountAmount, linePrices, currency);
     }
 
     private void handleDiscountAllocations(
@@ -331,34 +485,21 @@ public class CombinationCalculateService extends CombinationProcessor {
             List<CombinationLineItemComponent> components,
             List<CombinationLineItemComponent> sortedComponents,
             List<ComboPacksizeDiscountAllocations> discountAllocations,
-            BigDecimal lineItemPrice,
             CalculateProductInfo productInfo,
             BigDecimal minLineQuantity
     ) {
         if (CollectionUtils.isEmpty(discountAllocations)) return;
         var currency = productInfo.getCurrency();
-        var componentCount = components.size();
-        var lastLineHasPriceIndex = componentCount - 1;
-        for (int i = componentCount - 1; i > 0; i--) {
-            if (NumberUtils.isPositive(components.get(i).getPrice())) {
-                lastLineHasPriceIndex = i;
-                break;
-            }
-        }
         for (var discountAllocation : discountAllocations) {
-            var discountAmount = discountAllocation.getAmount();
-            var appliedDiscountAmount = BigDecimal.ZERO;
+            var splitAmounts = splitDiscount(components, discountAllocation.getAmount(), currency);
             var totalRemainder = BigDecimal.ZERO;
             for (int i = 0; i < components.size(); i++) {
                 var component = components.get(i);
-                var splitAmount = lastLineHasPriceIndex == i
-                        ? discountAmount.subtract(appliedDiscountAmount)
-                        : component.getLinePrice().compareTo(BigDecimal.ZERO) == 0
-                        ? BigDecimal.ZERO
-                        : component.getLinePrice().multiply(discountAmount).divide(lineItemPrice, currency.getDefaultFractionDigits(), RoundingMode.HALF_UP);
-                appliedDiscountAmount = appliedDiscountAmount.add(splitAmount);
+                var splitAmount = splitAmounts.get(i);
                 var amount = splitAmount.min(component.getLinePrice()).divide(component.getQuantity(), currency.getDefaultFractionDigits(), RoundingMode.FLOOR)
                         .multiply(component.getQuantity());
+                // phần dư bên dưới trừ tiếp vào subtotal
+                component.setSubtotal(component.getSubtotal().subtract(amount));
                 var remainder = splitAmount.subtract(amount);
                 totalRemainder = totalRemainder.add(remainder);
                 var allocation = ComboPacksizeDioscuntAllocationResponse.builder()
@@ -482,9 +623,11 @@ public class CombinationCalculateService extends CombinationProcessor {
         return canBeOddComponent;
     }
 
-    private CombinationLineItemComponent buildComboComponent(
-            ComboItem comboItem,
-            ProductResponse.Product childProduct,
+    /**
+     * Tính số lượng, giá và phần dư của component (bản copy template, price đang là giá combo item) cho line combo
+     */
+    private static void buildComboComponent(
+            CombinationLineItemComponent component,
             BigDecimal lineItemQuantity,
             BigDecimal lineItemPrice,
             BigDecimal appliedPrice,
@@ -494,24 +637,9 @@ public class CombinationCalculateService extends CombinationProcessor {
             BigDecimal originalComboPrice,
             BigDecimal totalItemCount
     ) {
-        var componentQuantity = comboItem.getQuantity().multiply(lineItemQuantity);
-        var componentBuilder = CombinationLineItemComponent.builder()
-                .variantId(comboItem.getVariantId())
-                .productId(childProduct.getId())
-                .inventoryItemId(comboItem.getInventoryItemId())
-                .sku(comboItem.getSku())
-                .title(childProduct.getName())
-                .variantTitle(comboItem.getTitle())
-                .vendor(childProduct.getVendor())
-                .unit(comboItem.getUnit())
-                .inventoryManagement(comboItem.getInventoryManagement())
-                .inventoryPolicy(comboItem.getInventoryPolicy())
-                .grams(comboItem.getGrams())
-                .requireShipping(comboItem.isRequiresShipping())
-                .taxable(comboItem.isTaxable())
-                .quantity(componentQuantity)
-                .baseQuantity(comboItem.getQuantity())
-                .type(VariantType.combo);
+        var baseQuantity = component.getBaseQuantity();
+        var comboItemPrice = component.getPrice();
+        var componentQuantity = baseQuantity.multiply(lineItemQuantity);
 
         BigDecimal itemUnitPrice;
         BigDecimal componentLinePrice;
@@ -520,9 +648,9 @@ public class CombinationCalculateService extends CombinationProcessor {
             // Giá dược phân bổ về line
             var splitPrice = isAvgSplit || BigDecimal.ZERO.equals(originalComboPrice)
                     ? lineItemPrice
-                    .multiply(comboItem.getQuantity())
+                    .multiply(baseQuantity)
                     .divide(totalItemCount, currency.getDefaultFractionDigits(), RoundingMode.HALF_UP)
-                    : comboItem.getPrice()
+                    : comboItemPrice
                     .multiply(componentQuantity).multiply(lineItemPrice)
                     .divide(originalComboPrice, currency.getDefaultFractionDigits(), RoundingMode.HALF_UP);
 
@@ -539,17 +667,20 @@ public class CombinationCalculateService extends CombinationProcessor {
             componentLinePrice = itemUnitPrice.multiply(componentQuantity);
             remainder = splitPrice.subtract(componentLinePrice);
         }
-        return componentBuilder
-                .price(itemUnitPrice)
-                .linePrice(componentLinePrice)
-                .remainder(remainder)
-                .canBeOdd(NumberUtils.isPositive(remainder))
-                .build();
+        component.setQuantity(componentQuantity);
+        component.setPrice(itemUnitPrice);
+        component.setLinePrice(componentLinePrice);
+        component.setRemainder(remainder);
+        component.setCanBeOdd(NumberUtils.isPositive(remainder));
     }
 
+    /**
+     * Các lookup SapoClient không phụ thuộc nhau chạy song song qua SapoBatchLoader:
+     * variant -> (combo | packsize -> variant của packsize), product của mỗi nhóm được load ngay khi biết id
+     */
     @Override
     protected CalculateProductInfo getProductInfo(int storeId, CombinationCalculateRequest request) {
-        var productInfoBuilder = CalculateProductInfo.builder();
+        var productInfoBuilder = CalculateProductInfo.builder().storeId(storeId);
         var variantIds = request.getLineItems().stream()
                 .filter(line -> !line.isCustom())
                 .map(CombinationLineItemRequest::getVariantId)
@@ -557,51 +688,54 @@ public class CombinationCalculateService extends CombinationProcessor {
                 .distinct().toList();
         if (CollectionUtils.isEmpty(variantIds))
             return productInfoBuilder.build();
-        var variants = sapoClient.variantFilter(storeId, variantIds).getVariants();
-        var variantMap = variants.stream().collect(Collectors.toMap(VariantResponse.Variant::getId, Function.identity()));
-        var allProductIds = variants.stream().map(VariantResponse.Variant::getProductId).collect(Collectors.toList());
-        var comboVariantIds = variants.stream()
-                .filter(variant -> variant.getType() == VariantType.packsize)
-                .map(VariantResponse.Variant::getId)
-                .toList();
-        var packsizeIds = variants.stream()
-                .filter(variant -> variant.getType() == VariantType.packsize)
-                .map(VariantResponse.Variant::getId)
-                .toList();
-        if (CollectionUtils.isNotEmpty(comboVariantIds)) {
-            var combos = sapoClient.comboFilter(storeId, ComboFilter.builder().variantIds(comboVariantIds).build()).getCombos();
-            productInfoBuilder.comboMap(combos.stream().collect(Collectors.toMap(Combo::getVariantId, Function.identity())));
 
+        var lookup = sapoBatchLoader.newLookup(storeId);
+        var variantsFuture = lookup.variants(variantIds);
+        var combosFuture = variantsFuture.thenCompose(variants -> lookup.combos(variantIdsOfType(variants, VariantType.combo)));
+        var packsizesFuture = variantsFuture.thenCompose(variants -> lookup.packsizes(variantIdsOfType(variants, VariantType.packsize)));
+        var packsizeVariantsFuture = packsizesFuture.thenCompose(packsizes -> lookup.variants(
+                packsizes.values().stream().map(Packsize::getPacksizeVariantId).distinct().toList()));
+        var comboVariantsFuture = combosFuture.thenApply(combos -> {
             Map<Integer, VariantResponse.Variant> comboVariantMap = new HashMap<>();
-            combos.stream().flatMap(combo -> combo.getComboItems().stream())
+            combos.values().stream().flatMap(combo -> combo.getComboItems().stream())
                     .forEach(item -> comboVariantMap.putIfAbsent(item.getVariantId(), combinationMapper.toVariant(item)));
-            variantMap.putAll(comboVariantMap);
+            return comboVariantMap;
+        });
+
+        var productsFuture = CompletableFuture.allOf(
+                        variantsFuture.thenCompose(variants -> lookup.products(productIdsOf(variants))),
+                        comboVariantsFuture.thenCompose(variants -> lookup.products(productIdsOf(variants))),
+                        packsizeVariantsFuture.thenCompose(variants -> lookup.products(productIdsOf(variants))))
+                .thenCompose(ignored -> lookup.products(productIdsOf(
+                        variantsFuture.join(), comboVariantsFuture.join(), packsizeVariantsFuture.join())));
+
+        CompletableFuture<TaxSetting> taxSettingFuture = CompletableFuture.completedFuture(null);
+        if (request.isCalculateTax()) {
+            String countryCode = request.getCountryCode();
+            taxSettingFuture = productsFuture.thenCompose(products -> sapoBatchLoader.supplyAsync(
+                    () -> taxHelper.getTaxSetting(storeId, countryCode, products.keySet(), false)));
+        }
 
-            allProductIds.addAll(comboVariantMap.values().stream().map(VariantResponse.Variant::getProductId).distinct().toList());
+        Map<Integer, VariantResponse.Variant> variantMap = new HashMap<>(lookup.join(variantsFuture));
+        var combos = lookup.join(combosFuture);
+        if (!combos.isEmpty()) {
+            productInfoBuilder.comboMap(new HashMap<>(combos));
+            variantMap.putAll(lookup.join(comboVariantsFuture));
         }
-        if (CollectionUtils.isNotEmpty(packsizeIds)) {
-            var packsizes = sapoClient.packsizeFilter(storeId, packsizeIds).getPacksizes();
-            productInfoBuilder.packsizeMap(packsizes.stream().collect(Collectors.toMap(Packsize::getId, Function.identity())));
-            var packsizeVariantIds = packsizes.stream().map(Packsize::getPacksizeVariantId).distinct().toList();
-            var packsizeVariantMap = sapoClient.variantFilter(storeId, packsizeVariantIds).getVariants()
-                    .stream().collect(Collectors.toMap(VariantResponse.Variant::getId, Function.identity()));
-            variantMap.putAll(packsizeVariantMap);
-            allProductIds.addAll(packsizeVariantMap.values().stream().map(VariantResponse.Variant::getProductId).distinct().toList());
+        var packsizes = lookup.join(packsizesFuture);
+        if (!packsizes.isEmpty()) {
+            productInfoBuilder.packsizeMap(new HashMap<>(packsizes));
+            variantMap.putAll(lookup.join(packsizeVariantsFuture));
         }
 
         productInfoBuilder.variantMap(variantMap);
-
-        var productIds = allProductIds.stream().distinct().toList();
-        var productMap = sapoClient.productFilter(storeId, productIds).getProducts().stream()
-                .collect(Collectors.toMap(ProductResponse.Product::getId, Function.identity()));
-        productInfoBuilder.productMap(productMap);
+        productInfoBuilder.productMap(new HashMap<>(lookup.join(productsFuture)));
 
         productInfoBuilder.currency(Currency.getInstance(request.getCurrency()));
         productInfoBuilder.remainderUnit(BigDecimal.ONE.movePointRight(2));
 
         if (request.isCalculateTax()) {
-            String countryCode = request.getCountryCode();
-            var taxSetting = taxHelper.getTaxSetting(storeId, countryCode, productMap.keySet(), false);
+            var taxSetting = lookup.join(taxSettingFuture);
             var countryTax = taxSetting.getTaxes().stream()
                     .filter(taxValue -> !NumberUtils.isPositive(taxValue.getProductId()))
                     .findFirst().orElse(TaxSettingValue.builder().rate(BigDecimal.ZERO).build());
@@ -616,6 +750,22 @@ public class CombinationCalculateService extends CombinationProcessor {
         return productInfoBuilder.build();
     }
 
+    private static List<Integer> variantIdsOfType(Map<Integer, VariantResponse.Variant> variants, VariantType type) {
+        return variants.values().stream()
+                .filter(variant -> variant.getType() == type)
+                .map(VariantResponse.Variant::getId)
+                .toList();
+    }
+
+    @SafeVarargs
+    private static List<Integer> productIdsOf(Map<Integer, VariantResponse.Variant>... variantMaps) {
+        return Arrays.stream(variantMaps)
+                .flatMap(variants -> variants.values().stream())
+                .map(VariantResponse.Variant::getProductId)
+                .distinct()
+                .toList();
+    }
+
     @Override
     public void validate(CombinationCalculateRequest request) {
         if (CollectionUtils.isEmpty(request.getLineItems())) {
@@ -0,0 +1,81 @@
+package org.example.order.order.application.service.combination;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.example.order.order.application.model.combination.response.CombinationLineItemComponent;
+import org.example.order.order.domain.draftorder.model.VariantType;
+import org.example.order.order.infrastructure.configuration.CombinationExpansionCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache template component của 1 đơn vị line combo/packsize (thông tin product/variant con, số lượng và giá của 1 combo item).
+ * - Key gồm store, variant combo/packsize và phiên bản của variant, combo item/packsize và product con
+ * (modifiedOn, quantity, price): sản phẩm đổi thì key đổi, entry cũ hết hạn theo ttl
+ * - Số lượng và giá line không nằm trong key: CombinationCalculateService nhân số lượng, phân bổ giá và làm tròn theo từng request
+ * - Luôn trả về bản copy, request được sửa tiếp component (giá, discount, tax) mà không ảnh hưởng cache
+ */
+@Component
+public class CombinationExpansionCache {
+
+    private final Cache<Key, List<CombinationLineItemComponent>> templates;
+
+    public CombinationExpansionCache(CombinationExpansionCacheProperties properties, MeterRegistry meterRegistry) {
+        this.templates = CacheBuilder.newBuilder()
+                .maximumSize(properties.isEnabled() ? properties.getMaximumSize() : 0)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, this.templates, "combination_expansion");
+    }
+
+    /**
+     * @param loader template theo thứ tự combo item, quantity = baseQuantity = số lượng trong 1 đơn vị line, price = giá combo item
+     */
+    public List<CombinationLineItemComponent> get(Key key, Supplier<List<CombinationLineItemComponent>> loader) {
+        var template = this.templates.getIfPresent(key);
+        if (template == null) {
+            // 2 request cùng miss thì cùng tính, kết quả như nhau nên không cần single-flight
+            template = List.copyOf(loader.get());
+            this.templates.put(key, template);
+        }
+        return template.stream().map(CombinationExpansionCache::copyComponent).toList();
+    }
+
+    /**
+     * @param version các giá trị quyết định template của sản phẩm, cho phép null
+     */
+    public record Key(int storeId, VariantType type, int variantId, List<Object> version) {
+    }
+
+    private static CombinationLineItemComponent copyComponent(CombinationLineItemComponent component) {
+        return CombinationLineItemComponent.builder()
+                .variantId(component.getVariantId())
+                .productId(component.getProductId())
+                .inventoryItemId(component.getInventoryItemId())
+                .sku(component.getSku())
+                .title(component.getTitle())
+                .variantTitle(component.getVariantTitle())
+                .vendor(component.getVendor())
+                .unit(component.getUnit())
+                .inventoryManagement(component.getInventoryManagement())
+                .inventoryPolicy(component.getInventoryPolicy())
+                .grams(component.getGrams())
+                .requireShipping(component.isRequireShipping())
+                .taxable(component.isTaxable())
+                .quantity(component.getQuantity())
+                .baseQuantity(component.getBaseQuantity())
+                .price(component.getPrice())
+                .linePrice(component.getLinePrice())
+                .subtotal(component.getSubtotal())
+                .remainder(component.getRemainder())
+                .type(component.getType())
+                .canBeOdd(component.isCanBeOdd())
+                .changed(component.isChanged())
+                .build();
+    }
+}
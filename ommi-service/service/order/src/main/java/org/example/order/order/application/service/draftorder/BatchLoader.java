@@ -0,0 +1,152 @@
+package org.example.order.order.application.service.draftorder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Gom các id được yêu cầu cho cùng 1 store trong khoảng window thành 1 lần gọi batchFunction.
+ * - Id đã nằm trong batch đang chờ thì dùng chung future
+ * - Batch đủ maxBatchSize id thì gọi ngay, không chờ hết window
+ * - window = 0 => mỗi lần loadMany là 1 batch (chỉ gộp với các request đang thêm id cùng lúc)
+ * - Id không có trong kết quả => null
+ * - Lần gọi chưa xong sau timeoutNanos bị cancel (interrupt), các future của batch lỗi TimeoutException
+ */
+@Slf4j
+final class BatchLoader<V> {
+
+    private final String name;
+    private final BiFunction<Integer, List<Integer>, List<V>> batchFunction;
+    private final ToIntFunction<V> keyOf;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+
+    private final ConcurrentHashMap<Integer, Batch<V>> pending = new ConcurrentHashMap<>();
+
+    BatchLoader(
+            String name,
+            BiFunction<Integer, List<Integer>, List<V>> batchFunction,
+            ToIntFunction<V> keyOf,
+            long windowNanos,
+            int maxBatchSize,
+            long timeoutNanos,
+            ScheduledExecutorService scheduler,
+            ExecutorService executor
+    ) {
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.keyOf = keyOf;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeoutNanos = timeoutNanos;
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    Map<Integer, CompletableFuture<V>> loadMany(int storeId, Collection<Integer> keys) {
+        Map<Integer, CompletableFuture<V>> futures = new HashMap<>(keys.size());
+        Batch<V> batch = null;
+        for (var key : keys) {
+            if (futures.containsKey(key)) continue;
+            while (true) {
+                if (batch == null) {
+                    batch = this.pending.computeIfAbsent(storeId, id -> this.newBatch(storeId));
+                }
+                var future = batch.add(key, this.maxBatchSize);
+                if (future != null) {
+                    futures.put(key, future);
+                    break;
+                }
+                // batch đã gửi đi hoặc đã đầy
+                this.dispatch(storeId, batch);
+                batch = null;
+            }
+        }
+        if (batch != null && (this.windowNanos <= 0 || batch.size() >= this.maxBatchSize)) {
+            this.dispatch(storeId, batch);
+        }
+        return futures;
+    }
+
+    private Batch<V> newBatch(int storeId) {
+        var batch = new Batch<V>();
+        if (this.windowNanos > 0) {
+            this.scheduler.schedule(() -> this.dispatch(storeId, batch), this.windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return batch;
+    }
+
+    private void dispatch(int storeId, Batch<V> batch) {
+        this.pending.remove(storeId, batch);
+        var futures = batch.close();
+        if (futures == null) return;
+
+        var task = this.executor.submit(() -> {
+            List<V> values;
+            try {
+                values = this.batchFunction.apply(storeId, new ArrayList<>(futures.keySet()));
+            } catch (RuntimeException exception) {
+                log.warn("Batch {} of store {} failed, {} keys", this.name, storeId, futures.size(), exception);
+                futures.values().forEach(future -> future.completeExceptionally(exception));
+                return;
+            }
+            for (var value : values) {
+                var future = futures.get(this.keyOf.applyAsInt(value));
+                if (future != null) future.complete(value);
+            }
+            futures.values().forEach(future -> future.complete(null));
+        });
+        // không để lần gọi treo giữ thread của pool sau khi mọi lookup đã bỏ cuộc
+        // complete trước rồi mới cancel: lần gọi bị interrupt có thể trả kết quả rỗng trước khi kịp báo timeout
+        var timer = this.scheduler.schedule(() -> {
+            var exception = new TimeoutException("Batch %s of store %d timed out".formatted(this.name, storeId));
+            var timedOut = false;
+            for (var future : futures.values()) {
+                timedOut |= future.completeExceptionally(exception);
+            }
+            if (timedOut) {
+                log.warn("Batch {} of store {} timed out, {} keys", this.name, storeId, futures.size());
+                task.cancel(true);
+            }
+        }, this.timeoutNanos, TimeUnit.NANOSECONDS);
+        CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, exception) -> timer.cancel(false));
+    }
+
+    private static final class Batch<V> {
+        private final Map<Integer, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        private boolean closed;
+
+        /**
+         * null nếu batch đã đóng hoặc đã đủ maxBatchSize id
+         */
+        synchronized CompletableFuture<V> add(int key, int maxBatchSize) {
+            if (this.closed) return null;
+            var future = this.futures.get(key);
+            if (future != null) return future;
+            if (this.futures.size() >= maxBatchSize) return null;
+            future = new CompletableFuture<>();
+            this.futures.put(key, future);
+            return future;
+        }
+
+        synchronized int size() {
+            return this.futures.size();
+        }
+
+        /**
+         * null nếu batch đã được đóng trước đó
+         */
+        synchronized Map<Integer, CompletableFuture<V>> close() {
+            if (this.closed) return null;
+            this.closed = true;
+            return this.futures;
+        }
+    }
+}
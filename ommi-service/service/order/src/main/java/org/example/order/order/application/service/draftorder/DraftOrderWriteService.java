@@ -63,7 +63,6 @@ public class DraftOrderWriteService {
 
         var draftOrder = new DraftOrder(
                 draftId,
-                numberGenerator,
                 request.getCopyOrderId(),
                 currency,
                 request.getUserId(),
@@ -79,6 +78,7 @@ public class DraftOrderWriteService {
 
     private DraftOrderId createOrUpdateDraftOrder(int storeId, DraftOrder draftOrder, DraftOrderCreateRequest request) {
         buildDraftOrder(storeId, draftOrder, request);
+        draftOrder.assignNumber(numberGenerator);
         draftOrderRepository.save(draftOrder);
         return draftOrder.getId();
     }
@@ -0,0 +1,199 @@
+package org.example.order.order.application.service.draftorder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.example.order.order.infrastructure.configuration.SapoBatchProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lookup variant/combo/packsize/product qua SapoClient theo kiểu DataLoader:
+ * các id cùng store được yêu cầu gần nhau (trong sapo-batch.window) được gom thành 1 lần gọi,
+ * các lookup không phụ thuộc nhau chạy song song trên pool riêng.
+ * Mỗi lần tính dùng 1 Lookup, id đã load trong Lookup không gọi lại, chờ kết quả tối đa sapo-batch.timeout
+ */
+@Component
+public class SapoBatchLoader {
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executorService;
+    private final ExecutorService taskExecutorService;
+    private final Duration timeout;
+
+    private final BatchLoader<VariantResponse.Variant> variants;
+    private final BatchLoader<Combo> combos;
+    private final BatchLoader<Packsize> packsizes;
+    private final BatchLoader<ProductResponse.Product> products;
+
+    public SapoBatchLoader(SapoClient sapoClient, SapoBatchProperties properties, MeterRegistry meterRegistry) {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "sapo-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var threadCount = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(properties.getThreads(), runnable -> {
+            var thread = new Thread(runnable, "sapo-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executorService = ExecutorServiceMetrics.monitor(meterRegistry, executor, "sapo_batch");
+        var taskThreadCount = new AtomicInteger();
+        var taskExecutor = Executors.newFixedThreadPool(properties.getTaskThreads(), runnable -> {
+            var thread = new Thread(runnable, "sapo-task-" + taskThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.taskExecutorService = ExecutorServiceMetrics.monitor(meterRegistry, taskExecutor, "sapo_task");
+        this.timeout = properties.getTimeout();
+        var timeoutNanos = this.timeout.toNanos();
+
+        var windowNanos = properties.isEnabled() ? properties.getWindow().toNanos() : 0;
+        var maxBatchSize = properties.getMaxBatchSize();
+        this.variants = new BatchLoader<>("variant",
+                (storeId, ids) -> orEmpty(sapoClient.variantFilter(storeId, ids), VariantResponse::getVariants),
+                VariantResponse.Variant::getId, windowNanos, maxBatchSize, timeoutNanos, this.scheduler, this.executorService);
+        this.combos = new BatchLoader<>("combo",
+                (storeId, ids) -> orEmpty(sapoClient.comboFilter(storeId, ComboFilter.builder().variantIds(ids).build()), ComboResponse::getCombos),
+                Combo::getVariantId, windowNanos, maxBatchSize, timeoutNanos, this.scheduler, this.executorService);
+        this.packsizes = new BatchLoader<>("packsize",
+                (storeId, ids) -> orEmpty(sapoClient.packsizeFilter(storeId, ids), PacksizeResponse::getPacksizes),
+                Packsize::getId, windowNanos, maxBatchSize, timeoutNanos, this.scheduler, this.executorService);
+        this.products = new BatchLoader<>("product",
+                (storeId, ids) -> orEmpty(sapoClient.productFilter(storeId, ids), ProductResponse::getProducts),
+                ProductResponse.Product::getId, windowNanos, maxBatchSize, timeoutNanos, this.scheduler, this.executorService);
+    }
+
+    private static <R, V> List<V> orEmpty(R response, Function<R, List<V>> values) {
+        if (response == null) return List.of();
+        var result = values.apply(response);
+        return result == null ? List.of() : result;
+    }
+
+    public Lookup newLookup(int storeId) {
+        return new Lookup(storeId);
+    }
+
+    /**
+     * Chạy task chặn (vd: TaxHelper) trên pool task riêng để song song với các lookup khác mà không chiếm thread gọi SapoClient.
+     * Task chưa xong sau sapo-batch.timeout bị interrupt và future lỗi TimeoutException
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        var result = new CompletableFuture<T>();
+        var task = this.taskExecutorService.submit(() -> {
+            try {
+                result.complete(supplier.get());
+            } catch (RuntimeException exception) {
+                result.completeExceptionally(exception);
+            }
+        });
+        // complete trước rồi mới cancel: task bị interrupt có thể trả kết quả trước khi kịp báo timeout
+        var timer = this.scheduler.schedule(() -> {
+            if (result.completeExceptionally(new TimeoutException("Sapo task timed out after %s".formatted(this.timeout)))) {
+                task.cancel(true);
+            }
+        }, this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, exception) -> timer.cancel(false));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+        this.executorService.shutdown();
+        this.taskExecutorService.shutdown();
+    }
+
+    /**
+     * Các lookup của 1 lần tính. Kết quả: map id -> giá trị, id không tồn tại thì không có trong map
+     */
+    public final class Lookup {
+        private final int storeId;
+        private final long deadlineNanos;
+
+        private final Map<Integer, CompletableFuture<VariantResponse.Variant>> loadedVariants = new ConcurrentHashMap<>();
+        private final Map<Integer, CompletableFuture<Combo>> loadedCombos = new ConcurrentHashMap<>();
+        private final Map<Integer, CompletableFuture<Packsize>> loadedPacksizes = new ConcurrentHashMap<>();
+        private final Map<Integer, CompletableFuture<ProductResponse.Product>> loadedProducts = new ConcurrentHashMap<>();
+
+        private Lookup(int storeId) {
+            this.storeId = storeId;
+            this.deadlineNanos = System.nanoTime() + SapoBatchLoader.this.timeout.toNanos();
+        }
+
+        /**
+         * Chờ kết quả trong thời gian còn lại của lookup (tính từ lúc tạo), lỗi của lần gọi được ném ra nguyên gốc
+         */
+        public <T> T join(CompletableFuture<T> future) {
+            try {
+                return future.get(Math.max(0, this.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof RuntimeException cause) throw cause;
+                throw new IllegalStateException(exception.getCause());
+            } catch (TimeoutException exception) {
+                throw new IllegalStateException("Sapo lookups of store %d timed out after %s".formatted(this.storeId, SapoBatchLoader.this.timeout), exception);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for sapo lookups", exception);
+            }
+        }
+
+        public CompletableFuture<Map<Integer, VariantResponse.Variant>> variants(Collection<Integer> variantIds) {
+            return this.load(SapoBatchLoader.this.variants, this.loadedVariants, variantIds);
+        }
+
+        public CompletableFuture<Map<Integer, Combo>> combos(Collection<Integer> variantIds) {
+            return this.load(SapoBatchLoader.this.combos, this.loadedCombos, variantIds);
+        }
+
+        public CompletableFuture<Map<Integer, Packsize>> packsizes(Collection<Integer> variantIds) {
+            return this.load(SapoBatchLoader.this.packsizes, this.loadedPacksizes, variantIds);
+        }
+
+        public CompletableFuture<Map<Integer, ProductResponse.Product>> products(Collection<Integer> productIds) {
+            return this.load(SapoBatchLoader.this.products, this.loadedProducts, productIds);
+        }
+
+        private <V> CompletableFuture<Map<Integer, V>> load(
+                BatchLoader<V> loader,
+                Map<Integer, CompletableFuture<V>> loaded,
+                Collection<Integer> ids
+        ) {
+            if (ids.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+
+            Map<Integer, CompletableFuture<V>> futures = new LinkedHashMap<>(ids.size());
+            List<Integer> missIds = new ArrayList<>();
+            for (var id : ids) {
+                var future = loaded.get(id);
+                if (future != null) {
+                    futures.put(id, future);
+                } else if (!futures.containsKey(id)) {
+                    missIds.add(id);
+                }
+            }
+            if (!missIds.isEmpty()) {
+                loader.loadMany(this.storeId, missIds).forEach((id, future) -> {
+                    var previous = loaded.putIfAbsent(id, future);
+                    futures.put(id, previous != null ? previous : future);
+                });
+            }
+
+            return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> {
+                        Map<Integer, V> result = new LinkedHashMap<>(futures.size());
+                        futures.forEach((id, future) -> {
+                            var value = future.join();
+                            if (value != null) result.put(id, value);
+                        });
+                        return result;
+                    });
+        }
+    }
+}
@@ -1,41 +1,91 @@
 package org.example.order.order.application.service.draftorder;
 
-import lombok.RequiredArgsConstructor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.example.order.order.application.model.draftorder.ProductTax;
 import org.example.order.order.application.model.draftorder.ShippingTax;
 import org.example.order.order.application.model.draftorder.TaxSetting;
 import org.example.order.order.application.model.draftorder.TaxSettingValue;
+import org.example.order.order.infrastructure.configuration.TaxCacheProperties;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+/**
+ * Tax setting, thuế theo product, thuế shipping theo quốc gia được cache theo store trong ttl.
+ * - Cache giữ CompletableFuture => các request đồng thời cùng key dùng chung 1 lần gọi SapoClient (single-flight)
+ * - Thuế product: chỉ gọi SapoClient cho các product chưa có trong cache, 1 lần gọi cho tất cả
+ * - Lần gọi lỗi / hết timeout không được cache
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TaxHelperImpl implements TaxHelper {
 
     private final SapoClient sapoClient;
 
-    private static final int MAX_RETRY = 3;
-    private static final int TIME_OUT = 5;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    private final Duration fetchTimeout;
+    private final int maxAttempts;
+    private final ExecutorService executorService;
+
+    private final Cache<Integer, CompletableFuture<TaxSetting>> taxSettings;
+    private final Cache<ProductKey, CompletableFuture<List<ProductTax>>> productTaxes;
+    private final Cache<ShippingKey, CompletableFuture<ShippingTax>> shippingTaxes;
+
+    public TaxHelperImpl(SapoClient sapoClient, TaxCacheProperties properties, MeterRegistry meterRegistry) {
+        this.sapoClient = sapoClient;
+        this.fetchTimeout = properties.getFetchTimeout();
+        this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+
+        var threadCount = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(properties.getFetchThreads(), runnable -> {
+            var thread = new Thread(runnable, "tax-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executorService = ExecutorServiceMetrics.monitor(meterRegistry, executor, "tax_fetch");
+
+        var maximumSize = properties.isEnabled() ? properties.getMaximumSize() : 0;
+        this.taxSettings = newCache(maximumSize, properties.getTtl());
+        this.productTaxes = newCache(maximumSize, properties.getTtl());
+        this.shippingTaxes = newCache(maximumSize, properties.getTtl());
+        GuavaCacheMetrics.monitor(meterRegistry, this.taxSettings, "tax_setting");
+        GuavaCacheMetrics.monitor(meterRegistry, this.productTaxes, "product_tax");
+        GuavaCacheMetrics.monitor(meterRegistry, this.shippingTaxes, "shipping_tax");
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, Duration ttl) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
 
     @Override
     public TaxSetting getTaxSetting(int storeId, String countryCode, Set<Integer> productIds, boolean includeShipping) {
-        log.info("Fetch taxSetting for store: {}, countryCode: {}, productIds: {}", storeId, countryCode, productIds);
+        if (log.isDebugEnabled()) {
+            log.debug("Fetch taxSetting for store: {}, countryCode: {}, productIds: {}", storeId, countryCode, productIds);
+        }
 
-        CompletableFuture<TaxSetting> taxSettingSupply = fetchAsync(() -> sapoClient.taxSettingGet(storeId));
+        CompletableFuture<TaxSetting> taxSettingSupply = singleFlight(this.taxSettings, storeId,
+                () -> fetchAsync(() -> sapoClient.taxSettingGet(storeId)));
         CompletableFuture<List<ProductTax>> productTaxSupply = CollectionUtils.isEmpty(productIds)
                 ? CompletableFuture.completedFuture(List.of())
-                : fetchAsync(() -> sapoClient.productTaxes(storeId, productIds));
+                : getProductTaxes(storeId, productIds);
         CompletableFuture<ShippingTax> shippingTaxSupply = includeShipping
-                ? fetchAsync(() -> sapoClient.shippingTax(storeId, SapoClient.ShippingTaxFilter.builder().countryCode(countryCode).build()))
+                ? singleFlight(this.shippingTaxes, new ShippingKey(storeId, countryCode),
+                () -> fetchAsync(() -> sapoClient.shippingTax(storeId, SapoClient.ShippingTaxFilter.builder().countryCode(countryCode).build())))
                 : CompletableFuture.completedFuture(null);
 
         CompletableFuture.allOf(taxSettingSupply, productTaxSupply, shippingTaxSupply)
@@ -84,21 +134,160 @@ public class TaxHelperImpl implements TaxHelper {
                 .build();
     }
 
+    /**
+     * Thuế của mỗi product (thuế riêng, không có thì thuế mặc định của store) được cache riêng.
+     * null nếu không lấy được thuế của 1 product bất kỳ
+     */
+    private CompletableFuture<List<ProductTax>> getProductTaxes(int storeId, Set<Integer> productIds) {
+        List<CompletableFuture<List<ProductTax>>> futures = new ArrayList<>(productIds.size());
+        Map<ProductKey, CompletableFuture<List<ProductTax>>> owned = new HashMap<>();
+        var batch = new CompletableFuture<Map<Integer, List<ProductTax>>>();
+        for (var productId : productIds) {
+            var key = new ProductKey(storeId, productId);
+            var future = this.productTaxes.getIfPresent(key);
+            if (future == null) {
+                var created = batch.thenApply(taxes -> taxes.get(productId));
+                future = this.productTaxes.asMap().putIfAbsent(key, created);
+                if (future == null) {
+                    owned.put(key, created);
+                    future = created;
+                }
+            }
+            futures.add(future);
+        }
+
+        if (!owned.isEmpty()) {
+            Set<Integer> ownedIds = new HashSet<>();
+            owned.forEach((key, created) -> {
+                ownedIds.add(key.productId());
+                created.whenComplete((taxes, error) -> {
+                    if (error != null || taxes == null) this.productTaxes.asMap().remove(key, created);
+                });
+            });
+            fetchAsync(() -> sapoClient.productTaxes(storeId, ownedIds)).whenComplete((taxes, error) -> {
+                if (error != null) {
+                    batch.completeExceptionally(error);
+                } else {
+                    batch.complete(groupByProduct(ownedIds, taxes));
+                }
+            });
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> mergeProductTaxes(futures));
+    }
+
+    /**
+     * Kết quả rỗng (không lấy được) => không có product nào trong map
+     */
+    private static Map<Integer, List<ProductTax>> groupByProduct(Set<Integer> productIds, List<ProductTax> taxes) {
+        if (CollectionUtils.isEmpty(taxes)) return Map.of();
+
+        List<ProductTax> defaultTaxes = new ArrayList<>();
+        Map<Integer, List<ProductTax>> productTaxes = new HashMap<>();
+        for (var tax : taxes) {
+            if (tax.getProductId() > 0) {
+                productTaxes.computeIfAbsent(tax.getProductId(), id -> new ArrayList<>()).add(tax);
+            } else {
+                defaultTaxes.add(tax);
+            }
+        }
+
+        Map<Integer, List<ProductTax>> result = new HashMap<>(productIds.size());
+        for (var productId : productIds) {
+            result.put(productId, List.copyOf(productTaxes.getOrDefault(productId, defaultTaxes)));
+        }
+        return result;
+    }
+
+    private static List<ProductTax> mergeProductTaxes(List<CompletableFuture<List<ProductTax>>> futures) {
+        List<ProductTax> result = new ArrayList<>();
+        Set<DefaultTaxKey> defaultTaxes = new HashSet<>();
+        for (var future : futures) {
+            var taxes = future.join();
+            if (taxes == null) return null;
+            for (var tax : taxes) {
+                // thuế mặc định của store lặp lại ở mọi product không có thuế riêng
+                if (tax.getProductId() > 0 || defaultTaxes.add(new DefaultTaxKey(tax.getTaxName(), tax.getTaxRate()))) {
+                    result.add(tax);
+                }
+            }
+        }
+        return result;
+    }
+
+    private <K, V> CompletableFuture<V> singleFlight(Cache<K, CompletableFuture<V>> cache, K key, Supplier<CompletableFuture<V>> loader) {
+        var future = cache.getIfPresent(key);
+        if (future != null) return future;
+
+        var created = new CompletableFuture<V>();
+        future = cache.asMap().putIfAbsent(key, created);
+        if (future != null) return future;
+
+        loader.get().whenComplete((value, error) -> {
+            if (error != null || value == null) cache.asMap().remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Hết timeout thì gọi lại, quá maxAttempts lần => null. Lỗi khác không gọi lại
+     */
     private <T> CompletableFuture<T> fetchAsync(Supplier<T> supplier) {
-        return CompletableFuture.supplyAsync(() -> retryWithTimeout(supplier, MAX_RETRY, TIME_OUT), executorService);
+        return fetchAsync(supplier, 1);
     }
 
-    private <T> T retryWithTimeout(Supplier<T> supplier, int maxRetry, int timeOut) {
-        for (int i = 0; i < maxRetry; i++) {
+    private <T> CompletableFuture<T> fetchAsync(Supplier<T> supplier, int attempt) {
+        return callWithTimeout(supplier)
+                .exceptionallyCompose(error -> {
+                    var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof TimeoutException)) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    log.warn("Attempt {}/{} - Timeout occurred", attempt, this.maxAttempts);
+                    if (attempt >= this.maxAttempts) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return fetchAsync(supplier, attempt + 1);
+                });
+    }
+
+    /**
+     * Hết timeout thì huỷ lần gọi (interrupt thread đang gọi, bỏ khỏi hàng đợi nếu chưa chạy)
+     * => lần gọi bị treo không giữ thread của executorService khi gọi lại
+     */
+    private <T> CompletableFuture<T> callWithTimeout(Supplier<T> supplier) {
+        var result = new CompletableFuture<T>();
+        Future<?> call = this.executorService.submit(() -> {
             try {
-                return CompletableFuture.supplyAsync(supplier)
-                        .get(timeOut, TimeUnit.MICROSECONDS);
-            } catch (TimeoutException exception) {
-                log.warn("Attempt {}/{} - Timeout occurred", i, timeOut);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                result.complete(supplier.get());
+            } catch (Throwable error) {
+                result.completeExceptionally(error);
             }
-        }
-        return null;
+        });
+        result.orTimeout(this.fetchTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, error) -> {
+                    if (error instanceof TimeoutException) call.cancel(true);
+                });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executorService.shutdown();
+    }
+
+    private record ProductKey(int storeId, int productId) {
+    }
+
+    private record ShippingKey(int storeId, String countryCode) {
+    }
+
+    private record DefaultTaxKey(String taxName, BigDecimal taxRate) {
     }
 }
@@ -0,0 +1,20 @@
+package org.example.order.order.application.service.fulfillment;
+
+import lombok.RequiredArgsConstructor;
+import org.example.AdminClient;
+import org.example.shipping.ShippingRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class AdminShippingCarrierClient implements ShippingCarrierClient {
+
+    private final AdminClient adminClient;
+
+    @Override
+    public void submit(int storeId, String deliveryMethod, List<ShippingRequest> requests) {
+        this.adminClient.shippingRequestBatchCreate(storeId, deliveryMethod, requests);
+    }
+}
@@ -6,18 +6,14 @@ import org.example.order.order.infrastructure.configuration.exception.ConstrainV
 import org.example.order.order.application.model.order.request.OrderCreateRequest;
 import org.example.order.order.domain.fulfillment.model.Fulfillment;
 import org.example.order.order.domain.fulfillment.model.FulfillmentId;
-import org.example.order.order.domain.fulfillment.model.FulfillmentLineItem;
 import org.example.order.order.domain.fulfillment.model.OriginAddress;
 import org.example.order.order.domain.fulfillment.persistence.FulfillmentIdGenerator;
 import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
 import org.example.order.order.domain.fulfillmentorder.model.AssignedLocation;
 import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrder;
 import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderId;
-import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderLineItem;
 import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
-import org.example.order.order.domain.order.model.Order;
 import org.example.order.order.domain.order.model.OrderId;
-import org.example.order.order.domain.order.persistence.OrderRepository;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
@@ -31,7 +27,6 @@ public class FulfillService {
     private final FulfillmentIdGenerator idGenerator;
     private final FulfillmentRepository fulfillmentRepository;
     private final FulfillmentOrderRepository fulfillmentOrderRepository;
-    private final OrderRepository orderRepository;
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
@@ -42,7 +37,6 @@ public class FulfillService {
                                        List<FulfillmentOrderId> fulfillmentOrderIds,
                                        OrderCreateRequest.FulfillmentRequest fulfillmentRequest
     ) {
-        var order = this.orderRepository.findById(orderId);
         var fulfillmentOrders = fulfillmentOrderRepository.findByIds(fulfillmentOrderIds);
 
         var deliveryMethod = fulfillmentRequest.getDeliveryMethod();
@@ -51,7 +45,7 @@ public class FulfillService {
             Fulfillment fulfillment = switch (deliveryMethod) {
                 case external_service -> throw new ConstrainViolationException("delivery_method", "is not supported");
                 case external_shipper, internal_shipper, employee, ecommerce, none, pick_up, retail, outside_shipper ->
-                        buildFulfillment(storeId, order, locationId, fulfillmentOrder, fulfillmentRequest);
+                        buildFulfillment(storeId, orderId, locationId, fulfillmentOrder, fulfillmentRequest);
                 default -> throw new ConstrainViolationException("delivery_method", "");
             };
             fulfillmentList.add(fulfillment);
@@ -79,20 +73,22 @@ public class FulfillService {
 
     private Fulfillment buildFulfillment(
             int storeId,
-            Order order,
+            OrderId orderId,
             int locationId,
             FulfillmentOrder fulfillmentOrder,
             OrderCreateRequest.FulfillmentRequest fulfillmentRequest
     ) {
-        var deliveryMethod = fulfillmentOrder.isRequireShipping() ? fulfillmentOrder.getExpectedDeliveryMethod() : FulfillmentOrder.ExpectedDeliveryMethod.none;
-        return new Fulfillment(
+        var lineItems = fulfillmentOrder.getLineItems().stream()
+                .map(line -> new FulfillmentBuilder.FulfilledLineItem(line.getOrderId(), line.getLineItemId(), line.getTotalQuantity()))
+                .toList();
+        return FulfillmentBuilder.build(
                 new FulfillmentId(storeId, idGenerator.generateFulfillmentId()),
-                order.getId().getId(),
+                orderId.getId(),
                 locationId,
-                fulfillmentOrder.getId(),
-                deliveryMethod,
+                fulfillmentOrder,
+                this.idGenerator.generateFulfillmentLineItemIds(lineItems.size()),
+                lineItems,
                 fulfillmentRequest.isSendNotification(),
-                buildLineItem(fulfillmentOrder.getLineItems()),
                 buildOriginAddress(fulfillmentOrder.getAssignedLocation(), fulfillmentRequest.getPickupAddress()),
                 fulfillmentRequest.getShippingStatus()
         );
@@ -101,18 +97,4 @@ public class FulfillService {
     private OriginAddress buildOriginAddress(AssignedLocation assignedLocation, OrderCreateRequest.PickupAddress pickupAddress) {
         return null;
     }
-
-    private List<FulfillmentLineItem> buildLineItem(List<FulfillmentOrderLineItem> lineItems) {
-        var fulfillmentLineItemIds = this.idGenerator.generateFulfillmentLineItemIds(lineItems.size());
-        return lineItems.stream()
-                .map(line ->
-                        new FulfillmentLineItem(
-                                fulfillmentLineItemIds.removeFirst(),
-                                line.getOrderId(),
-                                line.getLineItemId(),
-                                line.getTotalQuantity(),
-                                line.getTotalQuantity()
-                        ))
-                .toList();
-    }
 }
@@ -0,0 +1,57 @@
+package org.example.order.order.application.service.fulfillment;
+
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.model.FulfillmentId;
+import org.example.order.order.domain.fulfillment.model.FulfillmentLineItem;
+import org.example.order.order.domain.fulfillment.model.OriginAddress;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrder;
+
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Dựng Fulfillment từ fulfillment order, dùng chung cho FulfillService (fulfill khi tạo order)
+ * và FulfillmentBulkWriteService (fulfill theo đợt). Id được cấp sẵn bởi caller
+ */
+final class FulfillmentBuilder {
+
+    private FulfillmentBuilder() {
+    }
+
+    /**
+     * Fulfillment order không cần vận chuyển => delivery method none
+     */
+    static Fulfillment build(
+            FulfillmentId fulfillmentId,
+            int orderId,
+            int locationId,
+            FulfillmentOrder fulfillmentOrder,
+            Deque<Integer> lineItemIds,
+            List<FulfilledLineItem> lineItems,
+            boolean notifyCustomer,
+            OriginAddress originAddress,
+            Fulfillment.ShippingStatus shippingStatus
+    ) {
+        var deliveryMethod = fulfillmentOrder.isRequireShipping() ? fulfillmentOrder.getExpectedDeliveryMethod() : FulfillmentOrder.ExpectedDeliveryMethod.none;
+        var fulfillmentLineItems = lineItems.stream()
+                .map(line -> new FulfillmentLineItem(lineItemIds.removeFirst(), line.orderId(), line.lineItemId(), line.quantity(), line.quantity()))
+                .toList();
+        return new Fulfillment(
+                fulfillmentId,
+                orderId,
+                locationId,
+                fulfillmentOrder.getId(),
+                deliveryMethod,
+                notifyCustomer,
+                fulfillmentLineItems,
+                originAddress,
+                shippingStatus
+        );
+    }
+
+    /**
+     * Số lượng fulfill của 1 line của order
+     */
+    record FulfilledLineItem(int orderId, int lineItemId, int quantity) {
+    }
+}
@@ -0,0 +1,277 @@
+package org.example.order.order.application.service.fulfillment;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.example.order.order.application.model.fulfillment.request.FulfillmentBulkCreateRequest;
+import org.example.order.order.application.model.fulfillment.response.FulfillmentBulkItemResult;
+import org.example.order.order.application.model.fulfillmentorder.FulfillOrderLineItemRequest;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.model.FulfillmentId;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentIdGenerator;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrder;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderId;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderLineItem;
+import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderIdGenerator;
+import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.configuration.exception.ErrorMessage;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Fulfill nhiều fulfillment order (đóng đơn theo đợt ở kho).
+ * - Mỗi chunk load fulfillment order bằng 1 query, cấp id fulfillment/fulfillment line cho cả chunk 1 lần
+ * - Mỗi chunk lưu trong 1 transaction, saveAll không flush => fulfillment order và fulfillment được flush cùng lúc khi commit (JDBC batch)
+ * - 1 FulfillmentListCreatedAppEvent cho mỗi order + location (event chỉ mang 1 location)
+ * - Fulfillment order lỗi chỉ fail item đó: lỗi khi validate => fail ngay, lỗi khi flush => fulfill lại từng item của chunk
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FulfillmentBulkWriteService {
+
+    static final int CHUNK_SIZE = 50;
+
+    private final FulfillmentIdGenerator idGenerator;
+    private final FulfillmentOrderIdGenerator fulfillmentOrderIdGenerator;
+    private final FulfillmentRepository fulfillmentRepository;
+    private final FulfillmentOrderRepository fulfillmentOrderRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public List<FulfillmentBulkItemResult> createFulfillments(int storeId, FulfillmentBulkCreateRequest request) {
+        var items = request.getFulfillments();
+
+        List<FulfillmentBulkItemResult> results = new ArrayList<>(items.size());
+        int offset = 0;
+        for (var chunk : Lists.partition(items, CHUNK_SIZE)) {
+            results.addAll(this.createChunk(storeId, request, chunk, offset));
+            offset += chunk.size();
+        }
+        return results;
+    }
+
+    private List<FulfillmentBulkItemResult> createChunk(
+            int storeId,
+            FulfillmentBulkCreateRequest request,
+            List<FulfillmentBulkCreateRequest.Item> chunk,
+            int offset
+    ) {
+        try {
+            return this.transactionTemplate.execute(status -> this.fulfill(storeId, request, chunk, offset));
+        } catch (RuntimeException e) {
+            log.warn("Fulfill {} fulfillment orders of store {} in one transaction failed, retry one by one",
+                    chunk.size(), storeId, e);
+        }
+
+        List<FulfillmentBulkItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            var item = chunk.get(i);
+            var index = offset + i;
+            try {
+                results.addAll(this.transactionTemplate.execute(status -> this.fulfill(storeId, request, List.of(item), index)));
+            } catch (RuntimeException ex) {
+                results.add(failure(index, item, ex));
+            }
+        }
+        return results;
+    }
+
+    private List<FulfillmentBulkItemResult> fulfill(
+            int storeId,
+            FulfillmentBulkCreateRequest request,
+            List<FulfillmentBulkCreateRequest.Item> items,
+            int offset
+    ) {
+        var results = new FulfillmentBulkItemResult[items.size()];
+
+        // FulfillmentOrderId không có equals => distinct theo id
+        var fulfillmentOrderIds = items.stream()
+                .map(FulfillmentBulkCreateRequest.Item::getFulfillmentOrderId)
+                .distinct()
+                .map(id -> new FulfillmentOrderId(storeId, id))
+                .toList();
+        var fulfillmentOrderMap = this.fulfillmentOrderRepository.findByIds(fulfillmentOrderIds).stream()
+                .collect(Collectors.toMap(fulfillmentOrder -> fulfillmentOrder.getId().getId(), fulfillmentOrder -> fulfillmentOrder));
+
+        Set<Integer> processedIds = new HashSet<>();
+        List<PreparedFulfillment> preparedFulfillments = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            try {
+                var fulfillmentOrder = fulfillmentOrderMap.get(item.getFulfillmentOrderId());
+                if (fulfillmentOrder == null) {
+                    throw new ConstrainViolationException("fulfillment_order_id", "not found");
+                }
+                if (!processedIds.add(item.getFulfillmentOrderId())) {
+                    throw new ConstrainViolationException("fulfillment_order_id", "is duplicated in request");
+                }
+                preparedFulfillments.add(this.prepare(i, fulfillmentOrder, item.getLineItems()));
+            } catch (RuntimeException e) {
+                results[i] = failure(offset + i, item, e);
+            }
+        }
+        if (preparedFulfillments.isEmpty()) return Arrays.asList(results);
+
+        var fulfillmentIds = this.idGenerator.generateFulfillmentIds(preparedFulfillments.size());
+        var lineItemIds = this.idGenerator.generateFulfillmentLineItemIds(
+                preparedFulfillments.stream().mapToInt(prepared -> prepared.lineItems().size()).sum());
+
+        List<Fulfillment> fulfillments = new ArrayList<>(preparedFulfillments.size());
+        List<FulfillmentOrder> fulfillmentOrders = new ArrayList<>(preparedFulfillments.size());
+        for (var prepared : preparedFulfillments) {
+            var fulfillment = buildFulfillment(storeId, fulfillmentIds.removeFirst(), lineItemIds, prepared, request);
+            fulfillments.add(fulfillment);
+            fulfillmentOrders.add(prepared.fulfillmentOrder());
+            if (prepared.newFulfillmentOrder() != null) fulfillmentOrders.add(prepared.newFulfillmentOrder());
+            results[prepared.position()] = FulfillmentBulkItemResult.builder()
+                    .index(offset + prepared.position())
+                    .fulfillmentOrderId(prepared.fulfillmentOrder().getId().getId())
+                    .fulfillmentId(fulfillment.getId().getId())
+                    .build();
+        }
+
+        this.fulfillmentOrderRepository.saveAll(fulfillmentOrders);
+        this.fulfillmentRepository.saveAll(fulfillments);
+        this.publishEvents(storeId, preparedFulfillments, fulfillments);
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validate toàn bộ line của request trước khi markAsFulfilled thay đổi fulfillment order.
+     * Số lượng fulfill lấy từ request (markAsFulfilled validate tiếp số lượng còn lại), không tính lại từ line item
+     * sau khi fulfill vì khi tách fulfillment order mới line item cũ bị đóng hẳn
+     */
+    private PreparedFulfillment prepare(int position, FulfillmentOrder fulfillmentOrder, List<FulfillOrderLineItemRequest> lineItemRequests) {
+        if (CollectionUtils.isEmpty(lineItemRequests)) {
+            lineItemRequests = remainingLineItemRequests(fulfillmentOrder);
+            if (lineItemRequests.isEmpty()) {
+                throw new ConstrainViolationException("fulfillment_order", "All line items have been fulfilled");
+            }
+        }
+
+        var lineItemMap = fulfillmentOrder.getLineItems().stream()
+                .collect(Collectors.toMap(FulfillmentOrderLineItem::getId, lineItem -> lineItem));
+
+        Map<Integer, BigDecimal> fulfilledQuantities = new LinkedHashMap<>();
+        for (var lineItemRequest : lineItemRequests) {
+            if (lineItemRequest.getQuantity() == null) {
+                throw new ConstrainViolationException("quantity", "must not be null");
+            }
+            var lineItemId = lineItemRequest.getFulfillmentOrderLineItemId();
+            if (!lineItemMap.containsKey(lineItemId)) {
+                throw new ConstrainViolationException("line_item", "The fulfillment order line item does not exist with line_id = " + lineItemId);
+            }
+            if (lineItemRequest.getQuantity().signum() <= 0) continue;
+            fulfilledQuantities.merge(lineItemId, lineItemRequest.getQuantity(), BigDecimal::add);
+        }
+        if (fulfilledQuantities.isEmpty()) {
+            throw new ConstrainViolationException("quantity", "must be greater than 0");
+        }
+
+        List<FulfillmentBuilder.FulfilledLineItem> fulfilledLineItems = fulfilledQuantities.entrySet().stream()
+                .map(entry -> {
+                    var lineItem = lineItemMap.get(entry.getKey());
+                    return new FulfillmentBuilder.FulfilledLineItem(lineItem.getOrderId(), lineItem.getLineItemId(), entry.getValue().intValue());
+                })
+                .toList();
+
+        fulfillmentOrder.setIdGenerator(this.fulfillmentOrderIdGenerator);
+        var fulfilled = fulfillmentOrder.markAsFulfilled(lineItemRequests);
+
+        return new PreparedFulfillment(position, fulfillmentOrder, fulfilled.getLeft(), fulfilledLineItems);
+    }
+
+    private static List<FulfillOrderLineItemRequest> remainingLineItemRequests(FulfillmentOrder fulfillmentOrder) {
+        return fulfillmentOrder.getLineItems().stream()
+                .filter(lineItem -> lineItem.getRemainingQuantity() > 0)
+                .map(lineItem -> {
+                    var lineItemRequest = new FulfillOrderLineItemRequest();
+                    lineItemRequest.setFulfillmentOrderLineItemId(lineItem.getId());
+                    lineItemRequest.setQuantity(BigDecimal.valueOf(lineItem.getRemainingQuantity()));
+                    return lineItemRequest;
+                })
+                .toList();
+    }
+
+    private static Fulfillment buildFulfillment(
+            int storeId,
+            int fulfillmentId,
+            Deque<Integer> lineItemIds,
+            PreparedFulfillment prepared,
+            FulfillmentBulkCreateRequest request
+    ) {
+        var fulfillmentOrder = prepared.fulfillmentOrder();
+        return FulfillmentBuilder.build(
+                new FulfillmentId(storeId, fulfillmentId),
+                fulfillmentOrder.getOrderId(),
+                fulfillmentOrder.getAssignedLocationId(),
+                fulfillmentOrder,
+                lineItemIds,
+                prepared.lineItems(),
+                request.isNotifyCustomer(),
+                null,
+                request.getShippingStatus()
+        );
+    }
+
+    private void publishEvents(int storeId, List<PreparedFulfillment> preparedFulfillments, List<Fulfillment> fulfillments) {
+        Map<EventKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < preparedFulfillments.size(); i++) {
+            var fulfillmentOrder = preparedFulfillments.get(i).fulfillmentOrder();
+            groups.computeIfAbsent(new EventKey(fulfillmentOrder.getOrderId(), fulfillmentOrder.getAssignedLocationId()), key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        groups.forEach((key, positions) -> {
+            var first = preparedFulfillments.get(positions.get(0)).fulfillmentOrder();
+            var event = new FulfillmentListCreatedAppEvent(
+                    storeId,
+                    new OrderId(storeId, key.orderId()),
+                    key.locationId(),
+                    first.getAssignedLocation(),
+                    fulfillments.get(positions.get(0)).getDeliveryMethod(),
+                    positions.stream().map(position -> preparedFulfillments.get(position).fulfillmentOrder().getId()).toList(),
+                    positions.stream().map(position -> fulfillments.get(position).getId()).toList(),
+                    null
+            );
+            this.applicationEventPublisher.publishEvent(event);
+        });
+    }
+
+    private static FulfillmentBulkItemResult failure(int index, FulfillmentBulkCreateRequest.Item item, RuntimeException exception) {
+        var errors = exception instanceof ConstrainViolationException violationException
+                ? violationException.getErrorMessage()
+                : ErrorMessage.builder().addError(exception.getMessage()).build();
+        return FulfillmentBulkItemResult.builder()
+                .index(index)
+                .fulfillmentOrderId(item.getFulfillmentOrderId())
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * @param position vị trí trong danh sách item đang xử lý
+     */
+    private record PreparedFulfillment(
+            int position,
+            FulfillmentOrder fulfillmentOrder,
+            FulfillmentOrder newFulfillmentOrder,
+            List<FulfillmentBuilder.FulfilledLineItem> lineItems
+    ) {
+    }
+
+    private record EventKey(int orderId, int locationId) {
+    }
+}
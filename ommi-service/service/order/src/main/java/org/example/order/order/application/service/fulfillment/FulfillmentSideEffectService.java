@@ -3,32 +3,26 @@ package org.example.order.order.application.service.fulfillment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
-import org.example.inventory.AdjustmentRequest;
-import org.example.inventory.InventoryRequest;
-import org.example.inventory.InventoryTransactionLineItemRequest;
-import org.example.order.order.application.model.order.request.OrderCreateRequest;
 import org.example.order.order.application.service.fulfillmentorder.FulfillmentOrderListCreatedAddEvent;
 import org.example.order.order.application.service.order.RefundCreatedAppEvent;
+import org.example.order.order.application.service.outbox.OrderOutboxHandlers;
+import org.example.order.order.application.service.outbox.OrderOutboxWriter;
 import org.example.order.order.application.utils.NumberUtils;
-import org.example.order.order.domain.fulfillment.model.Fulfillment;
 import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
-import org.example.order.order.domain.fulfillmentorder.model.AssignedLocation;
 import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderLineItem;
 import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
-import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.persistence.OrderFetchPlan;
 import org.example.order.order.domain.order.persistence.OrderRepository;
-import org.example.shipping.PickupAddressRequest;
-import org.example.shipping.ShippingRequest;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -41,6 +35,7 @@ public class FulfillmentSideEffectService {
     private final OrderRepository orderRepository;
 
     private final FulfillService fulfillService;
+    private final OrderOutboxWriter orderOutboxWriter;
 
     @EventListener(classes = FulfillmentOrderListCreatedAddEvent.class)
     @Transactional
@@ -70,7 +65,7 @@ public class FulfillmentSideEffectService {
         var locationId = event.locationId();
         var fulfillmentIds = event.fulfillmentIds();
 
-        var order = this.orderRepository.findById(orderId);
+        var order = this.orderRepository.findById(orderId, OrderFetchPlan.HEADER);
         var fulfillmentOrderList = this.fulfillmentOrderRepository.findByIds(event.fulfillmentOrderIds());
         var fulfillmentOrderMap = fulfillmentOrderList.stream()
                 .flatMap(fulfillmentOrder -> fulfillmentOrder.getLineItems().stream())
@@ -78,122 +73,68 @@ public class FulfillmentSideEffectService {
 
         var fulfillmentList = this.fulfillmentRepository.getByIds(fulfillmentIds);
 
-        List<AdjustmentRequest> adjustmentRequests = fulfillmentList.stream()
+        var adjustments = fulfillmentList.stream()
                 .map(fulfillment -> {
-                    var inventoryTransactionLineItemRequests = fulfillment.getLineItems()
-                            .stream()
-                            .filter(line -> {
-                                var fulfillmentOrderLineItems = fulfillmentOrderMap.get(line.getLineItemId());
-                                return CollectionUtils.isNotEmpty(fulfillmentOrderLineItems)
-                                        && fulfillmentOrderLineItems.stream().anyMatch(ffo -> NumberUtils.isPositive(ffo.getVariantInfo().getInventoryItemId()));
-                            })
+                    var lineItems = fulfillment.getLineItems().stream()
                             .map(line -> {
-                                var fulfillmentOrderLineItem = fulfillmentOrderMap.get(line.getLineItemId()).get(0);
-                                var fulfillQuantity = BigDecimal.valueOf(fulfillmentOrderLineItem.getTotalQuantity());
-                                var adjustQuantity = fulfillQuantity.negate();
-
-                                var availableAdjustment = InventoryTransactionLineItemRequest.InventoryAdjustmentTransactionChangeRequest.builder()
-                                        .value(adjustQuantity)
-                                        .build();
-                                var onHandAdjustment = InventoryTransactionLineItemRequest.InventoryAdjustmentTransactionChangeRequest.builder()
-                                        .value(adjustQuantity)
-                                        .build();
-                                return InventoryTransactionLineItemRequest.builder()
-                                        .changes(List.of(availableAdjustment, onHandAdjustment))
-                                        .build();
+                                var inventoryItemId = inventoryItemIdOf(fulfillmentOrderMap.get(line.getLineItemId()));
+                                if (inventoryItemId == null) return null;
+                                var lineItem = new InventoryCommitPayload.LineItem();
+                                lineItem.setInventoryItemId(inventoryItemId);
+                                lineItem.setQuantity(BigDecimal.valueOf(line.getQuantity()));
+                                return lineItem;
                             })
+                            .filter(Objects::nonNull)
                             .toList();
 
-                    return AdjustmentRequest.builder()
-                            .locationId(locationId)
-                            .lineItems(inventoryTransactionLineItemRequests)
-                            .build();
+                    var adjustment = new InventoryCommitPayload.Adjustment();
+                    adjustment.setFulfillmentId(fulfillment.getId().getId());
+                    adjustment.setLineItems(lineItems);
+                    return adjustment;
                 })
+                .filter(adjustment -> CollectionUtils.isNotEmpty(adjustment.getLineItems()))
                 .toList();
 
-        if (CollectionUtils.isEmpty(adjustmentRequests)) {
-            return;
+        // trừ kho qua outbox: ghi cùng transaction với fulfillment, gửi sau khi commit và retry đến khi thành công
+        if (CollectionUtils.isNotEmpty(adjustments)) {
+            var payload = new InventoryCommitPayload();
+            payload.setStoreId(storeId);
+            payload.setOrderId(orderId.getId());
+            payload.setOrderName(order.getReferenceInfo().getName());
+            payload.setLocationId(locationId);
+            payload.setIssuedAt(Instant.now());
+            payload.setAdjustments(adjustments);
+            this.orderOutboxWriter.append(storeId, orderId.getId(), OrderOutboxHandlers.FULFILLMENT_CREATED, OrderOutboxHandlers.INVENTORY_COMMIT, payload);
         }
 
-        var inventoryRequest = InventoryRequest.builder()
-                .adjustments(adjustmentRequests)
-                .build();
-
-    }
-
-    @Async
-    @Transactional
-    @EventListener(classes = FulfillmentListCreatedAppEvent.class)
-    public void handleOrderFulfillmentListCreatedAsync(FulfillmentListCreatedAppEvent event) {
-        log.debug("Handle order fulfillment list created async: {}", event);
-        var storeId = event.storeId();
-        var locationId = event.locationId();
-        var location = event.assignedLocation();
-        var fulfillmentRequest = event.fulfillmentRequest();
-        var fulfillmentList = fulfillmentRepository.getByIds(event.fulfillmentIds());
-        var order = this.orderRepository.findById(event.orderId());
-        var orderLineItemMap = order.getLineItems().stream()
-                .collect(Collectors.toMap(LineItem::getId, Function.identity()));
-
-        for (var fulfillment : fulfillmentList) {
-            if (isNonShippingRequire(fulfillment.getDeliveryMethod())) {
-                continue;
-            }
-            var lineItemRequests = fulfillment.getLineItems().stream()
-                    .map(fulfillmentLineItem -> {
-                        var orderLineItem = orderLineItemMap.get(fulfillmentLineItem.getLineItemId());
-
-                        var originalTotal = orderLineItem.getPrice().multiply(BigDecimal.valueOf(orderLineItem.getQuantity()));
-                        var discountedUnitPrice = orderLineItem.getDiscountedUnitPrice() != null ? orderLineItem.getDiscountedUnitPrice() : BigDecimal.ZERO;
-
-                        var discountedTotal = discountedUnitPrice.multiply(BigDecimal.valueOf(orderLineItem.getQuantity()));
-
-                        var variantLineItemInfo = orderLineItem.getVariantInfo();
-                        return ShippingRequest.LineItemRequest.builder()
-                                .productId(variantLineItemInfo.getProductId())
-                                .variantId(variantLineItemInfo.getVariantId())
-                                .title(variantLineItemInfo.getTitle())
-                                .variantTitle(variantLineItemInfo.getVariantTitle())
-                                .sku(variantLineItemInfo.getSku())
-                                .price(orderLineItem.getPrice())
-                                .discountedUnitPrice(discountedUnitPrice)
-                                .quantity(fulfillmentLineItem.getQuantity())
-                                .discountedTotal(discountedTotal)
-                                .grams(variantLineItemInfo.getGrams())
-                                .orderLineItemId(orderLineItem.getId())
-                                .originalTotal(originalTotal)
-                                .build();
-                    })
-                    .toList();
-
-            var shippingRequest = ShippingRequest.builder()
-                    .orderId(order.getId().getId())
-                    .orderName(order.getReferenceInfo().getName())
-                    .fulfillmentId(fulfillment.getId().getId())
-                    .locationId(locationId)
-                    .locationName(location.getName())
-                    .deliveryMethod(fulfillmentRequest.getDeliveryMethod().name())
-                    .deliveryStatus(fulfillmentRequest.getShippingStatus().name())
-                    .sendNotification(fulfillmentRequest.isSendNotification())
-                    .pickupAddress(buildPickupAddress(locationId, location, fulfillmentRequest.getPickupAddress()))
-                    .shippingAddress(null)
-                    .shippingInfo(null)
-                    .trackingInfo(null)
-                    .note(fulfillmentRequest.getNote())
-                    .lineItems(lineItemRequests)
-                    .build();
+        // tạo vận đơn qua outbox: transaction rollback thì không tạo, không giữ transaction trong lúc gọi API
+        var shippingFulfillmentIds = fulfillmentList.stream()
+                .filter(fulfillment -> ShippingRequestSender.requiresShipping(fulfillment.getDeliveryMethod()))
+                .map(fulfillment -> fulfillment.getId().getId())
+                .toList();
+        if (CollectionUtils.isNotEmpty(shippingFulfillmentIds)) {
+            var fulfillmentRequest = event.fulfillmentRequest();
+            var payload = new ShippingRequestPayload();
+            payload.setStoreId(storeId);
+            payload.setOrderId(orderId.getId());
+            payload.setLocationId(locationId);
+            payload.setLocationName(event.assignedLocation().getName());
+            payload.setNote(fulfillmentRequest == null ? null : fulfillmentRequest.getNote());
+            payload.setFulfillmentIds(shippingFulfillmentIds);
+            this.orderOutboxWriter.append(storeId, orderId.getId(), OrderOutboxHandlers.FULFILLMENT_CREATED, OrderOutboxHandlers.SHIPPING_REQUEST, payload);
         }
     }
 
-    private PickupAddressRequest buildPickupAddress(int locationId, AssignedLocation location, OrderCreateRequest.PickupAddress pickupAddress) {
-        return null;
-    }
-
-    private boolean isNonShippingRequire(Fulfillment.DeliveryMethod deliveryMethod) {
-        return deliveryMethod == null
-                || deliveryMethod == Fulfillment.DeliveryMethod.none
-                || deliveryMethod == Fulfillment.DeliveryMethod.retail
-                || deliveryMethod == Fulfillment.DeliveryMethod.pick_up;
+    /**
+     * null nếu line không quản lý tồn kho
+     */
+    private static Integer inventoryItemIdOf(List<FulfillmentOrderLineItem> fulfillmentOrderLineItems) {
+        if (CollectionUtils.isEmpty(fulfillmentOrderLineItems)) return null;
+        return fulfillmentOrderLineItems.stream()
+                .map(lineItem -> lineItem.getVariantInfo().getInventoryItemId())
+                .filter(NumberUtils::isPositive)
+                .findFirst()
+                .orElse(null);
     }
 
     @Transactional
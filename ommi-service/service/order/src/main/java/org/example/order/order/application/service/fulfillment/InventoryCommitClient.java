@@ -0,0 +1,126 @@
+package org.example.order.order.application.service.fulfillment;
+
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.AdminClient;
+import org.example.inventory.AdjustmentRequest;
+import org.example.inventory.InventoryRequest;
+import org.example.inventory.InventoryTransactionLineItemRequest;
+import org.example.order.order.infrastructure.configuration.InventoryCommitProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Gửi adjustment tồn kho (trừ kho khi fulfill) về commit_inventory. Chạy trong handler inventory_commit của outbox
+ * (OrderOutboxHandlers) => lỗi thì OrderOutboxDispatcher retry với backoff, quá maxAttempts thì event chuyển dead:
+ * - Các fulfillment của 1 payload (cùng store + location) được gửi chung, tối đa maxBatchSize fulfillment/lần gọi
+ * - Outbox gộp các payload cùng store + location (của nhiều order) thành 1 lần commit
+ * - Mỗi adjustment mang fulfillment id (referenceDocumentType + referenceDocumentId), commit_inventory bỏ qua fulfillment
+ * đã commit => outbox gọi lại với nhóm khác (limit, event dead, maxCoalesce) không bị trừ kho 2 lần
+ * - Idempotency key của lần gọi sinh từ store, location và các fulfillment trong lần gọi, chỉ chặn lần gọi lại y hệt
+ * - Metric: inventory.commit.batch.size
+ */
+@Component
+public class InventoryCommitClient {
+
+    private static final String ORDER_FULFILL = "order_fulfill";
+    private static final String REFERENCE_DOCUMENT_TYPE = "fulfillment";
+    private static final String DELTA = "delta";
+    private static final String AVAILABLE = "available";
+    private static final String ON_HAND = "on_hand";
+
+    private final AdminClient adminClient;
+    private final int maxBatchSize;
+
+    private final DistributionSummary batchSize;
+
+    public InventoryCommitClient(AdminClient adminClient, InventoryCommitProperties properties, MeterRegistry meterRegistry) {
+        this.adminClient = adminClient;
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+
+        this.batchSize = DistributionSummary.builder("inventory.commit.batch.size")
+                .description("Số adjustment trong 1 lần gọi commit_inventory")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lỗi được ném ra để outbox retry cả payload, các fulfillment đã commit được commit_inventory bỏ qua
+     */
+    public void commit(InventoryCommitPayload payload) {
+        this.commit(List.of(payload));
+    }
+
+    /**
+     * Các payload phải cùng store + location, adjustment được gửi theo thứ tự payload
+     */
+    public void commit(List<InventoryCommitPayload> payloads) {
+        if (payloads.isEmpty()) return;
+        var first = payloads.get(0);
+        var storeId = first.getStoreId();
+        var locationId = first.getLocationId();
+        if (payloads.stream().anyMatch(payload -> payload.getStoreId() != storeId || payload.getLocationId() != locationId)) {
+            throw new IllegalArgumentException("Inventory commit payloads must have the same store and location");
+        }
+
+        var adjustmentRequests = payloads.stream()
+                .flatMap(payload -> payload.getAdjustments().stream()
+                        .map(adjustment -> toAdjustmentRequest(payload, adjustment)))
+                .toList();
+        for (var batch : Lists.partition(adjustmentRequests, this.maxBatchSize)) {
+            var request = InventoryRequest.builder()
+                    .idempotencyKey(idempotencyKey(storeId, locationId, batch))
+                    .adjustments(batch)
+                    .build();
+            this.batchSize.record(batch.size());
+            this.adminClient.commitInventory(storeId, request);
+        }
+    }
+
+    private static AdjustmentRequest toAdjustmentRequest(InventoryCommitPayload payload, InventoryCommitPayload.Adjustment adjustment) {
+        var lineItems = adjustment.getLineItems().stream()
+                .map(lineItem -> {
+                    var adjustQuantity = lineItem.getQuantity().negate();
+                    var availableAdjustment = InventoryTransactionLineItemRequest.InventoryAdjustmentTransactionChangeRequest.builder()
+                            .value(adjustQuantity)
+                            .valueType(DELTA)
+                            .changeType(AVAILABLE)
+                            .build();
+                    var onHandAdjustment = InventoryTransactionLineItemRequest.InventoryAdjustmentTransactionChangeRequest.builder()
+                            .value(adjustQuantity)
+                            .valueType(DELTA)
+                            .changeType(ON_HAND)
+                            .build();
+                    return InventoryTransactionLineItemRequest.builder()
+                            .inventoryItemId(lineItem.getInventoryItemId())
+                            .changes(List.of(availableAdjustment, onHandAdjustment))
+                            .build();
+                })
+                .toList();
+        return AdjustmentRequest.builder()
+                .locationId(payload.getLocationId())
+                .reason(ORDER_FULFILL)
+                .referenceDocumentName(payload.getOrderName())
+                .referenceDocumentType(REFERENCE_DOCUMENT_TYPE)
+                .referenceRootId(payload.getOrderId())
+                .referenceDocumentId(adjustment.getFulfillmentId())
+                .issuedAt(payload.getIssuedAt())
+                .lineItems(lineItems)
+                .build();
+    }
+
+    private static String idempotencyKey(int storeId, long locationId, List<AdjustmentRequest> adjustments) {
+        var fulfillmentIds = adjustments.stream()
+                .map(AdjustmentRequest::getReferenceDocumentId)
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        var source = storeId + ":" + locationId + ":" + fulfillmentIds;
+        return REFERENCE_DOCUMENT_TYPE + "_" + UUID.nameUUIDFromBytes(source.getBytes(StandardCharsets.UTF_8));
+    }
+}
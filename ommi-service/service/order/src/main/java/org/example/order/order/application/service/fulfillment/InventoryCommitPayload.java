@@ -0,0 +1,43 @@
+package org.example.order.order.application.service.fulfillment;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Payload outbox của handler inventory_commit: các fulfillment vừa tạo tại 1 location của 1 order,
+ * InventoryCommitClient dựng InventoryRequest từ đây khi gửi
+ */
+@Getter
+@Setter
+public class InventoryCommitPayload {
+    private int storeId;
+    private int orderId;
+    private String orderName;
+    private long locationId;
+    private Instant issuedAt;
+    private List<Adjustment> adjustments;
+
+    /**
+     * Adjustment của 1 fulfillment
+     */
+    @Getter
+    @Setter
+    public static class Adjustment {
+        private int fulfillmentId;
+        private List<LineItem> lineItems;
+    }
+
+    /**
+     * quantity: số lượng fulfill (dương), khi gửi được trừ vào available và on_hand
+     */
+    @Getter
+    @Setter
+    public static class LineItem {
+        private int inventoryItemId;
+        private BigDecimal quantity;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.order.order.application.service.fulfillment;
+
+import org.example.shipping.ShippingRequest;
+
+import java.util.List;
+
+/**
+ * Gửi shipping request cùng phương thức giao hàng sang dịch vụ vận chuyển. Lỗi => throw, outbox retry cả payload
+ */
+public interface ShippingCarrierClient {
+
+    void submit(int storeId, String deliveryMethod, List<ShippingRequest> requests);
+}
@@ -0,0 +1,21 @@
+package org.example.order.order.application.service.fulfillment;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Payload outbox của handler shipping_request: các fulfillment cần vận chuyển vừa tạo tại 1 location của 1 order.
+ * ShippingRequestSender load lại order và fulfillment khi gửi
+ */
+@Getter
+@Setter
+public class ShippingRequestPayload {
+    private int storeId;
+    private int orderId;
+    private int locationId;
+    private String locationName;
+    private String note;
+    private List<Integer> fulfillmentIds;
+}
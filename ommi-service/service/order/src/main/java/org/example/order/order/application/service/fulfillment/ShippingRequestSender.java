@@ -0,0 +1,186 @@
+package org.example.order.order.application.service.fulfillment;
+
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.order.order.application.service.outbox.OutboxRetryLaterException;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.model.FulfillmentId;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
+import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.order.persistence.OrderFetchPlan;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.configuration.ShippingDispatchProperties;
+import org.example.shipping.ShippingRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Gửi shipping request của fulfillment. Chạy trong handler shipping_request của outbox (OrderOutboxHandlers), ngoài transaction
+ * => lỗi thì OrderOutboxDispatcher retry với backoff, quá maxAttempts thì event chuyển dead:
+ * - Order và fulfillment được load lại lúc gửi trong 1 transaction chỉ đọc, đóng trước khi gọi carrier;
+ * fulfillment không cần vận chuyển được bỏ qua
+ * - Request được gom theo phương thức giao hàng, tối đa maxBatchSize request/lần gọi
+ * - Mỗi phương thức giao hàng tối đa concurrencyOf(deliveryMethod) lần gọi carrier đồng thời,
+ * chờ quá acquireTimeout => OutboxRetryLaterException để outbox chạy lại sau (không tính attempt) thay vì giữ worker của outbox
+ * - Retry gửi lại cả payload => bên nhận dedup theo fulfillmentId
+ * - Metric: shipping.dispatch.batch.size
+ */
+@Component
+public class ShippingRequestSender {
+
+    private final OrderRepository orderRepository;
+    private final FulfillmentRepository fulfillmentRepository;
+    private final ShippingCarrierClient carrierClient;
+    private final ShippingDispatchProperties properties;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int maxBatchSize;
+    private final Map<String, Semaphore> inFlightLimits = new ConcurrentHashMap<>();
+
+    private final DistributionSummary batchSize;
+
+    public ShippingRequestSender(
+            OrderRepository orderRepository,
+            FulfillmentRepository fulfillmentRepository,
+            ShippingCarrierClient carrierClient,
+            ShippingDispatchProperties properties,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.orderRepository = orderRepository;
+        this.fulfillmentRepository = fulfillmentRepository;
+        this.carrierClient = carrierClient;
+        this.properties = properties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+
+        this.batchSize = DistributionSummary.builder("shipping.dispatch.batch.size")
+                .description("Số shipping request trong 1 lần gửi")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public void send(ShippingRequestPayload payload) {
+        var storeId = payload.getStoreId();
+        var requests = this.readOnlyTransactionTemplate.execute(status -> this.buildShippingRequests(payload));
+        if (requests == null || requests.isEmpty()) return;
+
+        requests.stream()
+                .collect(Collectors.groupingBy(ShippingRequest::getDeliveryMethod, LinkedHashMap::new, Collectors.toList()))
+                .forEach((deliveryMethod, deliveryRequests) -> {
+                    for (var batch : Lists.partition(deliveryRequests, this.maxBatchSize)) {
+                        this.batchSize.record(batch.size());
+                        this.submit(storeId, deliveryMethod, batch);
+                    }
+                });
+    }
+
+    private List<ShippingRequest> buildShippingRequests(ShippingRequestPayload payload) {
+        var storeId = payload.getStoreId();
+        var fulfillmentIds = payload.getFulfillmentIds().stream()
+                .map(id -> new FulfillmentId(storeId, id))
+                .toList();
+        var fulfillments = this.fulfillmentRepository.getByIds(fulfillmentIds).stream()
+                .filter(fulfillment -> requiresShipping(fulfillment.getDeliveryMethod()))
+                .toList();
+        if (fulfillments.isEmpty()) return List.of();
+
+        var order = this.orderRepository.findById(new OrderId(storeId, payload.getOrderId()), OrderFetchPlan.LINE_ITEMS);
+        var orderLineItemMap = order.getLineItems().stream()
+                .collect(Collectors.toMap(LineItem::getId, Function.identity()));
+        return fulfillments.stream()
+                .map(fulfillment -> buildShippingRequest(payload, order, orderLineItemMap, fulfillment))
+                .toList();
+    }
+
+    private void submit(int storeId, String deliveryMethod, List<ShippingRequest> batch) {
+        var limit = this.inFlightLimits.computeIfAbsent(deliveryMethod,
+                method -> new Semaphore(this.properties.concurrencyOf(method)));
+        boolean acquired;
+        try {
+            acquired = limit.tryAcquire(this.properties.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for carrier of " + deliveryMethod, e);
+        }
+        if (!acquired) {
+            throw new OutboxRetryLaterException("Too many in-flight shipping requests for " + deliveryMethod);
+        }
+        try {
+            this.carrierClient.submit(storeId, deliveryMethod, batch);
+        } finally {
+            limit.release();
+        }
+    }
+
+    static boolean requiresShipping(Fulfillment.DeliveryMethod deliveryMethod) {
+        return deliveryMethod != null
+                && deliveryMethod != Fulfillment.DeliveryMethod.none
+                && deliveryMethod != Fulfillment.DeliveryMethod.retail
+                && deliveryMethod != Fulfillment.DeliveryMethod.pick_up;
+    }
+
+    private static ShippingRequest buildShippingRequest(
+            ShippingRequestPayload payload,
+            Order order,
+            Map<Integer, LineItem> orderLineItemMap,
+            Fulfillment fulfillment
+    ) {
+        var lineItemRequests = fulfillment.getLineItems().stream()
+                .map(fulfillmentLineItem -> {
+                    var orderLineItem = orderLineItemMap.get(fulfillmentLineItem.getLineItemId());
+
+                    var originalTotal = orderLineItem.getPrice().multiply(BigDecimal.valueOf(orderLineItem.getQuantity()));
+                    var discountedUnitPrice = orderLineItem.getDiscountedUnitPrice() != null ? orderLineItem.getDiscountedUnitPrice() : BigDecimal.ZERO;
+
+                    var discountedTotal = discountedUnitPrice.multiply(BigDecimal.valueOf(orderLineItem.getQuantity()));
+
+                    var variantLineItemInfo = orderLineItem.getVariantInfo();
+                    return ShippingRequest.LineItemRequest.builder()
+                            .productId(variantLineItemInfo.getProductId())
+                            .variantId(variantLineItemInfo.getVariantId())
+                            .title(variantLineItemInfo.getTitle())
+                            .variantTitle(variantLineItemInfo.getVariantTitle())
+                            .sku(variantLineItemInfo.getSku())
+                            .price(orderLineItem.getPrice())
+                            .discountedUnitPrice(discountedUnitPrice)
+                            .quantity(fulfillmentLineItem.getQuantity())
+                            .discountedTotal(discountedTotal)
+                            .grams(variantLineItemInfo.getGrams())
+                            .orderLineItemId(orderLineItem.getId())
+                            .originalTotal(originalTotal)
+                            .build();
+                })
+                .toList();
+
+        return ShippingRequest.builder()
+                .orderId(order.getId().getId())
+                .orderName(order.getReferenceInfo().getName())
+                .fulfillmentId(fulfillment.getId().getId())
+                .locationId(payload.getLocationId())
+                .locationName(payload.getLocationName())
+                .deliveryMethod(fulfillment.getDeliveryMethod().name())
+                .deliveryStatus(fulfillment.getShippingStatus() == null ? null : fulfillment.getShippingStatus().name())
+                .sendNotification(fulfillment.isNotifyCustomer())
+                .pickupAddress(null)
+                .shippingAddress(null)
+                .shippingInfo(null)
+                .trackingInfo(null)
+                .note(payload.getNote())
+                .lineItems(lineItemRequests)
+                .build();
+    }
+}
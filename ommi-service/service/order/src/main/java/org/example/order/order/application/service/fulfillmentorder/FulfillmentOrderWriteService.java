@@ -12,6 +12,7 @@ import org.example.order.order.domain.fulfillmentorder.model.*;
 import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderIdGenerator;
 import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
 import org.example.order.order.domain.order.model.*;
+import org.example.order.order.domain.order.persistence.OrderFetchPlan;
 import org.example.order.order.domain.order.persistence.OrderRepository;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
@@ -33,14 +34,16 @@ public class FulfillmentOrderWriteService {
 
     private final ApplicationEventPublisher eventPublisher;
 
-    @EventListener(OrderCreatedAppEvent.class)
+    /**
+     * Chạy bất đồng bộ qua outbox (OrderOutboxHandlers), sau khi order đã commit
+     */
     public void handleOrderFulfillmentAdded(OrderCreatedAppEvent event) {
         log.info("Handle order fulfillment added: {}", event);
         int storeId = event.getStoreId();
         boolean isWithFulfillment = CollectionUtils.isNotEmpty(event.getFulfillmentRequests());
         var orderId = event.getOrderId();
 
-        var order = this.orderRepository.findById(orderId);
+        var order = this.orderRepository.findById(orderId, OrderFetchPlan.FULFILLMENT);
         var orderRoutingResponse = event.getOrderRoutingResponse();
         var shippingAddress = order.getShippingAddress();
 
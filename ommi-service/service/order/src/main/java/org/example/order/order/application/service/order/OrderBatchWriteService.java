@@ -0,0 +1,177 @@
+package org.example.order.order.application.service.order;
+
+import com.google.common.collect.Lists;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.application.model.order.request.OrderCreateRequest;
+import org.example.order.order.application.model.order.response.OrderBatchItemResult;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.configuration.exception.ErrorMessage;
+import org.example.order.order.infrastructure.data.dto.StoreDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Import nhiều order (migrate/replay từ marketplace).
+ * - Dùng chung store, variant/product cho mỗi chunk
+ * - Mỗi chunk lưu trong 1 transaction, flush 1 lần (JDBC batch)
+ * - Order lỗi chỉ fail item đó: lỗi khi build => fail ngay, lỗi khi flush => dựng lại và lưu từng order của chunk
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderBatchWriteService {
+
+    static final int CHUNK_SIZE = 50;
+
+    private final OrderWriteService orderWriteService;
+    private final OrderRepository orderRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    public List<OrderBatchItemResult> createOrders(int storeId, List<OrderCreateRequest> orderRequests) {
+        var store = this.orderWriteService.findStoreById(storeId);
+
+        List<OrderBatchItemResult> results = new ArrayList<>(orderRequests.size());
+        int offset = 0;
+        for (var chunk : Lists.partition(orderRequests, CHUNK_SIZE)) {
+            results.addAll(this.createChunk(storeId, store, chunk, offset));
+            offset += chunk.size();
+        }
+        return results;
+    }
+
+    /**
+     * Streaming (ndjson): mỗi dòng là 1 order, kết quả được trả ra theo từng chunk, đúng thứ tự dòng.
+     * Dòng không parse được => item lỗi
+     */
+    public void createOrders(
+            int storeId,
+            Iterator<String> lines,
+            Function<String, OrderCreateRequest> parser,
+            Consumer<OrderBatchItemResult> resultConsumer
+    ) {
+        var store = this.orderWriteService.findStoreById(storeId);
+
+        List<OrderCreateRequest> pending = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        int pendingOffset = 0;
+        while (lines.hasNext()) {
+            var line = lines.next();
+            OrderCreateRequest request;
+            try {
+                request = parser.apply(line);
+            } catch (RuntimeException e) {
+                this.createChunk(storeId, store, pending, pendingOffset).forEach(resultConsumer);
+                pending.clear();
+                resultConsumer.accept(failure(index, e));
+                pendingOffset = ++index;
+                continue;
+            }
+            pending.add(request);
+            index++;
+            if (pending.size() == CHUNK_SIZE) {
+                this.createChunk(storeId, store, pending, pendingOffset).forEach(resultConsumer);
+                pending.clear();
+                pendingOffset = index;
+            }
+        }
+        this.createChunk(storeId, store, pending, pendingOffset).forEach(resultConsumer);
+    }
+
+    private List<OrderBatchItemResult> createChunk(int storeId, StoreDto store, List<OrderCreateRequest> chunk, int offset) {
+        if (chunk.isEmpty()) return List.of();
+
+        var results = new OrderBatchItemResult[chunk.size()];
+
+        // 2 query variant/product cho cả chunk thay vì 2 query mỗi order
+        var productInfo = this.orderWriteService.fetchProductInfo(storeId, chunk);
+
+        List<Integer> preparedIndexes = new ArrayList<>(chunk.size());
+        List<OrderWriteService.PreparedOrder> preparedOrders = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                var request = chunk.get(i);
+                this.validate(request);
+                preparedOrders.add(this.orderWriteService.prepareOrder(storeId, store, request, productInfo));
+                preparedIndexes.add(i);
+            } catch (RuntimeException e) {
+                results[i] = failure(offset + i, e);
+            }
+        }
+
+        if (!preparedOrders.isEmpty()) {
+            try {
+                this.persist(preparedOrders);
+                for (int i = 0; i < preparedOrders.size(); i++) {
+                    int index = preparedIndexes.get(i);
+                    results[index] = success(offset + index, preparedOrders.get(i));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Persist {} orders of store {} in one transaction failed, retry one by one",
+                        preparedOrders.size(), storeId, e);
+                // Order của lần lưu lỗi đã qua @PrePersist (isNew = false) và giữ id, state của transaction đã rollback
+                // => dựng lại từ request để lần lưu lại đi nhánh persist
+                for (int index : preparedIndexes) {
+                    try {
+                        var preparedOrder = this.orderWriteService.prepareOrder(storeId, store, chunk.get(index), productInfo);
+                        this.persist(List.of(preparedOrder));
+                        results[index] = success(offset + index, preparedOrder);
+                    } catch (RuntimeException ex) {
+                        results[index] = failure(offset + index, ex);
+                    }
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void persist(List<OrderWriteService.PreparedOrder> preparedOrders) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            var orders = preparedOrders.stream().map(OrderWriteService.PreparedOrder::order).toList();
+            this.orderRepository.saveAll(orders);
+            preparedOrders.forEach(preparedOrder -> this.applicationEventPublisher.publishEvent(preparedOrder.event()));
+        });
+    }
+
+    private void validate(OrderCreateRequest request) {
+        var violations = this.validator.validate(request);
+        if (violations.isEmpty()) return;
+
+        var errorMessage = ErrorMessage.builder();
+        for (var violation : violations) {
+            errorMessage.addError(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        throw new ConstrainViolationException(errorMessage.build());
+    }
+
+    private static OrderBatchItemResult success(int index, OrderWriteService.PreparedOrder preparedOrder) {
+        return OrderBatchItemResult.builder()
+                .index(index)
+                .orderId(preparedOrder.order().getId().getId())
+                .build();
+    }
+
+    private static OrderBatchItemResult failure(int index, RuntimeException exception) {
+        var errors = exception instanceof ConstrainViolationException violationException
+                ? violationException.getErrorMessage()
+                : ErrorMessage.builder().addError(exception.getMessage()).build();
+        return OrderBatchItemResult.builder()
+                .index(index)
+                .errors(errors)
+                .build();
+    }
+}
@@ -1,20 +1,29 @@
 package org.example.order.order.application.service.order;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 import org.example.order.order.application.model.fulfillmentorder.OrderRoutingResponse;
 import org.example.order.order.application.model.order.request.OrderCreateRequest;
 import org.example.order.order.application.model.order.request.OrderTransactionCreateRequest;
 import org.example.order.order.application.model.order.response.OrderPaymentResult;
+import org.example.order.order.domain.order.model.Order;
 import org.example.order.order.domain.order.model.OrderId;
 
 import java.util.List;
 
 @Getter
 @Builder
+@Jacksonized
 public class OrderCreatedAppEvent {
     private final int storeId;
     private final OrderId orderId;
+    /**
+     * Aggregate vừa tạo (chỉ có trong transaction tạo order, không ghi vào outbox)
+     */
+    @JsonIgnore
+    private final Order order;
     private final OrderRoutingResponse orderRoutingResponse;
     private final List<OrderCreateRequest.FulfillmentRequest> fulfillmentRequests;
     private final OrderPaymentResult paymentResult;
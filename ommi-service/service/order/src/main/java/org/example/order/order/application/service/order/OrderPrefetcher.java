@@ -0,0 +1,170 @@
+package org.example.order.order.application.service.order;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.infrastructure.configuration.OrderPrefetchProperties;
+import org.example.order.order.infrastructure.configuration.exception.DependencyTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Chạy song song các lookup gọi ra service khác (customer) trong lúc request dựng order.
+ * Lookup đọc DB không đưa vào đây: chạy trên thread của request để dùng connection của transaction,
+ * không mượn thêm connection từ pool cho mỗi lookup
+ * - Mỗi lookup có timeout riêng, tính từ lúc submit. Hết timeout => huỷ lần gọi (interrupt thread đang chạy)
+ * và ném DependencyTimeoutException (504)
+ * - Hàng đợi đầy => lookup chạy luôn trên thread của request
+ * - Thời gian mỗi lookup (gồm cả thời gian chờ trong queue) được ghi vào timer order.create.prefetch{lookup, outcome}
+ * - order.prefetch.enabled=false => lookup chạy tuần tự ngay khi submit
+ */
+@Slf4j
+@Component
+public class OrderPrefetcher {
+
+    private static final String TIMER_NAME = "order.create.prefetch";
+
+    private final OrderPrefetchProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
+
+    public OrderPrefetcher(OrderPrefetchProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.executor = properties.isEnabled() ? createExecutor(properties) : null;
+    }
+
+    private static ExecutorService createExecutor(OrderPrefetchProperties properties) {
+        var threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    var thread = new Thread(runnable, "order-prefetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public static <T> Lookup<T> completed(T value) {
+        return new Lookup<>(null, null, CompletableFuture.completedFuture(value), null, 0, null);
+    }
+
+    public <T> Lookup<T> submit(String name, Supplier<T> supplier) {
+        var startNanos = System.nanoTime();
+        if (this.executor == null) {
+            T value;
+            try {
+                value = supplier.get();
+            } catch (RuntimeException e) {
+                this.record(name, "error", startNanos);
+                throw e;
+            }
+            this.record(name, "success", startNanos);
+            return completed(value);
+        }
+
+        var result = new CompletableFuture<T>();
+        result.whenComplete((value, error) -> {
+            if (!(error instanceof CancellationException)) {
+                this.record(name, error == null ? "success" : "error", startNanos);
+            }
+        });
+        Future<?> call = this.executor.submit(() -> {
+            try {
+                result.complete(supplier.get());
+            } catch (Throwable error) {
+                result.completeExceptionally(error);
+            }
+        });
+        return new Lookup<>(this, name, result, call, startNanos, this.properties.timeoutOf(name));
+    }
+
+    private void record(String name, String outcome, long startNanos) {
+        Timer.builder(TIMER_NAME)
+                .tag("lookup", name)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(this.meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    public static final class Lookup<T> {
+        private final OrderPrefetcher prefetcher;
+        private final String name;
+        private final CompletableFuture<T> future;
+        private final Future<?> call;
+        private final long startNanos;
+        private final Duration timeout;
+
+        private Lookup(OrderPrefetcher prefetcher, String name, CompletableFuture<T> future, Future<?> call, long startNanos, Duration timeout) {
+            this.prefetcher = prefetcher;
+            this.name = name;
+            this.future = future;
+            this.call = call;
+            this.startNanos = startNanos;
+            this.timeout = timeout;
+        }
+
+        /**
+         * Đợi kết quả tới deadline của lookup. Exception của lookup được ném lại nguyên bản
+         */
+        public T join() {
+            if (this.future.isDone() || this.prefetcher == null) {
+                return unwrap();
+            }
+            var remainingNanos = this.startNanos + this.timeout.toNanos() - System.nanoTime();
+            try {
+                return this.future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                this.cancel();
+                this.prefetcher.record(this.name, "timeout", this.startNanos);
+                log.warn("Prefetch lookup {} timed out after {}", this.name, this.timeout);
+                throw new DependencyTimeoutException(this.name, "Lookup " + this.name + " timed out after " + this.timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.cancel();
+                throw new IllegalStateException("Interrupted while waiting for prefetch lookup " + this.name, e);
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        /**
+         * Kết quả huỷ trước (kết quả về sau bị bỏ, không ghi metric lần nữa) rồi mới interrupt lần gọi đang chạy
+         */
+        private void cancel() {
+            this.future.cancel(false);
+            this.call.cancel(true);
+        }
+
+        private T unwrap() {
+            try {
+                return this.future.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable cause) {
+            if (cause instanceof RuntimeException runtimeException) return runtimeException;
+            if (cause instanceof Error error) throw error;
+            return new IllegalStateException(cause);
+        }
+    }
+}
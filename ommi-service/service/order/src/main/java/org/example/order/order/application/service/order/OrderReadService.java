@@ -0,0 +1,98 @@
+package org.example.order.order.application.service.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.order.order.application.model.order.response.OrderListResponse;
+import org.example.order.order.application.model.order.response.OrderResponse;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.data.dao.OrderDao;
+import org.example.order.order.infrastructure.data.dto.OrderViewCursor;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewFilter;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Đọc order từ read model order_views (1 query theo primary key), không load aggregate
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderReadService {
+
+    static final int MAX_LIMIT = 250;
+    static final int COUNT_CAP = 10_000;
+
+    private final OrderDao orderDao;
+    private final OrderViewProjector orderViewProjector;
+    private final ObjectMapper objectMapper;
+
+    public OrderResponse getById(OrderId orderId) {
+        var view = this.orderDao.getViewById(orderId.getStoreId(), orderId.getId());
+        if (view == null) {
+            view = this.orderViewProjector.rebuild(orderId);
+        }
+        if (view == null) {
+            throw new ConstrainViolationException("order", "not found");
+        }
+        return this.toResponse(view);
+    }
+
+    /**
+     * Keyset pagination: trang kế tiếp bắt đầu sau order cuối của trang hiện tại (page_info),
+     * nên mỗi trang là 1 lần seek index, không phụ thuộc trang thứ mấy.
+     * Các trang sau phải dùng cùng filter với trang đầu
+     */
+    public OrderListResponse search(int storeId, OrderViewFilter filter, String pageInfo, int limit, boolean estimateCount) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ConstrainViolationException("limit", "must be between 1 and " + MAX_LIMIT);
+        }
+        var after = pageInfo == null ? null : decodeCursor(pageInfo);
+
+        // lấy dư 1 dòng để biết còn trang sau hay không
+        var views = this.orderDao.searchViews(storeId, filter, after, limit + 1);
+        var hasNext = views.size() > limit;
+        if (hasNext) views = views.subList(0, limit);
+
+        var response = OrderListResponse.builder()
+                .orders(views.stream().map(this::toResponse).toList());
+        if (hasNext) {
+            var last = views.get(views.size() - 1);
+            response.nextPageInfo(encodeCursor(new OrderViewCursor(last.getCreatedOn(), last.getId())));
+        }
+        if (estimateCount) {
+            var count = this.orderDao.countViews(storeId, filter, COUNT_CAP);
+            response.count(count).countExact(count < COUNT_CAP);
+        }
+        return response.build();
+    }
+
+    private OrderResponse toResponse(OrderViewDto view) {
+        try {
+            return this.objectMapper.readValue(view.getData(), OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to read view of order " + view.getId(), e);
+        }
+    }
+
+    static String encodeCursor(OrderViewCursor cursor) {
+        var value = cursor.createdOn().getEpochSecond() + ":" + cursor.createdOn().getNano() + ":" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OrderViewCursor decodeCursor(String pageInfo) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(pageInfo), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) throw new IllegalArgumentException();
+            var createdOn = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new OrderViewCursor(createdOn, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ConstrainViolationException("page_info", "invalid");
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.example.order.order.application.service.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.application.model.order.response.OrderResponse;
+import org.example.order.order.application.service.orderedit.OrderEditedAppEvent;
+import org.example.order.order.domain.order.model.*;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.domain.refund.model.Refund;
+import org.example.order.order.domain.refund.model.RefundLineItem;
+import org.example.order.order.infrastructure.data.dao.OrderDao;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Giữ read model order_views (1 dòng json / order) khớp với Order:
+ * - Mỗi event thay đổi order (tạo, refund, edit) mang theo aggregate vừa ghi, projector giữ lại aggregate đó
+ * - View được build từ aggregate trong bộ nhớ ngay trước khi transaction ghi order commit (không load lại order)
+ * => view commit/rollback cùng order, nhiều event trong 1 transaction chỉ ghi 1 lần
+ * - Tạo fulfillment không đổi aggregate order nên không cần ghi lại view
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderViewProjector {
+
+    private final OrderRepository orderRepository;
+    private final OrderDao orderDao;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(OrderCreatedAppEvent.class)
+    public void handleOrderCreated(OrderCreatedAppEvent event) {
+        this.markChanged(event.getOrder());
+    }
+
+    @EventListener(RefundCreatedAppEvent.class)
+    public void handleRefundCreated(RefundCreatedAppEvent event) {
+        this.markChanged(event.getOrder());
+    }
+
+    @EventListener(OrderEditedAppEvent.class)
+    public void handleOrderEdited(OrderEditedAppEvent event) {
+        this.markChanged(event.getOrder());
+    }
+
+    private void markChanged(Order order) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            // ngoài transaction: aggregate có thể đã detach => load lại trong transaction riêng
+            this.rebuild(order.getId());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        var pending = (Map<ViewKey, Order>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<ViewKey, Order> orders = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, orders);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    orders.values().forEach(changed -> OrderViewProjector.this.orderDao.saveView(OrderViewProjector.this.toView(changed)));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OrderViewProjector.this);
+                }
+            });
+            pending = orders;
+        }
+        // OrderId không có equals => key theo (storeId, id)
+        pending.put(new ViewKey(order.getId().getStoreId(), order.getId().getId()), order);
+    }
+
+    /**
+     * Build lại view từ aggregate (order tạo trước khi có read model). Trả về null nếu order không tồn tại.
+     * View đang lưu mới hơn order vừa load thì giữ và trả về view đó
+     */
+    OrderViewDto rebuild(OrderId orderId) {
+        return this.transactionTemplate.execute(status -> {
+            var order = this.orderRepository.findById(orderId);
+            if (order == null) {
+                log.warn("Order {} of store {} not found, skip projecting view", orderId.getId(), orderId.getStoreId());
+                return null;
+            }
+            var view = this.toView(order);
+            if (!this.orderDao.saveView(view)) {
+                // order bị sửa sau lúc load và view mới đã được ghi
+                return this.orderDao.getViewById(orderId.getStoreId(), orderId.getId());
+            }
+            return view;
+        });
+    }
+
+    /**
+     * Order phải còn trong transaction: phần chưa load theo fetch plan sẽ được load lazy khi đọc
+     */
+    OrderViewDto toView(Order order) {
+        var response = toResponse(order);
+
+        var view = new OrderViewDto();
+        view.setStoreId(order.getId().getStoreId());
+        view.setId(order.getId().getId());
+        view.setName(response.getName());
+        view.setOrderStatus(order.getOrderStatus());
+        view.setFinancialStatus(order.getFinancialStatus());
+        view.setFulfillmentStatus(order.getFulfillmentStatus());
+        view.setReturnStatus(order.getReturnStatus());
+        view.setCustomerId(response.getCustomerId());
+        view.setEmail(response.getEmail());
+        view.setPhone(response.getPhone());
+        view.setLocationId(order.getLocationId());
+        view.setTotalPrice(response.getTotalPrice());
+        view.setCreatedOn(order.getCreatedOn());
+        view.setModifiedOn(order.getModifiedOn());
+        view.setProcessedOn(order.getProcessedOn());
+        view.setClosedOn(order.getClosedOn());
+        view.setCancelledOn(order.getCancelledOn());
+        try {
+            view.setData(this.objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize view of order " + order.getId().getId(), e);
+        }
+        return view;
+    }
+
+    static OrderResponse toResponse(Order order) {
+        var response = new OrderResponse();
+        response.setId(order.getId().getId());
+        response.setStoreId(order.getId().getStoreId());
+
+        var referenceInfo = order.getReferenceInfo();
+        if (referenceInfo != null) {
+            response.setName(referenceInfo.getName());
+            response.setNumber(referenceInfo.getNumber());
+            response.setOrderNumber(referenceInfo.getOrderNumber());
+            response.setToken(referenceInfo.getToken());
+        }
+
+        response.setCreatedOn(order.getCreatedOn());
+        response.setModifiedOn(order.getModifiedOn());
+        response.setProcessedOn(order.getProcessedOn());
+        response.setClosedOn(order.getClosedOn());
+        response.setCancelledOn(order.getCancelledOn());
+        response.setCancelReason(order.getCancelReason());
+        response.setStatus(order.getOrderStatus());
+        response.setFinancialStatus(order.getFinancialStatus());
+        response.setFulfillmentStatus(order.getFulfillmentStatus());
+        response.setReturnStatus(order.getReturnStatus());
+
+        response.setTotalWeight(order.getTotalWeight());
+        response.setTest(order.isTest());
+        response.setNote(order.getNote());
+        response.setTags(map(order.getTags(), OrderTag::getName));
+        response.setNoteAttributes(map(order.getNoteAttributes(), attribute -> {
+            var attributeResponse = new OrderResponse.NoteAttributeResponse();
+            attributeResponse.setName(attribute.getName());
+            attributeResponse.setValue(attribute.getValue());
+            return attributeResponse;
+        }));
+
+        var customerInfo = order.getCustomerInfo();
+        if (customerInfo != null) {
+            response.setCustomerId(customerInfo.getCustomerId());
+            response.setEmail(customerInfo.getEmail());
+            response.setPhone(customerInfo.getPhone());
+            response.setBuyerAcceptMarketing(customerInfo.isBuyerAcceptMarketing());
+        }
+
+        var tracingInfo = order.getTracingInfo();
+        if (tracingInfo != null) {
+            response.setSource(tracingInfo.getSource());
+            response.setSourceName(tracingInfo.getSourceName());
+            response.setReference(tracingInfo.getReference());
+            response.setLandingSite(tracingInfo.getLandingSite());
+            response.setReferringSite(tracingInfo.getReferringSite());
+        }
+
+        var paymentMethodInfo = order.getPaymentMethodInfo();
+        if (paymentMethodInfo != null) {
+            response.setGateway(paymentMethodInfo.getGateway());
+            response.setProcessingMethod(paymentMethodInfo.getProcessingMethod());
+        }
+
+        response.setTaxExempt(order.isTaxExempt());
+        response.setTaxesIncluded(order.isTaxIncluded());
+        response.setLocationId(order.getLocationId());
+        response.setUserId(order.getUserId());
+
+        var moneyInfo = order.getMoneyInfo();
+        if (moneyInfo != null) {
+            if (moneyInfo.getCurrency() != null) response.setCurrency(moneyInfo.getCurrency().getCurrencyCode());
+            response.setTotalPrice(moneyInfo.getTotalPrice());
+            response.setSubtotalPrice(moneyInfo.getSubtotalPrice());
+            response.setTotalLineItemPrice(moneyInfo.getTotalLineItemPrice());
+            response.setOriginalTotalPrice(moneyInfo.getOriginalTotalPrice());
+            response.setCartDiscountAmount(moneyInfo.getCartDiscountAmount());
+            response.setTotalDiscounts(moneyInfo.getTotalDiscounts());
+            response.setTotalShippingPrice(moneyInfo.getTotalShippingPrice());
+            response.setTotalTax(moneyInfo.getTotalTax());
+            response.setCurrentTotalPrice(moneyInfo.getCurrentTotalPrice());
+            response.setCurrentSubtotalPrice(moneyInfo.getCurrentSubtotalPrice());
+            response.setCurrentTotalDiscounts(moneyInfo.getCurrentTotalDiscounts());
+            response.setCurrentCartDiscountAmount(moneyInfo.getCurrentCartDiscountAmount());
+            response.setCurrentTotalTax(moneyInfo.getCurrentTotalTax());
+            response.setTotalOutstanding(moneyInfo.getTotalOutstanding());
+            response.setUnpaidAmount(moneyInfo.getUnpaidAmount());
+            response.setTotalRefunded(moneyInfo.getTotalRefunded());
+            response.setTotalReceived(moneyInfo.getTotalReceived());
+            response.setNetPayment(moneyInfo.getNetPayment());
+        }
+
+        var billingAddress = order.getBillingAddress();
+        if (billingAddress != null) response.setBillingAddress(toAddress(billingAddress.getAddress()));
+        var shippingAddress = order.getShippingAddress();
+        if (shippingAddress != null) response.setShippingAddress(toAddress(shippingAddress.getAddress()));
+
+        response.setLineItems(map(order.getLineItems(), OrderViewProjector::toLineItem));
+        response.setShippingLines(map(order.getShippingLines(), OrderViewProjector::toShippingLine));
+        response.setDiscountCodes(map(order.getDiscountCodes(), discountCode -> {
+            var discountCodeResponse = new OrderResponse.DiscountCodeResponse();
+            discountCodeResponse.setCode(discountCode.getCode());
+            discountCodeResponse.setAmount(discountCode.getAmount());
+            discountCodeResponse.setType(nameOf(discountCode.getType()));
+            return discountCodeResponse;
+        }));
+        response.setDiscountApplications(map(order.getDiscountApplications(), OrderViewProjector::toDiscountApplication));
+        response.setRefunds(map(order.getRefunds(), OrderViewProjector::toRefund));
+        return response;
+    }
+
+    private static OrderResponse.AddressResponse toAddress(MailingAddress address) {
+        if (address == null) return null;
+        var response = new OrderResponse.AddressResponse();
+        response.setFirstName(address.getFirstName());
+        response.setLastName(address.getLastName());
+        response.setPhone(address.getPhone());
+        response.setAddress1(address.getAddress1());
+        response.setAddress2(address.getAddress2());
+        response.setCompany(address.getCompany());
+        response.setCountry(address.getCountry());
+        response.setCountryCode(address.getCountryCode());
+        response.setProvince(address.getProvince());
+        response.setProvinceCode(address.getProvinceCode());
+        response.setCity(address.getCity());
+        response.setDistrict(address.getDistrict());
+        response.setDistrictCode(address.getDistrictCode());
+        response.setWard(address.getWard());
+        response.setWardCode(address.getWardCode());
+        response.setZip(address.getZip());
+        return response;
+    }
+
+    private static OrderResponse.LineItemResponse toLineItem(LineItem lineItem) {
+        var response = new OrderResponse.LineItemResponse();
+        response.setId(lineItem.getId());
+        var variantInfo = lineItem.getVariantInfo();
+        if (variantInfo != null) {
+            response.setVariantId(variantInfo.getVariantId());
+            response.setProductId(variantInfo.getProductId());
+            response.setInventoryItemId(variantInfo.getInventoryItemId());
+            response.setName(variantInfo.getName());
+            response.setTitle(variantInfo.getTitle());
+            response.setVariantTitle(variantInfo.getVariantTitle());
+            response.setVendor(variantInfo.getVendor());
+            response.setSku(variantInfo.getSku());
+            response.setUnit(variantInfo.getUnit());
+            response.setGrams(variantInfo.getGrams());
+            response.setRequireShipping(variantInfo.isRequireShipping());
+            response.setRestockable(variantInfo.isRestockable());
+        }
+        response.setTaxable(lineItem.isTaxable());
+        response.setQuantity(lineItem.getQuantity());
+        response.setCurrentQuantity(lineItem.getCurrentQuantity());
+        response.setFulfillableQuantity(lineItem.getFulfillableQuantity());
+        response.setRefundableQuantity(lineItem.getRefundableQuantity());
+        response.setFulfillmentStatus(nameOf(lineItem.getFulfillmentStatus()));
+        response.setPrice(lineItem.getPrice());
+        response.setDiscountedUnitPrice(lineItem.getDiscountedUnitPrice());
+        response.setDiscountedTotal(lineItem.getDiscountedTotal());
+        response.setOriginalTotal(lineItem.getOriginalTotal());
+        response.setCombinationLineKey(lineItem.getCombinationLineKey());
+        response.setTaxLines(map(lineItem.getTaxLines(), OrderViewProjector::toTaxLine));
+        response.setDiscountAllocations(map(lineItem.getDiscountAllocations(), OrderViewProjector::toDiscountAllocation));
+        return response;
+    }
+
+    private static OrderResponse.ShippingLineResponse toShippingLine(ShippingLine shippingLine) {
+        var response = new OrderResponse.ShippingLineResponse();
+        response.setId(shippingLine.getId());
+        response.setCode(shippingLine.getCode());
+        response.setTitle(shippingLine.getTitle());
+        response.setSource(shippingLine.getSource());
+        response.setPrice(shippingLine.getPrice());
+        response.setTaxLines(map(shippingLine.getTaxLines(), OrderViewProjector::toTaxLine));
+        response.setDiscountAllocations(map(shippingLine.getDiscountAllocations(), OrderViewProjector::toDiscountAllocation));
+        return response;
+    }
+
+    private static OrderResponse.TaxLineResponse toTaxLine(TaxLine taxLine) {
+        var response = new OrderResponse.TaxLineResponse();
+        response.setTitle(taxLine.getTitle());
+        response.setPrice(taxLine.getPrice());
+        response.setRate(taxLine.getRate());
+        return response;
+    }
+
+    private static OrderResponse.DiscountAllocationResponse toDiscountAllocation(DiscountAllocation allocation) {
+        var response = new OrderResponse.DiscountAllocationResponse();
+        response.setAmount(allocation.getAmount());
+        response.setDiscountApplicationIndex(allocation.getApplicationIndex());
+        return response;
+    }
+
+    private static OrderResponse.DiscountApplicationResponse toDiscountApplication(DiscountApplication application) {
+        var response = new OrderResponse.DiscountApplicationResponse();
+        response.setId(application.getId());
+        response.setCode(application.getCode());
+        response.setTitle(application.getTitle());
+        response.setDescription(application.getDescription());
+        response.setValue(application.getValue());
+        response.setValueType(nameOf(application.getValueType()));
+        response.setTargetType(nameOf(application.getTargetType()));
+        return response;
+    }
+
+    private static OrderResponse.RefundResponse toRefund(Refund refund) {
+        var response = new OrderResponse.RefundResponse();
+        response.setId(refund.getId());
+        response.setNote(refund.getNote());
+        response.setCreatedOn(refund.getCreatedOn());
+        response.setProcessedOn(refund.getProcessedOn());
+        response.setTotalRefunded(refund.getTotalRefunded());
+        response.setRefundLineItems(map(refund.getRefundLineItems(), OrderViewProjector::toRefundLineItem));
+        return response;
+    }
+
+    private static OrderResponse.RefundLineItemResponse toRefundLineItem(RefundLineItem refundLineItem) {
+        var response = new OrderResponse.RefundLineItemResponse();
+        response.setLineItemId(refundLineItem.getLineItemId());
+        response.setQuantity(refundLineItem.getQuantity());
+        response.setLocationId(refundLineItem.getLocationId());
+        response.setSubtotal(refundLineItem.getSubtotal());
+        response.setTotalTax(refundLineItem.getTotalTax());
+        response.setRestockType(nameOf(refundLineItem.getType()));
+        return response;
+    }
+
+    private static <T, R> List<R> map(Collection<T> source, Function<T, R> mapper) {
+        if (source == null) return List.of();
+        return source.stream().map(mapper).toList();
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private record ViewKey(int storeId, int id) {
+    }
+}
@@ -12,6 +12,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.example.AdminClient;
 import org.example.customer.Customer;
 import org.example.location.Location;
+import org.example.money.MoneyMath;
 import org.example.order.order.application.model.orderedit.request.OrderEditRequest;
 import org.example.order.order.application.service.orderedit.OrderEditCommitService;
 import org.example.order.order.domain.edit.model.OrderEdit;
@@ -59,6 +60,7 @@ import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -84,6 +86,7 @@ public class OrderWriteService {
     private final OrderEditCommitService orderEditCommitService;
 
     private final AdminClient adminClient;
+    private final OrderPrefetcher orderPrefetcher;
 
     private final ApplicationEventPublisher applicationEventPublisher;
     private final MessageSource messageSource;
@@ -92,8 +95,60 @@ public class OrderWriteService {
     public OrderId createOrder(int storeId, OrderCreateRequest orderRequest) {
         //TODO: requireNonNull authorDetail
 
-        var store = this.findStoreById(storeId);
+        // lookup customer gọi admin api => chạy song song, chỉ đợi khi cần dùng.
+        // store, product đọc DB trên thread này (connection của transaction)
+        var customerContext = initCustomerContext(orderRequest);
+        var apiCustomerLookup = customerContext == null
+                ? OrderPrefetcher.<Customer>completed(null)
+                : this.orderPrefetcher.submit("customer_by_id", () -> this.customerService.findById(storeId, requestCustomerId(orderRequest)));
+        var emailCustomerLookup = customerContext == null
+                ? OrderPrefetcher.<Customer>completed(null)
+                : this.orderPrefetcher.submit("customer_by_email", () -> this.customerService.findByEmail(storeId, customerContext.getEmail()));
+
+        // phần tạo/cập nhật customer vẫn chạy đúng thứ tự cũ trong prepareOrder (sau validate tax)
+        Supplier<CustomerContextRequest> customerResolver = () -> customerContext == null
+                ? new CustomerContextRequest()
+                : this.resolveCustomer(storeId, orderRequest, customerContext, apiCustomerLookup.join(), emailCustomerLookup.join());
+
+        var preparedOrder = this.prepareOrder(
+                storeId,
+                this.findStoreById(storeId),
+                orderRequest,
+                this.fetchProductInfo(storeId, List.of(orderRequest)),
+                customerResolver,
+                () -> this.validateLocation(storeId, orderRequest.getLocationId())
+        );
+
+        this.orderRepository.save(preparedOrder.order());
+
+        applicationEventPublisher.publishEvent(preparedOrder.event());
+
+        return preparedOrder.order().getId();
+    }
 
+    /**
+     * Dựng Order (chưa lưu) và event tương ứng.
+     * store, productInfo được truyền vào để có thể dùng chung khi tạo nhiều order (batch import)
+     */
+    PreparedOrder prepareOrder(int storeId, StoreDto store, OrderCreateRequest orderRequest, ProductInfo productInfo) {
+        return this.prepareOrder(
+                storeId,
+                store,
+                orderRequest,
+                productInfo,
+                () -> this.resolveCustomer(storeId, orderRequest),
+                () -> this.validateLocation(storeId, orderRequest.getLocationId())
+        );
+    }
+
+    private PreparedOrder prepareOrder(
+            int storeId,
+            StoreDto store,
+            OrderCreateRequest orderRequest,
+            ProductInfo productInfo,
+            Supplier<CustomerContextRequest> customerResolver,
+            Supplier<Location> locationResolver
+    ) {
         var currency = this.resolveCurrency(orderRequest.getCurrency(), store);
 
         var sourceInfo = mapSources(orderRequest.getSource(), orderRequest.getSourceName());
@@ -105,7 +160,7 @@ public class OrderWriteService {
         validateTaxLineRequests(orderRequest, currency);
 
         // resolve cưstomer
-        var customerContextRequest = resolveCustomer(storeId, orderRequest);
+        var customerContextRequest = customerResolver.get();
         var customerInfo = new CustomerInfo(
                 StringUtils.firstNonBlank(
                         orderRequest.getEmail(),
@@ -125,7 +180,7 @@ public class OrderWriteService {
 
         var combinationLines = buildCombinationLines(orderRequest);
 
-        var lineItems = buildOrderLineItems(storeId, orderRequest.getLineItems(), combinationLines, currency);
+        var lineItems = buildOrderLineItems(productInfo, orderRequest.getLineItems(), combinationLines, currency);
 
         var shippingLines = buildShippingLines(orderRequest.getShippingLines());
 
@@ -153,7 +208,7 @@ public class OrderWriteService {
 
         var taxExempt = shouldIgnoreTax(orderRequest);
 
-        var location = validateLocation(storeId, orderRequest.getLocationId());
+        var location = locationResolver.get();
 
         var processedAt = Instant.now();
 
@@ -206,19 +261,19 @@ public class OrderWriteService {
                     .forEach(order::recognizeTransaction);
         }
 
-        this.orderRepository.save(order);
-
         var orderCreated = OrderCreatedAppEvent.builder()
                 .storeId(storeId)
                 .orderId(order.getId())
+                .order(order)
                 .orderRoutingResponse(orderRoutingResponse)
                 .fulfillmentRequests(orderRequest.getFulfillments())
                 .paymentResult(paymentResult)
                 .build();
 
-        applicationEventPublisher.publishEvent(orderCreated);
+        return new PreparedOrder(order, orderCreated);
+    }
 
-        return order.getId();
+    record PreparedOrder(Order order, OrderCreatedAppEvent event) {
     }
 
     private OrderPaymentResult preparePayment(Order order, OrderCreateRequest request) {
@@ -517,11 +572,10 @@ public class OrderWriteService {
             }
         }
 
-        var totalPrice = lineItems.stream()
-                .map(line ->
-                        line.getOriginalTotal()
-                                .subtract(discountLineMap.get(line.getId())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        var lineWeights = taxableLineItems.stream()
+                .map(line -> line.getOriginalTotal().subtract(discountLineMap.get(line.getId())))
+                .toList();
+        var taxAllocations = allocateTaxes(orderRequest.getTaxLines(), lineWeights, currency);
 
         //Phải phân bổ thuế về tất cả các line
         var taxLineIds = this.orderIdGenerator.generateTaxLineIds(orderRequest.getTaxLines().size() * lineItems.size());
@@ -531,10 +585,8 @@ public class OrderWriteService {
                     taxLineIds,
                     orderRequest.getTaxLines(),
                     lineItem,
-                    discountLineMap.get(lineItem.getId()),
-                    currency,
-                    i == taxableLineItems.size() - 1,
-                    totalPrice
+                    taxAllocations,
+                    i
             );
             lineItem.changeTax(taxLinesForLine);
         }
@@ -557,48 +609,41 @@ public class OrderWriteService {
         }
     }
 
+    /**
+     * Thuế của mỗi tax line chia cho các line chịu thuế theo giá sau giảm (lineWeights), largest remainder:
+     * tổng đúng bằng thuế của tax line, mỗi line lệch tỉ lệ chính xác dưới 1 đơn vị tiền.
+     * Kết quả theo [tax line][line], không sửa price của request
+     */
+    static List<List<BigDecimal>> allocateTaxes(
+            List<OrderCreateRequest.TaxLineRequest> taxLineRequests,
+            List<BigDecimal> lineWeights,
+            Currency currency
+    ) {
+        return taxLineRequests.stream()
+                .map(taxLineRequest -> MoneyMath.allocate(taxLineRequest.getPrice(), lineWeights, currency))
+                .toList();
+    }
+
     private List<TaxLine> buildTaxLineForLine(
             Deque<Integer> taxLineIds,
             List<OrderCreateRequest.TaxLineRequest> taxLineRequests,
             LineItem lineItem,
-            BigDecimal lineItemDiscountPrice,
-            Currency currency,
-            boolean isLastLine,
-            BigDecimal totalPrice
+            List<List<BigDecimal>> taxAllocations,
+            int lineIndex
     ) {
         List<TaxLine> taxLines = new ArrayList<>();
-        if (isLastLine) {
-            for (var taxRequest : taxLineRequests) {
-                var taxLine = new TaxLine(
-                        taxLineIds.removeFirst(),
-                        taxRequest.getTitle(),
-                        taxRequest.getPrice(),
-                        taxRequest.getRate(),
-                        lineItem.getId(),
-                        TaxLine.TargetType.line_item,
-                        lineItem.getQuantity()
-                );
-                taxLines.add(taxLine);
-            }
-        } else {
-            var remainingLinePrice = lineItem.getOriginalTotal().subtract(lineItemDiscountPrice);
-            for (var taxLineRequest : taxLineRequests) {
-                var taxPrice = taxLineRequest.getPrice()
-                        .multiply(remainingLinePrice)
-                        .divide(totalPrice, currency.getDefaultFractionDigits(), RoundingMode.UP);
-                var taxLine = new TaxLine(
-                        taxLineIds.removeFirst(),
-                        taxLineRequest.getTitle(),
-                        taxPrice,
-                        taxLineRequest.getRate(),
-                        lineItem.getId(),
-                        TaxLine.TargetType.line_item,
-                        lineItem.getQuantity()
-                );
-                var remainingTaxPrice = taxLineRequest.getPrice().subtract(taxPrice);
-                taxLineRequest.setPrice(remainingTaxPrice);
-                taxLines.add(taxLine);
-            }
+        for (int i = 0; i < taxLineRequests.size(); i++) {
+            var taxLineRequest = taxLineRequests.get(i);
+            var taxLine = new TaxLine(
+                    taxLineIds.removeFirst(),
+                    taxLineRequest.getTitle(),
+                    taxAllocations.get(i).get(lineIndex),
+                    taxLineRequest.getRate(),
+                    lineItem.getId(),
+                    TaxLine.TargetType.line_item,
+                    lineItem.getQuantity()
+            );
+            taxLines.add(taxLine);
         }
         return taxLines;
     }
@@ -697,7 +742,7 @@ public class OrderWriteService {
                                         (first, second) -> second,
                                         LinkedHashMap::new
                                 ));
-                        this.allocateAmount(
+                        allocateAmount(
                                 shippingLineWithId,
                                 ShippingLine::getPrice,
                                 discountCode.getAmount(),
@@ -736,7 +781,7 @@ public class OrderWriteService {
                                     (first, second) -> second,
                                     LinkedHashMap::new
                             ));
-                    this.allocateAmount(
+                    allocateAmount(
                             lineItemWithId,
                             LineItem::getDiscountedTotal,
                             discountCode.getAmount(),
@@ -782,7 +827,10 @@ public class OrderWriteService {
         return Pair.of(applications, allocations);
     }
 
-    private <T> void allocateAmount(
+    /**
+     * Chia discountAmount cho các resource theo tỉ lệ priceFunction (largest remainder), tổng đúng bằng discountAmount
+     */
+    static <T> void allocateAmount(
             LinkedHashMap<Integer, T> resourcesWithId,
             Function<T, BigDecimal> priceFunction,
             BigDecimal discountAmount,
@@ -796,31 +844,18 @@ public class OrderWriteService {
         // add applicatonRequest
         applicationRequests.add(applicationRequest);
 
-        var totalResourcePrice = resourcesWithId.values().stream()
+        var prices = resourcesWithId.values().stream()
                 .map(priceFunction)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        var resources = resourcesWithId.values().stream().toList();
+                .toList();
+        var allocationAmounts = MoneyMath.allocate(discountAmount, prices, currency);
 
-        var resourceCount = resources.size();
-        BigDecimal appliedAmount = BigDecimal.ZERO;
         int index = 0;
-        for (var entry : resourcesWithId.entrySet()) {
-            BigDecimal allocationAmount;
-            var resource = entry.getValue();
-            if (index != resourceCount - 1) {
-                allocationAmount = priceFunction.apply(resource).multiply(totalResourcePrice)
-                        .setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_UP);
-                appliedAmount = appliedAmount.add(allocationAmount);
-            } else {
-                allocationAmount = discountAmount.subtract(appliedAmount);
-            }
+        for (var resourceId : resourcesWithId.keySet()) {
             var allocation = allocationRequest.toBuilder()
-                    .amount(allocationAmount)
-                    .targetId(entry.getKey())
+                    .amount(allocationAmounts.get(index++))
+                    .targetId(resourceId)
                     .build();
             allocationRequests.add(allocation);
-            index++;
         }
     }
 
@@ -1015,14 +1050,14 @@ public class OrderWriteService {
         return shippingLine;
     }
 
-    private List<LineItem> buildOrderLineItems(int storeId,
+    private List<LineItem> buildOrderLineItems(ProductInfo productInfo,
                                                List<OrderCreateRequest.LineItemRequest> lineItemRequests,
                                                List<CombinationLine> combinationLines,
                                                Currency currency) {
         if (CollectionUtils.isEmpty(lineItemRequests))
             throw new IllegalArgumentException("line_items must not be empty");
 
-        var productInfo = getProductInfo(storeId, lineItemRequests);
+        validateVariants(productInfo, lineItemRequests);
 
         var lineItemIds = this.orderIdGenerator.generateLineItemIds(lineItemRequests.size());
         List<LineItem> lineItems = new ArrayList<>();
@@ -1197,8 +1232,14 @@ public class OrderWriteService {
         return taxLines;
     }
 
-    private ProductInfo getProductInfo(int storeId, List<OrderCreateRequest.LineItemRequest> lineItemRequests) {
-        var variantIds = lineItemRequests.stream()
+    /**
+     * Lấy variant/product cho tất cả line của các request trong 1 lần query, không validate
+     */
+    ProductInfo fetchProductInfo(int storeId, List<OrderCreateRequest> orderRequests) {
+        var variantIds = orderRequests.stream()
+                .map(OrderCreateRequest::getLineItems)
+                .filter(CollectionUtils::isNotEmpty)
+                .flatMap(List::stream)
                 .map(OrderCreateRequest.LineItemRequest::getVariantId)
                 .filter(NumberUtils::isPositive)
                 .distinct()
@@ -1208,8 +1249,24 @@ public class OrderWriteService {
 
         var variants = this.productDao.findVariantByListId(storeId, variantIds).stream()
                 .collect(Collectors.toMap(VariantDto::getId, Function.identity()));
-        var variantNotFoundString = variantIds.stream()
-                .filter(id -> !variants.containsKey(id))
+        if (variants.isEmpty())
+            return new ProductInfo(variants, Map.of());
+
+        var productIds = variants.values().stream()
+                .map(VariantDto::getProductId)
+                .distinct().toList();
+        var products = this.productDao.findProductByListId(storeId, productIds).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+
+        return new ProductInfo(variants, products);
+    }
+
+    private void validateVariants(ProductInfo productInfo, List<OrderCreateRequest.LineItemRequest> lineItemRequests) {
+        var variantNotFoundString = lineItemRequests.stream()
+                .map(OrderCreateRequest.LineItemRequest::getVariantId)
+                .filter(NumberUtils::isPositive)
+                .distinct()
+                .filter(id -> !productInfo.variants().containsKey(id))
                 .map(String::valueOf)
                 .collect(Collectors.joining(", "));
         if (StringUtils.isNotBlank(variantNotFoundString)) {
@@ -1219,14 +1276,6 @@ public class OrderWriteService {
                     .fields(List.of("variant_id"))
                     .build());
         }
-
-        var productIds = variants.values().stream()
-                .map(VariantDto::getProductId)
-                .distinct().toList();
-        var products = this.productDao.findProductByListId(storeId, productIds).stream()
-                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
-
-        return new ProductInfo(variants, products);
     }
 
     @Transactional
@@ -1731,7 +1780,7 @@ public class OrderWriteService {
         throw new ConstrainViolationException("order", "not found");
     }
 
-    private record ProductInfo(Map<Integer, VariantDto> variants, Map<Integer, ProductDto> products) {
+    record ProductInfo(Map<Integer, VariantDto> variants, Map<Integer, ProductDto> products) {
     }
 
     private List<CombinationLine> buildCombinationLines(OrderCreateRequest request) {
@@ -1791,17 +1840,27 @@ public class OrderWriteService {
     }
 
     private CustomerContextRequest resolveCustomer(int storeId, OrderCreateRequest request) {
-        log.info("Resolving customer for storeId: {}, request: {}", storeId, request);
+        var context = initCustomerContext(request);
+        if (context == null) return new CustomerContextRequest();
 
-        var context = new CustomerContextRequest();
+        var apiCustomer = this.customerService.findById(storeId, requestCustomerId(request));
+        var emailCheckedCustomer = this.customerService.findByEmail(storeId, context.getEmail());
+        return resolveCustomer(storeId, request, context, apiCustomer, emailCheckedCustomer);
+    }
 
-        // Nếu request không truyền lên bất kỳ thông tin nào của customer, email, phone => return null
+    /**
+     * Email/phone ban đầu của customer lấy từ request.
+     * Nếu request không truyền lên bất kỳ thông tin nào của customer, email, phone => return null
+     */
+    private static CustomerContextRequest initCustomerContext(OrderCreateRequest request) {
         if (StringUtils.isBlank(request.getEmail())
                 && StringUtils.isBlank(request.getPhone())
                 && (request.getCustomer() == null || request.getCustomer().isEmpty())) {
-            return context;
+            return null;
         }
 
+        var context = new CustomerContextRequest();
+
         context.setEmail(request.getEmail());
         context.setPhone(request.getPhone());
 
@@ -1814,9 +1873,22 @@ public class OrderWriteService {
                 context.setPhone(reqCustomer.getPhone());
             }
         }
+        return context;
+    }
+
+    private static int requestCustomerId(OrderCreateRequest request) {
+        return request.getCustomer() == null ? 0 : request.getCustomer().getId();
+    }
+
+    private CustomerContextRequest resolveCustomer(
+            int storeId,
+            OrderCreateRequest request,
+            CustomerContextRequest context,
+            Customer apiCustomer,
+            Customer emailCheckedCustomer
+    ) {
+        log.info("Resolving customer for storeId: {}, request: {}", storeId, request);
 
-        var apiCustomer = this.customerService.findById(storeId, reqCustomer == null ? 0 : reqCustomer.getId());
-        var emailCheckedCustomer = this.customerService.findByEmail(storeId, context.getEmail());
         validateEmailConflict(apiCustomer, emailCheckedCustomer, request, context);
 
         String updatablePhone = resolvePhoneNumber(context, storeId, apiCustomer);
@@ -2087,7 +2159,7 @@ public class OrderWriteService {
         throw new ConstrainViolationException("currency", "currency is not supported");
     }
 
-    private StoreDto findStoreById(int storeId) {
+    StoreDto findStoreById(int storeId) {
         var store = storeDao.getStoreById(storeId);
         if (store != null) return store;
         throw new ConstrainViolationException("store", "store not found by id = " + storeId);
@@ -8,6 +8,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.example.AdminClient;
 import org.example.location.Location;
 import org.example.location.LocationFilter;
+import org.example.money.MoneyMath;
 import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
 import org.example.order.order.infrastructure.configuration.exception.UserError;
 import org.example.order.order.application.model.refund.request.RefundRequest;
@@ -80,7 +81,7 @@ public class RefundCalculationService {
         var suggestedTransactions = new ArrayList<RefundCalculationResponse.Transaction>();
         var refundableTransactions = getRefundableTransactions(order);
 
-        return null;
+        return Pair.of(availableAmount, suggestedTransactions);
     }
 
     private List<RefundCalculationResponse.Transaction> getRefundableTransactions(Order order) {
@@ -232,13 +233,11 @@ public class RefundCalculationService {
         return BigDecimal.valueOf(subtotalAmountL).movePointLeft(roundingAccuracy);
     }
 
-    private long subtotalWithRounding(long totalAmountL, int totalQuantity, int refundedQuantity, int suggestQuantity, RoundingStyle style) {
-        var remain = totalAmountL % totalQuantity;
-        if (remain == 0) {
-            return (totalAmountL / totalQuantity) * suggestQuantity;
-        }
-
-        return (totalAmountL / totalQuantity) * suggestQuantity;
+    /**
+     * Đơn giá (totalAmountL / totalQuantity, bỏ phần dư) * suggestQuantity
+     */
+    static long subtotalWithRounding(long totalAmountL, int totalQuantity, int refundedQuantity, int suggestQuantity, RoundingStyle style) {
+        return MoneyMath.divide(totalAmountL, totalQuantity, RoundingMode.DOWN) * suggestQuantity;
     }
 
     enum RoundingStyle {
@@ -795,8 +794,7 @@ public class RefundCalculationService {
                 shipping.setAmount(refundShippingPrice);
                 shipping.setTax(shippingTax.subtract(shippingRefundedTax));
             } else {
-                var refundTaxAmount = refundShippingPrice.multiply(shippingTax)
-                        .divide(totalShippingPrice, currency.getDefaultFractionDigits(), RoundingMode.FLOOR);
+                var refundTaxAmount = MoneyMath.multiplyDivide(refundShippingPrice, shippingTax, totalShippingPrice, RoundingMode.FLOOR, currency);
                 shipping.setAmount(refundShippingPrice);
                 shipping.setTax(refundTaxAmount);
             }
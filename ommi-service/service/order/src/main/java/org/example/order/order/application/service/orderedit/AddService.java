@@ -90,6 +90,11 @@ public class AddService {
 
         var addedItemMap = orderEdit.getLineItems().stream()
                 .collect(Collectors.toMap(AddedLineItem::getId, Function.identity()));
+        // index 1 lần, tránh duyệt lại allocation/application cho từng line khi edit có nhiều line
+        var allocationMap = orderEdit.getDiscountAllocations().stream()
+                .collect(Collectors.toMap(AddedDiscountAllocation::getLineItemId, Function.identity(), (first, second) -> first));
+        var applicationMap = orderEdit.getDiscountApplications().stream()
+                .collect(Collectors.toMap(AddedDiscountApplication::getId, Function.identity(), (first, second) -> first));
 
         Map<Integer, AddDiscountModel> discountMap = new LinkedHashMap<>();
         for (var lineItemWithId : newLineItemWithIds) {
@@ -107,7 +112,7 @@ public class AddService {
                 continue;
             }
 
-            var discount = getDiscountModel(addedItemId, orderEdit, warningsBuilder);
+            var discount = getDiscountModel(addedItemId, allocationMap, applicationMap, warningsBuilder);
             if (discount.isEmpty()) {
                 discountMap.put(lineItem.get().getId(), AddDiscountModel.empty());
             } else {
@@ -118,20 +123,19 @@ public class AddService {
         return new AddModel(newLineItems, discountMap);
     }
 
-    private Optional<AddDiscountModel> getDiscountModel(UUID addedItemId, OrderEdit orderEdit, Warnings.Builder warningsBuilder) {
-        var possiblyAllocation = orderEdit.getDiscountAllocations().stream()
-                .filter(allocation -> allocation.getLineItemId().equals(addedItemId))
-                .findFirst();
-        if (possiblyAllocation.isEmpty()) {
+    private Optional<AddDiscountModel> getDiscountModel(
+            UUID addedItemId,
+            Map<UUID, AddedDiscountAllocation> allocationMap,
+            Map<UUID, AddedDiscountApplication> applicationMap,
+            Warnings.Builder warningsBuilder
+    ) {
+        var allocation = allocationMap.get(addedItemId);
+        if (allocation == null) {
             warningsBuilder.add("discount allocation", "require allocation this here");
             return Optional.empty();
         }
 
-        var allocation = possiblyAllocation.get();
-        var application = orderEdit.getDiscountApplications().stream()
-                .filter(da -> da.getId().equals(allocation.getApplicationId()))
-                .findFirst()
-                .orElse(null);
+        var application = applicationMap.get(allocation.getApplicationId());
         if (application == null) {
             warningsBuilder.add("discount", "application not found for allocation " + allocation.getApplicationId());
             return Optional.empty();
@@ -66,6 +66,8 @@ public final class LineItemBuilder extends AbstractLineItemBuilder<LineItemBuild
                 this.addChange(action.decrement);
                 this.applyChange(action.decrement);
             }
+        } else {
+            this.setQuantityForLineItem();
         }
 
         applyChangePrice();
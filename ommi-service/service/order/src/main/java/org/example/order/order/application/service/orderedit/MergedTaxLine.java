@@ -19,7 +19,7 @@ public final class MergedTaxLine implements GenericTaxLine {
     private BigDecimal price = BigDecimal.ZERO;
 
     @Getter
-    private BigDecimal quantity;
+    private BigDecimal quantity = BigDecimal.ZERO;
     private BigDecimal pricePerUnit;
 
     public MergedTaxLine(TaxLineKey taxLineKey) {
@@ -50,8 +50,9 @@ public final class MergedTaxLine implements GenericTaxLine {
     }
 
     private static void mergeMap(Map<TaxLineKey, MergedTaxLine> merged, Map<TaxLineKey, MergedTaxLine> mergedInput) {
+        // cộng vào instance mới, không sửa map đầu vào (kết quả build line được dùng lại giữa các lần tính)
         mergedInput.forEach((taxLineKey, mergedTaxLine) -> {
-            merged.merge(taxLineKey, mergedTaxLine, MergedTaxLine::merge);
+            merged.computeIfAbsent(taxLineKey, MergedTaxLine::new).merge(mergedTaxLine);
         });
     }
 
@@ -93,6 +94,14 @@ public final class MergedTaxLine implements GenericTaxLine {
         }
     }
 
+    public MergedTaxLine copy() {
+        var copy = new MergedTaxLine(this.taxLineKey);
+        copy.price = this.price;
+        copy.quantity = this.quantity;
+        copy.pricePerUnit = this.pricePerUnit;
+        return copy;
+    }
+
     public MergedTaxLine mergeRefunds(List<RefundTaxLineDto> refundTaxLines) {
         for (var refund : refundTaxLines) merge(refund);
 
@@ -11,15 +11,15 @@ import org.example.order.order.domain.edit.model.OrderEditId;
 import org.example.order.order.domain.edit.model.OrderStagedChange;
 import org.example.order.order.domain.order.model.DiscountAllocation;
 import org.example.order.order.domain.order.model.TaxLine;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
 import org.example.order.order.infrastructure.data.dao.*;
-import org.example.order.order.infrastructure.data.dto.OrderDto;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,40 +28,42 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class OrderEditCalculatorService {
 
-    private final OrderDao orderDao;
-    private final LineItemDao lineItemDao;
-    private final DiscountApplicationDao applicationDao;
-    private final DiscountAllocationDao allocationDao;
-    private final TaxLineDao taxLineDao;
-    private final RefundTaxLineDao refundTaxLineDao;
-
-    private final OrderEditDao orderEditDao;
-    private final OrderEditLineItemDao editLineItemDao;
-    private final OrderEditDiscountApplicationDao editDiscountApplicationDao;
-    private final OrderEditDiscountAllocationDao editDiscountAllocationDao;
-    private final OrderEditTaxLineDao editTaxLineDao;
-    private final OrderEditStagedChangeDao stagedChangeDao;
+    private final OrderEditGraphDao graphDao;
+    private final OrderEditSessionCache sessionCache;
 
     /**
-     * Get toàn bộ DTO của order, orderEdit sau đó join 2 phần này lại với nhau
+     * Get toàn bộ DTO của order, orderEdit sau đó join 2 phần này lại với nhau.
+     * Line nào không đổi so với lần tính trước trong cùng phiên sửa (OrderEditSessionCache) thì không build lại
      */
     public CalculatedOrder calculateOrder(OrderEditId orderEditId) {
 
-        EntityGraph entityGraph = this.fetchEntityGraph(orderEditId);
+        OrderEditGraphDto graph = this.fetchGraph(orderEditId);
+        OrderEditDto orderEdit = graph.getOrderEdit();
+
+        var session = this.sessionCache.get(orderEditId, orderEdit.getVersion());
+
+        Map<UUID, OrderEditSessionCache.ParsedStagedChange> parsedChanges = this.parseStagedChanges(graph, session);
+
+        EntityGraph entityGraph = this.toEntityGraph(graph, parsedChanges);
 
         EditingContext context = this.buildContext(entityGraph);
 
+        Map<String, Set<OrderEditSessionCache.RowVersion>> lineInputs = this.collectLineInputs(graph, parsedChanges);
+        Map<String, OrderEditSessionCache.CachedLine> lines = new HashMap<>();
+
         CalculatedOrder calculatedOrder = this.mapToCalculatedOrder(entityGraph.editGraph.orderEdit);
 
         List<BuilderSteps.Result> addedItems = entityGraph.editGraph.lineItems.stream()
-                .map(line -> buildAddedLineItem(line, context))
+                .map(line -> reuseOrBuild(line.getId().toString(), lineInputs, session, lines,
+                        () -> buildAddedLineItem(line, context)))
                 .toList();
 
         List<CalculatedLineItem> addedLineItems = addedItems.stream().map(BuilderSteps.Result::lineItem).toList();
         calculatedOrder.setAddedLineItems(addedLineItems);
 
         List<BuilderSteps.Result> existItems = entityGraph.orderGraph.lineItems.stream()
-                .map(line -> buildExistLineItem(line, context))
+                .map(line -> reuseOrBuild(String.valueOf(line.getId()), lineInputs, session, lines,
+                        () -> buildExistLineItem(line, context)))
                 .toList();
 
         List<CalculatedLineItem> exitingLineItems = existItems.stream().map(BuilderSteps.Result::lineItem).toList();
@@ -95,9 +97,95 @@ public class OrderEditCalculatorService {
                 ).collect(MergedTaxLine.mergedMaps());
         calculatedOrder.setTaxLines(taxLines);
 
+        if (orderEdit.isCommitted()) {
+            this.sessionCache.invalidate(orderEditId);
+        } else {
+            this.sessionCache.put(orderEditId, new OrderEditSessionCache.Session(orderEdit.getVersion(), lines, parsedChanges));
+        }
+
         return calculatedOrder;
     }
 
+    /**
+     * Dùng lại kết quả build của lần tính trước nếu các row tạo nên line không đổi version
+     */
+    private BuilderSteps.Result reuseOrBuild(
+            String lineKey,
+            Map<String, Set<OrderEditSessionCache.RowVersion>> lineInputs,
+            OrderEditSessionCache.Session session,
+            Map<String, OrderEditSessionCache.CachedLine> lines,
+            Supplier<BuilderSteps.Result> builder
+    ) {
+        var inputs = lineInputs.getOrDefault(lineKey, Set.of());
+        var cached = session == null ? null : session.lines().get(lineKey);
+        if (cached != null && cached.inputs().equals(inputs)) {
+            lines.put(lineKey, cached);
+            return cached.copyResult();
+        }
+        var result = builder.get();
+        lines.put(lineKey, OrderEditSessionCache.CachedLine.of(inputs, result));
+        return result;
+    }
+
+    /**
+     * Gom id + version của mọi row dùng để build từng line, key giống key trong OrderEditSessionCache.Session#lines
+     */
+    private Map<String, Set<OrderEditSessionCache.RowVersion>> collectLineInputs(
+            OrderEditGraphDto graph,
+            Map<UUID, OrderEditSessionCache.ParsedStagedChange> parsedChanges
+    ) {
+        Map<String, Set<OrderEditSessionCache.RowVersion>> inputs = new HashMap<>();
+        BiConsumer<Object, OrderEditSessionCache.RowVersion> add = (lineKey, row) ->
+                inputs.computeIfAbsent(String.valueOf(lineKey), key -> new HashSet<>()).add(row);
+
+        for (var lineItem : graph.getLineItems()) {
+            add.accept(lineItem.getId(), new OrderEditSessionCache.RowVersion("line_items", lineItem.getId(), lineItem.getVersion()));
+        }
+        var refundTaxes = graph.getRefundTaxLines().stream()
+                .collect(Collectors.groupingBy(RefundTaxLineDto::getTaxLineId));
+        for (var taxLine : graph.getTaxLines()) {
+            if (taxLine.getTargetType() != TaxLine.TargetType.line_item) continue;
+            add.accept(taxLine.getTargetId(), new OrderEditSessionCache.RowVersion("tax_lines", taxLine.getId(), taxLine.getVersion()));
+            for (var refund : refundTaxes.getOrDefault(taxLine.getId(), List.of())) {
+                add.accept(taxLine.getTargetId(), new OrderEditSessionCache.RowVersion("refund_tax_lines", refund.getId(), null));
+            }
+        }
+        // allocation kèm discount application của nó: sửa application (giá trị, loại...) cũng build lại line
+        var applications = graph.getDiscountApplications().stream()
+                .collect(Collectors.toMap(DiscountApplicationDto::getId, Function.identity()));
+        for (var allocation : graph.getDiscountAllocations()) {
+            if (allocation.getTargetType() != DiscountAllocation.TargetType.line_item) continue;
+            add.accept(allocation.getTargetId(), new OrderEditSessionCache.RowVersion("discount_allocations", allocation.getId(), allocation.getVersion()));
+            var application = applications.get(allocation.getApplicationId());
+            if (application != null) {
+                add.accept(allocation.getTargetId(), new OrderEditSessionCache.RowVersion("discount_applications", application.getId(), application.getVersion()));
+            }
+        }
+
+        for (var lineItem : graph.getEditLineItems()) {
+            add.accept(lineItem.getId(), new OrderEditSessionCache.RowVersion("order_edit_line_items", lineItem.getId(), lineItem.getVersion()));
+        }
+        for (var taxLine : graph.getEditTaxLines()) {
+            add.accept(taxLine.getTargetId(), new OrderEditSessionCache.RowVersion("order_edit_tax_lines", taxLine.getId(), taxLine.getVersion()));
+        }
+        var editApplications = graph.getEditDiscountApplications().stream()
+                .collect(Collectors.toMap(OrderEditDiscountApplicationDto::getId, Function.identity()));
+        for (var allocation : graph.getEditDiscountAllocations()) {
+            add.accept(allocation.getLineItemId(), new OrderEditSessionCache.RowVersion("order_edit_discount_allocations", allocation.getId(), allocation.getVersion()));
+            var application = editApplications.get(allocation.getApplicationId());
+            if (application != null) {
+                add.accept(allocation.getLineItemId(), new OrderEditSessionCache.RowVersion("order_edit_discount_applications", application.getId(), application.getVersion()));
+            }
+        }
+        parsedChanges.forEach((id, parsed) -> {
+            var lineItemId = OrderEditUtils.getLineItemId(parsed.stagedChange());
+            if (lineItemId != null) {
+                add.accept(lineItemId, new OrderEditSessionCache.RowVersion("order_edit_staged_changes", id, parsed.version()));
+            }
+        });
+        return inputs;
+    }
+
     private BuilderSteps.Result buildExistLineItem(LineItemDto lineItem, EditingContext context) {
         int lineItemId = lineItem.getId();
 
@@ -216,42 +304,55 @@ public class OrderEditCalculatorService {
         return target;
     }
 
-    private EntityGraph fetchEntityGraph(OrderEditId orderEditId) {
-        var editGraph = fetchEditGraph(orderEditId);
-
-        int storeId = editGraph.orderEdit.getStoreId();
-        int orderId = editGraph.orderEdit.getOrderId();
-        var orderGraph = fetchOrderGraph(storeId, orderId);
-
-        return new EntityGraph(orderGraph, editGraph);
+    /**
+     * Order và order edit được load chung 1 lần gọi DB (xem JdbcOrderEditGraphDao)
+     */
+    private OrderEditGraphDto fetchGraph(OrderEditId orderEditId) {
+        var graph = this.graphDao.getByOrderEditId(orderEditId.getStoreId(), orderEditId.getId());
+        if (graph == null) {
+            throw new ConstrainViolationException("order_edit", "not found");
+        }
+        return graph;
     }
 
-    private OrderGraph fetchOrderGraph(int storeId, int orderId) {
-        return new OrderGraph(
-                this.orderDao.getById(storeId, orderId),
-                this.lineItemDao.getByOrderId(storeId, orderId),
-                this.applicationDao.getByOrderId(storeId, orderId),
-                this.allocationDao.getByOrderId(storeId, orderId),
-                this.taxLineDao.getByOrderId(storeId, orderId),
-                this.refundTaxLineDao.getByOrderId(storeId, orderId)
+    private EntityGraph toEntityGraph(OrderEditGraphDto graph, Map<UUID, OrderEditSessionCache.ParsedStagedChange> parsedChanges) {
+        var orderGraph = new OrderGraph(
+                graph.getLineItems(),
+                graph.getDiscountApplications(),
+                graph.getDiscountAllocations(),
+                graph.getTaxLines(),
+                graph.getRefundTaxLines()
         );
-    }
-
-    private OrderEditGraph fetchEditGraph(OrderEditId orderEditId) {
-        int storeId = orderEditId.getStoreId();
-        int editId = orderEditId.getId();
-
-        return new OrderEditGraph(
-                this.orderEditDao.getById(storeId, editId),
-                this.editLineItemDao.getByOrderEditId(storeId, editId),
-                this.editDiscountApplicationDao.getByOrderEditId(storeId, editId),
-                this.editDiscountAllocationDao.getByOrderEditId(storeId, editId),
-                this.editTaxLineDao.getByOrderEditId(storeId, editId),
-                this.stagedChangeDao.getByOrderEditId(storeId, editId)
+        var editGraph = new OrderEditGraph(
+                graph.getOrderEdit(),
+                graph.getEditLineItems(),
+                graph.getEditDiscountApplications(),
+                graph.getEditDiscountAllocations(),
+                graph.getEditTaxLines(),
+                graph.getStagedChanges()
                         .stream()
-                        .map(this::convert)
+                        .map(change -> parsedChanges.get(change.getId()).stagedChange())
                         .toList()
         );
+        return new EntityGraph(orderGraph, editGraph);
+    }
+
+    /**
+     * Chỉ parse json của staged change mới hoặc đã đổi version so với session
+     */
+    private Map<UUID, OrderEditSessionCache.ParsedStagedChange> parseStagedChanges(
+            OrderEditGraphDto graph,
+            OrderEditSessionCache.Session session
+    ) {
+        Map<UUID, OrderEditSessionCache.ParsedStagedChange> parsedChanges = new HashMap<>();
+        for (var changeDto : graph.getStagedChanges()) {
+            var cached = session == null ? null : session.stagedChanges().get(changeDto.getId());
+            var parsed = cached != null && Objects.equals(cached.version(), changeDto.getVersion())
+                    ? cached
+                    : new OrderEditSessionCache.ParsedStagedChange(changeDto.getVersion(), convert(changeDto));
+            parsedChanges.put(changeDto.getId(), parsed);
+        }
+        return parsedChanges;
     }
 
     private OrderStagedChange convert(OrderEditStagedChangeDto changeDto) {
@@ -287,7 +388,6 @@ public class OrderEditCalculatorService {
     }
 
     record OrderGraph(
-            OrderDto order,
             List<LineItemDto> lineItems,
             List<DiscountApplicationDto> discountApplications,
             List<DiscountAllocationDto> discountAllocations,
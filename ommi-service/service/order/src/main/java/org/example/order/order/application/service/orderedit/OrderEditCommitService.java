@@ -56,14 +56,6 @@ public class OrderEditCommitService {
 
         var locations = resolveEditingLocations(orderId.getStoreId(), changes, warningsBuilder);
 
-        if (orderEdit.getChanges().size() >= 20) {
-            warningsBuilder.add("changes",
-                    """
-                            Applying %s changes to Order with id %s
-                            . Consider limiting number of changes handled in 1 API
-                            """.formatted(orderEdit.getChanges().size(), orderId));
-        }
-
         List<LineItem> newLineItems = this.addService.addItems(order, orderEdit, changes, locations, warningsBuilder);
 
         var increasedItems = this.quantityService.increaseItems(order, changes);
@@ -138,7 +130,7 @@ public class OrderEditCommitService {
                 warningsBuilder.add("location", "Expected exactly 1 default location");
             }
 
-            locations.put(null, defaultLocations.get(1));
+            locations.put(null, defaultLocations.get(0));
         }
 
         return locations;
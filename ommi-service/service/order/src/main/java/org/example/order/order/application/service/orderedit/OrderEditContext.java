@@ -3,6 +3,7 @@ package org.example.order.order.application.service.orderedit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.example.AdminClient;
 import org.example.location.Location;
 import org.example.location.LocationFilter;
@@ -32,6 +33,7 @@ import java.math.RoundingMode;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -121,6 +123,31 @@ public class OrderEditContext {
         return new SetItemDiscountImpl(orderEditId, request);
     }
 
+    public ApplyChangesContext createContext(OrderEditId orderEditId, OrderEditRequest.ApplyChanges request) {
+        return new ApplyChangesContextImpl(orderEditId, request);
+    }
+
+    /**
+     * null nếu request không có giá trị giảm giá dương
+     */
+    private static DiscountRequest resolveDiscountRequest(Currency currency, OrderEditRequest.SetItemDiscount request) {
+        if (NumberUtils.isPositive(request.getFixedValue())) {
+            return new DiscountRequest(
+                    request.getFixedValue().setScale(currency.getDefaultFractionDigits(), RoundingMode.UP),
+                    DiscountApplication.ValueType.fixed_amount,
+                    request.getDescription()
+            );
+        }
+        if (NumberUtils.isPositive(request.getPercentValue())) {
+            return new DiscountRequest(
+                    request.getPercentValue(),
+                    DiscountApplication.ValueType.percentage,
+                    request.getDescription()
+            );
+        }
+        return null;
+    }
+
     public record DiscountRequest(
             BigDecimal value,
             DiscountApplication.ValueType type,
@@ -138,7 +165,13 @@ public class OrderEditContext {
         public SetItemDiscountImpl(OrderEditId orderEditId, OrderEditRequest.SetItemDiscount request) {
             super(orderEditId, request);
 
-            this.discountRequest = resolveDiscountRequest(request);
+            this.discountRequest = resolveDiscountRequest(orderEdit().getCurrency(), request);
+            if (this.discountRequest == null) {
+                throw new ConstrainViolationException(
+                        "discount_request",
+                        "Required discountValue for request"
+                );
+            }
 
             UUID lineItemId = request.getLineItemId();
             this.lineItem = orderEdit().getLineItems().stream()
@@ -161,28 +194,6 @@ public class OrderEditContext {
             return new TaxContext();
         }
 
-        private DiscountRequest resolveDiscountRequest(OrderEditRequest.SetItemDiscount request) {
-            var currency = orderEdit().getCurrency();
-            if (NumberUtils.isPositive(request.getFixedValue())) {
-                return new DiscountRequest(
-                        request.getFixedValue().setScale(currency.getDefaultFractionDigits(), RoundingMode.UP),
-                        DiscountApplication.ValueType.fixed_amount,
-                        request.getDescription()
-                );
-            }
-            if (NumberUtils.isPositive(request.getPercentValue())) {
-                return new DiscountRequest(
-                        request.getPercentValue(),
-                        DiscountApplication.ValueType.percentage,
-                        request.getDescription()
-                );
-            }
-            throw new ConstrainViolationException(
-                    "discount_request",
-                    "Required discountValue for request"
-            );
-        }
-
         @Override
         public TaxContext taxContext() {
             return this.taxContext;
@@ -349,6 +360,30 @@ public class OrderEditContext {
         T request();
     }
 
+    public interface ApplyChangesContext extends BaseContext<OrderEditRequest.ApplyChanges> {
+        VariantDto getVariantById(int variantId);
+
+        ProductDto getProductById(int productId);
+
+        Location getLocationById(Integer locationId);
+
+        /**
+         * Line cũ của order, null nếu không tồn tại
+         */
+        @Nullable
+        LineItem getExistingLineItem(int lineItemId);
+
+        /**
+         * Thuế của tất cả line trong request được lấy 1 lần, line không chịu thuế dùng TaxContext rỗng
+         */
+        TaxContext taxContext(boolean taxable);
+
+        /**
+         * Không có giá trị giảm giá dương => value = 0 (bỏ giảm giá của line)
+         */
+        DiscountRequest discountRequest(OrderEditRequest.SetItemDiscount request);
+    }
+
     public interface AddVariantsContext extends BaseContext<List<OrderEditRequest.AddVariant>>, NeedTax {
         VariantDto getVariantById(int variantId);
 
@@ -393,7 +428,7 @@ public class OrderEditContext {
 
         @Override
         public Location getLocation() {
-            return null;
+            return this.location;
         }
     }
 
@@ -426,7 +461,7 @@ public class OrderEditContext {
             return this.orderEdit.getId().getStoreId();
         }
 
-        private Order needOrder() {
+        protected final Order needOrder() {
             if (this.order != null) return this.order;
             this.order = fetchOrder(storeId(), this.orderEdit.getOrderId());
             return this.order;
@@ -539,6 +574,7 @@ public class OrderEditContext {
                 return new TaxContext();
             }
 
+            productIds = new HashSet<>(productIds);
             productIds.add(0);
 
             String countryCode = OrderEditUtils.getCountryCode(needOrder());
@@ -622,4 +658,140 @@ public class OrderEditContext {
             return this.taxContext;
         }
     }
+
+    private final class ApplyChangesContextImpl extends AbstractContext<OrderEditRequest.ApplyChanges> implements ApplyChangesContext {
+
+        private final Map<Integer, VariantDto> variants;
+        private final Map<Integer, ProductDto> products;
+        private final Map<Integer, Location> locations;
+        private final Map<Integer, LineItem> existingLineItems;
+        private final TaxContext taxContext;
+
+        public ApplyChangesContextImpl(OrderEditId orderEditId, OrderEditRequest.ApplyChanges request) {
+            super(orderEditId, request);
+
+            var variantInfo = this.needVariantInfo(
+                    this.requestsOf(OrderEditRequest.ChangeType.add_variant, OrderEditRequest.Change::getAddVariant)
+                            .map(OrderEditRequest.AddVariant::getVariantId)
+                            .filter(NumberUtils::isPositive)
+                            .distinct()
+                            .toList());
+            this.variants = variantInfo.variants();
+            this.products = variantInfo.products();
+
+            this.locations = this.fetchLocations();
+            this.existingLineItems = this.fetchExistingLineItems();
+            this.taxContext = this.fetchTaxContext();
+        }
+
+        private <T> Stream<T> requestsOf(OrderEditRequest.ChangeType type, Function<OrderEditRequest.Change, T> getter) {
+            return request().getChanges().stream()
+                    .filter(change -> change.getType() == type)
+                    .map(getter)
+                    .filter(Objects::nonNull);
+        }
+
+        private Stream<Pair<UUID, Integer>> quantityLineItemIds() {
+            return this.requestsOf(OrderEditRequest.ChangeType.set_item_quantity, OrderEditRequest.Change::getSetItemQuantity)
+                    .map(quantityRequest -> {
+                        try {
+                            return OrderEditUtils.parseLineItemId(quantityRequest.getLineItemId());
+                        } catch (ConstrainViolationException ignored) {
+                            // id sai định dạng được báo lỗi theo từng change khi áp dụng
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull);
+        }
+
+        private Map<Integer, Location> fetchLocations() {
+            var locationIds = Stream.concat(
+                            this.requestsOf(OrderEditRequest.ChangeType.add_variant, OrderEditRequest.Change::getAddVariant)
+                                    .map(OrderEditRequest.AddVariant::getLocationId),
+                            this.requestsOf(OrderEditRequest.ChangeType.add_custom_item, OrderEditRequest.Change::getAddCustomItem)
+                                    .map(OrderEditRequest.AddCustomItem::getLocationId))
+                    .toList();
+            if (locationIds.isEmpty()) {
+                return Map.of();
+            }
+
+            var positiveLocationIds = locationIds.stream()
+                    .filter(NumberUtils::isPositive)
+                    .distinct()
+                    .toList();
+            boolean includeDefaultLocation = locationIds.stream().anyMatch(locationId -> !NumberUtils.isPositive(locationId));
+
+            return this.needLocations(positiveLocationIds, includeDefaultLocation);
+        }
+
+        private Map<Integer, LineItem> fetchExistingLineItems() {
+            boolean hasExistingLine = this.quantityLineItemIds().anyMatch(lineItemId -> lineItemId.getValue() != null);
+            if (!hasExistingLine) {
+                return Map.of();
+            }
+            return needOrder().getLineItems().stream()
+                    .collect(Collectors.toMap(LineItem::getId, Function.identity()));
+        }
+
+        private TaxContext fetchTaxContext() {
+            Set<Integer> productIds = new HashSet<>();
+
+            this.variants.values().stream()
+                    .filter(VariantDto::isTaxable)
+                    .map(VariantDto::getProductId)
+                    .filter(this.products::containsKey)
+                    .forEach(productIds::add);
+
+            var addedLineItems = orderEdit().getLineItems().stream()
+                    .collect(Collectors.toMap(AddedLineItem::getId, Function.identity()));
+            Stream.concat(
+                            this.quantityLineItemIds().map(Pair::getKey).filter(Objects::nonNull),
+                            this.requestsOf(OrderEditRequest.ChangeType.set_item_discount, OrderEditRequest.Change::getSetItemDiscount)
+                                    .map(OrderEditRequest.SetItemDiscount::getLineItemId))
+                    .map(addedLineItems::get)
+                    .filter(Objects::nonNull)
+                    .filter(AddedLineItem::isTaxable)
+                    .forEach(lineItem -> productIds.add(Optional.ofNullable(lineItem.getProductId()).orElse(0)));
+
+            this.existingLineItems.values().stream()
+                    .filter(LineItem::isTaxable)
+                    .forEach(lineItem -> productIds.add(Optional.ofNullable(lineItem.getVariantInfo().getProductId()).orElse(0)));
+
+            return this.needTaxes(productIds);
+        }
+
+        @Override
+        public VariantDto getVariantById(int variantId) {
+            return this.variants.get(variantId);
+        }
+
+        @Override
+        public ProductDto getProductById(int productId) {
+            return this.products.get(productId);
+        }
+
+        @Override
+        public Location getLocationById(Integer locationId) {
+            return this.locations.get(NumberUtils.isPositive(locationId) ? locationId : null);
+        }
+
+        @Override
+        public LineItem getExistingLineItem(int lineItemId) {
+            return this.existingLineItems.get(lineItemId);
+        }
+
+        @Override
+        public TaxContext taxContext(boolean taxable) {
+            return taxable ? this.taxContext : new TaxContext();
+        }
+
+        @Override
+        public DiscountRequest discountRequest(OrderEditRequest.SetItemDiscount request) {
+            var discountRequest = resolveDiscountRequest(orderEdit().getCurrency(), request);
+            if (discountRequest == null) {
+                return new DiscountRequest(BigDecimal.ZERO, DiscountApplication.ValueType.fixed_amount, request.getDescription());
+            }
+            return discountRequest;
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package org.example.order.order.application.service.orderedit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.example.order.order.application.model.orderedit.response.CalculatedLineItem;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.domain.edit.model.OrderStagedChange;
+import org.example.order.order.infrastructure.configuration.OrderEditSessionCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Kết quả tính CalculatedOrder lần trước của mỗi phiên sửa order, theo OrderEditId + version.
+ * - Line nào có dữ liệu đầu vào (id + version các row liên quan) không đổi thì dùng lại kết quả build cũ
+ * - Staged change không đổi version thì không parse lại json
+ * - Version trong DB nhỏ hơn version đã cache (rollback, edit bị tạo lại) => bỏ session, tính lại từ đầu
+ */
+@Component
+public class OrderEditSessionCache {
+
+    private final Cache<OrderEditId, Session> cache;
+
+    public OrderEditSessionCache(OrderEditSessionCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.isEnabled() ? properties.getMaximumSize() : 0)
+                .expireAfterAccess(properties.getIdleTimeout())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, this.cache, "order_edit_session");
+    }
+
+    /**
+     * Session đã cache nếu còn dùng được cho version hiện tại của order edit, ngược lại null
+     */
+    Session get(OrderEditId orderEditId, Integer version) {
+        var session = this.cache.getIfPresent(orderEditId);
+        if (session == null) {
+            return null;
+        }
+        if (version == null || session.version == null || session.version > version) {
+            this.cache.invalidate(orderEditId);
+            return null;
+        }
+        return session;
+    }
+
+    void put(OrderEditId orderEditId, Session session) {
+        this.cache.put(orderEditId, session);
+    }
+
+    /**
+     * Gọi khi order edit đã commit
+     */
+    public void invalidate(OrderEditId orderEditId) {
+        this.cache.invalidate(orderEditId);
+    }
+
+    /**
+     * @param lines          key: id line cũ (Integer dạng string) hoặc id line thêm mới (UUID dạng string)
+     * @param stagedChanges  staged change đã parse, key: id staged change
+     */
+    record Session(
+            Integer version,
+            Map<String, CachedLine> lines,
+            Map<UUID, ParsedStagedChange> stagedChanges
+    ) {
+    }
+
+    /**
+     * Giữ bản sao riêng của kết quả build, mỗi lần dùng lại trả ra bản sao mới
+     * => CalculatedOrder đã trả ra bị sửa cũng không ảnh hưởng lần tính sau
+     */
+    record CachedLine(
+            Set<RowVersion> inputs,
+            CalculatedLineItem lineItem,
+            Map<MergedTaxLine.TaxLineKey, MergedTaxLine> taxLines
+    ) {
+        static CachedLine of(Set<RowVersion> inputs, BuilderSteps.Result result) {
+            return new CachedLine(inputs, result.lineItem().copy(), copy(result.taxLines()));
+        }
+
+        BuilderSteps.Result copyResult() {
+            return new CachedResult(this.lineItem.copy(), copy(this.taxLines));
+        }
+
+        private static Map<MergedTaxLine.TaxLineKey, MergedTaxLine> copy(Map<MergedTaxLine.TaxLineKey, MergedTaxLine> taxLines) {
+            Map<MergedTaxLine.TaxLineKey, MergedTaxLine> copied = new HashMap<>();
+            taxLines.forEach((key, taxLine) -> copied.put(key, taxLine.copy()));
+            return copied;
+        }
+    }
+
+    record CachedResult(
+            CalculatedLineItem lineItem,
+            Map<MergedTaxLine.TaxLineKey, MergedTaxLine> taxLines
+    ) implements BuilderSteps.Result {
+    }
+
+    record ParsedStagedChange(Integer version, OrderStagedChange stagedChange) {
+    }
+
+    /**
+     * 1 row (line item, tax line, allocation, staged change...) đã dùng để build line
+     */
+    record RowVersion(String table, Object id, Integer version) {
+    }
+}
@@ -3,9 +3,11 @@ package org.example.order.order.application.service.orderedit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.example.location.Location;
 import org.example.order.order.application.model.orderedit.request.OrderEditRequest;
 import org.example.order.order.application.service.order.OrderWriteService;
+import org.example.order.order.application.utils.OrderEditUtils;
 import org.example.order.order.domain.edit.model.AddedLineItem;
 import org.example.order.order.domain.edit.model.OrderEdit;
 import org.example.order.order.domain.edit.model.OrderEditId;
@@ -15,6 +17,7 @@ import org.example.order.order.domain.order.model.*;
 import org.example.order.order.domain.order.persistence.OrderRepository;
 import org.example.order.order.domain.refund.model.OrderAdjustment;
 import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.configuration.exception.ErrorMessage;
 import org.example.order.order.infrastructure.data.dto.ProductDto;
 import org.example.order.order.infrastructure.data.dto.VariantDto;
 import org.springframework.stereotype.Service;
@@ -22,9 +25,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.HashMap;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -40,6 +42,8 @@ public class OrderEditWriteService {
 
     private final OrderWriteService orderWriteService;
 
+    private final OrderEditSessionCache sessionCache;
+
     @Transactional
     public OrderEditId begin(int storeId, int orderId) {
         var order = this.findOrderById(storeId, orderId);
@@ -326,6 +330,184 @@ public class OrderEditWriteService {
         return lineItemId;
     }
 
+    /**
+     * Áp dụng nhiều thao tác sửa trong 1 request: order edit, variant, location, thuế chỉ load 1 lần,
+     * kiểm tra toàn bộ change trước (lỗi trả theo key changes[index]) rồi mới áp dụng lần lượt và lưu 1 lần
+     *
+     * @return id line bị tác động, theo thứ tự change trong request
+     */
+    @Transactional
+    public List<String> applyChanges(OrderEditId orderEditId, OrderEditRequest.ApplyChanges request) {
+        var context = this.orderEditContext.createContext(orderEditId, request);
+
+        this.validateChanges(context);
+
+        List<String> lineItemIds = new ArrayList<>(request.getChanges().size());
+        for (var change : request.getChanges()) {
+            var lineItemId = switch (change.getType()) {
+                case add_variant -> this.applyAddVariant(change.getAddVariant(), context).toString();
+                case add_custom_item -> this.applyAddCustomItem(change.getAddCustomItem(), context).toString();
+                case set_item_quantity -> this.applyItemQuantity(change.getSetItemQuantity(), context);
+                case set_item_discount -> this.applyItemDiscount(change.getSetItemDiscount(), context).toString();
+            };
+            lineItemIds.add(lineItemId);
+        }
+
+        this.orderEditRepository.save(context.orderEdit());
+
+        return lineItemIds;
+    }
+
+    private void validateChanges(OrderEditContext.ApplyChangesContext context) {
+        // line thêm mới còn tồn tại tại thời điểm áp dụng từng change (change trước có thể xoá line)
+        Set<UUID> addedLineItemIds = context.orderEdit().getLineItems().stream()
+                .map(AddedLineItem::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        var errorBuilder = ErrorMessage.builder();
+        boolean hasError = false;
+
+        var changes = context.request().getChanges();
+        for (int i = 0; i < changes.size(); i++) {
+            var error = this.validateChange(changes.get(i), context, addedLineItemIds);
+            if (error != null) {
+                errorBuilder.addError("changes[%d]".formatted(i), error);
+                hasError = true;
+            }
+        }
+
+        if (hasError) {
+            throw new ConstrainViolationException(errorBuilder.build());
+        }
+    }
+
+    private String validateChange(OrderEditRequest.Change change, OrderEditContext.ApplyChangesContext context, Set<UUID> addedLineItemIds) {
+        return switch (change.getType()) {
+            case add_variant -> {
+                var request = change.getAddVariant();
+                if (request == null) yield "add_variant is required";
+                if (request.getQuantity() == null) yield "quantity is required";
+                var variant = context.getVariantById(request.getVariantId());
+                if (variant == null) yield "Variant not found with id %s".formatted(request.getVariantId());
+                if (context.getProductById(variant.getProductId()) == null) {
+                    yield "Product not found with id %s".formatted(variant.getProductId());
+                }
+                if (context.getLocationById(request.getLocationId()) == null) {
+                    yield "Location not found with id %s".formatted(request.getLocationId());
+                }
+                yield null;
+            }
+            case add_custom_item -> {
+                var request = change.getAddCustomItem();
+                if (request == null) yield "add_custom_item is required";
+                if (request.getQuantity() == null) yield "quantity is required";
+                if (context.getLocationById(request.getLocationId()) == null) {
+                    yield "Location not found with id %s".formatted(request.getLocationId());
+                }
+                yield null;
+            }
+            case set_item_quantity -> {
+                var request = change.getSetItemQuantity();
+                if (request == null) yield "set_item_quantity is required";
+                if (request.getQuantity() == null) yield "quantity is required";
+
+                Pair<UUID, Integer> lineItemId;
+                try {
+                    lineItemId = OrderEditUtils.parseLineItemId(request.getLineItemId());
+                } catch (ConstrainViolationException exception) {
+                    yield "Invalid line item id %s".formatted(request.getLineItemId());
+                }
+
+                if (lineItemId.getKey() != null) {
+                    if (!addedLineItemIds.contains(lineItemId.getKey())) {
+                        yield "Line item not found with id %s".formatted(lineItemId.getKey());
+                    }
+                    if (request.getQuantity().signum() == 0) {
+                        addedLineItemIds.remove(lineItemId.getKey());
+                    }
+                    yield null;
+                }
+
+                var lineItem = context.getExistingLineItem(lineItemId.getValue());
+                if (lineItem == null) yield "Line item not found with id %s".formatted(lineItemId.getValue());
+                if (lineItem.getFulfillableQuantity() == 0) yield "Fulfilled Item can't be edited";
+                if (CollectionUtils.isNotEmpty(lineItem.getDiscountAllocations())) {
+                    yield "Quantity cannot adjusted due to the discount applied";
+                }
+                yield null;
+            }
+            case set_item_discount -> {
+                var request = change.getSetItemDiscount();
+                if (request == null) yield "set_item_discount is required";
+                if (!addedLineItemIds.contains(request.getLineItemId())) {
+                    yield "Line item not found with id %s".formatted(request.getLineItemId());
+                }
+                yield null;
+            }
+        };
+    }
+
+    private UUID applyAddVariant(OrderEditRequest.AddVariant request, OrderEditContext.ApplyChangesContext context) {
+        var variant = context.getVariantById(request.getVariantId());
+        var product = context.getProductById(variant.getProductId());
+        var location = context.getLocationById(request.getLocationId());
+
+        var newLineItem = buildNewVariantLineItem(variant, product, location, request);
+        context.orderEdit().addLineItem(newLineItem, context.taxContext(variant.isTaxable()));
+
+        return newLineItem.getId();
+    }
+
+    private UUID applyAddCustomItem(OrderEditRequest.AddCustomItem request, OrderEditContext.ApplyChangesContext context) {
+        var location = context.getLocationById(request.getLocationId());
+
+        var newLineItem = buildNewCustomItem(request, location);
+        // giống add_custom_item: line tự tạo không có productId nên không tính thuế khi thêm
+        context.orderEdit().addLineItem(newLineItem, context.taxContext(false));
+
+        return newLineItem.getId();
+    }
+
+    private String applyItemQuantity(OrderEditRequest.SetItemQuantity request, OrderEditContext.ApplyChangesContext context) {
+        var editing = context.orderEdit();
+        var lineItemId = OrderEditUtils.parseLineItemId(request.getLineItemId());
+
+        if (lineItemId.getKey() != null) {
+            var addedLineItem = editing.findLineItemById(lineItemId.getKey());
+            var taxContext = context.taxContext(addedLineItem.isTaxable());
+            if (request.getQuantity().signum() == 0) {
+                editing.removeAddedLineItem(addedLineItem.getId(), taxContext);
+            } else {
+                editing.adjustAddedLineItem(addedLineItem.getId(), taxContext, request.getQuantity());
+            }
+            return request.getLineItemId();
+        }
+
+        var lineItem = context.getExistingLineItem(lineItemId.getValue());
+        editing.updateExistingLineQuantity(
+                lineItem,
+                request.getQuantity(),
+                request.isRestock(),
+                context.taxContext(lineItem.isTaxable()));
+
+        return request.getLineItemId();
+    }
+
+    private UUID applyItemDiscount(OrderEditRequest.SetItemDiscount request, OrderEditContext.ApplyChangesContext context) {
+        var editing = context.orderEdit();
+        var lineItem = editing.findLineItemById(request.getLineItemId());
+        var taxContext = context.taxContext(lineItem.isTaxable());
+
+        var discountRequest = context.discountRequest(request);
+        if (discountRequest.value().signum() == 0) {
+            editing.removeLineItemDiscount(lineItem.getId(), taxContext);
+        } else {
+            editing.applyDiscount(lineItem.getId(), discountRequest, taxContext);
+        }
+
+        return lineItem.getId();
+    }
+
     @Transactional
     public OrderId commit(OrderEditId orderEditId, OrderEditRequest.Commit request) {
         var orderEdit = this.findOrderEditById(orderEditId);
@@ -334,7 +516,9 @@ public class OrderEditWriteService {
 
         this.orderWriteService.editLineItems(orderId, orderEdit, request);
 
+        orderEdit.commit();
         orderEditRepository.save(orderEdit);
+        this.sessionCache.invalidate(orderEditId);
         return orderId;
     }
 
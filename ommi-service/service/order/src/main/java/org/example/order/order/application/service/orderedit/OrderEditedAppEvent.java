@@ -1,5 +1,6 @@
 package org.example.order.order.application.service.orderedit;
 
+import lombok.Getter;
 import org.apache.commons.lang3.tuple.Pair;
 import org.example.location.Location;
 import org.example.order.order.domain.order.model.LineItem;
@@ -10,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+@Getter
 public final class OrderEditedAppEvent {
 
     private final int storeId;
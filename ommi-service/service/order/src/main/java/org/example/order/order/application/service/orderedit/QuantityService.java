@@ -45,8 +45,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -87,10 +87,13 @@ public class QuantityService {
 
         var fulfillmentLineItemMap = fetchFulfillmentOrders(order.getId());
 
+        var lineItemMap = order.getLineItems().stream()
+                .collect(Collectors.toMap(LineItem::getId, Function.identity()));
+
         List<RefundRequest.LineItem> refundItemRequests = new ArrayList<>();
 
         for (var decrement : changes.decrementItems()) {
-            LineItem lineItem = getQuantityReducibleLineItem(decrement, order, remainingQuantityMap, warningsBuilder);
+            LineItem lineItem = getQuantityReducibleLineItem(decrement, lineItemMap, remainingQuantityMap, warningsBuilder);
 
             if (lineItem == null) {
                 continue;
@@ -595,13 +598,13 @@ public class QuantityService {
 
     private @Nullable LineItem getQuantityReducibleLineItem(
             OrderStagedChange.DecrementItem decrement,
-            Order order,
+            Map<Integer, LineItem> lineItemMap,
             HashMap<Integer, Integer> remainingQuantityMap,
             Warnings.Builder warningsBuilder
     ) {
         final int lineItemId = decrement.getLineItemId();
-        Optional<LineItem> possiblyLineItem = findLineItem(order, lineItemId);
-        if (possiblyLineItem.isEmpty()) {
+        LineItem lineItem = lineItemMap.get(lineItemId);
+        if (lineItem == null) {
             warningsBuilder.add(
                     "line_items",
                     "Can't find LineItem with id " + lineItemId
@@ -609,7 +612,6 @@ public class QuantityService {
             return null;
         }
 
-        LineItem lineItem = possiblyLineItem.get();
         var remainingQuantity = remainingQuantityMap.get(lineItemId);
         if (remainingQuantity == null) {
             remainingQuantity = lineItem.getFulfillableQuantity();
@@ -626,10 +628,4 @@ public class QuantityService {
         remainingQuantityMap.put(lineItemId, remainingQuantity);
         return lineItem;
     }
-
-    private Optional<LineItem> findLineItem(Order order, int lineItemId) {
-        return order.getLineItems().stream()
-                .filter(line -> line.getId() == lineItemId)
-                .findFirst();
-    }
 }
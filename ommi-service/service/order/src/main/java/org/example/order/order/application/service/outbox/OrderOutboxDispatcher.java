@@ -0,0 +1,324 @@
+package org.example.order.order.application.service.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.example.order.order.application.service.fulfillment.FulfillmentListCreatedAppEvent;
+import org.example.order.order.application.service.order.OrderCreatedAppEvent;
+import org.example.order.order.infrastructure.configuration.OrderOutboxProperties;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDao;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Xử lý event trong outbox:
+ * - 1 thread poll (định kỳ + ngay sau khi transaction tạo order/fulfillment commit), tối đa concurrency event cùng lúc
+ * - Mỗi order chỉ có 1 event được xử lý tại 1 thời điểm, theo thứ tự ghi (xem OrderOutboxDao.findDispatchable)
+ * - Handler ghi DB và việc xoá event chạy chung 1 transaction. Handler gọi ra ngoài (OrderOutboxHandlers.isTransactional = false)
+ * chạy ngoài transaction, xong thì xoá event trong 1 transaction ngắn => không giữ connection DB trong lúc chờ service khác.
+ * Xoá lỗi sau khi gọi thành công => event được gửi lại, bên nhận dedup
+ * - Event của handler hỗ trợ gộp (OrderOutboxHandlers.coalesceKey, vd inventory_commit cùng store + location)
+ * lấy được trong cùng 1 lần poll được claim cùng nhau và xử lý bằng 1 lần gọi (tối đa maxCoalesce event),
+ * lỗi thì cả nhóm retry cùng thời điểm để lần sau được gộp lại như cũ
+ * - Lỗi => retry với backoff luỹ thừa có jitter (các event lỗi cùng lúc không retry dồn cùng lúc),
+ * quá maxAttempts => status dead (dead letter, cần xử lý tay). Event dead chặn các event sau của cùng order cho đến khi được xử lý
+ * - Handler bị throttle (OutboxRetryLaterException) => event chờ initialBackoff rồi chạy lại, không tính attempt
+ * - Metric: order.outbox.delivery.lag{handler} (từ lúc ghi event đến khi handler chạy xong),
+ * order.outbox.pending{handler} (số event chưa xử lý xong, cập nhật mỗi metricsInterval)
+ */
+@Slf4j
+@Component
+public class OrderOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    /**
+     * Các handler có gauge số event đang chờ
+     */
+    private static final List<String> PENDING_GAUGE_HANDLERS = List.of(
+            OrderOutboxHandlers.INVENTORY_COMMIT,
+            OrderOutboxHandlers.SHIPPING_REQUEST);
+
+    private final OrderOutboxDao orderOutboxDao;
+    private final OrderOutboxHandlers orderOutboxHandlers;
+    private final OrderOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService poller;
+    private final ExecutorService workers;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> pendingByHandler = new LinkedHashMap<>();
+    private final Map<String, Timer> deliveryLagByHandler = new ConcurrentHashMap<>();
+
+    public OrderOutboxDispatcher(
+            OrderOutboxDao orderOutboxDao,
+            OrderOutboxHandlers orderOutboxHandlers,
+            OrderOutboxProperties properties,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.orderOutboxDao = orderOutboxDao;
+        this.orderOutboxHandlers = orderOutboxHandlers;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+
+        for (var handler : PENDING_GAUGE_HANDLERS) {
+            var pending = new AtomicLong();
+            this.pendingByHandler.put(handler, pending);
+            Gauge.builder("order.outbox.pending", pending, AtomicLong::get)
+                    .description("Số event trong outbox chưa xử lý xong")
+                    .tag("handler", handler)
+                    .register(meterRegistry);
+        }
+
+        var workerCount = new AtomicInteger();
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "order-outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers = Executors.newFixedThreadPool(properties.getConcurrency(), runnable -> {
+            var thread = new Thread(runnable, "order-outbox-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!this.properties.isEnabled()) return;
+        var interval = this.properties.getPollInterval().toMillis();
+        this.poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        var metricsInterval = this.properties.getMetricsInterval().toMillis();
+        this.poller.scheduleWithFixedDelay(this::refreshPending, 0, metricsInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshPending() {
+        try {
+            var counts = this.orderOutboxDao.countPendingByHandler(this.pendingByHandler.keySet());
+            this.pendingByHandler.forEach((handler, pending) -> pending.set(counts.getOrDefault(handler, 0L)));
+        } catch (RuntimeException e) {
+            log.warn("Count pending outbox events failed", e);
+        }
+    }
+
+    @TransactionalEventListener(classes = OrderCreatedAppEvent.class, fallbackExecution = true)
+    public void handleOrderCreatedCommitted(OrderCreatedAppEvent event) {
+        this.wakeUp();
+    }
+
+    @TransactionalEventListener(classes = FulfillmentListCreatedAppEvent.class, fallbackExecution = true)
+    public void handleFulfillmentCreatedCommitted(FulfillmentListCreatedAppEvent event) {
+        this.wakeUp();
+    }
+
+    /**
+     * Gộp nhiều lần đánh thức liên tiếp thành 1 lần poll
+     */
+    private void wakeUp() {
+        if (!this.properties.isEnabled()) return;
+        if (!this.wakeUpScheduled.compareAndSet(false, true)) return;
+        try {
+            this.poller.execute(() -> {
+                this.wakeUpScheduled.set(false);
+                this.poll();
+            });
+        } catch (RuntimeException e) {
+            // poller đã shutdown
+            this.wakeUpScheduled.set(false);
+        }
+    }
+
+    private void poll() {
+        try {
+            var now = Instant.now();
+            var released = this.orderOutboxDao.releaseStale(now.minus(this.properties.getProcessingTimeout()));
+            if (released > 0) {
+                log.warn("Released {} stale outbox events", released);
+            }
+
+            var capacity = this.properties.getConcurrency() - this.inFlight.get();
+            if (capacity <= 0) return;
+
+            var maxCoalesce = Math.max(1, this.properties.getMaxCoalesce());
+            var events = this.orderOutboxDao.findDispatchable(now, capacity + maxCoalesce - 1);
+            for (var group : this.group(events, capacity, maxCoalesce)) {
+                var claimed = group.stream()
+                        .filter(event -> this.orderOutboxDao.claim(event.getId(), now))
+                        .toList();
+                if (claimed.isEmpty()) continue;
+                this.inFlight.incrementAndGet();
+                this.workers.execute(() -> this.process(claimed));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Poll order outbox failed", e);
+        }
+    }
+
+    /**
+     * Tối đa capacity nhóm theo thứ tự event, event không gộp được là 1 nhóm riêng
+     */
+    private Collection<List<OrderOutboxDto>> group(List<OrderOutboxDto> events, int capacity, int maxCoalesce) {
+        Map<String, List<OrderOutboxDto>> groups = new LinkedHashMap<>();
+        for (var event : events) {
+            var coalesceKey = this.coalesceKey(event);
+            if (coalesceKey == null) {
+                if (groups.size() < capacity) {
+                    groups.put("event:" + event.getId(), List.of(event));
+                }
+                continue;
+            }
+            var group = groups.get(coalesceKey);
+            if (group == null) {
+                if (groups.size() >= capacity) continue;
+                group = new ArrayList<>();
+                groups.put(coalesceKey, group);
+            }
+            if (group.size() < maxCoalesce) {
+                group.add(event);
+            }
+        }
+        return groups.values();
+    }
+
+    private String coalesceKey(OrderOutboxDto event) {
+        try {
+            var coalesceKey = this.orderOutboxHandlers.coalesceKey(event.getHandler(), event.getPayload());
+            return coalesceKey == null ? null : event.getHandler() + ":" + coalesceKey;
+        } catch (RuntimeException e) {
+            // payload lỗi => xử lý riêng, lỗi được ghi nhận khi chạy handler
+            return null;
+        }
+    }
+
+    private void process(List<OrderOutboxDto> events) {
+        try {
+            if (this.orderOutboxHandlers.isTransactional(events.get(0).getHandler())) {
+                this.transactionTemplate.executeWithoutResult(status -> {
+                    this.handle(events);
+                    events.forEach(event -> this.orderOutboxDao.delete(event.getId()));
+                });
+            } else {
+                this.handle(events);
+                this.transactionTemplate.executeWithoutResult(status ->
+                        events.forEach(event -> this.orderOutboxDao.delete(event.getId())));
+            }
+            events.forEach(this::recordDeliveryLag);
+        } catch (OutboxRetryLaterException e) {
+            var nextAttemptAt = Instant.now().plus(this.backoff(1));
+            events.forEach(event -> this.handleThrottled(event, nextAttemptAt, e));
+        } catch (RuntimeException e) {
+            var nextAttemptAt = Instant.now().plus(this.backoff(events.stream()
+                    .mapToInt(event -> event.getAttempts() + 1)
+                    .max().orElse(1)));
+            events.forEach(event -> this.handleFailure(event, nextAttemptAt, e));
+        } finally {
+            this.inFlight.decrementAndGet();
+            // event kế tiếp của cùng order (nếu có) giờ mới được xử lý
+            this.wakeUp();
+        }
+    }
+
+    private void handle(List<OrderOutboxDto> events) {
+        var first = events.get(0);
+        if (events.size() == 1) {
+            this.orderOutboxHandlers.handle(first.getHandler(), first.getPayload());
+        } else {
+            var payloads = events.stream().map(OrderOutboxDto::getPayload).toList();
+            this.orderOutboxHandlers.handleCoalesced(first.getHandler(), payloads);
+        }
+    }
+
+    private void recordDeliveryLag(OrderOutboxDto event) {
+        if (event.getCreatedAt() == null) return;
+        this.deliveryLagByHandler.computeIfAbsent(event.getHandler(), handler -> Timer.builder("order.outbox.delivery.lag")
+                        .description("Thời gian từ lúc ghi event (commit) đến khi handler chạy xong")
+                        .tag("handler", handler)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(this.meterRegistry))
+                .record(Duration.between(event.getCreatedAt(), Instant.now()));
+    }
+
+    private void handleFailure(OrderOutboxDto event, Instant nextAttemptAt, RuntimeException exception) {
+        var attempts = event.getAttempts() + 1;
+        var error = StringUtils.abbreviate(exception.toString(), MAX_ERROR_LENGTH);
+        try {
+            if (attempts >= this.properties.getMaxAttempts()) {
+                log.error("Outbox event {} ({}) of order {} is dead after {} attempts",
+                        event.getId(), event.getHandler(), event.getOrderId(), attempts, exception);
+                this.orderOutboxDao.markDead(event.getId(), attempts, error);
+                return;
+            }
+            log.warn("Outbox event {} ({}) of order {} failed at attempt {}, retry at {}",
+                    event.getId(), event.getHandler(), event.getOrderId(), attempts, nextAttemptAt, exception);
+            this.orderOutboxDao.retryLater(event.getId(), attempts, nextAttemptAt, error);
+        } catch (RuntimeException e) {
+            // event vẫn ở processing => được trả lại pending sau processingTimeout
+            log.error("Unable to record failure of outbox event {}", event.getId(), e);
+        }
+    }
+
+    private void handleThrottled(OrderOutboxDto event, Instant nextAttemptAt, OutboxRetryLaterException exception) {
+        try {
+            log.debug("Outbox event {} ({}) of order {} throttled, retry at {}: {}",
+                    event.getId(), event.getHandler(), event.getOrderId(), nextAttemptAt, exception.getMessage());
+            this.orderOutboxDao.retryLater(event.getId(), event.getAttempts(), nextAttemptAt,
+                    StringUtils.abbreviate(exception.toString(), MAX_ERROR_LENGTH));
+        } catch (RuntimeException e) {
+            log.error("Unable to reschedule throttled outbox event {}", event.getId(), e);
+        }
+    }
+
+    /**
+     * Backoff luỹ thừa, phần jitter (tỉ lệ backoffJitter) của backoff được chọn ngẫu nhiên
+     */
+    private Duration backoff(int attempts) {
+        var initialBackoff = this.properties.getInitialBackoff();
+        var maxBackoff = this.properties.getMaxBackoff();
+        var factor = 1L << Math.min(attempts - 1, 20);
+        var backoff = initialBackoff.multipliedBy(factor);
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        var jitter = Math.min(1, Math.max(0, this.properties.getBackoffJitter()));
+        var backoffMillis = backoff.toMillis();
+        var fixedMillis = (long) (backoffMillis * (1 - jitter));
+        var randomMillis = backoffMillis - fixedMillis;
+        return Duration.ofMillis(fixedMillis + (randomMillis > 0 ? ThreadLocalRandom.current().nextLong(randomMillis + 1) : 0));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.poller.shutdownNow();
+        this.workers.shutdown();
+    }
+}
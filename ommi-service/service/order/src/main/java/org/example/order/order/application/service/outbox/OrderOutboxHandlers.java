@@ -0,0 +1,153 @@
+package org.example.order.order.application.service.outbox;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.order.order.application.service.fulfillment.InventoryCommitClient;
+import org.example.order.order.application.service.fulfillment.InventoryCommitPayload;
+import org.example.order.order.application.service.fulfillment.ShippingRequestPayload;
+import org.example.order.order.application.service.fulfillment.ShippingRequestSender;
+import org.example.order.order.application.service.fulfillmentorder.FulfillmentOrderWriteService;
+import org.example.order.order.application.service.order.OrderCreatedAppEvent;
+import org.example.order.order.application.service.transaction.OrderTransactionWriteService;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Các handler được chạy qua outbox, mỗi handler 1 row để retry độc lập:
+ * - Handler của OrderCreatedAppEvent (payload là event)
+ * - inventory_commit: trừ kho khi tạo fulfillment (payload InventoryCommitPayload), các event cùng store + location
+ * được gộp thành 1 lần gọi commit_inventory
+ * - shipping_request: tạo vận đơn cho fulfillment cần vận chuyển (payload ShippingRequestPayload)
+ * Handler gọi ra ngoài (inventory_commit, shipping_request) chạy ngoài transaction của dispatcher, xem isTransactional
+ */
+@Component
+public class OrderOutboxHandlers {
+
+    public static final String ORDER_CREATED = "order_created";
+    public static final String FULFILLMENT_CREATED = "fulfillment_created";
+
+    public static final String INVENTORY_COMMIT = "inventory_commit";
+    public static final String SHIPPING_REQUEST = "shipping_request";
+
+    /**
+     * Handler chỉ gọi service khác (tự load dữ liệu trong transaction ngắn nếu cần)
+     */
+    private static final Set<String> REMOTE_HANDLERS = Set.of(INVENTORY_COMMIT, SHIPPING_REQUEST);
+
+    private final Map<String, Consumer<OrderCreatedAppEvent>> orderCreatedHandlers = new LinkedHashMap<>();
+    private final Map<String, Consumer<String>> handlers = new LinkedHashMap<>();
+    private final Map<String, Function<String, String>> coalesceKeys = new LinkedHashMap<>();
+    private final Map<String, Consumer<List<String>>> coalescedHandlers = new LinkedHashMap<>();
+
+    /**
+     * Serialize theo field (không theo getter/setter) để các event dạng @Builder đọc/ghi đối xứng
+     */
+    private final ObjectMapper objectMapper;
+
+    public OrderOutboxHandlers(
+            FulfillmentOrderWriteService fulfillmentOrderWriteService,
+            OrderTransactionWriteService orderTransactionWriteService,
+            InventoryCommitClient inventoryCommitClient,
+            ShippingRequestSender shippingRequestSender,
+            ObjectMapper objectMapper
+    ) {
+        this.orderCreatedHandlers.put("fulfillment_order", fulfillmentOrderWriteService::handleOrderFulfillmentAdded);
+        this.orderCreatedHandlers.put("transaction_from_checkout", orderTransactionWriteService::handleOrderTransactionFromCheckout);
+        this.orderCreatedHandlers.put("transaction_added", orderTransactionWriteService::handleOrderTransactionAdded);
+        this.orderCreatedHandlers.forEach((name, handler) ->
+                this.handlers.put(name, payload -> handler.accept(this.deserialize(payload, OrderCreatedAppEvent.class))));
+        this.handlers.put(INVENTORY_COMMIT,
+                payload -> inventoryCommitClient.commit(this.deserialize(payload, InventoryCommitPayload.class)));
+        this.coalesceKeys.put(INVENTORY_COMMIT, payload -> {
+            var inventoryCommit = this.deserialize(payload, InventoryCommitPayload.class);
+            return inventoryCommit.getStoreId() + ":" + inventoryCommit.getLocationId();
+        });
+        this.coalescedHandlers.put(INVENTORY_COMMIT, payloads -> inventoryCommitClient.commit(payloads.stream()
+                .map(payload -> this.deserialize(payload, InventoryCommitPayload.class))
+                .toList()));
+        this.handlers.put(SHIPPING_REQUEST,
+                payload -> shippingRequestSender.send(this.deserialize(payload, ShippingRequestPayload.class)));
+
+        this.objectMapper = objectMapper.copy()
+                .setVisibility(PropertyAccessor.GETTER, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.IS_GETTER, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.SETTER, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Tên các handler của OrderCreatedAppEvent
+     */
+    public Set<String> names() {
+        return this.orderCreatedHandlers.keySet();
+    }
+
+    /**
+     * Dùng khi tắt outbox: chạy tất cả handler ngay trên thread/transaction hiện tại
+     */
+    public void handleAll(OrderCreatedAppEvent event) {
+        this.orderCreatedHandlers.values().forEach(handler -> handler.accept(event));
+    }
+
+    /**
+     * true => handler ghi DB, chạy chung transaction với việc xoá event.
+     * false => handler gọi ra ngoài, chạy ngoài transaction để không giữ connection DB trong lúc chờ
+     */
+    public boolean isTransactional(String handlerName) {
+        return !REMOTE_HANDLERS.contains(handlerName);
+    }
+
+    public void handle(String handlerName, String payload) {
+        var handler = this.handlers.get(handlerName);
+        if (handler == null) {
+            throw new IllegalStateException("Unknown outbox handler " + handlerName);
+        }
+        handler.accept(payload);
+    }
+
+    /**
+     * Key gộp event của handler: các event cùng key được xử lý bằng 1 lần gọi handleCoalesced.
+     * null => handler không hỗ trợ gộp
+     */
+    public String coalesceKey(String handlerName, String payload) {
+        var coalesceKey = this.coalesceKeys.get(handlerName);
+        return coalesceKey == null ? null : coalesceKey.apply(payload);
+    }
+
+    /**
+     * Xử lý các payload cùng coalesceKey bằng 1 lần gọi
+     */
+    public void handleCoalesced(String handlerName, List<String> payloads) {
+        var handler = this.coalescedHandlers.get(handlerName);
+        if (handler == null) {
+            throw new IllegalStateException("Outbox handler " + handlerName + " does not support coalescing");
+        }
+        handler.accept(payloads);
+    }
+
+    public String serialize(Object payload) {
+        try {
+            return this.objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize outbox payload " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    private <T> T deserialize(String payload, Class<T> type) {
+        try {
+            return this.objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to deserialize outbox payload", e);
+        }
+    }
+}
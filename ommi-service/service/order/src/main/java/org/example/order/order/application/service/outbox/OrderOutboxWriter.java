@@ -0,0 +1,86 @@
+package org.example.order.order.application.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.application.service.order.OrderCreatedAppEvent;
+import org.example.order.order.infrastructure.configuration.OrderOutboxProperties;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDao;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDto;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ghi event vào outbox trong cùng transaction với order/fulfillment.
+ * Transaction commit => OrderOutboxDispatcher xử lý bất đồng bộ, rollback => không còn event nào
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderOutboxWriter {
+
+    private final OrderOutboxDao orderOutboxDao;
+    private final OrderOutboxHandlers orderOutboxHandlers;
+    private final OrderOutboxProperties properties;
+
+    @EventListener(OrderCreatedAppEvent.class)
+    public void handleOrderCreated(OrderCreatedAppEvent event) {
+        if (!this.properties.isEnabled()) {
+            this.orderOutboxHandlers.handleAll(event);
+            return;
+        }
+
+        var payload = this.orderOutboxHandlers.serialize(event);
+        var now = Instant.now();
+        var events = this.orderOutboxHandlers.names().stream()
+                .map(handler -> outboxEvent(event.getStoreId(), event.getOrderId().getId(), OrderOutboxHandlers.ORDER_CREATED, handler, payload, now))
+                .toList();
+        this.orderOutboxDao.insert(events);
+    }
+
+    /**
+     * Ghi 1 event cho handler trong transaction hiện tại, xử lý sau các event đã ghi trước đó của cùng order.
+     * Tắt outbox => chạy handler sau khi transaction commit (lỗi chỉ được log)
+     */
+    public void append(int storeId, int orderId, String eventType, String handler, Object payload) {
+        var serialized = this.orderOutboxHandlers.serialize(payload);
+        if (!this.properties.isEnabled()) {
+            Runnable task = () -> {
+                try {
+                    this.orderOutboxHandlers.handle(handler, serialized);
+                } catch (RuntimeException e) {
+                    log.error("Outbox handler {} of order {} failed", handler, orderId, e);
+                }
+            };
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        task.run();
+                    }
+                });
+            } else {
+                task.run();
+            }
+            return;
+        }
+
+        this.orderOutboxDao.insert(List.of(outboxEvent(storeId, orderId, eventType, handler, serialized, Instant.now())));
+    }
+
+    private static OrderOutboxDto outboxEvent(int storeId, int orderId, String eventType, String handler, String payload, Instant now) {
+        var outboxEvent = new OrderOutboxDto();
+        outboxEvent.setStoreId(storeId);
+        outboxEvent.setOrderId(orderId);
+        outboxEvent.setEventType(eventType);
+        outboxEvent.setHandler(handler);
+        outboxEvent.setPayload(payload);
+        outboxEvent.setNextAttemptAt(now);
+        outboxEvent.setCreatedAt(now);
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.order.order.application.service.outbox;
+
+/**
+ * Handler chưa xử lý được vì tạm thời quá tải (vd: hết lượt gọi carrier), không phải lỗi của event:
+ * OrderOutboxDispatcher trả event về pending sau initialBackoff mà không tăng attempts
+ * => throttle kéo dài không làm event chuyển dead và chặn các event sau của order
+ */
+public class OutboxRetryLaterException extends RuntimeException {
+
+    public OutboxRetryLaterException(String message) {
+        super(message);
+    }
+}
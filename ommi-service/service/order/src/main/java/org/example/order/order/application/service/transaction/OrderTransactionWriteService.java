@@ -9,11 +9,11 @@ import org.example.order.order.application.model.order.request.OrderTransactionC
 import org.example.order.order.application.service.order.OrderCreatedAppEvent;
 import org.example.order.order.domain.order.model.Order;
 import org.example.order.order.domain.order.model.PaymentMethodInfo;
+import org.example.order.order.domain.order.persistence.OrderFetchPlan;
 import org.example.order.order.domain.order.persistence.OrderRepository;
 import org.example.order.order.domain.transaction.model.PaymentInfo;
 import org.example.order.order.domain.transaction.persistence.TransactionRepository;
 import org.example.paymentmethod.PaymentMethod;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -28,7 +28,9 @@ public class OrderTransactionWriteService {
 
     private final AdminClient adminClient;
 
-    @EventListener(OrderCreatedAppEvent.class)
+    /**
+     * Chạy bất đồng bộ qua outbox (OrderOutboxHandlers), sau khi order đã commit
+     */
     public void handleOrderTransactionFromCheckout(OrderCreatedAppEvent event) {
         log.debug("handle order transaction from checkout: {}", event);
 
@@ -43,7 +45,7 @@ public class OrderTransactionWriteService {
         var storeId = event.getStoreId();
         var orderId = event.getOrderId();
 
-        var order = this.orderRepository.findById(orderId);
+        var order = this.orderRepository.findById(orderId, OrderFetchPlan.HEADER);
 
         var transactions = this.transactionRepository.findByPaymentIds(storeId, paymentIds);
 
@@ -54,8 +56,7 @@ public class OrderTransactionWriteService {
     }
 
 
-    @EventListener(OrderCreatedAppEvent.class)
-    private void handleOrderTransactionAdded(OrderCreatedAppEvent event) {
+    public void handleOrderTransactionAdded(OrderCreatedAppEvent event) {
         log.debug("resolve order transaction from checkout: {}", event);
 
         var paymentResult = event.getPaymentResult();
@@ -74,7 +75,7 @@ public class OrderTransactionWriteService {
             return;
         }
 
-        var order = this.orderRepository.findById(orderId);
+        var order = this.orderRepository.findById(orderId, OrderFetchPlan.HEADER);
 
         var orderGateway = getOrderGateway(order);
 
@@ -82,6 +82,17 @@ public final class OrderEditUtils {
         );
     }
 
+    /**
+     * Id line (Integer với line cũ, UUID với line thêm mới) mà staged change tác động
+     */
+    public static Object getLineItemId(OrderStagedChange change) {
+        return switch (change.getType()) {
+            case add_variant, add_custom_item, increment_item, decrement_item ->
+                    ((OrderStagedChange.LineItemAction<?>) change.getValue()).getLineItemId();
+            case add_item_discount -> ((OrderStagedChange.AddItemDiscount) change.getValue()).getLineItemId();
+        };
+    }
+
     private static Consumer<OrderStagedChange> groupChange(
             Consumer<OrderStagedChange.AddVariant> addVariantConsumer,
             Consumer<OrderStagedChange.AddCustomItem> addCustomItemConsumer,
@@ -94,6 +94,12 @@ public final class TaxLineUtils {
 
     private static void mergedTaxLine(Map<String, ComboPacksizeTaxLineResponse> merged, ComboPacksizeTaxLineResponse taxLine) {
         String taxLineKey = taxLine.getTitle() + "_" + taxLine.getRate();
-        merged.merge(taxLineKey, taxLine, (oldValue, newValue) -> oldValue.addPrice(newValue.getPrice()));
+        // cộng vào bản sao => tax line của từng component không bị đổi
+        var current = merged.get(taxLineKey);
+        if (current == null) {
+            merged.put(taxLineKey, taxLine.toBuilder().build());
+        } else {
+            current.addPrice(taxLine.getPrice());
+        }
     }
 }
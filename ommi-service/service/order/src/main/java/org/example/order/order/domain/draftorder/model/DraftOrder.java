@@ -136,14 +136,12 @@ public class DraftOrder extends AggregateRoot<DraftOrder> {
 
     public DraftOrder(
             DraftOrderId id,
-            DraftOrderNumberGenerator numberGenerator,
             Integer copyOrderId,
             Currency currency,
             Integer userId,
             String idempotencyKey,
             TaxHelper taxHelper) {
         this.id = id;
-        this.name = "#" + numberGenerator.generateDraftNumber(id.getStoreId());
         this.copyOrderId = copyOrderId;
         this.userId = userId;
         this.draftOrderInfo = DraftOrderInfo.builder().currency(currency).build();
@@ -154,6 +152,16 @@ public class DraftOrder extends AggregateRoot<DraftOrder> {
         this.taxHelper = taxHelper;
     }
 
+    /**
+     * Lấy số draft ngay trước khi lưu: row số của store bị lock đến hết transaction,
+     * không để lock bao cả các bước gọi ra ngoài (combination, tax) khi dựng draft order
+     */
+    public void assignNumber(DraftOrderNumberGenerator numberGenerator) {
+        if (this.name == null) {
+            this.name = "#" + numberGenerator.generateDraftNumber(this.id.getStoreId());
+        }
+    }
+
     public void setDiscountApplications(List<DraftDiscountApplication> discountApplications) {
         if (allowEdit() && CollectionUtils.isNotEmpty(discountApplications)) {
             this.discountApplications = discountApplications;
@@ -6,12 +6,15 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+/**
+ * Số draft order hiện tại của store, được tăng bằng câu lệnh SQL (xem DraftOrderNumberGeneratorImpl)
+ */
 @Builder
 @Getter
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "draft_order_numbers")
+@Table(name = "draft_order_numbers", uniqueConstraints = @UniqueConstraint(columnNames = "storeId"))
 public class DraftOrderNumber {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,8 +23,4 @@ public class DraftOrderNumber {
     private int storeId;
 
     private int currentOrderNumber;
-
-    public void update() {
-        this.currentOrderNumber++;
-    }
 }
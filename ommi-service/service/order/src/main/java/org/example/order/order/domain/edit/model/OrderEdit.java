@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -85,6 +86,12 @@ public class OrderEdit extends AggregateRoot<OrderEdit> {
     @Version
     private Integer version;
 
+    /**
+     * lineItems theo id, dựng lại lần đầu cần tìm line (sau khi load từ DB / snapshot)
+     */
+    @Getter(AccessLevel.NONE)
+    private transient Map<UUID, AddedLineItem> lineItemIndex;
+
     public OrderEdit(
             OrderEditId id,
             int orderId,
@@ -115,6 +122,7 @@ public class OrderEdit extends AggregateRoot<OrderEdit> {
     public void addLineItem(AddedLineItem lineItem, TaxContext taxContext) {
         lineItem.setOrderEdit(this);
         this.lineItems.add(lineItem);
+        this.lineItemIndex().put(lineItem.getId(), lineItem);
 
         this.subtotalLineItemQuantity = this.subtotalLineItemQuantity.add(lineItem.getEditableQuantity());
 
@@ -190,6 +198,7 @@ public class OrderEdit extends AggregateRoot<OrderEdit> {
         var lineItem = this.findLineItemById(lineItemId);
 
         this.lineItems.remove(lineItem);
+        this.lineItemIndex().remove(lineItemId);
 
         this.subtotalLineItemQuantity = this.subtotalLineItemQuantity.subtract(lineItem.getEditableQuantity());
         this.adjustPrice(lineItem.getEditableSubtotal().negate());
@@ -245,13 +254,24 @@ public class OrderEdit extends AggregateRoot<OrderEdit> {
         });
     }
 
-    private AddedLineItem findLineItemById(UUID lineItemId) {
+    public AddedLineItem findLineItemById(UUID lineItemId) {
         assert CollectionUtils.isNotEmpty(this.lineItems) : "Require LineItems is not empty";
 
-        return this.lineItems.stream()
-                .filter(line -> line.getId().equals(lineItemId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("Line item not found by id = " + lineItemId));
+        var lineItem = this.lineItemIndex().get(lineItemId);
+        if (lineItem == null) {
+            throw new IllegalStateException("Line item not found by id = " + lineItemId);
+        }
+        return lineItem;
+    }
+
+    private Map<UUID, AddedLineItem> lineItemIndex() {
+        if (this.lineItemIndex == null) {
+            this.lineItemIndex = new HashMap<>();
+            for (var lineItem : this.lineItems) {
+                this.lineItemIndex.put(lineItem.getId(), lineItem);
+            }
+        }
+        return this.lineItemIndex;
     }
 
     public boolean adjustAddedLineItem(UUID lineItemId, TaxContext taxContext, BigDecimal requestedQuantity) {
@@ -646,6 +666,15 @@ public class OrderEdit extends AggregateRoot<OrderEdit> {
         return allocation;
     }
 
+    /**
+     * Đánh dấu đã áp dụng vào order, không sửa tiếp được
+     */
+    public void commit() {
+        this.committed = true;
+        this.committedAt = Instant.now();
+        this.updatedAt = Instant.now();
+    }
+
     private BigDecimal allocateAmount(OrderEditContext.DiscountRequest request, AddedLineItem lineItem) {
         return switch (request.type()) {
             case fixed_amount -> request.value();
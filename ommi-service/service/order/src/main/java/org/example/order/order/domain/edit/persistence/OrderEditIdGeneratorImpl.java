@@ -1,11 +1,19 @@
 package org.example.order.order.domain.edit.persistence;
 
+import lombok.RequiredArgsConstructor;
+import org.example.idgenerator.BlockIdAllocator;
 import org.springframework.stereotype.Repository;
 
+import static org.example.idgenerator.BlockIdAllocator.GLOBAL_STORE_ID;
+
 @Repository
+@RequiredArgsConstructor
 public class OrderEditIdGeneratorImpl implements OrderEditIdGenerator {
+
+    private final BlockIdAllocator idAllocator;
+
     @Override
     public int generateOrderEditId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "order_edit");
     }
 }
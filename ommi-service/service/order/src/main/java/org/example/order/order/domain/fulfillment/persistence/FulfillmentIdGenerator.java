@@ -6,5 +6,7 @@ public interface FulfillmentIdGenerator {
 
     int generateFulfillmentId();
 
+    Deque<Integer> generateFulfillmentIds(int size);
+
     Deque<Integer> generateFulfillmentLineItemIds(int size);
 }
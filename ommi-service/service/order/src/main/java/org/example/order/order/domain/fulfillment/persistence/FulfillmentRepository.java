@@ -8,5 +8,13 @@ import java.util.List;
 public interface FulfillmentRepository {
     void save(Fulfillment fulfillment);
 
+    /**
+     * Lưu nhiều fulfillment trong cùng transaction, không flush ngay: các saveAll của transaction được flush cùng lúc
+     * (JDBC batch) khi commit
+     */
+    default void saveAll(List<Fulfillment> fulfillments) {
+        fulfillments.forEach(this::save);
+    }
+
     List<Fulfillment> getByIds(List<FulfillmentId> fulfillmentIds);
 }
@@ -25,6 +25,18 @@ public class JpaFulfillmentRepositoryImpl implements FulfillmentRepository {
         entityManager.flush();
     }
 
+    @Override
+    public void saveAll(List<Fulfillment> fulfillments) {
+        for (var fulfillment : fulfillments) {
+            if (fulfillment.isNew()) {
+                entityManager.persist(fulfillment);
+            } else {
+                entityManager.merge(fulfillment);
+            }
+        }
+        // flush khi commit (hoặc khi save / query tiếp theo) cùng các thay đổi khác của transaction
+    }
+
     @Override
     public List<Fulfillment> getByIds(List<FulfillmentId> fulfillmentIds) {
         return entityManager.createQuery("SELECT ff FROM Fulfillment ff WHERE ff.id IN (:ids)", Fulfillment.class)
@@ -1,21 +1,31 @@
 package org.example.order.order.domain.fulfillment.persistence;
 
 import lombok.RequiredArgsConstructor;
+import org.example.idgenerator.BlockIdAllocator;
 import org.springframework.stereotype.Repository;
 
 import java.util.Deque;
 
+import static org.example.idgenerator.BlockIdAllocator.GLOBAL_STORE_ID;
+
 @Repository
 @RequiredArgsConstructor
 public class SqlFulfillmentIdGeneratorImpl implements FulfillmentIdGenerator {
 
+    private final BlockIdAllocator idAllocator;
+
     @Override
     public int generateFulfillmentId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "fulfillment");
+    }
+
+    @Override
+    public Deque<Integer> generateFulfillmentIds(int size) {
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "fulfillment", size);
     }
 
     @Override
     public Deque<Integer> generateFulfillmentLineItemIds(int size) {
-        return null;
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "fulfillment_line_item", size);
     }
 }
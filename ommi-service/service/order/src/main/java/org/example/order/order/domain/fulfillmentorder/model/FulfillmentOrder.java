@@ -123,6 +123,13 @@ public class FulfillmentOrder extends AggregateRoot<FulfillmentOrder> {
         this.idGenerator = idGenerator;
     }
 
+    /**
+     * idGenerator là transient: fulfillment order load từ DB phải gán lại trước khi fulfill một phần (có thể tách order mới)
+     */
+    public void setIdGenerator(FulfillmentOrderIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
     public void addLineItem(FulfillmentOrderLineItem lineItem) {
         if (this.lineItems == null) this.lineItems = new ArrayList<>();
         this.lineItems.add(lineItem);
@@ -9,6 +9,14 @@ import java.util.List;
 public interface FulfillmentOrderRepository {
     void save(FulfillmentOrder fulfillmentOrder);
 
+    /**
+     * Lưu nhiều fulfillment order trong cùng transaction, không flush ngay: các saveAll của transaction được flush cùng lúc
+     * (JDBC batch) khi commit
+     */
+    default void saveAll(List<FulfillmentOrder> fulfillmentOrders) {
+        fulfillmentOrders.forEach(this::save);
+    }
+
     List<FulfillmentOrder> findByIds(List<FulfillmentOrderId> fulfillmentOrderIds);
 
     List<FulfillmentOrder> findByOrderId(OrderId orderId);
@@ -25,6 +25,18 @@ public class JpaFulfillmentOrderRepository implements FulfillmentOrderRepository
         entityManager.flush();
     }
 
+    @Override
+    public void saveAll(List<FulfillmentOrder> fulfillmentOrders) {
+        for (var fulfillmentOrder : fulfillmentOrders) {
+            if (fulfillmentOrder.isNew()) {
+                entityManager.persist(fulfillmentOrder);
+            } else {
+                entityManager.merge(fulfillmentOrder);
+            }
+        }
+        // flush khi commit (hoặc khi save / query tiếp theo) cùng các thay đổi khác của transaction
+    }
+
     @Override
     public List<FulfillmentOrder> findByIds(List<FulfillmentOrderId> fulfillmentOrderIds) {
         return entityManager.createQuery("SELECT fo FROM FulfillmentOrder fo WHERE fo.id IN (:ids)", FulfillmentOrder.class)
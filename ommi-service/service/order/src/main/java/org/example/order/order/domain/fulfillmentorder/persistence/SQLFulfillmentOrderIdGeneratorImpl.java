@@ -1,16 +1,24 @@
 package org.example.order.order.domain.fulfillmentorder.persistence;
 
+import lombok.RequiredArgsConstructor;
+import org.example.idgenerator.BlockIdAllocator;
 import org.springframework.stereotype.Repository;
 
+import static org.example.idgenerator.BlockIdAllocator.GLOBAL_STORE_ID;
+
 @Repository
+@RequiredArgsConstructor
 public class SQLFulfillmentOrderIdGeneratorImpl implements FulfillmentOrderIdGenerator {
+
+    private final BlockIdAllocator idAllocator;
+
     @Override
     public int generateFulfillmentOrderId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "fulfillment_order");
     }
 
     @Override
     public int generateFulfillmentOrderLineId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "fulfillment_order_line_item");
     }
 }
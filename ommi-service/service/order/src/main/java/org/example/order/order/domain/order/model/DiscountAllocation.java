@@ -1,6 +1,8 @@
 package org.example.order.order.domain.order.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
@@ -33,6 +35,7 @@ public class DiscountAllocation extends ValueObject<DiscountAllocation> {
 
     private Integer targetId;
 
+    @Enumerated(EnumType.STRING)
     private TargetType targetType;
 
     private int applicationId;
@@ -75,7 +75,7 @@ public class LineItem extends NestedDomainEntity<Order> {
     @Fetch(FetchMode.SUBSELECT)
     @JoinColumn(name = "targetId", referencedColumnName = "id", updatable = false,
             foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
-    @Where(clause = "targetType = 'line_item")
+    @Where(clause = "target_type = 'line_item'")
     @OrderBy("id desc")
     private List<DiscountAllocation> discountAllocations;
 
@@ -84,7 +84,7 @@ public class LineItem extends NestedDomainEntity<Order> {
     @Fetch(FetchMode.SUBSELECT)
     @JoinColumn(name = "targetId", referencedColumnName = "id", updatable = false,
             foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
-    @Where(clause = "targetType = 'line_item")
+    @Where(clause = "target_type = 'line_item'")
     @OrderBy("id desc")
     private List<TaxLine> taxLines;
 
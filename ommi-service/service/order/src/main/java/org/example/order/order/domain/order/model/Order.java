@@ -12,6 +12,7 @@ import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.jackson.Jacksonized;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -113,16 +114,20 @@ public non-sealed class Order extends AggregateRoot<Order> implements ApplyEditA
     @Valid
     private PaymentMethodInfo paymentMethodInfo;
 
+    // Các collection đều LAZY: phần nào được load do OrderFetchPlan truyền vào OrderRepository.findById quyết định
     @Size(max = 50)
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "order_tags", joinColumns = {
             @JoinColumn(name = "storeId", referencedColumnName = "storeId"),
             @JoinColumn(name = "orderId", referencedColumnName = "id")
+    }, indexes = {
+            // lọc order theo tag (JdbcOrderDao.searchViews)
+            @Index(name = "ix_order_tags_tag", columnList = "store_id, tag, order_id")
     })
     private List<@Valid OrderTag> tags = new ArrayList<>();
 
     @Size(max = 50)
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "order_custom_attributes", joinColumns = {
             @JoinColumn(name = "storeId", referencedColumnName = "storeId"),
             @JoinColumn(name = "orderId", referencedColumnName = "id")
@@ -130,40 +135,40 @@ public non-sealed class Order extends AggregateRoot<Order> implements ApplyEditA
     private List<@Valid OrderCustomAttribute> noteAttributes;
 
     @NotEmpty
-    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @Fetch(FetchMode.SUBSELECT)
     private List<@Valid LineItem> lineItems;
 
-    @OneToMany(mappedBy = "order", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @Fetch(FetchMode.SUBSELECT)
     private List<@Valid ShippingLine> shippingLines;
 
     @Size(max = 10)
-    @OneToMany(mappedBy = "order", fetch = FetchType.EAGER, cascade = CascadeType.PERSIST)
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @Fetch(FetchMode.SUBSELECT)
     private List<@Valid OrderDiscountCode> discountCodes;
 
-    @OneToMany(mappedBy = "order", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @Fetch(FetchMode.SUBSELECT)
     private List<@Valid BillingAddress> billingAddresses;
 
-    @OneToMany(mappedBy = "order", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @Fetch(FetchMode.SUBSELECT)
     private List<@Valid ShippingAddress> shippingAddresses;
 
     @Fetch(FetchMode.SUBSELECT)
-    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<@Valid CombinationLine> combinationLines;
 
-    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @Fetch(FetchMode.SUBSELECT)
     private List<@Valid DiscountApplication> discountApplications;
 
-    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "aggRoot", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @Fetch(FetchMode.SUBSELECT)
     private Set<@Valid Refund> refunds;
 
-    @OneToMany(mappedBy = "aggRoot", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "aggRoot", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Fetch(FetchMode.SUBSELECT)
     private List<RefundTaxLine> refundTaxLines = new ArrayList<>();
 
@@ -201,6 +206,8 @@ public non-sealed class Order extends AggregateRoot<Order> implements ApplyEditA
             List<CombinationLine> combinationLines
     ) {
         this.generateOrderId(storeId, orderIdGenerator);
+        this.createdOn = Instant.now();
+        this.modifiedOn = this.createdOn;
 
         this.internalSetCustomerInfo(customerInfo);
         this.internalSetTracingInfo(trackingInfo);
@@ -423,11 +430,13 @@ public non-sealed class Order extends AggregateRoot<Order> implements ApplyEditA
     private void privateSetShippingAddress(ShippingAddress shippingAddress) {
         if (shippingAddress == null) return;
         shippingAddress.setOrder(this);
+        this.shippingAddresses = new ArrayList<>(List.of(shippingAddress));
     }
 
     private void privateSetBillingAddress(BillingAddress billingAddress) {
         if (billingAddress == null) return;
         billingAddress.setOrder(this);
+        this.billingAddresses = new ArrayList<>(List.of(billingAddress));
     }
 
     private void mergeCustomAttributes(Map<String, String> customAttributes) {
@@ -847,6 +856,7 @@ public non-sealed class Order extends AggregateRoot<Order> implements ApplyEditA
 
     @Getter
     @Builder
+    @Jacksonized
     public static class TransactionInput {
         private Integer id; // id của orderTransaction
         private Integer parentId;
@@ -48,7 +48,7 @@ public class ShippingLine {
     @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     @JoinColumn(name = "targetId", referencedColumnName = "id", updatable = false,
             foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
-    @Where(clause = "targetType = 'shipping")
+    @Where(clause = "target_type = 'shipping'")
     @OrderBy("id desc")
     private List<DiscountAllocation> discountAllocations;
 
@@ -56,7 +56,7 @@ public class ShippingLine {
     @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     @JoinColumn(name = "targetId", referencedColumnName = "id", updatable = false,
             foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
-    @Where(clause = "targetType = 'shipping")
+    @Where(clause = "target_type = 'shipping'")
     @OrderBy("id desc")
     private List<TaxLine> taxLines;
 
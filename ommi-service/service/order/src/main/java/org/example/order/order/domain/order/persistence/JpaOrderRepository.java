@@ -4,8 +4,11 @@ import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.example.order.order.domain.order.model.Order;
 import org.example.order.order.domain.order.model.OrderId;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 @RequiredArgsConstructor
 public class JpaOrderRepository implements OrderRepository {
@@ -23,8 +26,52 @@ public class JpaOrderRepository implements OrderRepository {
         entityManager.flush();
     }
 
+    @Override
+    public void saveAll(List<Order> orders) {
+        for (var order : orders) {
+            if (order.isNew())
+                entityManager.persist(order);
+            else
+                entityManager.merge(order);
+        }
+
+        entityManager.flush();
+    }
+
     @Override
     public Order findById(OrderId orderId) {
-        return this.entityManager.find(Order.class, orderId);
+        return this.findById(orderId, OrderFetchPlan.FULL);
+    }
+
+    @Override
+    public Order findById(OrderId orderId, OrderFetchPlan fetchPlan) {
+        var order = this.entityManager.find(Order.class, orderId);
+        if (order == null) return null;
+
+        // các collection map SUBSELECT => mỗi phần là 1 query, không join nhân bản số dòng
+        for (var part : fetchPlan.getParts()) {
+            initialize(order, part);
+        }
+        return order;
+    }
+
+    private static void initialize(Order order, OrderFetchPlan.Part part) {
+        switch (part) {
+            case TAGS -> Hibernate.initialize(order.getTags());
+            case NOTE_ATTRIBUTES -> Hibernate.initialize(order.getNoteAttributes());
+            case LINE_ITEMS -> Hibernate.initialize(order.getLineItems());
+            case SHIPPING_LINES -> Hibernate.initialize(order.getShippingLines());
+            case DISCOUNT_CODES -> Hibernate.initialize(order.getDiscountCodes());
+            case ADDRESSES -> {
+                Hibernate.initialize(order.getBillingAddresses());
+                Hibernate.initialize(order.getShippingAddresses());
+            }
+            case COMBINATION_LINES -> Hibernate.initialize(order.getCombinationLines());
+            case DISCOUNT_APPLICATIONS -> Hibernate.initialize(order.getDiscountApplications());
+            case REFUNDS -> {
+                Hibernate.initialize(order.getRefunds());
+                Hibernate.initialize(order.getRefundTaxLines());
+            }
+        }
     }
 }
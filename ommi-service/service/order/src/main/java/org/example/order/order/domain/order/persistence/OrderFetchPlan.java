@@ -0,0 +1,51 @@
+package org.example.order.order.domain.order.persistence;
+
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Phần nào của Order được load cùng order. Chỉ dùng plan nhỏ hơn FULL khi use case chắc chắn
+ * không đụng tới các phần còn lại (truy cập ngoài session sẽ bị LazyInitializationException)
+ */
+@Getter
+public enum OrderFetchPlan {
+    /**
+     * Toàn bộ aggregate, mặc định của findById(orderId)
+     */
+    FULL(EnumSet.allOf(Part.class)),
+    /**
+     * Chỉ bảng orders và các embedded (customer, tracing, money, payment method)
+     */
+    HEADER(EnumSet.noneOf(Part.class)),
+    LINE_ITEMS(EnumSet.of(Part.LINE_ITEMS)),
+    /**
+     * Tạo fulfillment order: line, shipping line, địa chỉ
+     */
+    FULFILLMENT(EnumSet.of(Part.LINE_ITEMS, Part.SHIPPING_LINES, Part.ADDRESSES));
+
+    private final Set<Part> parts;
+
+    OrderFetchPlan(Set<Part> parts) {
+        this.parts = parts;
+    }
+
+    public enum Part {
+        TAGS,
+        NOTE_ATTRIBUTES,
+        /**
+         * Gồm cả tax line, discount allocation của line
+         */
+        LINE_ITEMS,
+        SHIPPING_LINES,
+        DISCOUNT_CODES,
+        ADDRESSES,
+        COMBINATION_LINES,
+        DISCOUNT_APPLICATIONS,
+        /**
+         * Refund và refund tax line
+         */
+        REFUNDS
+    }
+}
@@ -3,8 +3,24 @@ package org.example.order.order.domain.order.persistence;
 import org.example.order.order.domain.order.model.Order;
 import org.example.order.order.domain.order.model.OrderId;
 
+import java.util.List;
+
 public interface OrderRepository {
     void save(Order order);
 
+    /**
+     * Lưu nhiều order trong cùng transaction, flush 1 lần để tận dụng JDBC batch
+     */
+    default void saveAll(List<Order> orders) {
+        orders.forEach(this::save);
+    }
+
     Order findById(OrderId orderId);
+
+    /**
+     * Chỉ load các phần của Order có trong fetchPlan. Mặc định: load toàn bộ
+     */
+    default Order findById(OrderId orderId, OrderFetchPlan fetchPlan) {
+        return this.findById(orderId);
+    }
 }
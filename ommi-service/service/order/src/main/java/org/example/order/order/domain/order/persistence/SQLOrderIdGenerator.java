@@ -1,85 +1,91 @@
 package org.example.order.order.domain.order.persistence;
 
+import lombok.RequiredArgsConstructor;
+import org.example.idgenerator.BlockIdAllocator;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayDeque;
 import java.util.Deque;
 
+import static org.example.idgenerator.BlockIdAllocator.GLOBAL_STORE_ID;
+
 @Repository
+@RequiredArgsConstructor
 public class SQLOrderIdGenerator implements OrderIdGenerator {
 
+    private final BlockIdAllocator idAllocator;
+
     @Override
     public int generateBillingAddressId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "billing_address");
     }
 
     @Override
     public int generateShippingAddressId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "shipping_address");
     }
 
     @Override
     public Deque<Integer> generateCombinationLineIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "combination_line", size);
     }
 
     @Override
     public Deque<Integer> generateLineItemIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "line_item", size);
     }
 
     @Override
     public Deque<Integer> generateTaxLineIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "tax_line", size);
     }
 
     @Override
     public Deque<Integer> generateAttributeIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "attribute", size);
     }
 
     @Override
     public Deque<Integer> generateShippingLineIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "shipping_line", size);
     }
 
     @Override
     public int generateDiscountCodeId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "discount_code");
     }
 
     @Override
     public Deque<Integer> generateDiscountApplicationIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "discount_application", size);
     }
 
     @Override
     public Deque<Integer> generateDiscountAllocationIds(int size) {
-        return new ArrayDeque<>();
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "discount_allocation", size);
     }
 
     @Override
     public int generateOrderId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "order");
     }
 
     @Override
     public Deque<Integer> generateReturnLineIds(int size) {
-        return null;
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "refund_line_item", size);
     }
 
     @Override
     public int generateAdjustmentId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "order_adjustment");
     }
 
     @Override
     public int generateRefundId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "refund");
     }
 
     @Override
     public Deque<Integer> generateRefundTaxLineIds(int size) {
-        return null;
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "refund_tax_line", size);
     }
 }
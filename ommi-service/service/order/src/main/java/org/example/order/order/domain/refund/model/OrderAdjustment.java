@@ -17,8 +17,8 @@ public class OrderAdjustment {
     @JsonIgnore
     @ManyToOne
     @Setter
-    @JoinColumn(name = "storeId", referencedColumnName = "storeId")
     @JoinColumn(name = "orderId", referencedColumnName = "orderId")
+    @JoinColumn(name = "storeId", referencedColumnName = "storeId")
     @JoinColumn(name = "refundId", referencedColumnName = "id")
     private Refund refund;
 
@@ -17,9 +17,9 @@ public class RefundLineItem {
     @JsonIgnore
     @ManyToOne
     @Setter
-    @JoinColumn(name = "refundId", referencedColumnName = "id")
-    @JoinColumn(name = "storeId", referencedColumnName = "storeId")
     @JoinColumn(name = "orderId", referencedColumnName = "orderId")
+    @JoinColumn(name = "storeId", referencedColumnName = "storeId")
+    @JoinColumn(name = "refundId", referencedColumnName = "id")
     private Refund refund;
 
     @Id
@@ -45,7 +45,16 @@ public class RefundLineItem {
     private RestockType type;
 
     public RefundLineItem(Integer id, RefundCalculationResponse.LineItem suggestedLineItem) {
-
+        this.id = id;
+        this.lineItemId = suggestedLineItem.getLineItemId();
+        this.quantity = suggestedLineItem.getQuantity();
+        this.locationId = suggestedLineItem.getLocationId();
+        this.price = suggestedLineItem.getPrice();
+        this.subtotal = suggestedLineItem.getSubtotal();
+        this.totalTax = suggestedLineItem.getTotalTax();
+        this.totalCartDiscount = suggestedLineItem.getTotalCartDiscount();
+        this.removal = suggestedLineItem.isRemoval();
+        this.type = suggestedLineItem.getRestockType();
     }
 
     public enum RestockType {
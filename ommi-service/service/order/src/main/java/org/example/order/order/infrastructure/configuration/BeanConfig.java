@@ -1,14 +1,131 @@
 package org.example.order.order.infrastructure.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.example.AdminClient;
+import org.example.idgenerator.BlockIdAllocator;
+import org.example.idgenerator.JdbcIdRangeSource;
+import org.example.order.order.infrastructure.data.dao.CachingProductDao;
+import org.example.order.order.infrastructure.data.dao.CachingStoreDao;
+import org.example.order.order.infrastructure.data.dao.JdbcOrderEditGraphDao;
+import org.example.order.order.infrastructure.data.dao.JdbcProductDao;
+import org.example.order.order.infrastructure.data.dao.ProductLogDao;
+import org.example.order.order.infrastructure.data.dao.JdbcStoreDao;
+import org.example.order.order.infrastructure.data.dao.SessionOrderEditGraphDao;
+import org.example.order.order.infrastructure.persistence.InMemoryOrderEditSessionStore;
+import org.example.order.order.infrastructure.persistence.JpaOrderEditRepository;
+import org.example.order.order.infrastructure.persistence.OrderEditSessionStore;
+import org.example.order.order.infrastructure.persistence.SessionOrderEditRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
 
 @Configuration
+@EnableConfigurationProperties({
+        IdGeneratorProperties.class,
+        OrderPrefetchProperties.class,
+        StoreCacheProperties.class,
+        ProductCacheProperties.class,
+        OrderOutboxProperties.class,
+        OrderEditSessionCacheProperties.class,
+        OrderEditSessionStoreProperties.class,
+        TaxCacheProperties.class,
+        SapoBatchProperties.class,
+        CombinationExpansionCacheProperties.class,
+        InventoryCommitProperties.class,
+        ShippingDispatchProperties.class
+})
+@EnableScheduling
 public class BeanConfig {
 
     @Bean
     public AdminClient adminClient() {
         return AdminClient.builder().build();
     }
+
+    @Bean(destroyMethod = "close")
+    public BlockIdAllocator blockIdAllocator(DataSource dataSource, IdGeneratorProperties properties) {
+        return BlockIdAllocator.builder(new JdbcIdRangeSource(dataSource))
+                .blockSize(properties.getBlockSize())
+                .refillThreshold(properties.getRefillThreshold())
+                .build();
+    }
+
+    /**
+     * StoreDao mặc định được inject. store-cache.enabled=false => không giữ store nào trong cache
+     */
+    @Bean
+    @Primary
+    public CachingStoreDao cachingStoreDao(JdbcStoreDao delegate, StoreCacheProperties properties, MeterRegistry meterRegistry) {
+        return new CachingStoreDao(
+                delegate,
+                properties.isEnabled() ? properties.getMaximumSize() : 0,
+                properties.getTtl(),
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public CachingProductDao cachingProductDao(
+            JdbcProductDao delegate,
+            ProductLogDao productLogDao,
+            ProductCacheProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        return new CachingProductDao(
+                delegate,
+                productLogDao,
+                properties.isEnabled(),
+                properties.getMaximumSize(),
+                properties.getTtl(),
+                meterRegistry);
+    }
+
+    /**
+     * order-edit.session-store.enabled=false => store không giữ phiên nào, repository/graph dao gọi thẳng DB.
+     * Chưa có store dùng chung giữa các node (phải là store trong bộ nhớ kiểu Redis, store trên DB thì mỗi thao tác sửa vẫn ghi DB)
+     * => chỉ bật được khi single-node=true
+     */
+    @Bean
+    public OrderEditSessionStore orderEditSessionStore(OrderEditSessionStoreProperties properties, MeterRegistry meterRegistry) {
+        if (properties.isEnabled() && !properties.isSingleNode()) {
+            throw new IllegalStateException("order-edit.session-store.enabled=true requires order-edit.session-store.single-node=true: "
+                    + "sessions are kept in memory and two nodes would edit the same order edit without seeing each other");
+        }
+        return new InMemoryOrderEditSessionStore(
+                properties.isEnabled() ? properties.getMaximumSize() : 0,
+                properties.getIdleTimeout(),
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public SessionOrderEditRepository sessionOrderEditRepository(
+            JpaOrderEditRepository delegate,
+            EntityManager entityManager,
+            OrderEditSessionStore sessionStore,
+            PlatformTransactionManager transactionManager,
+            OrderEditSessionStoreProperties properties
+    ) {
+        return new SessionOrderEditRepository(
+                delegate,
+                entityManager,
+                sessionStore,
+                transactionManager,
+                properties.isEnabled());
+    }
+
+    @Bean
+    @Primary
+    public SessionOrderEditGraphDao sessionOrderEditGraphDao(
+            JdbcOrderEditGraphDao delegate,
+            SessionOrderEditRepository sessionRepository
+    ) {
+        return new SessionOrderEditGraphDao(delegate, sessionRepository);
+    }
 }
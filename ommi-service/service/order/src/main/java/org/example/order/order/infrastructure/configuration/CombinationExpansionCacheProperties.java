@@ -0,0 +1,25 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "combination.expansion-cache")
+public class CombinationExpansionCacheProperties {
+
+    /**
+     * false => mỗi line combo/packsize đều dựng lại template component từ combo item/packsize
+     */
+    private boolean enabled = true;
+
+    /**
+     * Số template component tối đa (theo store, variant combo/packsize, phiên bản sản phẩm)
+     */
+    private long maximumSize = 10_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+}
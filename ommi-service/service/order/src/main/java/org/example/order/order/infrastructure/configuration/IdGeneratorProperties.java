@@ -0,0 +1,21 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "id-generator")
+public class IdGeneratorProperties {
+
+    /**
+     * Số id reserve cho mỗi lần round trip DB
+     */
+    private int blockSize = 1000;
+
+    /**
+     * Còn <= refillThreshold id thì prefetch block kế tiếp. < 0 => mặc định 20% blockSize
+     */
+    private int refillThreshold = -1;
+}
@@ -0,0 +1,16 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "inventory-commit")
+public class InventoryCommitProperties {
+
+    /**
+     * Số adjustment (fulfillment) tối đa trong 1 lần gọi commit_inventory
+     */
+    private int maxBatchSize = 100;
+}
@@ -0,0 +1,28 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order-edit.session-cache")
+public class OrderEditSessionCacheProperties {
+
+    /**
+     * false => mỗi lần tính CalculatedOrder đều build lại toàn bộ line
+     */
+    private boolean enabled = true;
+
+    /**
+     * Số order edit đang mở được giữ kết quả tính
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Phiên sửa order không thao tác quá thời gian này thì bỏ khỏi cache
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,35 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order-edit.session-store")
+public class OrderEditSessionStoreProperties {
+
+    /**
+     * true => order edit đang sửa được giữ trong OrderEditSessionStore, chỉ ghi DB khi commit hoặc hết phiên.
+     * false => mỗi thao tác sửa ghi DB ngay
+     */
+    private boolean enabled = false;
+
+    /**
+     * Chỉ có InMemoryOrderEditSessionStore: compareAndSet chỉ loại trừ được request trên cùng node.
+     * enabled=true bắt buộc khai báo single-node=true (service chạy 1 instance), nếu không service không khởi động
+     */
+    private boolean singleNode = false;
+
+    /**
+     * Số phiên sửa tối đa giữ trên 1 node, vượt quá thì phiên ít dùng nhất được ghi DB và bỏ khỏi store
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Phiên không được sửa (ghi) quá thời gian này thì được ghi DB và bỏ khỏi store (ghi DB lỗi thì giữ lại, thử lại ở lần dọn sau)
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+}
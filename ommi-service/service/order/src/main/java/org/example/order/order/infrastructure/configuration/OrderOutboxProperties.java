@@ -0,0 +1,51 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order-outbox")
+public class OrderOutboxProperties {
+
+    /**
+     * false => các handler của OrderCreatedAppEvent chạy đồng bộ trong transaction tạo order (như trước đây)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Số event được xử lý đồng thời
+     */
+    private int concurrency = 8;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Số event tối đa được gộp thành 1 lần gọi handler (handler hỗ trợ gộp, vd inventory_commit)
+     */
+    private int maxCoalesce = 20;
+
+    private int maxAttempts = 10;
+
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * Tỉ lệ backoff được chọn ngẫu nhiên: 0.5 => nửa cố định, nửa ngẫu nhiên trong [0, backoff / 2]
+     */
+    private double backoffJitter = 0.5;
+
+    /**
+     * Chu kỳ cập nhật gauge order.outbox.pending
+     */
+    private Duration metricsInterval = Duration.ofSeconds(15);
+
+    /**
+     * Event ở trạng thái processing lâu hơn => coi như node xử lý đã chết, trả lại pending
+     */
+    private Duration processingTimeout = Duration.ofMinutes(5);
+}
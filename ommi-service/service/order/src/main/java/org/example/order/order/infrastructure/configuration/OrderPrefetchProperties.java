@@ -0,0 +1,38 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order.prefetch")
+public class OrderPrefetchProperties {
+
+    /**
+     * false => các lookup chạy tuần tự trên thread của request (như trước đây)
+     */
+    private boolean enabled = true;
+
+    private int poolSize = 16;
+
+    /**
+     * Hàng đợi đầy => lookup chạy luôn trên thread của request
+     */
+    private int queueCapacity = 256;
+
+    private Duration defaultTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Timeout riêng theo tên lookup: customer_by_id, customer_by_email
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    public Duration timeoutOf(String lookup) {
+        return this.timeouts.getOrDefault(lookup, this.defaultTimeout);
+    }
+}
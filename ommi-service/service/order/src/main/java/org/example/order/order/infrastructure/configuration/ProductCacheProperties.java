@@ -0,0 +1,27 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-cache")
+public class ProductCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Số entry tối đa cho mỗi loại (variant, product)
+     */
+    private long maximumSize = 100_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Chu kỳ đọc ProductLogs để invalidate product đã thay đổi
+     */
+    private long logPollIntervalMs = 2000;
+}
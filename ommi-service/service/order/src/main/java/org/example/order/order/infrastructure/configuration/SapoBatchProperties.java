@@ -0,0 +1,44 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sapo-batch")
+public class SapoBatchProperties {
+
+    /**
+     * false => không gom request giữa các lần tính, mỗi lần tính vẫn gọi song song các lookup độc lập
+     */
+    private boolean enabled = true;
+
+    /**
+     * Thời gian chờ gom id của các request khác cùng store trước khi gọi SapoClient
+     */
+    private Duration window = Duration.ofMillis(2);
+
+    /**
+     * Số id tối đa trong 1 lần gọi SapoClient
+     */
+    private int maxBatchSize = 200;
+
+    /**
+     * Số thread gọi SapoClient
+     */
+    private int threads = 8;
+
+    /**
+     * Số thread chạy task chặn ngoài lookup (vd: TaxHelper.getTaxSetting), tách khỏi pool gọi SapoClient
+     */
+    private int taskThreads = 4;
+
+    /**
+     * Thời gian chờ tối đa cho các lookup của 1 lần tính (kể cả tính thuế), quá thì lần tính lỗi thay vì treo request.
+     * Lần gọi SapoClient / task chưa xong sau timeout bị cancel (interrupt) để trả thread về pool
+     */
+    private Duration timeout = Duration.ofSeconds(15);
+}
@@ -0,0 +1,39 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shipping-dispatch")
+public class ShippingDispatchProperties {
+
+    /**
+     * Số shipping request tối đa trong 1 lần gửi
+     */
+    private int maxBatchSize = 20;
+
+    /**
+     * Số lần gọi carrier đồng thời tối đa cho 1 phương thức giao hàng (trên 1 node)
+     */
+    private int defaultConcurrency = 2;
+
+    /**
+     * Giới hạn riêng theo phương thức giao hàng, ghi đè defaultConcurrency
+     */
+    private Map<String, Integer> concurrencies = new HashMap<>();
+
+    /**
+     * Thời gian tối đa chờ lượt gọi carrier, quá thì outbox chạy lại event sau initialBackoff (không tính attempt)
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    public int concurrencyOf(String deliveryMethod) {
+        return Math.max(1, this.concurrencies.getOrDefault(deliveryMethod, this.defaultConcurrency));
+    }
+}
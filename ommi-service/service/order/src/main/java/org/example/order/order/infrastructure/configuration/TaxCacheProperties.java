@@ -0,0 +1,37 @@
+package org.example.order.order.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tax-cache")
+public class TaxCacheProperties {
+
+    /**
+     * false => mỗi lần tính thuế đều gọi SapoClient
+     */
+    private boolean enabled = true;
+
+    /**
+     * Số entry tối đa cho mỗi loại (tax setting theo store, thuế theo product, thuế shipping theo quốc gia)
+     */
+    private long maximumSize = 100_000;
+
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Số thread gọi SapoClient
+     */
+    private int fetchThreads = 5;
+
+    /**
+     * Timeout cho 1 lần gọi, hết timeout thì gọi lại tối đa maxAttempts lần
+     */
+    private Duration fetchTimeout = Duration.ofSeconds(5);
+
+    private int maxAttempts = 3;
+}
@@ -16,4 +16,11 @@ public class DefaultExceptionHandlerAdvice {
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .body(exception.getErrorMessage());
     }
+
+    @ExceptionHandler(DependencyTimeoutException.class)
+    public ResponseEntity<ErrorMessage> dependencyTimeoutException(DependencyTimeoutException exception) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(ErrorMessage.builder().addError(exception.getMessage()).build());
+    }
 }
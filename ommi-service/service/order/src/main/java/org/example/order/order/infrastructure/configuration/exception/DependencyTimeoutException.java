@@ -0,0 +1,17 @@
+package org.example.order.order.infrastructure.configuration.exception;
+
+import lombok.Getter;
+
+/**
+ * Service phụ thuộc (admin api, ...) không trả kết quả trong thời gian cho phép.
+ * Không phải lỗi dữ liệu của request => trả về 504, client có thể thử lại
+ */
+@Getter
+public class DependencyTimeoutException extends RuntimeException {
+    private final String dependency;
+
+    public DependencyTimeoutException(String dependency, String message) {
+        super(message);
+        this.dependency = dependency;
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.infrastructure.data.dto.ProductDto;
+import org.example.order.order.infrastructure.data.dto.VariantDto;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache variant/product theo (storeId, id) trước ProductDao.
+ * - findXByListId chỉ query những id chưa có trong cache (1 query cho tất cả miss)
+ * - Mỗi entry được gắn version lúc load. Khi product thay đổi (đọc từ ProductLogs), version của product được tăng
+ * => entry product và các variant của nó load trước thời điểm đó bị coi là miss
+ * - ProductLogs id là IDENTITY: transaction commit sau có thể có id nhỏ hơn log đã đọc. Id bị nhảy qua được giữ lại
+ * và đọc lại ở các lần poll sau cho tới khi xuất hiện (hoặc quá ttl: id của transaction đã rollback)
+ * - ttl là giới hạn trên của độ cũ nếu việc đọc ProductLogs bị lỗi hoặc bỏ sót log
+ */
+@Slf4j
+public class CachingProductDao implements ProductDao {
+
+    private static final int LOG_BATCH_SIZE = 1000;
+    /**
+     * Quá số id bị nhảy qua này (vd identity nhảy cả nghìn khi restart DB) => invalidate toàn bộ thay vì theo dõi từng id
+     */
+    private static final int MAX_PENDING_LOG_IDS = 10_000;
+
+    private final ProductDao delegate;
+    private final ProductLogDao productLogDao;
+    private final boolean enabled;
+    private final long ttlNanos;
+
+    private final Cache<ProductKey, Versioned<ProductDto>> products;
+    private final Cache<ProductKey, Versioned<VariantDto>> variants;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentHashMap<ProductKey, Invalidation> invalidations = new ConcurrentHashMap<>();
+    private volatile long minValidVersion;
+    private volatile long lastLogId = -1;
+    /**
+     * log id chưa thấy (nhỏ hơn lastLogId) -> thời điểm phát hiện (nanoTime)
+     */
+    private final Map<Long, Long> pendingLogIds = new HashMap<>();
+
+    public CachingProductDao(
+            ProductDao delegate,
+            ProductLogDao productLogDao,
+            boolean enabled,
+            long maximumSize,
+            Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.productLogDao = productLogDao;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.products = CacheBuilder.newBuilder()
+                .maximumSize(enabled ? maximumSize : 0)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.variants = CacheBuilder.newBuilder()
+                .maximumSize(enabled ? maximumSize : 0)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, this.products, "product");
+        GuavaCacheMetrics.monitor(meterRegistry, this.variants, "variant");
+    }
+
+    @Override
+    public List<ProductDto> findProductByListId(int storeId, List<Integer> productIds) {
+        if (!this.enabled) return this.delegate.findProductByListId(storeId, productIds);
+        return this.getAll(this.products, storeId, productIds,
+                this.delegate::findProductByListId, ProductDto::getId, ProductDto::getId);
+    }
+
+    @Override
+    public List<VariantDto> findVariantByListId(int storeId, List<Integer> variantIds) {
+        if (!this.enabled) return this.delegate.findVariantByListId(storeId, variantIds);
+        return this.getAll(this.variants, storeId, variantIds,
+                this.delegate::findVariantByListId, VariantDto::getId, VariantDto::getProductId);
+    }
+
+    /**
+     * Trả về các entity tìm thấy theo thứ tự ids (giống query IN: id không tồn tại thì bỏ qua, không cache)
+     */
+    private <T> List<T> getAll(
+            Cache<ProductKey, Versioned<T>> cache,
+            int storeId,
+            List<Integer> ids,
+            BiFunction<Integer, List<Integer>, List<T>> loader,
+            ToIntFunction<T> idOf,
+            ToIntFunction<T> productIdOf
+    ) {
+        if (ids == null || ids.isEmpty()) return List.of();
+
+        Map<Integer, T> found = new HashMap<>(ids.size());
+        Set<Integer> missIds = new LinkedHashSet<>();
+        for (var id : ids) {
+            if (found.containsKey(id) || missIds.contains(id)) continue;
+            var key = new ProductKey(storeId, id);
+            var entry = cache.getIfPresent(key);
+            if (entry != null && this.isValid(storeId, entry)) {
+                found.put(id, entry.value());
+            } else {
+                missIds.add(id);
+            }
+        }
+
+        if (!missIds.isEmpty()) {
+            // lấy version trước khi query: thay đổi xảy ra trong lúc query sẽ làm entry này hết hiệu lực
+            var version = this.clock.get();
+            for (var value : loader.apply(storeId, new ArrayList<>(missIds))) {
+                var id = idOf.applyAsInt(value);
+                found.put(id, value);
+                cache.put(new ProductKey(storeId, id), new Versioned<>(value, productIdOf.applyAsInt(value), version));
+            }
+        }
+
+        List<T> result = new ArrayList<>(found.size());
+        for (var id : ids) {
+            var value = found.remove(id);
+            if (value != null) result.add(value);
+        }
+        return result;
+    }
+
+    private boolean isValid(int storeId, Versioned<?> entry) {
+        if (entry.version() < this.minValidVersion) return false;
+        var invalidation = this.invalidations.get(new ProductKey(storeId, entry.productId()));
+        return invalidation == null || invalidation.version() <= entry.version();
+    }
+
+    public void invalidateProduct(int storeId, int productId) {
+        var key = new ProductKey(storeId, productId);
+        this.invalidations.put(key, new Invalidation(this.clock.incrementAndGet(), System.nanoTime()));
+        this.products.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        this.minValidVersion = this.clock.incrementAndGet();
+        this.products.invalidateAll();
+        this.variants.invalidateAll();
+        this.invalidations.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${product-cache.log-poll-interval-ms:2000}")
+    public synchronized void pollProductLogs() {
+        if (!this.enabled) return;
+        try {
+            if (this.lastLogId < 0) {
+                // chỉ theo dõi các thay đổi từ thời điểm này, bỏ các entry đã load trước đó
+                this.lastLogId = this.productLogDao.getLastLogId();
+                this.invalidateAll();
+                return;
+            }
+            this.pollPendingLogs();
+            List<ProductLogDto> logs;
+            do {
+                logs = this.productLogDao.getLogsAfter(this.lastLogId, LOG_BATCH_SIZE);
+                var now = System.nanoTime();
+                for (var productLog : logs) {
+                    this.trackSkippedLogIds(productLog.getId(), now);
+                    this.invalidateProduct(productLog.getStoreId(), productLog.getProductId());
+                    this.lastLogId = productLog.getId();
+                }
+            } while (logs.size() == LOG_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            log.warn("Poll product logs after {} failed", this.lastLogId, e);
+        }
+        this.pruneInvalidations();
+    }
+
+    /**
+     * Đọc lại các log id đã bị nhảy qua: log commit muộn => invalidate, quá ttl => bỏ (transaction đã rollback)
+     */
+    private void pollPendingLogs() {
+        if (this.pendingLogIds.isEmpty()) return;
+        for (var productLog : this.productLogDao.getLogsByIds(new ArrayList<>(this.pendingLogIds.keySet()))) {
+            this.invalidateProduct(productLog.getStoreId(), productLog.getProductId());
+            this.pendingLogIds.remove(productLog.getId());
+        }
+        var now = System.nanoTime();
+        this.pendingLogIds.values().removeIf(seenAt -> now - seenAt > this.ttlNanos);
+    }
+
+    private void trackSkippedLogIds(long logId, long now) {
+        var skipped = logId - this.lastLogId - 1;
+        if (skipped <= 0) return;
+        if (skipped + this.pendingLogIds.size() > MAX_PENDING_LOG_IDS) {
+            log.warn("{} product log ids skipped after {}, invalidate all cached products", skipped, this.lastLogId);
+            this.pendingLogIds.clear();
+            this.invalidateAll();
+            return;
+        }
+        for (var skippedId = this.lastLogId + 1; skippedId < logId; skippedId++) {
+            this.pendingLogIds.put(skippedId, now);
+        }
+    }
+
+    /**
+     * Entry load trước 1 lần invalidate quá ttl đều đã hết hạn => bỏ được version đó
+     */
+    private void pruneInvalidations() {
+        var now = System.nanoTime();
+        this.invalidations.values().removeIf(invalidation -> now - invalidation.atNanos() > this.ttlNanos);
+    }
+
+    private record ProductKey(int storeId, int id) {
+    }
+
+    private record Versioned<T>(T value, int productId, long version) {
+    }
+
+    private record Invalidation(long version, long atNanos) {
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.cache.ReadThroughCache;
+import org.example.order.order.infrastructure.data.dto.StoreDto;
+
+import java.time.Duration;
+
+/**
+ * Read-through cache trước StoreDao (store settings hầu như không đổi nhưng bị đọc ở mọi lần ghi order).
+ * Service không có đường ghi store settings (store do hệ thống khác quản lý) nên không có invalidate:
+ * ttl là giới hạn duy nhất của độ cũ, thay đổi store có hiệu lực chậm nhất sau ttl trên mọi node
+ */
+public class CachingStoreDao implements StoreDao {
+
+    private final ReadThroughCache<Integer, StoreDto> cache;
+
+    public CachingStoreDao(StoreDao delegate, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.cache = new ReadThroughCache<>("store", delegate::getStoreById, maximumSize, ttl, meterRegistry);
+    }
+
+    @Override
+    public StoreDto getStoreById(int storeId) {
+        return this.cache.get(storeId);
+    }
+}
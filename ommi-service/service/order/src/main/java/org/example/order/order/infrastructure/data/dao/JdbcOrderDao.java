@@ -1,16 +1,56 @@
 package org.example.order.order.infrastructure.data.dao;
 
 import lombok.RequiredArgsConstructor;
+import org.example.order.order.domain.order.model.Order;
 import org.example.order.order.infrastructure.data.dto.OrderDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewCursor;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewFilter;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Read model của order (xem OrderViewProjector).
+ * Bảng order_views và index cho từng filter: xem entity OrderView (infrastructure.data.schema), filter tag dùng index
+ * ix_order_tags_tag của order_tags (Order.tags)
+ */
 @Repository
 @RequiredArgsConstructor
 public class JdbcOrderDao implements OrderDao {
 
+    private static final RowMapper<OrderViewDto> VIEW_ROW_MAPPER = (rs, rowNum) -> {
+        var view = new OrderViewDto();
+        view.setStoreId(rs.getInt("store_id"));
+        view.setId(rs.getInt("id"));
+        view.setName(rs.getString("name"));
+        view.setOrderStatus(toEnum(Order.OrderStatus.class, rs.getString("order_status")));
+        view.setFinancialStatus(toEnum(Order.FinancialStatus.class, rs.getString("financial_status")));
+        view.setFulfillmentStatus(toEnum(Order.FulfillmentStatus.class, rs.getString("fulfillment_status")));
+        view.setReturnStatus(toEnum(Order.ReturnStatus.class, rs.getString("return_status")));
+        view.setCustomerId(rs.getObject("customer_id", Integer.class));
+        view.setEmail(rs.getString("email"));
+        view.setPhone(rs.getString("phone"));
+        view.setLocationId(rs.getObject("location_id", Integer.class));
+        view.setTotalPrice(rs.getBigDecimal("total_price"));
+        view.setCreatedOn(toInstant(rs, "created_on"));
+        view.setModifiedOn(toInstant(rs, "modified_on"));
+        view.setProcessedOn(toInstant(rs, "processed_on"));
+        view.setClosedOn(toInstant(rs, "closed_on"));
+        view.setCancelledOn(toInstant(rs, "cancelled_on"));
+        view.setData(rs.getString("data"));
+        return view;
+    };
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Override
@@ -42,4 +82,162 @@ public class JdbcOrderDao implements OrderDao {
         return result.isEmpty() ? null : result.get(0);
     }
 
+    @Override
+    public OrderViewDto getViewById(int storeId, int id) {
+        var result = jdbcTemplate.query(
+                """
+                        SELECT * FROM order_views
+                        WHERE store_id = :storeId AND id = :id
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("storeId", storeId)
+                        .addValue("id", id),
+                VIEW_ROW_MAPPER);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Upsert theo (store_id, id). View có thể được ghi ngoài transaction ghi order (OrderReadService dựng view
+     * cho order cũ lúc đọc) => 2 lần ghi cùng lúc cho order chưa có view: bên INSERT sau bị trùng khoá thì UPDATE lại.
+     * UPDATE chỉ ghi khi view đang lưu không mới hơn (modified_on) => rebuild từ order đọc trước khi bị sửa
+     * không ghi đè view mới do lần sửa đó ghi
+     */
+    @Override
+    public boolean saveView(OrderViewDto view) {
+        var params = new MapSqlParameterSource()
+                .addValue("storeId", view.getStoreId())
+                .addValue("id", view.getId())
+                .addValue("name", view.getName())
+                .addValue("orderStatus", nameOf(view.getOrderStatus()))
+                .addValue("financialStatus", nameOf(view.getFinancialStatus()))
+                .addValue("fulfillmentStatus", nameOf(view.getFulfillmentStatus()))
+                .addValue("returnStatus", nameOf(view.getReturnStatus()))
+                .addValue("customerId", view.getCustomerId())
+                .addValue("email", view.getEmail())
+                .addValue("phone", view.getPhone())
+                .addValue("locationId", view.getLocationId())
+                .addValue("totalPrice", view.getTotalPrice())
+                .addValue("createdOn", toTimestamp(view.getCreatedOn()))
+                .addValue("modifiedOn", toTimestamp(view.getModifiedOn()))
+                .addValue("processedOn", toTimestamp(view.getProcessedOn()))
+                .addValue("closedOn", toTimestamp(view.getClosedOn()))
+                .addValue("cancelledOn", toTimestamp(view.getCancelledOn()))
+                .addValue("data", view.getData());
+        if (updateView(params) > 0) return true;
+        try {
+            jdbcTemplate.update(
+                    """
+                            INSERT INTO order_views
+                                (store_id, id, name, order_status, financial_status, fulfillment_status, return_status,
+                                 customer_id, email, phone, location_id, total_price,
+                                 created_on, modified_on, processed_on, closed_on, cancelled_on, data)
+                            VALUES
+                                (:storeId, :id, :name, :orderStatus, :financialStatus, :fulfillmentStatus, :returnStatus,
+                                 :customerId, :email, :phone, :locationId, :totalPrice,
+                                 :createdOn, :modifiedOn, :processedOn, :closedOn, :cancelledOn, :data)
+                            """,
+                    params);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // row đã có (vừa được insert bởi lần ghi khác hoặc mới hơn view này)
+            return updateView(params) > 0;
+        }
+    }
+
+    private int updateView(MapSqlParameterSource params) {
+        return jdbcTemplate.update(
+                """
+                        UPDATE order_views
+                        SET name = :name, order_status = :orderStatus, financial_status = :financialStatus,
+                            fulfillment_status = :fulfillmentStatus, return_status = :returnStatus,
+                            customer_id = :customerId, email = :email, phone = :phone, location_id = :locationId,
+                            total_price = :totalPrice, created_on = :createdOn, modified_on = :modifiedOn,
+                            processed_on = :processedOn, closed_on = :closedOn, cancelled_on = :cancelledOn,
+                            data = :data
+                        WHERE store_id = :storeId AND id = :id AND modified_on <= :modifiedOn
+                        """,
+                params);
+    }
+
+    @Override
+    public List<OrderViewDto> searchViews(int storeId, OrderViewFilter filter, OrderViewCursor after, int limit) {
+        var params = new MapSqlParameterSource()
+                .addValue("storeId", storeId)
+                .addValue("limit", limit);
+        var sql = new StringBuilder("SELECT v.* FROM order_views v WHERE v.store_id = :storeId");
+        appendFilter(sql, params, filter);
+        if (after != null) {
+            sql.append(" AND (v.created_on < :afterCreatedOn OR (v.created_on = :afterCreatedOn AND v.id < :afterId))");
+            params.addValue("afterCreatedOn", Timestamp.from(after.createdOn()))
+                    .addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY v.created_on DESC, v.id DESC OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY");
+        return jdbcTemplate.query(sql.toString(), params, VIEW_ROW_MAPPER);
+    }
+
+    @Override
+    public int countViews(int storeId, OrderViewFilter filter, int cap) {
+        var params = new MapSqlParameterSource()
+                .addValue("storeId", storeId)
+                .addValue("cap", cap);
+        var sql = new StringBuilder("SELECT COUNT(*) FROM (SELECT v.id FROM order_views v WHERE v.store_id = :storeId");
+        appendFilter(sql, params, filter);
+        // dừng quét index sau cap dòng, không COUNT toàn bộ
+        sql.append(" ORDER BY v.created_on DESC, v.id DESC OFFSET 0 ROWS FETCH NEXT :cap ROWS ONLY) t");
+        var count = jdbcTemplate.queryForObject(sql.toString(), params, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static void appendFilter(StringBuilder sql, MapSqlParameterSource params, OrderViewFilter filter) {
+        if (filter == null) return;
+        if (filter.getStatus() != null) {
+            sql.append(" AND v.order_status = :status");
+            params.addValue("status", filter.getStatus().name());
+        }
+        if (filter.getFinancialStatus() != null) {
+            sql.append(" AND v.financial_status = :financialStatus");
+            params.addValue("financialStatus", filter.getFinancialStatus().name());
+        }
+        if (filter.getFulfillmentStatus() != null) {
+            sql.append(" AND v.fulfillment_status = :fulfillmentStatus");
+            params.addValue("fulfillmentStatus", filter.getFulfillmentStatus().name());
+        }
+        if (filter.getLocationId() != null) {
+            sql.append(" AND v.location_id = :locationId");
+            params.addValue("locationId", filter.getLocationId());
+        }
+        if (filter.getCustomerId() != null) {
+            sql.append(" AND v.customer_id = :customerId");
+            params.addValue("customerId", filter.getCustomerId());
+        }
+        if (filter.getTag() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM order_tags t WHERE t.store_id = v.store_id AND t.tag = :tag AND t.order_id = v.id)");
+            params.addValue("tag", filter.getTag());
+        }
+        if (filter.getCreatedOnMin() != null) {
+            sql.append(" AND v.created_on >= :createdOnMin");
+            params.addValue("createdOnMin", Timestamp.from(filter.getCreatedOnMin()));
+        }
+        if (filter.getCreatedOnMax() != null) {
+            sql.append(" AND v.created_on <= :createdOnMax");
+            params.addValue("createdOnMax", Timestamp.from(filter.getCreatedOnMax()));
+        }
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String value) {
+        return value == null ? null : Enum.valueOf(type, value);
+    }
+
+    private static Timestamp toTimestamp(Instant value) {
+        return value == null ? null : Timestamp.from(value);
+    }
+
+    private static Instant toInstant(ResultSet rs, String column) throws SQLException {
+        var value = rs.getTimestamp(column);
+        return value == null ? null : value.toInstant();
+    }
 }
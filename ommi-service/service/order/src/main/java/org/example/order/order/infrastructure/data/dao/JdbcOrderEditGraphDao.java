@@ -0,0 +1,385 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.example.order.order.domain.edit.model.OrderStagedChange;
+import org.example.order.order.domain.order.model.DiscountAllocation;
+import org.example.order.order.domain.order.model.DiscountApplication;
+import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.model.TaxLine;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Load order + order edit trong 1 lần gọi DB: các câu SELECT được gửi chung 1 batch và đọc lần lượt từng result set.
+ * Driver không hỗ trợ nhiều result set (H2) thì chạy lần lượt từng câu.
+ * Row mapper viết tay thay cho BeanPropertyRowMapper (không reflection / conversion service cho mỗi row)
+ */
+@Repository
+@RequiredArgsConstructor
+public class JdbcOrderEditGraphDao implements OrderEditGraphDao {
+
+    private static final String ORDER_ID_OF_EDIT =
+            "(SELECT order_id FROM order_edits WHERE store_id = :storeId AND id = :orderEditId)";
+
+    private static final RowMapper<OrderEditDto> ORDER_EDIT_ROW_MAPPER = (rs, rowNum) -> {
+        var orderEdit = new OrderEditDto();
+        orderEdit.setStoreId(rs.getInt("store_id"));
+        orderEdit.setId(rs.getInt("id"));
+        orderEdit.setOrderId(rs.getInt("order_id"));
+        orderEdit.setOrderVersion(rs.getInt("order_version"));
+        orderEdit.setCommitted(rs.getBoolean("committed"));
+        orderEdit.setCommittedAt(getInstant(rs, "committed_at"));
+        var currency = rs.getString("currency");
+        orderEdit.setCurrency(currency == null ? null : Currency.getInstance(currency.trim()));
+        orderEdit.setSubtotalLineItemQuantity(rs.getBigDecimal("subtotal_line_item_quantity"));
+        orderEdit.setSubtotalPrice(rs.getBigDecimal("subtotal_price"));
+        orderEdit.setCartDiscountAmount(rs.getBigDecimal("cart_discount_amount"));
+        orderEdit.setTotalPrice(rs.getBigDecimal("total_price"));
+        orderEdit.setTotalOutstanding(rs.getBigDecimal("total_outstanding"));
+        orderEdit.setCreatedAt(getInstant(rs, "created_at"));
+        orderEdit.setUpdatedAt(getInstant(rs, "updated_at"));
+        orderEdit.setVersion(getInteger(rs, "version"));
+        return orderEdit;
+    };
+
+    private static final RowMapper<LineItemDto> LINE_ITEM_ROW_MAPPER = (rs, rowNum) -> {
+        var lineItem = new LineItemDto();
+        lineItem.setStoreId(rs.getInt("store_id"));
+        lineItem.setOrderId(rs.getInt("order_id"));
+        lineItem.setId(rs.getInt("id"));
+        lineItem.setQuantity(rs.getInt("quantity"));
+        lineItem.setPrice(rs.getBigDecimal("price"));
+        lineItem.setFulfillableQuantity(rs.getInt("fulfillable_quantity"));
+        lineItem.setFulfillmentStatus(getEnum(rs, "fulfillment_status", LineItem.FulfillmentStatus.class));
+        lineItem.setVariantId(getInteger(rs, "variant_id"));
+        lineItem.setProductId(getInteger(rs, "product_id"));
+        lineItem.setProductExists(rs.getBoolean("product_exists"));
+        lineItem.setName(rs.getString("name"));
+        lineItem.setTitle(rs.getString("title"));
+        lineItem.setVariantTitle(rs.getString("variant_title"));
+        lineItem.setVendor(rs.getString("vendor"));
+        lineItem.setSku(rs.getString("sku"));
+        lineItem.setGrams(rs.getInt("grams"));
+        lineItem.setRequireShipping(rs.getBoolean("require_shipping"));
+        lineItem.setInventoryManagement(rs.getString("inventory_management"));
+        lineItem.setRestockable(rs.getBoolean("restockable"));
+        lineItem.setInventoryItemId(getInteger(rs, "inventory_item_id"));
+        lineItem.setUnit(rs.getString("unit"));
+        lineItem.setTaxable(rs.getBoolean("taxable"));
+        lineItem.setDiscountedUnitPrice(rs.getBigDecimal("discounted_unit_price"));
+        lineItem.setDiscountedTotal(rs.getBigDecimal("discounted_total"));
+        lineItem.setOriginalTotal(rs.getBigDecimal("original_total"));
+        lineItem.setCurrentQuantity(rs.getInt("current_quantity"));
+        lineItem.setNonFulfillableQuantity(rs.getInt("non_fulfillable_quantity"));
+        lineItem.setRefundableQuantity(rs.getInt("refundable_quantity"));
+        lineItem.setCombinationLineKey(rs.getString("combination_line_key"));
+        lineItem.setVersion(getInteger(rs, "version"));
+        return lineItem;
+    };
+
+    private static final RowMapper<DiscountApplicationDto> DISCOUNT_APPLICATION_ROW_MAPPER = (rs, rowNum) -> {
+        var application = new DiscountApplicationDto();
+        application.setStoreId(rs.getInt("store_id"));
+        application.setOrderId(rs.getInt("order_id"));
+        application.setId(rs.getInt("id"));
+        application.setValue(rs.getBigDecimal("value"));
+        application.setValueType(getEnum(rs, "value_type", DiscountApplication.ValueType.class));
+        application.setTargetType(getEnum(rs, "target_type", DiscountApplication.TargetType.class));
+        application.setCreatedAt(getInstant(rs, "created_at"));
+        application.setVersion(getInteger(rs, "version"));
+        application.setCode(rs.getString("code"));
+        application.setTitle(rs.getString("title"));
+        application.setDescription(rs.getString("description"));
+        application.setRuleType(getEnum(rs, "rule_type", DiscountApplication.RuleType.class));
+        return application;
+    };
+
+    private static final RowMapper<DiscountAllocationDto> DISCOUNT_ALLOCATION_ROW_MAPPER = (rs, rowNum) -> {
+        var allocation = new DiscountAllocationDto();
+        allocation.setId(rs.getInt("id"));
+        allocation.setStoreId(rs.getInt("store_id"));
+        allocation.setOrderId(rs.getInt("order_id"));
+        allocation.setAmount(rs.getBigDecimal("amount"));
+        allocation.setTargetId(getInteger(rs, "target_id"));
+        allocation.setTargetType(getEnum(rs, "target_type", DiscountAllocation.TargetType.class));
+        allocation.setApplicationId(rs.getInt("application_id"));
+        allocation.setApplicationIndex(rs.getInt("application_index"));
+        allocation.setCreatedAt(getInstant(rs, "created_at"));
+        allocation.setVersion(getInteger(rs, "version"));
+        return allocation;
+    };
+
+    private static final RowMapper<TaxLineDto> TAX_LINE_ROW_MAPPER = (rs, rowNum) -> {
+        var taxLine = new TaxLineDto();
+        taxLine.setId(rs.getInt("id"));
+        taxLine.setStoreId(rs.getInt("store_id"));
+        taxLine.setOrderId(rs.getInt("order_id"));
+        taxLine.setTitle(rs.getString("title"));
+        taxLine.setPrice(rs.getBigDecimal("price"));
+        taxLine.setRate(rs.getBigDecimal("rate"));
+        taxLine.setTargetId(getInteger(rs, "target_id"));
+        taxLine.setTargetType(getEnum(rs, "target_type", TaxLine.TargetType.class));
+        taxLine.setQuantity(getInteger(rs, "quantity"));
+        taxLine.setCustom(rs.getBoolean("custom"));
+        taxLine.setVersion(getInteger(rs, "version"));
+        return taxLine;
+    };
+
+    private static final RowMapper<RefundTaxLineDto> REFUND_TAX_LINE_ROW_MAPPER = (rs, rowNum) -> {
+        var refundTaxLine = new RefundTaxLineDto();
+        refundTaxLine.setStoreId(rs.getInt("store_id"));
+        refundTaxLine.setOrderId(rs.getInt("order_id"));
+        refundTaxLine.setId(rs.getInt("id"));
+        refundTaxLine.setTaxLineId(rs.getInt("tax_line_id"));
+        refundTaxLine.setAmount(rs.getBigDecimal("amount"));
+        refundTaxLine.setCreatedAt(getInstant(rs, "created_at"));
+        return refundTaxLine;
+    };
+
+    private static final RowMapper<OrderEditLineItemDto> EDIT_LINE_ITEM_ROW_MAPPER = (rs, rowNum) -> {
+        var lineItem = new OrderEditLineItemDto();
+        lineItem.setStoreId(rs.getInt("store_id"));
+        lineItem.setEditingId(rs.getInt("editing_id"));
+        lineItem.setId(getUuid(rs, "id"));
+        lineItem.setVariantId(getInteger(rs, "variant_id"));
+        lineItem.setProductId(getInteger(rs, "product_id"));
+        lineItem.setLocationId(getInteger(rs, "location_id"));
+        lineItem.setSku(rs.getString("sku"));
+        lineItem.setTitle(rs.getString("title"));
+        lineItem.setVariantTitle(rs.getString("variant_title"));
+        lineItem.setTaxable(rs.getBoolean("taxable"));
+        lineItem.setRequireShipping(rs.getBoolean("require_shipping"));
+        lineItem.setRestockable(rs.getBoolean("restockable"));
+        lineItem.setEditableQuantity(rs.getBigDecimal("editable_quantity"));
+        lineItem.setOriginalUnitPrice(rs.getBigDecimal("original_unit_price"));
+        lineItem.setDiscountedUnitPrice(rs.getBigDecimal("discounted_unit_price"));
+        lineItem.setEditableSubtotal(rs.getBigDecimal("editable_subtotal"));
+        lineItem.setHasStagedDiscount(rs.getBoolean("has_staged_discount"));
+        lineItem.setCreatedAt(getInstant(rs, "created_at"));
+        lineItem.setUpdatedAt(getInstant(rs, "updated_at"));
+        lineItem.setVersion(getInteger(rs, "version"));
+        return lineItem;
+    };
+
+    private static final RowMapper<OrderEditDiscountApplicationDto> EDIT_DISCOUNT_APPLICATION_ROW_MAPPER = (rs, rowNum) -> {
+        var application = new OrderEditDiscountApplicationDto();
+        application.setStoreId(rs.getInt("store_id"));
+        application.setEditingId(rs.getInt("editing_id"));
+        application.setId(getUuid(rs, "id"));
+        application.setDescription(rs.getString("description"));
+        application.setValue(rs.getBigDecimal("value"));
+        application.setValueType(getEnum(rs, "value_type", DiscountApplication.ValueType.class));
+        application.setTargetType(getEnum(rs, "target_type", DiscountApplication.TargetType.class));
+        application.setUpdatedAt(getInstant(rs, "updated_at"));
+        application.setVersion(getInteger(rs, "version"));
+        return application;
+    };
+
+    private static final RowMapper<OrderEditDiscountAllocationDto> EDIT_DISCOUNT_ALLOCATION_ROW_MAPPER = (rs, rowNum) -> {
+        var allocation = new OrderEditDiscountAllocationDto();
+        allocation.setStoreId(rs.getInt("store_id"));
+        allocation.setEditingId(rs.getInt("editing_id"));
+        allocation.setId(getUuid(rs, "id"));
+        allocation.setAmount(rs.getBigDecimal("amount"));
+        allocation.setApplicationId(getUuid(rs, "application_id"));
+        allocation.setLineItemId(getUuid(rs, "line_item_id"));
+        allocation.setUpdatedAt(getInstant(rs, "updated_at"));
+        allocation.setVersion(getInteger(rs, "version"));
+        return allocation;
+    };
+
+    private static final RowMapper<OrderEditTaxLineDto> EDIT_TAX_LINE_ROW_MAPPER = (rs, rowNum) -> {
+        var taxLine = new OrderEditTaxLineDto();
+        taxLine.setStoreId(rs.getInt("store_id"));
+        taxLine.setEditingId(rs.getInt("editing_id"));
+        taxLine.setId(getUuid(rs, "id"));
+        taxLine.setTargetId(rs.getString("target_id"));
+        taxLine.setTitle(rs.getString("title"));
+        taxLine.setRate(rs.getBigDecimal("rate"));
+        taxLine.setPrice(rs.getBigDecimal("price"));
+        taxLine.setQuantity(rs.getBigDecimal("quantity"));
+        taxLine.setUpdatedAt(getInstant(rs, "updated_at"));
+        taxLine.setVersion(getInteger(rs, "version"));
+        return taxLine;
+    };
+
+    private static final RowMapper<OrderEditStagedChangeDto> STAGED_CHANGE_ROW_MAPPER = (rs, rowNum) -> {
+        var stagedChange = new OrderEditStagedChangeDto();
+        stagedChange.setStoreId(rs.getInt("store_id"));
+        stagedChange.setEditingId(rs.getInt("editing_id"));
+        stagedChange.setId(getUuid(rs, "id"));
+        stagedChange.setType(getEnum(rs, "type", OrderStagedChange.ActionType.class));
+        stagedChange.setValue(rs.getString("value"));
+        stagedChange.setUpdatedAt(getInstant(rs, "updated_at"));
+        stagedChange.setVersion(getInteger(rs, "version"));
+        return stagedChange;
+    };
+
+    /**
+     * Thứ tự câu query = thứ tự result set trả về, order_edits phải đứng đầu
+     */
+    private static final List<GraphQuery<?>> QUERIES = List.of(
+            new GraphQuery<>(
+                    "SELECT * FROM order_edits WHERE store_id = :storeId AND id = :orderEditId",
+                    ORDER_EDIT_ROW_MAPPER,
+                    (graph, rows) -> graph.setOrderEdit(rows.isEmpty() ? null : rows.get(0))),
+            new GraphQuery<>(
+                    "SELECT * FROM line_items WHERE store_id = :storeId AND order_id = " + ORDER_ID_OF_EDIT,
+                    LINE_ITEM_ROW_MAPPER,
+                    OrderEditGraphDto::setLineItems),
+            new GraphQuery<>(
+                    "SELECT * FROM discount_applications WHERE store_id = :storeId AND order_id = " + ORDER_ID_OF_EDIT,
+                    DISCOUNT_APPLICATION_ROW_MAPPER,
+                    OrderEditGraphDto::setDiscountApplications),
+            new GraphQuery<>(
+                    "SELECT * FROM discount_allocations WHERE store_id = :storeId AND order_id = " + ORDER_ID_OF_EDIT,
+                    DISCOUNT_ALLOCATION_ROW_MAPPER,
+                    OrderEditGraphDto::setDiscountAllocations),
+            new GraphQuery<>(
+                    "SELECT * FROM tax_lines WHERE store_id = :storeId AND order_id = " + ORDER_ID_OF_EDIT,
+                    TAX_LINE_ROW_MAPPER,
+                    OrderEditGraphDto::setTaxLines),
+            new GraphQuery<>(
+                    "SELECT * FROM refund_tax_lines WHERE store_id = :storeId AND order_id = " + ORDER_ID_OF_EDIT,
+                    REFUND_TAX_LINE_ROW_MAPPER,
+                    OrderEditGraphDto::setRefundTaxLines),
+            new GraphQuery<>(
+                    "SELECT * FROM order_edit_line_items WHERE store_id = :storeId AND editing_id = :orderEditId",
+                    EDIT_LINE_ITEM_ROW_MAPPER,
+                    OrderEditGraphDto::setEditLineItems),
+            new GraphQuery<>(
+                    "SELECT * FROM order_edit_discount_applications WHERE store_id = :storeId AND editing_id = :orderEditId",
+                    EDIT_DISCOUNT_APPLICATION_ROW_MAPPER,
+                    OrderEditGraphDto::setEditDiscountApplications),
+            new GraphQuery<>(
+                    "SELECT * FROM order_edit_discount_allocations WHERE store_id = :storeId AND editing_id = :orderEditId",
+                    EDIT_DISCOUNT_ALLOCATION_ROW_MAPPER,
+                    OrderEditGraphDto::setEditDiscountAllocations),
+            new GraphQuery<>(
+                    "SELECT * FROM order_edit_tax_lines WHERE store_id = :storeId AND editing_id = :orderEditId",
+                    EDIT_TAX_LINE_ROW_MAPPER,
+                    OrderEditGraphDto::setEditTaxLines),
+            new GraphQuery<>(
+                    "SELECT * FROM order_edit_staged_changes WHERE store_id = :storeId AND editing_id = :orderEditId",
+                    STAGED_CHANGE_ROW_MAPPER,
+                    OrderEditGraphDto::setStagedChanges)
+    );
+
+    private static final String BATCH_SQL = QUERIES.stream()
+            .map(GraphQuery::sql)
+            .collect(Collectors.joining(";\n", "SET NOCOUNT ON;\n", ";"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private volatile Boolean multipleResultSets;
+
+    @Override
+    public OrderEditGraphDto getByOrderEditId(int storeId, int orderEditId) {
+        var params = new MapSqlParameterSource()
+                .addValue("storeId", storeId)
+                .addValue("orderEditId", orderEditId);
+
+        var graph = supportsMultipleResultSets()
+                ? jdbcTemplate.execute(BATCH_SQL, params, (PreparedStatementCallback<OrderEditGraphDto>) this::readBatch)
+                : querySequentially(params);
+
+        return graph == null || graph.getOrderEdit() == null ? null : graph;
+    }
+
+    private OrderEditGraphDto readBatch(PreparedStatement statement) throws SQLException {
+        var graph = new OrderEditGraphDto();
+        boolean hasResultSet = statement.execute();
+        for (var query : QUERIES) {
+            while (!hasResultSet && statement.getUpdateCount() != -1) {
+                hasResultSet = statement.getMoreResults();
+            }
+            if (!hasResultSet) {
+                throw new IllegalStateException("Missing result set for: " + query.sql());
+            }
+            try (var resultSet = statement.getResultSet()) {
+                query.read(resultSet, graph);
+            }
+            hasResultSet = statement.getMoreResults();
+        }
+        return graph;
+    }
+
+    private OrderEditGraphDto querySequentially(MapSqlParameterSource params) {
+        var graph = new OrderEditGraphDto();
+        for (var query : QUERIES) {
+            query.query(jdbcTemplate, params, graph);
+            if (graph.getOrderEdit() == null) {
+                return null;
+            }
+        }
+        return graph;
+    }
+
+    private boolean supportsMultipleResultSets() {
+        var supported = this.multipleResultSets;
+        if (supported == null) {
+            supported = jdbcTemplate.getJdbcTemplate().execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.getMetaData().supportsMultipleResultSets());
+            this.multipleResultSets = supported;
+        }
+        return Boolean.TRUE.equals(supported);
+    }
+
+    private static Instant getInstant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static UUID getUuid(ResultSet rs, String column) throws SQLException {
+        var value = rs.getObject(column);
+        if (value == null) return null;
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+
+    /**
+     * Enum lưu dạng STRING hoặc ORDINAL (giống cách BeanPropertyRowMapper convert)
+     */
+    private static <E extends Enum<E>> E getEnum(ResultSet rs, String column, Class<E> type) throws SQLException {
+        var value = rs.getObject(column);
+        if (value == null) return null;
+        if (value instanceof Number ordinal) return type.getEnumConstants()[ordinal.intValue()];
+        return Enum.valueOf(type, value.toString().trim());
+    }
+
+    private record GraphQuery<T>(String sql, RowMapper<T> rowMapper, BiConsumer<OrderEditGraphDto, List<T>> setter) {
+
+        void read(ResultSet resultSet, OrderEditGraphDto graph) throws SQLException {
+            List<T> rows = new ArrayList<>();
+            int rowNum = 0;
+            while (resultSet.next()) {
+                rows.add(rowMapper.mapRow(resultSet, rowNum++));
+            }
+            setter.accept(graph, rows);
+        }
+
+        void query(NamedParameterJdbcTemplate jdbcTemplate, MapSqlParameterSource params, OrderEditGraphDto graph) {
+            setter.accept(graph, jdbcTemplate.query(sql, params, rowMapper));
+        }
+    }
+}
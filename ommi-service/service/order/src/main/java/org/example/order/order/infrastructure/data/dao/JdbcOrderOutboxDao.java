@@ -0,0 +1,158 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng order_outbox_events: xem entity OrderOutboxEvent (infrastructure.data.schema)
+ */
+@Repository
+@RequiredArgsConstructor
+public class JdbcOrderOutboxDao implements OrderOutboxDao {
+
+    private static final RowMapper<OrderOutboxDto> OUTBOX_ROW_MAPPER = (rs, rowNum) -> {
+        var event = new OrderOutboxDto();
+        event.setId(rs.getLong("id"));
+        event.setStoreId(rs.getInt("store_id"));
+        event.setOrderId(rs.getInt("order_id"));
+        event.setEventType(rs.getString("event_type"));
+        event.setHandler(rs.getString("handler"));
+        event.setPayload(rs.getString("payload"));
+        event.setStatus(rs.getString("status"));
+        event.setAttempts(rs.getInt("attempts"));
+        event.setNextAttemptAt(rs.getTimestamp("next_attempt_at").toInstant());
+        event.setLastError(rs.getString("last_error"));
+        event.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        return event;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insert(List<OrderOutboxDto> events) {
+        var params = events.stream()
+                .map(event -> new MapSqlParameterSource()
+                        .addValue("storeId", event.getStoreId())
+                        .addValue("orderId", event.getOrderId())
+                        .addValue("eventType", event.getEventType())
+                        .addValue("handler", event.getHandler())
+                        .addValue("payload", event.getPayload())
+                        .addValue("status", STATUS_PENDING)
+                        .addValue("nextAttemptAt", Timestamp.from(event.getNextAttemptAt()))
+                        .addValue("createdAt", Timestamp.from(event.getCreatedAt())))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                """
+                        INSERT INTO order_outbox_events
+                            (store_id, order_id, event_type, handler, payload, status, attempts, next_attempt_at, created_at)
+                        VALUES
+                            (:storeId, :orderId, :eventType, :handler, :payload, :status, 0, :nextAttemptAt, :createdAt)
+                        """,
+                params);
+    }
+
+    @Override
+    public List<OrderOutboxDto> findDispatchable(Instant now, int limit) {
+        return jdbcTemplate.query(
+                """
+                        SELECT TOP (:limit) * FROM order_outbox_events o
+                        WHERE o.status = 'pending' AND o.next_attempt_at <= :now
+                        AND NOT EXISTS (
+                            SELECT 1 FROM order_outbox_events p
+                            WHERE p.store_id = o.store_id AND p.order_id = o.order_id AND p.id < o.id
+                            AND p.status IN ('pending', 'processing', 'dead')
+                        )
+                        ORDER BY o.id
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("now", Timestamp.from(now))
+                        .addValue("limit", limit),
+                OUTBOX_ROW_MAPPER);
+    }
+
+    @Override
+    public boolean claim(long id, Instant now) {
+        return jdbcTemplate.update(
+                """
+                        UPDATE order_outbox_events SET status = 'processing', claimed_at = :now
+                        WHERE id = :id AND status = 'pending'
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("now", Timestamp.from(now))) == 1;
+    }
+
+    @Override
+    public void delete(long id) {
+        jdbcTemplate.update(
+                "DELETE FROM order_outbox_events WHERE id = :id",
+                new MapSqlParameterSource("id", id));
+    }
+
+    @Override
+    public void retryLater(long id, int attempts, Instant nextAttemptAt, String error) {
+        jdbcTemplate.update(
+                """
+                        UPDATE order_outbox_events
+                        SET status = 'pending', attempts = :attempts, next_attempt_at = :nextAttemptAt,
+                            claimed_at = NULL, last_error = :error
+                        WHERE id = :id
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("attempts", attempts)
+                        .addValue("nextAttemptAt", Timestamp.from(nextAttemptAt))
+                        .addValue("error", error));
+    }
+
+    @Override
+    public void markDead(long id, int attempts, String error) {
+        jdbcTemplate.update(
+                """
+                        UPDATE order_outbox_events
+                        SET status = 'dead', attempts = :attempts, claimed_at = NULL, last_error = :error
+                        WHERE id = :id
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("attempts", attempts)
+                        .addValue("error", error));
+    }
+
+    @Override
+    public int releaseStale(Instant claimedBefore) {
+        return jdbcTemplate.update(
+                """
+                        UPDATE order_outbox_events SET status = 'pending', claimed_at = NULL
+                        WHERE status = 'processing' AND claimed_at < :claimedBefore
+                        """,
+                new MapSqlParameterSource("claimedBefore", Timestamp.from(claimedBefore)));
+    }
+
+    @Override
+    public Map<String, Long> countPendingByHandler(Collection<String> handlers) {
+        Map<String, Long> counts = new HashMap<>();
+        if (handlers.isEmpty()) return counts;
+        jdbcTemplate.query(
+                """
+                        SELECT handler, COUNT(*) AS pending FROM order_outbox_events
+                        WHERE handler IN (:handlers) AND status IN ('pending', 'processing')
+                        GROUP BY handler
+                        """,
+                new MapSqlParameterSource("handlers", handlers),
+                rs -> {
+                    counts.put(rs.getString("handler"), rs.getLong("pending"));
+                });
+        return counts;
+    }
+}
@@ -1,9 +1,10 @@
 package org.example.order.order.infrastructure.data.dao;
 
 import lombok.RequiredArgsConstructor;
+import org.example.order.order.domain.draftorder.model.VariantType;
 import org.example.order.order.infrastructure.data.dto.ProductDto;
 import org.example.order.order.infrastructure.data.dto.VariantDto;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -14,18 +15,48 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JdbcProductDao implements ProductDao {
 
+    /**
+     * Map tay thay cho BeanPropertyRowMapper (bỏ reflection trên hot path tạo/sửa order)
+     */
+    private static final RowMapper<ProductDto> PRODUCT_ROW_MAPPER = (rs, rowNum) -> {
+        var product = new ProductDto();
+        product.setId(rs.getInt("id"));
+        product.setName(rs.getString("name"));
+        product.setVendor(rs.getString("vendor"));
+        return product;
+    };
+
+    private static final RowMapper<VariantDto> VARIANT_ROW_MAPPER = (rs, rowNum) -> {
+        var variant = new VariantDto();
+        variant.setId(rs.getInt("id"));
+        variant.setProductId(rs.getInt("productId"));
+        variant.setTitle(rs.getString("title"));
+        variant.setSku(rs.getString("sku"));
+        variant.setUnit(rs.getString("unit"));
+        variant.setPrice(rs.getBigDecimal("price"));
+        variant.setGrams(rs.getInt("grams"));
+        variant.setInventoryManagement(rs.getString("inventoryManagement"));
+        variant.setInventoryPolicy(rs.getString("inventoryPolicy"));
+        variant.setInventoryItemId(rs.getObject("inventoryItemId", Integer.class));
+        variant.setRequiresShipping(rs.getBoolean("requiresShipping"));
+        variant.setTaxable(rs.getBoolean("taxable"));
+        var type = rs.getString("type");
+        variant.setType(type == null ? null : VariantType.valueOf(type));
+        return variant;
+    };
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Override
     public List<ProductDto> findProductByListId(int storeId, List<Integer> productIds) {
         return jdbcTemplate.query(
                 """
-                        SELECT * FROM products WHERE storeId = :storeId AND id IN :productIds
+                        SELECT id, name, vendor FROM products WHERE storeId = :storeId AND id IN :productIds
                         """,
                 new MapSqlParameterSource()
                         .addValue("storeId", storeId)
                         .addValue("productIds", productIds),
-                BeanPropertyRowMapper.newInstance(ProductDto.class)
+                PRODUCT_ROW_MAPPER
         );
     }
 
@@ -33,12 +64,15 @@ public class JdbcProductDao implements ProductDao {
     public List<VariantDto> findVariantByListId(int storeId, List<Integer> variantIds) {
         return jdbcTemplate.query(
                 """
-                        SELECT * FROM variants WHERE storeId = :storeId AND id IN :variantIds
+                        SELECT id, productId, title, sku, unit, price, grams,
+                               inventoryManagement, inventoryPolicy, inventoryItemId,
+                               requiresShipping, taxable, type
+                        FROM variants WHERE storeId = :storeId AND id IN :variantIds
                         """,
                 new MapSqlParameterSource()
                         .addValue("storeId", storeId)
                         .addValue("variantIds", variantIds),
-                BeanPropertyRowMapper.newInstance(VariantDto.class)
+                VARIANT_ROW_MAPPER
         );
     }
 }
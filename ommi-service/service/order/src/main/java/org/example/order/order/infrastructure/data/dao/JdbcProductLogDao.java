@@ -0,0 +1,64 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcProductLogDao implements ProductLogDao {
+
+    private static final RowMapper<ProductLogDto> PRODUCT_LOG_ROW_MAPPER = (rs, rowNum) -> {
+        var log = new ProductLogDto();
+        log.setId(rs.getLong("id"));
+        log.setStoreId(rs.getInt("storeId"));
+        log.setProductId(rs.getInt("productId"));
+        return log;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public long getLastLogId() {
+        var lastLogId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM productLogs",
+                new MapSqlParameterSource(),
+                Long.class);
+        return lastLogId == null ? 0 : lastLogId;
+    }
+
+    @Override
+    public List<ProductLogDto> getLogsAfter(long logId, int limit) {
+        return jdbcTemplate.query(
+                """
+                        SELECT TOP (:limit) id, storeId, productId FROM productLogs
+                        WHERE id > :logId
+                        ORDER BY id
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("logId", logId)
+                        .addValue("limit", limit),
+                PRODUCT_LOG_ROW_MAPPER
+        );
+    }
+
+    @Override
+    public List<ProductLogDto> getLogsByIds(List<Long> logIds) {
+        List<ProductLogDto> logs = new ArrayList<>();
+        // SQL Server giới hạn 2100 tham số mỗi câu lệnh
+        for (var ids : Lists.partition(logIds, 1000)) {
+            logs.addAll(jdbcTemplate.query(
+                    "SELECT id, storeId, productId FROM productLogs WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", ids),
+                    PRODUCT_LOG_ROW_MAPPER
+            ));
+        }
+        return logs;
+    }
+}
@@ -1,10 +1,34 @@
 package org.example.order.order.infrastructure.data.dao;
 
 import org.example.order.order.infrastructure.data.dto.OrderDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewCursor;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewFilter;
+
+import java.util.List;
 
 public interface OrderDao {
 
     OrderDto getByReference(int storeId, String reference);
 
     OrderDto getById(int storeId, int id);
+
+    OrderViewDto getViewById(int storeId, int id);
+
+    /**
+     * Ghi đè view của order (tạo mới nếu chưa có)
+     *
+     * @return false nếu view đang lưu mới hơn (modified_on lớn hơn) => không ghi
+     */
+    boolean saveView(OrderViewDto view);
+
+    /**
+     * Tối đa limit view sau cursor (null => trang đầu), sắp xếp created_on desc, id desc
+     */
+    List<OrderViewDto> searchViews(int storeId, OrderViewFilter filter, OrderViewCursor after, int limit);
+
+    /**
+     * Đếm view khớp filter nhưng dừng ở cap: kết quả = cap nghĩa là có ít nhất cap order
+     */
+    int countViews(int storeId, OrderViewFilter filter, int cap);
 }
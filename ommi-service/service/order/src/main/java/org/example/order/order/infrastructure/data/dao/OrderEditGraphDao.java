@@ -0,0 +1,8 @@
+package org.example.order.order.infrastructure.data.dao;
+
+public interface OrderEditGraphDao {
+    /**
+     * Toàn bộ dữ liệu order + order edit cần để tính CalculatedOrder, null nếu không có order edit
+     */
+    OrderEditGraphDto getByOrderEditId(int storeId, int orderEditId);
+}
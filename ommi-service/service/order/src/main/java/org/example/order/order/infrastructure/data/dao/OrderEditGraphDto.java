@@ -0,0 +1,24 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderEditGraphDto {
+    private OrderEditDto orderEdit;
+
+    private List<LineItemDto> lineItems = List.of();
+    private List<DiscountApplicationDto> discountApplications = List.of();
+    private List<DiscountAllocationDto> discountAllocations = List.of();
+    private List<TaxLineDto> taxLines = List.of();
+    private List<RefundTaxLineDto> refundTaxLines = List.of();
+
+    private List<OrderEditLineItemDto> editLineItems = List.of();
+    private List<OrderEditDiscountApplicationDto> editDiscountApplications = List.of();
+    private List<OrderEditDiscountAllocationDto> editDiscountAllocations = List.of();
+    private List<OrderEditTaxLineDto> editTaxLines = List.of();
+    private List<OrderEditStagedChangeDto> stagedChanges = List.of();
+}
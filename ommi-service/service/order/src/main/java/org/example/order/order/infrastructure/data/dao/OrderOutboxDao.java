@@ -0,0 +1,36 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface OrderOutboxDao {
+    String STATUS_PENDING = "pending";
+
+    void insert(List<OrderOutboxDto> events);
+
+    /**
+     * Các event đến hạn xử lý, mỗi order tối đa 1 event (event cũ nhất chưa xử lý xong).
+     * Event dead vẫn chặn các event sau của cùng order (giữ thứ tự) cho đến khi được xử lý tay: xoá hoặc trả về pending
+     */
+    List<OrderOutboxDto> findDispatchable(Instant now, int limit);
+
+    boolean claim(long id, Instant now);
+
+    void delete(long id);
+
+    void retryLater(long id, int attempts, Instant nextAttemptAt, String error);
+
+    void markDead(long id, int attempts, String error);
+
+    /**
+     * Event bị claim nhưng không xử lý xong (node chết giữa chừng) => trả lại pending
+     */
+    int releaseStale(Instant claimedBefore);
+
+    /**
+     * Số event chưa xử lý xong (pending, processing) theo handler
+     */
+    Map<String, Long> countPendingByHandler(Collection<String> handlers);
+}
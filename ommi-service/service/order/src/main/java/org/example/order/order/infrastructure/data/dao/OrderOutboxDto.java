@@ -0,0 +1,25 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class OrderOutboxDto {
+    private long id;
+    private int storeId;
+    private int orderId;
+
+    private String eventType;
+    private String handler;
+    private String payload;
+
+    private String status;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String lastError;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,17 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import java.util.List;
+
+/**
+ * Đọc ProductLogs do product service ghi cùng transaction với mỗi lần lưu product
+ */
+public interface ProductLogDao {
+    long getLastLogId();
+
+    List<ProductLogDto> getLogsAfter(long logId, int limit);
+
+    /**
+     * Log theo id (id không tồn tại thì bỏ qua)
+     */
+    List<ProductLogDto> getLogsByIds(List<Long> logIds);
+}
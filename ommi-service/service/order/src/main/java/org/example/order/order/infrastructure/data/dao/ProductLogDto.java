@@ -0,0 +1,12 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProductLogDto {
+    private long id;
+    private int storeId;
+    private int productId;
+}
@@ -0,0 +1,145 @@
+package org.example.order.order.infrastructure.data.dao;
+
+import org.example.order.order.domain.edit.model.*;
+import org.example.order.order.infrastructure.persistence.SessionOrderEditRepository;
+
+/**
+ * Order edit đang trong phiên (order-edit.session-store.enabled) chưa được ghi DB
+ * => phần order edit của graph lấy từ phiên, phần order vẫn đọc từ DB
+ */
+public class SessionOrderEditGraphDao implements OrderEditGraphDao {
+
+    private final OrderEditGraphDao delegate;
+    private final SessionOrderEditRepository sessionRepository;
+
+    private final OrderStagedChange.BaseAction.Converter actionConverter = new OrderStagedChange.BaseAction.Converter();
+
+    public SessionOrderEditGraphDao(OrderEditGraphDao delegate, SessionOrderEditRepository sessionRepository) {
+        this.delegate = delegate;
+        this.sessionRepository = sessionRepository;
+    }
+
+    @Override
+    public OrderEditGraphDto getByOrderEditId(int storeId, int orderEditId) {
+        var graph = this.delegate.getByOrderEditId(storeId, orderEditId);
+        if (graph == null) {
+            return null;
+        }
+        var session = this.sessionRepository.findSession(new OrderEditId(storeId, orderEditId));
+        if (session == null) {
+            return graph;
+        }
+
+        graph.setOrderEdit(toDto(session));
+        graph.setEditLineItems(session.getLineItems().stream().map(line -> toDto(session.getId(), line)).toList());
+        graph.setEditTaxLines(session.getTaxLines().stream().map(taxLine -> toDto(session.getId(), taxLine)).toList());
+        graph.setEditDiscountApplications(session.getDiscountApplications().stream()
+                .map(application -> toDto(session.getId(), application))
+                .toList());
+        graph.setEditDiscountAllocations(session.getDiscountAllocations().stream()
+                .map(allocation -> toDto(session.getId(), allocation))
+                .toList());
+        graph.setStagedChanges(session.getChanges().stream().map(change -> this.toDto(session.getId(), change)).toList());
+        return graph;
+    }
+
+    private static OrderEditDto toDto(OrderEdit orderEdit) {
+        var dto = new OrderEditDto();
+        dto.setStoreId(orderEdit.getId().getStoreId());
+        dto.setId(orderEdit.getId().getId());
+        dto.setOrderId(orderEdit.getOrderId());
+        dto.setOrderVersion(orderEdit.getOrderVersion());
+        dto.setCommitted(orderEdit.isCommitted());
+        dto.setCommittedAt(orderEdit.getCommittedAt());
+        dto.setCurrency(orderEdit.getCurrency());
+        dto.setSubtotalLineItemQuantity(orderEdit.getSubtotalLineItemQuantity());
+        dto.setSubtotalPrice(orderEdit.getSubtotalPrice());
+        dto.setCartDiscountAmount(orderEdit.getCartDiscountAmount());
+        dto.setTotalPrice(orderEdit.getTotalPrice());
+        dto.setTotalOutstanding(orderEdit.getTotalOutstanding());
+        dto.setCreatedAt(orderEdit.getCreatedAt());
+        dto.setUpdatedAt(orderEdit.getUpdatedAt());
+        // version trong DB không đổi khi sửa trong phiên => không dùng OrderEditSessionCache
+        dto.setVersion(null);
+        return dto;
+    }
+
+    private static OrderEditLineItemDto toDto(OrderEditId orderEditId, AddedLineItem lineItem) {
+        var dto = new OrderEditLineItemDto();
+        dto.setStoreId(orderEditId.getStoreId());
+        dto.setEditingId(orderEditId.getId());
+        dto.setId(lineItem.getId());
+        dto.setVariantId(lineItem.getVariantId());
+        dto.setProductId(lineItem.getProductId());
+        dto.setLocationId(lineItem.getLocationId());
+        dto.setSku(lineItem.getSku());
+        dto.setTitle(lineItem.getTitle());
+        dto.setVariantTitle(lineItem.getVariantTitle());
+        dto.setTaxable(lineItem.isTaxable());
+        dto.setRequireShipping(lineItem.isRequireShipping());
+        dto.setRestockable(lineItem.isRestockable());
+        dto.setEditableQuantity(lineItem.getEditableQuantity());
+        dto.setOriginalUnitPrice(lineItem.getOriginalUnitPrice());
+        dto.setDiscountedUnitPrice(lineItem.getDiscountedUnitPrice());
+        dto.setEditableSubtotal(lineItem.getEditableSubtotal());
+        dto.setHasStagedDiscount(lineItem.isHasStagedDiscount());
+        dto.setCreatedAt(lineItem.getCreatedAt());
+        dto.setUpdatedAt(lineItem.getUpdatedAt());
+        dto.setVersion(lineItem.getVersion());
+        return dto;
+    }
+
+    private static OrderEditTaxLineDto toDto(OrderEditId orderEditId, AddedTaxLine taxLine) {
+        var dto = new OrderEditTaxLineDto();
+        dto.setStoreId(orderEditId.getStoreId());
+        dto.setEditingId(orderEditId.getId());
+        dto.setId(taxLine.getId());
+        dto.setTargetId(taxLine.getTargetId());
+        dto.setTitle(taxLine.getTitle());
+        dto.setRate(taxLine.getRate());
+        dto.setPrice(taxLine.getPrice());
+        dto.setQuantity(taxLine.getQuantity());
+        dto.setUpdatedAt(taxLine.getUpdatedAt());
+        dto.setVersion(taxLine.getVersion());
+        return dto;
+    }
+
+    private static OrderEditDiscountApplicationDto toDto(OrderEditId orderEditId, AddedDiscountApplication application) {
+        var dto = new OrderEditDiscountApplicationDto();
+        dto.setStoreId(orderEditId.getStoreId());
+        dto.setEditingId(orderEditId.getId());
+        dto.setId(application.getId());
+        dto.setDescription(application.getDescription());
+        dto.setValue(application.getValue());
+        dto.setValueType(application.getValueType());
+        dto.setTargetType(application.getTargetType());
+        dto.setUpdatedAt(application.getUpdatedAt());
+        dto.setVersion(application.getVersion());
+        return dto;
+    }
+
+    private static OrderEditDiscountAllocationDto toDto(OrderEditId orderEditId, AddedDiscountAllocation allocation) {
+        var dto = new OrderEditDiscountAllocationDto();
+        dto.setStoreId(orderEditId.getStoreId());
+        dto.setEditingId(orderEditId.getId());
+        dto.setId(allocation.getId());
+        dto.setAmount(allocation.getAmount());
+        dto.setApplicationId(allocation.getApplicationId());
+        dto.setLineItemId(allocation.getLineItemId());
+        dto.setUpdatedAt(allocation.getUpdatedAt());
+        dto.setVersion(allocation.getVersion());
+        return dto;
+    }
+
+    private OrderEditStagedChangeDto toDto(OrderEditId orderEditId, OrderStagedChange change) {
+        var dto = new OrderEditStagedChangeDto();
+        dto.setStoreId(orderEditId.getStoreId());
+        dto.setEditingId(orderEditId.getId());
+        dto.setId(change.getId());
+        dto.setType(change.getType());
+        dto.setValue(this.actionConverter.convertToDatabaseColumn(change.getValue()));
+        dto.setUpdatedAt(change.getUpdatedAt());
+        dto.setVersion(change.getVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.order.order.infrastructure.data.dto;
+
+import java.time.Instant;
+
+/**
+ * Vị trí của order cuối cùng trong trang trước (keyset pagination theo created_on desc, id desc)
+ */
+public record OrderViewCursor(Instant createdOn, int id) {
+}
@@ -0,0 +1,40 @@
+package org.example.order.order.infrastructure.data.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.order.order.domain.order.model.Order;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * 1 dòng của bảng order_views: các cột dùng để lọc/sắp xếp + toàn bộ order dạng json (data)
+ */
+@Getter
+@Setter
+public class OrderViewDto {
+    private int storeId;
+    private int id;
+
+    private String name;
+
+    private Order.OrderStatus orderStatus;
+    private Order.FinancialStatus financialStatus;
+    private Order.FulfillmentStatus fulfillmentStatus;
+    private Order.ReturnStatus returnStatus;
+
+    private Integer customerId;
+    private String email;
+    private String phone;
+    private Integer locationId;
+
+    private BigDecimal totalPrice;
+
+    private Instant createdOn;
+    private Instant modifiedOn;
+    private Instant processedOn;
+    private Instant closedOn;
+    private Instant cancelledOn;
+
+    private String data;
+}
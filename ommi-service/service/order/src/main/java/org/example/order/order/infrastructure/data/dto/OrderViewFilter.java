@@ -0,0 +1,24 @@
+package org.example.order.order.infrastructure.data.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.order.order.domain.order.model.Order;
+
+import java.time.Instant;
+
+/**
+ * Các filter được hỗ trợ khi tìm order, mỗi filter có index tương ứng trên order_views/order_tags (xem entity OrderView, Order.tags).
+ * Field null => không lọc
+ */
+@Getter
+@Builder
+public class OrderViewFilter {
+    private Order.OrderStatus status;
+    private Order.FinancialStatus financialStatus;
+    private Order.FulfillmentStatus fulfillmentStatus;
+    private Integer locationId;
+    private Integer customerId;
+    private String tag;
+    private Instant createdOnMin;
+    private Instant createdOnMax;
+}
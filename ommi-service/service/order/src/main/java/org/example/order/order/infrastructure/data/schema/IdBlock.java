@@ -0,0 +1,36 @@
+package org.example.order.order.infrastructure.data.schema;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Bảng id_blocks của JdbcIdRangeSource (lib id-generator), chỉ map để Hibernate tạo bảng.
+ * Đọc/ghi bằng SQL trong JdbcIdRangeSource
+ */
+@Getter
+@Entity
+@NoArgsConstructor
+@IdClass(IdBlock.Key.class)
+@Table(name = "id_blocks")
+public class IdBlock {
+    @Id
+    private int storeId;
+
+    @Id
+    @Column(length = 50)
+    private String entityType;
+
+    private long nextValue;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private int storeId;
+        private String entityType;
+    }
+}
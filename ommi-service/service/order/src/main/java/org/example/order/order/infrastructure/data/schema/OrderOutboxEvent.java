@@ -0,0 +1,62 @@
+package org.example.order.order.infrastructure.data.schema;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Nationalized;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bảng order_outbox_events của JdbcOrderOutboxDao, chỉ map để Hibernate tạo bảng và index.
+ * Thời gian lưu dạng datetime2 (không timezone) giống Timestamp mà JdbcOrderOutboxDao đọc/ghi
+ */
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(name = "order_outbox_events", indexes = {
+        @Index(name = "ix_order_outbox_events_status", columnList = "status, next_attempt_at"),
+        @Index(name = "ix_order_outbox_events_order", columnList = "store_id, order_id, id")
+})
+public class OrderOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private long id;
+
+    @Column(name = "store_id", nullable = false)
+    private int storeId;
+
+    @Column(name = "order_id", nullable = false)
+    private int orderId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "handler", nullable = false, length = 100)
+    private String handler;
+
+    @Lob
+    @Nationalized
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Nationalized
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
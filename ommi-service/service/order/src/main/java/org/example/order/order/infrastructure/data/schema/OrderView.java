@@ -0,0 +1,92 @@
+package org.example.order.order.infrastructure.data.schema;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Nationalized;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bảng order_views (read model của order, xem JdbcOrderDao/OrderViewProjector), chỉ map để Hibernate tạo bảng.
+ * Đọc/ghi bằng SQL trong JdbcOrderDao.
+ * searchViews: mỗi filter 1 index (store_id, filter, created_on, id) => seek + đọc đúng limit dòng theo thứ tự
+ */
+@Getter
+@Entity
+@NoArgsConstructor
+@IdClass(OrderView.Key.class)
+@Table(name = "order_views", indexes = {
+        @Index(name = "ix_order_views_created", columnList = "store_id, created_on DESC, id DESC"),
+        @Index(name = "ix_order_views_status", columnList = "store_id, order_status, created_on DESC, id DESC"),
+        @Index(name = "ix_order_views_financial_status", columnList = "store_id, financial_status, created_on DESC, id DESC"),
+        @Index(name = "ix_order_views_fulfillment_status", columnList = "store_id, fulfillment_status, created_on DESC, id DESC"),
+        @Index(name = "ix_order_views_location", columnList = "store_id, location_id, created_on DESC, id DESC"),
+        @Index(name = "ix_order_views_customer", columnList = "store_id, customer_id, created_on DESC, id DESC")
+})
+public class OrderView {
+    @Id
+    private int storeId;
+
+    @Id
+    private int id;
+
+    @Nationalized
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false, length = 20)
+    private String orderStatus;
+
+    @Column(length = 30)
+    private String financialStatus;
+
+    @Column(length = 30)
+    private String fulfillmentStatus;
+
+    @Column(length = 30)
+    private String returnStatus;
+
+    private Integer customerId;
+
+    @Nationalized
+    @Column(length = 255)
+    private String email;
+
+    @Nationalized
+    @Column(length = 50)
+    private String phone;
+
+    private Integer locationId;
+
+    @Column(precision = 20, scale = 6)
+    private BigDecimal totalPrice;
+
+    @Column(nullable = false)
+    private LocalDateTime createdOn;
+
+    @Column(nullable = false)
+    private LocalDateTime modifiedOn;
+
+    private LocalDateTime processedOn;
+
+    private LocalDateTime closedOn;
+
+    private LocalDateTime cancelledOn;
+
+    @Lob
+    @Nationalized
+    @Column(nullable = false)
+    private String data;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private int storeId;
+        private int id;
+    }
+}
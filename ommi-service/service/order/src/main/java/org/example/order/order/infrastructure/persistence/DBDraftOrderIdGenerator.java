@@ -1,13 +1,20 @@
 package org.example.order.order.infrastructure.persistence;
 
+import lombok.RequiredArgsConstructor;
+import org.example.idgenerator.BlockIdAllocator;
 import org.example.order.order.domain.draftorder.persistence.DraftOrderIdGenerator;
 import org.springframework.stereotype.Repository;
 
+import static org.example.idgenerator.BlockIdAllocator.GLOBAL_STORE_ID;
+
 @Repository
+@RequiredArgsConstructor
 public class DBDraftOrderIdGenerator implements DraftOrderIdGenerator {
 
+    private final BlockIdAllocator idAllocator;
+
     @Override
     public int generateDraftOrderId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "draft_order");
     }
 }
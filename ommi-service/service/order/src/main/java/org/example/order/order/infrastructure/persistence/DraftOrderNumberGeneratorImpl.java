@@ -1,28 +1,182 @@
 package org.example.order.order.infrastructure.persistence;
 
-import lombok.RequiredArgsConstructor;
-import org.example.order.order.domain.draftorder.model.DraftOrderNumber;
 import org.example.order.order.domain.draftorder.persistence.DraftOrderNumberGenerator;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Set;
+
+/**
+ * Cấp số draft order theo store trên bảng draft_order_numbers (store_id unique):
+ * - SQL Server: 1 câu UPDATE ... OUTPUT tăng và trả về số mới. DB khác: UPDATE rồi SELECT trên row vừa bị lock
+ * - Đang trong transaction (tạo draft order) => dùng connection của transaction, không lấy thêm connection từ pool
+ * (nhiều request cùng giữ 1 connection và chờ connection thứ 2 sẽ treo khi pool cạn).
+ * Số được commit / rollback cùng draft order; row của store bị lock đến hết transaction
+ * => các request tạo draft cùng store nối tiếp nhau từ lúc lấy số đến commit, store khác không ảnh hưởng.
+ * Vì vậy DraftOrder.assignNumber được gọi ngay trước khi lưu, sau các bước gọi ra ngoài (combination, tax)
+ * - Không có transaction => tự mở transaction ngắn trên connection riêng
+ * - Số liên tục theo store
+ * - Chỉ thử lại khi 2 request cùng insert row đầu tiên của store (trùng khoá) hoặc bị chọn làm nạn nhân deadlock
+ * khi tự mở transaction. Lỗi khác (hết thời gian chờ lock...) ném ra ngay
+ */
 @Repository
-@RequiredArgsConstructor
 public class DraftOrderNumberGeneratorImpl implements DraftOrderNumberGenerator {
-    private final DraftOrderNumberRepository repository;
+
+    private static final String UPDATE_OUTPUT_SQL = """
+            UPDATE draft_order_numbers SET current_order_number = current_order_number + 1
+            OUTPUT inserted.current_order_number
+            WHERE store_id = ?
+            """;
+    private static final String UPDATE_SQL = """
+            UPDATE draft_order_numbers SET current_order_number = current_order_number + 1
+            WHERE store_id = ?
+            """;
+    private static final String SELECT_SQL = """
+            SELECT current_order_number FROM draft_order_numbers
+            WHERE store_id = ?
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO draft_order_numbers (store_id, current_order_number) VALUES (?, 1)
+            """;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Mã lỗi của SQL Server: 2627 / 2601 trùng khoá, 1205 deadlock
+     */
+    private static final Set<Integer> SQL_SERVER_DUPLICATE_KEY_CODES = Set.of(2627, 2601);
+    private static final int SQL_SERVER_DEADLOCK_CODE = 1205;
+
+    private final DataSource dataSource;
+
+    private volatile Boolean supportsOutput;
+
+    public DraftOrderNumberGeneratorImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     @Override
     public int generateDraftNumber(int storeId) {
-        var draftNumber = repository.findFirstByStoreId(storeId);
-        if (draftNumber == null) {
-            draftNumber = DraftOrderNumber.builder()
-                    .storeId(storeId)
-                    .currentOrderNumber(1)
-                    .build();
-            repository.save(draftNumber);
-            return 1;
-        }
-        draftNumber.update();
-        repository.save(draftNumber);
-        return draftNumber.getCurrentOrderNumber();
+        var connection = DataSourceUtils.getConnection(this.dataSource);
+        try {
+            return DataSourceUtils.isConnectionTransactional(connection, this.dataSource)
+                    ? this.generateInTransaction(connection, storeId)
+                    : this.generateInOwnTransaction(connection, storeId);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to generate draft order number for store " + storeId, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, this.dataSource);
+        }
+    }
+
+    /**
+     * Insert row đầu tiên bị trùng khoá => quay về savepoint (transaction bên ngoài vẫn dùng tiếp được) rồi update.
+     * Deadlock thì transaction bên ngoài đã bị huỷ, không thử lại ở đây
+     */
+    private int generateInTransaction(Connection connection, int storeId) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            var number = this.increment(connection, storeId);
+            if (number != null) {
+                return number;
+            }
+            var savepoint = connection.setSavepoint();
+            try {
+                insertFirst(connection, storeId);
+                return 1;
+            } catch (SQLException e) {
+                if (attempt >= MAX_ATTEMPTS || !isDuplicateKey(e)) throw e;
+                connection.rollback(savepoint);
+            }
+        }
+    }
+
+    private int generateInOwnTransaction(Connection connection, int storeId) throws SQLException {
+        var autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    var number = this.increment(connection, storeId);
+                    if (number == null) {
+                        insertFirst(connection, storeId);
+                        number = 1;
+                    }
+                    connection.commit();
+                    return number;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (attempt >= MAX_ATTEMPTS || !(isDuplicateKey(e) || isDeadlock(e))) throw e;
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * null nếu store chưa có row
+     */
+    private Integer increment(Connection connection, int storeId) throws SQLException {
+        return this.supportsOutput(connection) ? updateOutput(connection, storeId) : updateThenSelect(connection, storeId);
+    }
+
+    private static void insertFirst(Connection connection, int storeId) throws SQLException {
+        try (var insert = connection.prepareStatement(INSERT_SQL)) {
+            insert.setInt(1, storeId);
+            insert.executeUpdate();
+        }
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || "23505".equals(e.getSQLState())
+                || SQL_SERVER_DUPLICATE_KEY_CODES.contains(e.getErrorCode());
+    }
+
+    private static boolean isDeadlock(SQLException e) {
+        return "40001".equals(e.getSQLState()) || e.getErrorCode() == SQL_SERVER_DEADLOCK_CODE;
+    }
+
+    /**
+     * null nếu store chưa có row
+     */
+    private static Integer updateOutput(Connection connection, int storeId) throws SQLException {
+        try (var update = connection.prepareStatement(UPDATE_OUTPUT_SQL)) {
+            update.setInt(1, storeId);
+            try (var resultSet = update.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : null;
+            }
+        }
+    }
+
+    private static Integer updateThenSelect(Connection connection, int storeId) throws SQLException {
+        try (var update = connection.prepareStatement(UPDATE_SQL)) {
+            update.setInt(1, storeId);
+            if (update.executeUpdate() == 0) {
+                return null;
+            }
+        }
+        try (var select = connection.prepareStatement(SELECT_SQL)) {
+            select.setInt(1, storeId);
+            try (var resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new SQLException("draft order number row disappeared for store " + storeId);
+                }
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private boolean supportsOutput(Connection connection) throws SQLException {
+        var supports = this.supportsOutput;
+        if (supports == null) {
+            supports = connection.getMetaData().getDatabaseProductName().startsWith("Microsoft SQL Server");
+            this.supportsOutput = supports;
+        }
+        return supports;
     }
 }
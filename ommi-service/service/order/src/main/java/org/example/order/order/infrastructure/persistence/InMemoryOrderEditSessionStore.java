@@ -0,0 +1,131 @@
+package org.example.order.order.infrastructure.persistence;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * OrderEditSessionStore trên 1 node. Guava chỉ dọn entry hết hạn khi có truy cập cache
+ * nên cleanUp được gọi định kỳ để phiên bỏ dở vẫn được ghi DB
+ */
+public class InMemoryOrderEditSessionStore implements OrderEditSessionStore {
+
+    private final Cache<String, Session> cache;
+
+    /**
+     * Phiên đã bị bỏ khỏi cache nhưng chưa ghi được DB (hoặc đang ghi): vẫn đọc / sửa được như trong cache,
+     * được thử ghi lại ở mỗi lần cleanUp
+     */
+    private final Map<String, Session> unpersisted = new ConcurrentHashMap<>();
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile BiPredicate<String, String> expiredListener = (key, snapshot) -> true;
+
+    public InMemoryOrderEditSessionStore(long maximumSize, Duration idleTimeout, MeterRegistry meterRegistry) {
+        RemovalListener<String, Session> removalListener = this::onRemoval;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(idleTimeout)
+                .removalListener(removalListener)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, this.cache, "order_edit_session_store");
+        meterRegistry.gaugeMapSize("order_edit_session_store_unpersisted", Tags.empty(), this.unpersisted);
+    }
+
+    private void onRemoval(RemovalNotification<String, Session> notification) {
+        // EXPLICIT (delete) và REPLACED (set) không phải mất phiên
+        if (notification.wasEvicted() && notification.getValue() != null) {
+            this.persistEvicted(notification.getKey(), notification.getValue());
+        }
+    }
+
+    private void persistEvicted(String key, Session session) {
+        // giữ lại trong lúc ghi DB => request đến cùng lúc vẫn thấy phiên thay vì đọc bản cũ trong DB
+        this.unpersisted.put(key, session);
+        if (this.expiredListener.test(key, session.snapshot())) {
+            this.unpersisted.remove(key, session);
+        }
+    }
+
+    @Override
+    public Session get(String key) {
+        var session = this.cache.getIfPresent(key);
+        return session != null ? session : this.revive(key);
+    }
+
+    /**
+     * Phiên chưa ghi được DB có thao tác mới => đưa lại vào cache
+     */
+    private Session revive(String key) {
+        var session = this.unpersisted.remove(key);
+        if (session == null) {
+            return null;
+        }
+        var current = this.cache.asMap().putIfAbsent(key, session);
+        return current != null ? current : session;
+    }
+
+    @Override
+    public long nextVersion() {
+        return this.versions.incrementAndGet();
+    }
+
+    @Override
+    public boolean compareAndSet(String key, long expectedVersion, Session session) {
+        this.revive(key);
+        var updated = new AtomicBoolean();
+        this.cache.asMap().compute(key, (ignored, current) -> {
+            var currentVersion = current == null ? NO_VERSION : current.version();
+            if (currentVersion != expectedVersion) {
+                return current;
+            }
+            updated.set(true);
+            return session;
+        });
+        return updated.get();
+    }
+
+    @Override
+    public void delete(String key) {
+        this.cache.invalidate(key);
+        this.unpersisted.remove(key);
+    }
+
+    @Override
+    public void onExpired(BiPredicate<String, String> listener) {
+        this.expiredListener = listener;
+    }
+
+    @Override
+    public Map<String, String> localSnapshots() {
+        Map<String, String> snapshots = new HashMap<>();
+        this.unpersisted.forEach((key, session) -> snapshots.put(key, session.snapshot()));
+        this.cache.asMap().forEach((key, session) -> snapshots.put(key, session.snapshot()));
+        return snapshots;
+    }
+
+    @Scheduled(fixedDelayString = "${order-edit.session-store.clean-up-interval-ms:60000}")
+    public void cleanUp() {
+        this.cache.cleanUp();
+        this.unpersisted.forEach((key, session) -> {
+            if (this.expiredListener.test(key, session.snapshot())) {
+                this.unpersisted.remove(key, session);
+            }
+        });
+    }
+}
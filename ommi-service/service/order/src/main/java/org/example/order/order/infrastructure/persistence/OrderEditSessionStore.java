@@ -0,0 +1,53 @@
+package org.example.order.order.infrastructure.persistence;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Snapshot (json) của order edit đang sửa theo key, kèm version tăng dần sau mỗi lần ghi.
+ * Các thao tác tương ứng GET / SET + EXPIRE (WATCH + MULTI hoặc script) / DEL / INCR của Redis
+ * để có thể thay bản trong bộ nhớ bằng Redis khi chạy nhiều node.
+ * Hiện chỉ có InMemoryOrderEditSessionStore nên session store chỉ bật được khi single-node=true
+ */
+public interface OrderEditSessionStore {
+
+    /**
+     * Version khi chưa có phiên
+     */
+    long NO_VERSION = 0;
+
+    record Session(long version, String snapshot) {
+    }
+
+    /**
+     * Chỉ đọc, không gia hạn phiên: thời gian sống tính từ lần ghi (compareAndSet) cuối
+     */
+    @Nullable
+    Session get(String key);
+
+    /**
+     * Version mới cho lần ghi tiếp theo, không trùng với version đã cấp trước đó (kể cả khi phiên bị xoá rồi tạo lại)
+     */
+    long nextVersion();
+
+    /**
+     * Đổi phiên thành session (null = xoá phiên) nếu version hiện tại vẫn là expectedVersion (NO_VERSION = chưa có phiên)
+     *
+     * @return false nếu phiên đã bị request khác đổi
+     */
+    boolean compareAndSet(String key, long expectedVersion, @Nullable Session session);
+
+    void delete(String key);
+
+    /**
+     * Phiên bị bỏ do hết hạn hoặc store đầy được chuyển cho listener (key, snapshot) để ghi DB.
+     * Listener trả về false (chưa ghi được) => store giữ lại phiên và thử lại ở lần dọn sau
+     */
+    void onExpired(BiPredicate<String, String> listener);
+
+    /**
+     * Snapshot chỉ nằm trong bộ nhớ của node này (mất khi tắt service). Store dùng chung giữa các node trả về rỗng
+     */
+    Map<String, String> localSnapshots();
+}
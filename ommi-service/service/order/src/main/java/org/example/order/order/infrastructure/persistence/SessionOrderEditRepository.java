@@ -0,0 +1,285 @@
+package org.example.order.order.infrastructure.persistence;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.domain.edit.model.OrderEdit;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.domain.edit.persistence.OrderEditRepository;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OrderEditRepository ở chế độ phiên sửa (order-edit.session-store.enabled):
+ * - Order edit đang sửa nằm trong OrderEditSessionStore dưới dạng snapshot json, mỗi thao tác sửa chỉ ghi snapshot
+ * - Chỉ ghi DB khi tạo mới, khi commit, khi phiên hết hạn / bị đẩy khỏi store và khi tắt service
+ * - Snapshot được ghi ngay trước khi transaction commit => thao tác lỗi (rollback) không làm hỏng phiên
+ * - 2 request cùng sửa 1 order edit: request lưu sau bị từ chối nếu version của phiên đã đổi kể từ lúc nó đọc
+ *   (so version và ghi trong 1 thao tác compareAndSet của store)
+ * - Phiên hết hạn chưa ghi được DB vẫn nằm trong store và được thử ghi lại
+ * Tắt chế độ phiên => gọi thẳng JpaOrderEditRepository
+ */
+@Slf4j
+public class SessionOrderEditRepository implements OrderEditRepository {
+
+    private static final String KEY_PREFIX = "order_edit:";
+
+    private final JpaOrderEditRepository delegate;
+    private final EntityManager entityManager;
+    private final OrderEditSessionStore sessionStore;
+    private final TransactionTemplate persistTransaction;
+    private final boolean enabled;
+
+    private final ObjectMapper snapshotMapper = createSnapshotMapper();
+
+    public SessionOrderEditRepository(
+            JpaOrderEditRepository delegate,
+            EntityManager entityManager,
+            OrderEditSessionStore sessionStore,
+            PlatformTransactionManager transactionManager,
+            boolean enabled
+    ) {
+        this.delegate = delegate;
+        this.entityManager = entityManager;
+        this.sessionStore = sessionStore;
+        this.enabled = enabled;
+
+        // phiên hết hạn có thể bị dọn trong lúc thread đang chạy transaction khác
+        this.persistTransaction = new TransactionTemplate(transactionManager);
+        this.persistTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.sessionStore.onExpired(this::persistSnapshot);
+    }
+
+    private static ObjectMapper createSnapshotMapper() {
+        // entity chỉ có getter, không có setter => đọc/ghi thẳng field. Quan hệ ngược (orderEdit) đã @JsonIgnore
+        var mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
+    }
+
+    @Override
+    public OrderEdit findById(OrderEditId orderEditId) {
+        if (!this.enabled) {
+            return this.delegate.findById(orderEditId);
+        }
+
+        var key = key(orderEditId);
+        var transaction = this.currentTransaction();
+        if (transaction != null && transaction.pending.containsKey(key)) {
+            return this.fromSnapshot(transaction.pending.get(key));
+        }
+
+        var session = this.sessionStore.get(key);
+        if (transaction != null) {
+            transaction.trackLoaded(key, session);
+        }
+        if (session != null) {
+            return this.fromSnapshot(session.snapshot());
+        }
+
+        var orderEdit = this.delegate.findById(orderEditId);
+        if (orderEdit != null && !orderEdit.isCommitted()) {
+            // thay đổi trong phiên chỉ ghi DB khi commit => không để Hibernate tự flush
+            this.entityManager.detach(orderEdit);
+        }
+        return orderEdit;
+    }
+
+    /**
+     * Order edit trong phiên (chỉ đọc), null nếu không có phiên hoặc chế độ phiên đang tắt
+     */
+    @Nullable
+    public OrderEdit findSession(OrderEditId orderEditId) {
+        if (!this.enabled) {
+            return null;
+        }
+        var session = this.sessionStore.get(key(orderEditId));
+        return session == null ? null : this.fromSnapshot(session.snapshot());
+    }
+
+    @Override
+    public void save(OrderEdit orderEdit) {
+        if (!this.enabled) {
+            this.delegate.save(orderEdit);
+            return;
+        }
+
+        var key = key(orderEdit.getId());
+        var transaction = this.currentTransaction();
+        if (orderEdit.isNew() || orderEdit.isCommitted()) {
+            this.delegate.save(orderEdit);
+            if (transaction != null) {
+                transaction.pending.remove(key);
+            }
+            afterCommit(() -> this.sessionStore.delete(key));
+            return;
+        }
+
+        var snapshot = this.toSnapshot(orderEdit);
+        if (transaction == null) {
+            var current = this.sessionStore.get(key);
+            this.write(key, current == null ? OrderEditSessionStore.NO_VERSION : current.version(), snapshot);
+            return;
+        }
+        // order edit thường đã được findById trong transaction => dùng phiên đã đọc lúc đó, không đọc lại store
+        if (!transaction.loaded.containsKey(key)) {
+            transaction.trackLoaded(key, this.sessionStore.get(key));
+        }
+        transaction.pending.put(key, snapshot);
+    }
+
+    /**
+     * Ghi snapshot nếu phiên vẫn ở version đã đọc, kiểm tra và ghi trong 1 thao tác của store
+     */
+    private OrderEditSessionStore.Session write(String key, long expectedVersion, String snapshot) {
+        var session = new OrderEditSessionStore.Session(this.sessionStore.nextVersion(), snapshot);
+        if (!this.sessionStore.compareAndSet(key, expectedVersion, session)) {
+            throw new ConstrainViolationException(
+                    "order_edit",
+                    "order edit was changed by another request, reload and try again"
+            );
+        }
+        return session;
+    }
+
+    @Nullable
+    private SessionTransaction currentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        var transaction = (SessionTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction == null) {
+            transaction = new SessionTransaction();
+            TransactionSynchronizationManager.bindResource(this, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        return transaction;
+    }
+
+    /**
+     * Phiên đọc / ghi trong 1 transaction:
+     * - snapshot được ghi ở beforeCommit (lỗi => transaction rollback, request nhận lỗi)
+     * - transaction vẫn rollback sau khi đã ghi => trả phiên về bản đã đọc
+     */
+    private final class SessionTransaction implements TransactionSynchronization {
+
+        /**
+         * Phiên đọc được lần đầu trong transaction (null = chưa có phiên, đọc từ DB), để so version khi ghi
+         */
+        private final Map<String, OrderEditSessionStore.Session> loaded = new HashMap<>();
+        private final Map<String, String> pending = new LinkedHashMap<>();
+        private final Map<String, OrderEditSessionStore.Session> written = new HashMap<>();
+
+        private void trackLoaded(String key, @Nullable OrderEditSessionStore.Session session) {
+            if (!this.loaded.containsKey(key)) {
+                this.loaded.put(key, session);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            this.pending.forEach((key, snapshot) -> {
+                var loadedSession = this.loaded.get(key);
+                var expectedVersion = loadedSession == null ? OrderEditSessionStore.NO_VERSION : loadedSession.version();
+                this.written.put(key, write(key, expectedVersion, snapshot));
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SessionOrderEditRepository.this);
+            if (status == STATUS_COMMITTED) {
+                return;
+            }
+            // chỉ trả lại nếu chưa có request nào ghi đè lên bản vừa ghi
+            this.written.forEach((key, session) -> sessionStore.compareAndSet(key, session.version(), this.loaded.get(key)));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * @return false nếu chưa ghi được, store giữ lại phiên để thử lại
+     */
+    private boolean persistSnapshot(String key, String snapshot) {
+        try {
+            var orderEdit = this.fromSnapshot(snapshot);
+            this.persistTransaction.executeWithoutResult(status -> this.delegate.save(orderEdit));
+            if (log.isDebugEnabled()) {
+                log.debug("Persisted order edit session {}", key);
+            }
+            return true;
+        } catch (RuntimeException exception) {
+            log.warn("Can't persist order edit session {}, keep it in session store to retry", key, exception);
+            return false;
+        }
+    }
+
+    /**
+     * Store trong bộ nhớ mất dữ liệu khi tắt service => ghi DB các phiên còn lại
+     */
+    @PreDestroy
+    public void persistLocalSessions() {
+        if (!this.enabled) {
+            return;
+        }
+        this.sessionStore.localSnapshots().forEach(this::persistSnapshot);
+    }
+
+    private String toSnapshot(OrderEdit orderEdit) {
+        try {
+            return this.snapshotMapper.writeValueAsString(orderEdit);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Can't write order edit snapshot " + orderEdit.getId().getId(), exception);
+        }
+    }
+
+    private OrderEdit fromSnapshot(String snapshot) {
+        OrderEdit orderEdit;
+        try {
+            orderEdit = this.snapshotMapper.readValue(snapshot, OrderEdit.class);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Can't read order edit snapshot", exception);
+        }
+        orderEdit.getLineItems().forEach(line -> line.setOrderEdit(orderEdit));
+        orderEdit.getTaxLines().forEach(taxLine -> taxLine.setOrderEdit(orderEdit));
+        orderEdit.getDiscountApplications().forEach(application -> application.setOrderEdit(orderEdit));
+        orderEdit.getDiscountAllocations().forEach(allocation -> allocation.setOrderEdit(orderEdit));
+        orderEdit.getChanges().forEach(change -> change.setOrderEdit(orderEdit));
+        return orderEdit;
+    }
+
+    private static String key(OrderEditId orderEditId) {
+        return KEY_PREFIX + orderEditId.getStoreId() + ":" + orderEditId.getId();
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.order.order.interfaces.rest;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.example.order.order.application.model.fulfillment.request.FulfillmentBulkCreateRequest;
+import org.example.order.order.application.model.fulfillment.response.FulfillmentBulkCreateResponse;
+import org.example.order.order.application.service.fulfillment.FulfillmentBulkWriteService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/fulfillments")
+public class FulfillmentController {
+
+    private final FulfillmentBulkWriteService fulfillmentBulkWriteService;
+
+    @PostMapping("/bulk")
+    public FulfillmentBulkCreateResponse createBulk(@RequestBody @Valid FulfillmentBulkCreateRequest request) {
+        int storeId = 1;
+        var results = fulfillmentBulkWriteService.createFulfillments(storeId, request);
+        return new FulfillmentBulkCreateResponse(results);
+    }
+}
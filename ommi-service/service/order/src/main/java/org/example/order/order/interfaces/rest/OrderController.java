@@ -1,19 +1,42 @@
 package org.example.order.order.interfaces.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.example.order.order.application.model.order.request.OrderBatchCreateRequest;
 import org.example.order.order.application.model.order.request.OrderCreateRequest;
+import org.example.order.order.application.model.order.response.OrderBatchCreateResponse;
+import org.example.order.order.application.model.order.response.OrderListResponse;
 import org.example.order.order.application.model.order.response.OrderResponse;
+import org.example.order.order.application.service.order.OrderBatchWriteService;
+import org.example.order.order.application.service.order.OrderReadService;
 import org.example.order.order.application.service.order.OrderWriteService;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.data.dto.OrderViewFilter;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/admin/orders")
 public class OrderController {
 
     private final OrderWriteService orderWriteService;
+    private final OrderBatchWriteService orderBatchWriteService;
+    private final OrderReadService orderReadService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,4 +46,89 @@ public class OrderController {
 
         return null;
     }
+
+    /**
+     * Trang đầu: không truyền page_info. Trang sau: page_info = next_page_info của trang trước, giữ nguyên filter
+     */
+    @GetMapping
+    public OrderListResponse search(
+            @RequestParam(name = "status", required = false) Order.OrderStatus status,
+            @RequestParam(name = "financial_status", required = false) Order.FinancialStatus financialStatus,
+            @RequestParam(name = "fulfillment_status", required = false) Order.FulfillmentStatus fulfillmentStatus,
+            @RequestParam(name = "location_id", required = false) Integer locationId,
+            @RequestParam(name = "customer_id", required = false) Integer customerId,
+            @RequestParam(name = "tag", required = false) String tag,
+            @RequestParam(name = "created_on_min", required = false) Instant createdOnMin,
+            @RequestParam(name = "created_on_max", required = false) Instant createdOnMax,
+            @RequestParam(name = "page_info", required = false) String pageInfo,
+            @RequestParam(name = "limit", defaultValue = "50") int limit,
+            @RequestParam(name = "count", defaultValue = "none") CountMode count
+    ) {
+        int storeId = 1;
+        var filter = OrderViewFilter.builder()
+                .status(status)
+                .financialStatus(financialStatus)
+                .fulfillmentStatus(fulfillmentStatus)
+                .locationId(locationId)
+                .customerId(customerId)
+                .tag(StringUtils.trimToNull(tag))
+                .createdOnMin(createdOnMin)
+                .createdOnMax(createdOnMax)
+                .build();
+        return orderReadService.search(storeId, filter, pageInfo, limit, count == CountMode.estimate);
+    }
+
+    @GetMapping("/{id}")
+    public OrderResponse getById(@PathVariable int id) {
+        int storeId = 1;
+        return orderReadService.getById(new OrderId(storeId, id));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public OrderBatchCreateResponse createBatch(@RequestBody @Valid OrderBatchCreateRequest request) {
+        int storeId = 1;
+        var results = orderBatchWriteService.createOrders(storeId, request.getOrders());
+        return new OrderBatchCreateResponse(results);
+    }
+
+    /**
+     * Mỗi dòng request là 1 OrderCreateRequest, mỗi dòng response là 1 OrderBatchItemResult (cùng index)
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createBatchStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int storeId = 1;
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        BufferedReader reader = request.getReader();
+        var lines = reader.lines()
+                .filter(StringUtils::isNotBlank)
+                .iterator();
+        var writer = objectMapper.writer();
+        var output = response.getOutputStream();
+        orderBatchWriteService.createOrders(storeId, lines, this::readOrderRequest, result -> {
+            try {
+                output.write(writer.writeValueAsBytes(result));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private OrderCreateRequest readOrderRequest(String line) {
+        try {
+            return objectMapper.readValue(line, OrderCreateRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new ConstrainViolationException("order", "invalid json: " + e.getOriginalMessage());
+        }
+    }
+
+    public enum CountMode {
+        none,
+        /**
+         * Đếm tối đa tới 1 ngưỡng thay vì COUNT toàn bộ
+         */
+        estimate
+    }
 }
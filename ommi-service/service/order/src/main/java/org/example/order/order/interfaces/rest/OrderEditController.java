@@ -62,6 +62,17 @@ public class OrderEditController {
         return null;
     }
 
+    @PostMapping("/{id}/changes")
+    public OrderEditResponse applyChanges(
+            @PathVariable int id,
+            @RequestBody @Valid OrderEditRequest.ApplyChanges request
+    ) {
+        int storeId = 1;
+        var orderEditId = new OrderEditId(storeId, id);
+        var lineItemIds = this.orderEditWriteService.applyChanges(orderEditId, request);
+        return null;
+    }
+
     @PostMapping("/{id}/commit")
     public OrderEditResponse commit(@PathVariable int id,
                                     @RequestBody OrderEditRequest.Commit request) {
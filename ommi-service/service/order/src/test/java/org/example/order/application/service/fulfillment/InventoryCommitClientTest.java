@@ -0,0 +1,161 @@
+package org.example.order.application.service.fulfillment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.AdminClient;
+import org.example.inventory.AdjustmentRequest;
+import org.example.inventory.InventoryRequest;
+import org.example.inventory.InventoryTransactionLineItemRequest;
+import org.example.order.order.application.service.fulfillment.InventoryCommitClient;
+import org.example.order.order.application.service.fulfillment.InventoryCommitPayload;
+import org.example.order.order.infrastructure.configuration.InventoryCommitProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * InventoryCommitClient: chia payload theo maxBatchSize, gộp payload cùng location, idempotency key ổn định khi outbox gọi lại,
+ * lỗi được ném ra để retry
+ */
+public class InventoryCommitClientTest {
+
+    private static final int STORE_ID = 1;
+
+    private final AdminClient adminClient = mock(AdminClient.class);
+    private final InventoryCommitClient client = client(2);
+
+    @Test
+    public void adjustments_are_sent_in_batches_of_max_batch_size() {
+        this.client.commit(payload(1, 2, 3, 4, 5));
+
+        var requests = sentRequests(3);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)),
+                requests.stream().map(InventoryCommitClientTest::fulfillmentIds).toList());
+        assertEquals(3, requests.stream().map(InventoryRequest::getIdempotencyKey).distinct().count());
+
+        var adjustment = requests.get(0).getAdjustments().get(0);
+        assertEquals(10, adjustment.getLocationId());
+        assertEquals(100, adjustment.getReferenceRootId());
+        assertEquals("#1001", adjustment.getReferenceDocumentName());
+        assertEquals("fulfillment", adjustment.getReferenceDocumentType());
+        assertEquals("order_fulfill", adjustment.getReason());
+        var changes = adjustment.getLineItems().get(0).getChanges();
+        assertEquals(List.of("available", "on_hand"),
+                changes.stream().map(InventoryTransactionLineItemRequest.InventoryAdjustmentTransactionChangeRequest::getChangeType).toList());
+        assertTrue(changes.stream().allMatch(change -> "delta".equals(change.getValueType())
+                && change.getValue().compareTo(BigDecimal.valueOf(-3)) == 0));
+    }
+
+    @Test
+    public void retried_payload_reuses_idempotency_keys() {
+        doThrow(new IllegalStateException("unavailable")).doNothing()
+                .when(this.adminClient).commitInventory(anyInt(), any());
+
+        assertThrows(IllegalStateException.class, () -> this.client.commit(payload(1, 2, 3)));
+        // outbox gọi lại cả payload
+        this.client.commit(payload(1, 2, 3));
+
+        var keys = sentRequests(3).stream().map(InventoryRequest::getIdempotencyKey).toList();
+        assertEquals(keys.get(0), keys.get(1));
+        assertNotEquals(keys.get(1), keys.get(2));
+    }
+
+    @Test
+    public void regrouped_retry_sends_each_fulfillment_with_its_own_reference() {
+        doNothing().doThrow(new IllegalStateException("unavailable")).doNothing()
+                .when(this.adminClient).commitInventory(anyInt(), any());
+
+        // batch {1, 2} thành công, batch {3} lỗi
+        assertThrows(IllegalStateException.class, () -> this.client.commit(payload(1, 2, 3)));
+        // lần gọi lại outbox gộp nhóm khác: fulfillment 1 không còn trong nhóm
+        this.client.commit(payload(2, 3));
+
+        var requests = sentRequests(3);
+        assertEquals(List.of(2L, 3L), fulfillmentIds(requests.get(2)));
+        // key của request khác lần đầu => commit_inventory bỏ qua fulfillment 2 theo reference của adjustment
+        assertNotEquals(requests.get(0).getIdempotencyKey(), requests.get(2).getIdempotencyKey());
+        assertTrue(requests.get(2).getAdjustments().stream()
+                .allMatch(adjustment -> "fulfillment".equals(adjustment.getReferenceDocumentType())));
+    }
+
+    @Test
+    public void idempotency_key_does_not_depend_on_fulfillment_order() {
+        var client = client(10);
+        client.commit(payload(1, 2));
+        client.commit(payload(2, 1));
+
+        var keys = sentRequests(2).stream().map(InventoryRequest::getIdempotencyKey).toList();
+        assertEquals(keys.get(0), keys.get(1));
+    }
+
+    @Test
+    public void payloads_of_same_location_are_committed_in_one_call() {
+        var client = client(10);
+        var other = payload(3);
+        other.setOrderId(200);
+        client.commit(List.of(payload(1, 2), other));
+        client.commit(payload(1, 2, 3));
+
+        var requests = sentRequests(2);
+        assertEquals(List.of(1L, 2L, 3L), fulfillmentIds(requests.get(0)));
+        assertEquals(List.of(100L, 100L, 200L), requests.get(0).getAdjustments().stream()
+                .map(AdjustmentRequest::getReferenceRootId)
+                .toList());
+        // key chỉ phụ thuộc store, location và fulfillment => gộp lại giống nhau khi outbox gọi lại
+        assertEquals(requests.get(0).getIdempotencyKey(), requests.get(1).getIdempotencyKey());
+    }
+
+    @Test
+    public void payloads_of_different_locations_are_rejected() {
+        var other = payload(3);
+        other.setLocationId(11);
+
+        assertThrows(IllegalArgumentException.class, () -> this.client.commit(List.of(payload(1), other)));
+        verifyNoInteractions(this.adminClient);
+    }
+
+    private List<InventoryRequest> sentRequests(int count) {
+        var captor = ArgumentCaptor.forClass(InventoryRequest.class);
+        verify(this.adminClient, times(count)).commitInventory(eq(STORE_ID), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private InventoryCommitClient client(int maxBatchSize) {
+        var properties = new InventoryCommitProperties();
+        properties.setMaxBatchSize(maxBatchSize);
+        return new InventoryCommitClient(this.adminClient, properties, new SimpleMeterRegistry());
+    }
+
+    private static List<Long> fulfillmentIds(InventoryRequest request) {
+        return request.getAdjustments().stream().map(AdjustmentRequest::getReferenceDocumentId).toList();
+    }
+
+    private static InventoryCommitPayload payload(int... fulfillmentIds) {
+        var payload = new InventoryCommitPayload();
+        payload.setStoreId(STORE_ID);
+        payload.setOrderId(100);
+        payload.setOrderName("#1001");
+        payload.setLocationId(10);
+        payload.setIssuedAt(Instant.now());
+        payload.setAdjustments(IntStream.of(fulfillmentIds)
+                .mapToObj(fulfillmentId -> {
+                    var lineItem = new InventoryCommitPayload.LineItem();
+                    lineItem.setInventoryItemId(1000 + fulfillmentId);
+                    lineItem.setQuantity(BigDecimal.valueOf(3));
+                    var adjustment = new InventoryCommitPayload.Adjustment();
+                    adjustment.setFulfillmentId(fulfillmentId);
+                    adjustment.setLineItems(List.of(lineItem));
+                    return adjustment;
+                })
+                .toList());
+        return payload;
+    }
+}
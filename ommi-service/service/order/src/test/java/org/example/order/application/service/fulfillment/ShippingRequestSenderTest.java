@@ -0,0 +1,169 @@
+package org.example.order.application.service.fulfillment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.service.fulfillment.ShippingCarrierClient;
+import org.example.order.order.application.service.fulfillment.ShippingRequestPayload;
+import org.example.order.order.application.service.fulfillment.ShippingRequestSender;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.model.FulfillmentId;
+import org.example.order.order.domain.fulfillment.model.FulfillmentLineItem;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
+import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.order.model.ReferenceInfo;
+import org.example.order.order.domain.order.model.VariantInfo;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.configuration.ShippingDispatchProperties;
+import org.example.shipping.ShippingRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * ShippingRequestSender: dựng shipping request từ order/fulfillment load lại, gom theo phương thức giao hàng
+ */
+public class ShippingRequestSenderTest {
+
+    private static final int STORE_ID = 1;
+    private static final int ORDER_ID = 100;
+    private static final int LINE_ITEM_ID = 7;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final FulfillmentRepository fulfillmentRepository = mock(FulfillmentRepository.class);
+    private final ShippingCarrierClient carrierClient = mock(ShippingCarrierClient.class);
+
+    @BeforeEach
+    public void setUp() {
+        var lineItem = mock(LineItem.class);
+        when(lineItem.getId()).thenReturn(LINE_ITEM_ID);
+        when(lineItem.getQuantity()).thenReturn(3);
+        when(lineItem.getPrice()).thenReturn(BigDecimal.valueOf(100));
+        when(lineItem.getDiscountedUnitPrice()).thenReturn(BigDecimal.valueOf(80));
+        when(lineItem.getVariantInfo()).thenReturn(VariantInfo.builder().productId(11).variantId(12).sku("SKU").grams(500).build());
+
+        var referenceInfo = mock(ReferenceInfo.class);
+        when(referenceInfo.getName()).thenReturn("#1001");
+        var order = mock(Order.class);
+        when(order.getId()).thenReturn(new OrderId(STORE_ID, ORDER_ID));
+        when(order.getReferenceInfo()).thenReturn(referenceInfo);
+        when(order.getLineItems()).thenReturn(List.of(lineItem));
+        when(this.orderRepository.findById(any(OrderId.class), any())).thenReturn(order);
+    }
+
+    @Test
+    public void requests_are_built_from_persisted_fulfillments_and_grouped_by_delivery_method() {
+        stubFulfillments(
+                fulfillment(1, Fulfillment.DeliveryMethod.external_service),
+                fulfillment(2, Fulfillment.DeliveryMethod.employee),
+                fulfillment(3, Fulfillment.DeliveryMethod.external_service),
+                fulfillment(4, Fulfillment.DeliveryMethod.pick_up));
+
+        sender(20).send(payload(1, 2, 3, 4));
+
+        var externalService = captureSubmitted("external_service", 1).get(0);
+        assertEquals(List.of(1, 3), externalService.stream().map(ShippingRequest::getFulfillmentId).toList());
+        var employee = captureSubmitted("employee", 1).get(0);
+        assertEquals(List.of(2), employee.stream().map(ShippingRequest::getFulfillmentId).toList());
+        // pick_up không cần vận chuyển
+        verify(this.carrierClient, never()).submit(anyInt(), eq("pick_up"), anyList());
+
+        var request = externalService.get(0);
+        assertEquals(ORDER_ID, request.getOrderId());
+        assertEquals("#1001", request.getOrderName());
+        assertEquals(10, request.getLocationId());
+        assertEquals("Kho chính", request.getLocationName());
+        assertEquals("Gọi trước khi giao", request.getNote());
+        var lineItem = request.getLineItems().get(0);
+        assertEquals(LINE_ITEM_ID, lineItem.getOrderLineItemId());
+        assertEquals(2, lineItem.getQuantity());
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(lineItem.getOriginalTotal()));
+        assertEquals(0, BigDecimal.valueOf(240).compareTo(lineItem.getDiscountedTotal()));
+        assertEquals("SKU", lineItem.getSku());
+    }
+
+    @Test
+    public void requests_are_split_by_max_batch_size() {
+        stubFulfillments(
+                fulfillment(1, Fulfillment.DeliveryMethod.external_service),
+                fulfillment(2, Fulfillment.DeliveryMethod.external_service),
+                fulfillment(3, Fulfillment.DeliveryMethod.external_service));
+
+        sender(2).send(payload(1, 2, 3));
+
+        var batches = captureSubmitted("external_service", 2);
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    public void nothing_is_sent_when_no_fulfillment_requires_shipping() {
+        stubFulfillments(fulfillment(1, Fulfillment.DeliveryMethod.retail));
+
+        sender(20).send(payload(1));
+
+        verifyNoInteractions(this.carrierClient);
+        verify(this.orderRepository, never()).findById(any(OrderId.class), any());
+    }
+
+    @Test
+    public void carrier_error_is_rethrown_for_outbox_retry() {
+        stubFulfillments(fulfillment(1, Fulfillment.DeliveryMethod.external_service));
+        doThrow(new IllegalStateException("carrier down")).when(this.carrierClient).submit(anyInt(), anyString(), anyList());
+
+        assertThrows(IllegalStateException.class, () -> sender(20).send(payload(1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<ShippingRequest>> captureSubmitted(String deliveryMethod, int times) {
+        ArgumentCaptor<List<ShippingRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.carrierClient, times(times)).submit(eq(STORE_ID), eq(deliveryMethod), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private void stubFulfillments(Fulfillment... fulfillments) {
+        when(this.fulfillmentRepository.getByIds(anyList())).thenReturn(Arrays.asList(fulfillments));
+    }
+
+    private ShippingRequestSender sender(int maxBatchSize) {
+        var properties = new ShippingDispatchProperties();
+        properties.setMaxBatchSize(maxBatchSize);
+        return new ShippingRequestSender(this.orderRepository, this.fulfillmentRepository, this.carrierClient,
+                properties, new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry());
+    }
+
+    private static ShippingRequestPayload payload(Integer... fulfillmentIds) {
+        var payload = new ShippingRequestPayload();
+        payload.setStoreId(STORE_ID);
+        payload.setOrderId(ORDER_ID);
+        payload.setLocationId(10);
+        payload.setLocationName("Kho chính");
+        payload.setNote("Gọi trước khi giao");
+        payload.setFulfillmentIds(List.of(fulfillmentIds));
+        return payload;
+    }
+
+    private static Fulfillment fulfillment(int id, Fulfillment.DeliveryMethod deliveryMethod) {
+        var lineItem = mock(FulfillmentLineItem.class);
+        when(lineItem.getLineItemId()).thenReturn(LINE_ITEM_ID);
+        when(lineItem.getQuantity()).thenReturn(2);
+
+        var fulfillment = mock(Fulfillment.class);
+        when(fulfillment.getId()).thenReturn(new FulfillmentId(STORE_ID, id));
+        when(fulfillment.getDeliveryMethod()).thenReturn(deliveryMethod);
+        when(fulfillment.getLineItems()).thenReturn(List.of(lineItem));
+        return fulfillment;
+    }
+}
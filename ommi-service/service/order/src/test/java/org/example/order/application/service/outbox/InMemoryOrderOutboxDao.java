@@ -0,0 +1,127 @@
+package org.example.order.application.service.outbox;
+
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDao;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outbox trong bộ nhớ, cùng quy tắc thứ tự với JdbcOrderOutboxDao (event processing/dead chặn event sau của cùng order)
+ */
+final class InMemoryOrderOutboxDao implements OrderOutboxDao {
+
+    static final int STORE_ID = 1;
+
+    private final Map<Long, OrderOutboxDto> events = new TreeMap<>();
+    final List<OrderOutboxDto> dead = Collections.synchronizedList(new ArrayList<>());
+    final List<Integer> retriedAttempts = Collections.synchronizedList(new ArrayList<>());
+    private long nextId = 1;
+
+    void add(int orderId, String payload) {
+        this.add(orderId, "handler", payload);
+    }
+
+    synchronized void add(int orderId, String handler, String payload) {
+        var event = new OrderOutboxDto();
+        event.setId(this.nextId++);
+        event.setStoreId(STORE_ID);
+        event.setOrderId(orderId);
+        event.setHandler(handler);
+        event.setPayload(payload);
+        event.setStatus(STATUS_PENDING);
+        event.setNextAttemptAt(Instant.EPOCH);
+        event.setCreatedAt(Instant.now());
+        this.events.put(event.getId(), event);
+    }
+
+    synchronized boolean isEmpty() {
+        return this.events.values().stream().allMatch(event -> "dead".equals(event.getStatus()));
+    }
+
+    @Override
+    public synchronized void insert(List<OrderOutboxDto> events) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized List<OrderOutboxDto> findDispatchable(Instant now, int limit) {
+        var blockedOrders = new HashSet<Integer>();
+        var result = new ArrayList<OrderOutboxDto>();
+        for (var event : this.events.values()) {
+            if (!blockedOrders.add(event.getOrderId())) continue;
+            if (STATUS_PENDING.equals(event.getStatus()) && !event.getNextAttemptAt().isAfter(now) && result.size() < limit) {
+                result.add(copy(event));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean claim(long id, Instant now) {
+        var event = this.events.get(id);
+        if (event == null || !STATUS_PENDING.equals(event.getStatus())) return false;
+        event.setStatus("processing");
+        return true;
+    }
+
+    @Override
+    public synchronized void delete(long id) {
+        this.events.remove(id);
+    }
+
+    @Override
+    public synchronized void retryLater(long id, int attempts, Instant nextAttemptAt, String error) {
+        var event = this.events.get(id);
+        event.setStatus(STATUS_PENDING);
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(nextAttemptAt);
+        event.setLastError(error);
+        this.retriedAttempts.add(attempts);
+    }
+
+    @Override
+    public synchronized void markDead(long id, int attempts, String error) {
+        var event = this.events.get(id);
+        event.setStatus("dead");
+        event.setAttempts(attempts);
+        event.setLastError(error);
+        this.dead.add(copy(event));
+    }
+
+    @Override
+    public synchronized int releaseStale(Instant claimedBefore) {
+        return 0;
+    }
+
+    @Override
+    public synchronized Map<String, Long> countPendingByHandler(Collection<String> handlers) {
+        Map<String, Long> counts = new HashMap<>();
+        for (var event : this.events.values()) {
+            if ("dead".equals(event.getStatus()) || !handlers.contains(event.getHandler())) continue;
+            counts.merge(event.getHandler(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private static OrderOutboxDto copy(OrderOutboxDto event) {
+        var copy = new OrderOutboxDto();
+        copy.setId(event.getId());
+        copy.setStoreId(event.getStoreId());
+        copy.setOrderId(event.getOrderId());
+        copy.setHandler(event.getHandler());
+        copy.setPayload(event.getPayload());
+        copy.setStatus(event.getStatus());
+        copy.setAttempts(event.getAttempts());
+        copy.setNextAttemptAt(event.getNextAttemptAt());
+        copy.setCreatedAt(event.getCreatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.order.application.service.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.service.outbox.OrderOutboxDispatcher;
+import org.example.order.order.application.service.outbox.OrderOutboxHandlers;
+import org.example.order.order.application.service.outbox.OutboxRetryLaterException;
+import org.example.order.order.infrastructure.configuration.OrderOutboxProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderOutboxDispatcher với outbox trong bộ nhớ (cùng quy tắc thứ tự với JdbcOrderOutboxDao)
+ */
+public class OrderOutboxDispatcherTest {
+
+    private final InMemoryOrderOutboxDao orderOutboxDao = new InMemoryOrderOutboxDao();
+    private final OrderOutboxHandlers handlers = mock(OrderOutboxHandlers.class);
+    private final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<String>> coalesced = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger coalescedFailures = new AtomicInteger();
+    private final Map<String, AtomicInteger> remainingFailures = new ConcurrentHashMap<>();
+
+    private OrderOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            String payload = invocation.getArgument(1);
+            this.handled.add(payload);
+            var failures = this.remainingFailures.get(payload);
+            if (failures != null && failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("handler failed");
+            }
+            return null;
+        }).when(this.handlers).handle(anyString(), anyString());
+        when(this.handlers.coalesceKey(eq("inventory"), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+        doAnswer(invocation -> {
+            List<String> payloads = invocation.getArgument(1);
+            this.coalesced.add(payloads);
+            if (this.coalescedFailures.getAndDecrement() > 0) {
+                throw new IllegalStateException("handler failed");
+            }
+            return null;
+        }).when(this.handlers).handleCoalesced(anyString(), anyList());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (this.dispatcher != null) this.dispatcher.shutdown();
+    }
+
+    @Test
+    public void failed_event_is_retried_until_it_succeeds() throws InterruptedException {
+        this.remainingFailures.put("e1", new AtomicInteger(2));
+        this.orderOutboxDao.add(1, "e1");
+        this.start(properties());
+
+        await(this.orderOutboxDao::isEmpty);
+        assertEquals(List.of("e1", "e1", "e1"), this.handled);
+        assertEquals(List.of(1, 2), this.orderOutboxDao.retriedAttempts);
+    }
+
+    @Test
+    public void event_is_dead_after_max_attempts() throws InterruptedException {
+        this.remainingFailures.put("e1", new AtomicInteger(Integer.MAX_VALUE));
+        this.orderOutboxDao.add(1, "e1");
+        var properties = properties();
+        properties.setMaxAttempts(3);
+        this.start(properties);
+
+        await(() -> !this.orderOutboxDao.dead.isEmpty());
+        Thread.sleep(50);
+        assertEquals(List.of("e1", "e1", "e1"), this.handled);
+        assertEquals(3, this.orderOutboxDao.dead.get(0).getAttempts());
+    }
+
+    @Test
+    public void events_of_same_order_are_handled_in_order_even_when_first_fails() throws InterruptedException {
+        this.remainingFailures.put("o1-first", new AtomicInteger(1));
+        this.orderOutboxDao.add(1, "o1-first");
+        this.orderOutboxDao.add(1, "o1-second");
+        this.orderOutboxDao.add(2, "o2");
+        this.start(properties());
+
+        await(this.orderOutboxDao::isEmpty);
+        var firstOrder = this.handled.stream().filter(payload -> payload.startsWith("o1")).toList();
+        assertEquals(List.of("o1-first", "o1-first", "o1-second"), firstOrder);
+        assertTrue(this.handled.contains("o2"));
+    }
+
+    @Test
+    public void events_with_same_coalesce_key_are_handled_in_one_call() throws InterruptedException {
+        for (int orderId = 1; orderId <= 5; orderId++) {
+            this.orderOutboxDao.add(orderId, "inventory", "location-a");
+        }
+        this.orderOutboxDao.add(6, "inventory", "location-b");
+        this.orderOutboxDao.add(7, "inventory", "location-b");
+        this.orderOutboxDao.add(8, "e8");
+        this.start(properties());
+
+        await(this.orderOutboxDao::isEmpty);
+        assertEquals(List.of(List.of("location-a", "location-a", "location-a", "location-a", "location-a"),
+                        List.of("location-b", "location-b")),
+                this.coalesced.stream().sorted(Comparator.comparing(payloads -> payloads.get(0))).toList());
+        assertEquals(List.of("e8"), this.handled);
+    }
+
+    @Test
+    public void failed_coalesced_events_are_retried_together() throws InterruptedException {
+        this.coalescedFailures.set(1);
+        this.orderOutboxDao.add(1, "inventory", "location-a");
+        this.orderOutboxDao.add(2, "inventory", "location-a");
+        this.start(properties());
+
+        await(this.orderOutboxDao::isEmpty);
+        assertEquals(List.of(List.of("location-a", "location-a"), List.of("location-a", "location-a")), this.coalesced);
+        assertEquals(List.of(1, 1), this.orderOutboxDao.retriedAttempts);
+    }
+
+    @Test
+    public void throttled_event_is_retried_without_counting_an_attempt() throws InterruptedException {
+        var throttled = new AtomicInteger(3);
+        doAnswer(invocation -> {
+            String payload = invocation.getArgument(1);
+            this.handled.add(payload);
+            if (throttled.getAndDecrement() > 0) {
+                throw new OutboxRetryLaterException("throttled");
+            }
+            return null;
+        }).when(this.handlers).handle(anyString(), anyString());
+        this.orderOutboxDao.add(1, "e1");
+        var properties = properties();
+        properties.setMaxAttempts(1);
+        this.start(properties);
+
+        await(this.orderOutboxDao::isEmpty);
+        assertEquals(List.of("e1", "e1", "e1", "e1"), this.handled);
+        assertEquals(List.of(0, 0, 0), this.orderOutboxDao.retriedAttempts);
+        assertTrue(this.orderOutboxDao.dead.isEmpty());
+    }
+
+    @Test
+    public void only_transactional_handlers_run_inside_the_transaction() throws InterruptedException {
+        var transactionManager = mock(PlatformTransactionManager.class);
+        var inTransaction = new AtomicBoolean();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            return mock(TransactionStatus.class);
+        });
+        doAnswer(invocation -> {
+            inTransaction.set(false);
+            return null;
+        }).when(transactionManager).commit(any());
+        when(this.handlers.isTransactional("local")).thenReturn(true);
+        Map<String, Boolean> handledInTransaction = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            handledInTransaction.put(invocation.getArgument(0), inTransaction.get());
+            return null;
+        }).when(this.handlers).handle(anyString(), anyString());
+        this.orderOutboxDao.add(1, "local", "p1");
+        this.orderOutboxDao.add(2, "remote", "p2");
+        var properties = properties();
+        properties.setConcurrency(1);
+        this.start(properties, transactionManager);
+
+        await(this.orderOutboxDao::isEmpty);
+        assertEquals(Map.of("local", true, "remote", false), handledInTransaction);
+    }
+
+    private void start(OrderOutboxProperties properties) {
+        this.start(properties, mock(PlatformTransactionManager.class));
+    }
+
+    private void start(OrderOutboxProperties properties, PlatformTransactionManager transactionManager) {
+        this.dispatcher = new OrderOutboxDispatcher(
+                this.orderOutboxDao,
+                this.handlers,
+                properties,
+                new TransactionTemplate(transactionManager),
+                new SimpleMeterRegistry());
+        this.dispatcher.start();
+    }
+
+    static OrderOutboxProperties properties() {
+        var properties = new OrderOutboxProperties();
+        properties.setConcurrency(4);
+        properties.setPollInterval(Duration.ofMillis(5));
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        properties.setMaxBackoff(Duration.ofMillis(20));
+        return properties;
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.order.application.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.order.order.application.model.fulfillmentorder.OrderRoutingResponse;
+import org.example.order.order.application.model.order.request.OrderCreateRequest;
+import org.example.order.order.application.model.order.request.OrderTransactionCreateRequest;
+import org.example.order.order.application.model.order.response.OrderPaymentResult;
+import org.example.order.order.application.service.fulfillment.InventoryCommitClient;
+import org.example.order.order.application.service.fulfillment.InventoryCommitPayload;
+import org.example.order.order.application.service.fulfillment.ShippingRequestPayload;
+import org.example.order.order.application.service.fulfillment.ShippingRequestSender;
+import org.example.order.order.application.service.fulfillmentorder.FulfillmentOrderWriteService;
+import org.example.order.order.application.service.order.OrderCreatedAppEvent;
+import org.example.order.order.application.service.outbox.OrderOutboxHandlers;
+import org.example.order.order.application.service.outbox.OrderOutboxWriter;
+import org.example.order.order.application.service.transaction.OrderTransactionWriteService;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.transaction.model.OrderTransaction;
+import org.example.order.order.infrastructure.configuration.OrderOutboxProperties;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDao;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDto;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderOutboxWriter: OrderCreatedAppEvent, adjustment tồn kho, shipping request được ghi vào outbox và đọc lại đúng khi handler chạy
+ */
+public class OrderOutboxWriterTest {
+
+    private static final int STORE_ID = 1;
+    private static final int ORDER_ID = 100;
+
+    private final OrderOutboxDao orderOutboxDao = mock(OrderOutboxDao.class);
+    private final InventoryCommitClient inventoryCommitClient = mock(InventoryCommitClient.class);
+    private final ShippingRequestSender shippingRequestSender = mock(ShippingRequestSender.class);
+    private final FulfillmentOrderWriteService fulfillmentOrderWriteService = mock(FulfillmentOrderWriteService.class);
+    private final OrderTransactionWriteService orderTransactionWriteService = mock(OrderTransactionWriteService.class);
+    private final OrderOutboxHandlers handlers = new OrderOutboxHandlers(
+            this.fulfillmentOrderWriteService,
+            this.orderTransactionWriteService,
+            this.inventoryCommitClient,
+            this.shippingRequestSender,
+            new ObjectMapper().findAndRegisterModules());
+    private final OrderOutboxProperties properties = new OrderOutboxProperties();
+    private final OrderOutboxWriter writer = new OrderOutboxWriter(this.orderOutboxDao, this.handlers, this.properties);
+
+    @Test
+    public void order_created_event_is_written_per_handler_and_read_back() {
+        var event = orderCreated();
+        this.writer.handleOrderCreated(event);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderOutboxDto>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(this.orderOutboxDao).insert(inserted.capture());
+        assertEquals(List.of("fulfillment_order", "transaction_from_checkout", "transaction_added"),
+                inserted.getValue().stream().map(OrderOutboxDto::getHandler).toList());
+        verifyNoInteractions(this.fulfillmentOrderWriteService, this.orderTransactionWriteService);
+
+        inserted.getValue().forEach(row -> this.handlers.handle(row.getHandler(), row.getPayload()));
+
+        var read = ArgumentCaptor.forClass(OrderCreatedAppEvent.class);
+        verify(this.fulfillmentOrderWriteService).handleOrderFulfillmentAdded(read.capture());
+        verify(this.orderTransactionWriteService).handleOrderTransactionFromCheckout(any());
+        verify(this.orderTransactionWriteService).handleOrderTransactionAdded(any());
+        var readEvent = read.getValue();
+        assertEquals(STORE_ID, readEvent.getStoreId());
+        assertEquals(STORE_ID, readEvent.getOrderId().getStoreId());
+        assertEquals(ORDER_ID, readEvent.getOrderId().getId());
+
+        var result = readEvent.getOrderRoutingResponse().getResults().get(0);
+        assertEquals(10L, result.getLocation().getId());
+        assertEquals("Kho chính", result.getLocation().getName());
+        assertEquals(0, result.getIndexesItems().get(0).getIndex());
+        assertEquals(12, result.getIndexesItems().get(0).getVariantId());
+
+        var fulfillment = readEvent.getFulfillmentRequests().get(0);
+        assertEquals(Fulfillment.DeliveryMethod.external_service, fulfillment.getDeliveryMethod());
+        assertTrue(fulfillment.isSendNotification());
+        assertEquals("Giao giờ hành chính", fulfillment.getNote());
+
+        var paymentResult = readEvent.getPaymentResult();
+        assertTrue(paymentResult.isFromCheckout());
+        assertEquals("token", paymentResult.getCheckoutToken());
+        assertEquals(List.of(7, 8), paymentResult.getPaymentIds());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(paymentResult.getTransactions().get(0).getAmount()));
+        assertEquals(OrderTransaction.Kind.sale, paymentResult.getTransactions().get(0).getKind());
+
+        var transaction = readEvent.getTransactions().get(0);
+        assertEquals("cod", transaction.getGateway());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(transaction.getAmount()));
+        assertEquals(OrderTransaction.Kind.sale, transaction.getKind());
+        assertEquals(OrderTransaction.Status.success, transaction.getStatus());
+        assertEquals(event.getTransactions().get(0).getProcessedAt(), transaction.getProcessedAt());
+    }
+
+    @Test
+    public void inventory_adjustments_are_written_to_outbox_and_read_back_by_handler() {
+        var payload = payload();
+        this.writer.append(STORE_ID, ORDER_ID, OrderOutboxHandlers.FULFILLMENT_CREATED, OrderOutboxHandlers.INVENTORY_COMMIT, payload);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderOutboxDto>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(this.orderOutboxDao).insert(inserted.capture());
+        var event = inserted.getValue().get(0);
+        assertEquals(STORE_ID, event.getStoreId());
+        assertEquals(ORDER_ID, event.getOrderId());
+        assertEquals(OrderOutboxHandlers.FULFILLMENT_CREATED, event.getEventType());
+        assertEquals(OrderOutboxHandlers.INVENTORY_COMMIT, event.getHandler());
+        // chưa gửi gì trước khi dispatcher xử lý
+        verifyNoInteractions(this.inventoryCommitClient);
+
+        this.handlers.handle(event.getHandler(), event.getPayload());
+
+        var committed = ArgumentCaptor.forClass(InventoryCommitPayload.class);
+        verify(this.inventoryCommitClient).commit(committed.capture());
+        var read = committed.getValue();
+        assertEquals(STORE_ID, read.getStoreId());
+        assertEquals(ORDER_ID, read.getOrderId());
+        assertEquals("#1001", read.getOrderName());
+        assertEquals(10, read.getLocationId());
+        assertEquals(payload.getIssuedAt(), read.getIssuedAt());
+        var adjustment = read.getAdjustments().get(0);
+        assertEquals(5, adjustment.getFulfillmentId());
+        assertEquals(1005, adjustment.getLineItems().get(0).getInventoryItemId());
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(adjustment.getLineItems().get(0).getQuantity()));
+    }
+
+    @Test
+    public void inventory_commits_of_same_location_are_coalesced() {
+        var other = payload();
+        other.setOrderId(ORDER_ID + 1);
+        var otherLocation = payload();
+        otherLocation.setLocationId(11);
+        var serialized = this.handlers.serialize(payload());
+
+        assertEquals(this.handlers.coalesceKey(OrderOutboxHandlers.INVENTORY_COMMIT, serialized),
+                this.handlers.coalesceKey(OrderOutboxHandlers.INVENTORY_COMMIT, this.handlers.serialize(other)));
+        assertNotEquals(this.handlers.coalesceKey(OrderOutboxHandlers.INVENTORY_COMMIT, serialized),
+                this.handlers.coalesceKey(OrderOutboxHandlers.INVENTORY_COMMIT, this.handlers.serialize(otherLocation)));
+        assertNull(this.handlers.coalesceKey(OrderOutboxHandlers.SHIPPING_REQUEST, "{}"));
+
+        this.handlers.handleCoalesced(OrderOutboxHandlers.INVENTORY_COMMIT, List.of(serialized, this.handlers.serialize(other)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InventoryCommitPayload>> committed = ArgumentCaptor.forClass(List.class);
+        verify(this.inventoryCommitClient).commit(committed.capture());
+        assertEquals(List.of(ORDER_ID, ORDER_ID + 1), committed.getValue().stream().map(InventoryCommitPayload::getOrderId).toList());
+    }
+
+    @Test
+    public void shipping_request_is_written_to_outbox_and_read_back_by_handler() {
+        var payload = new ShippingRequestPayload();
+        payload.setStoreId(STORE_ID);
+        payload.setOrderId(ORDER_ID);
+        payload.setLocationId(10);
+        payload.setLocationName("Kho chính");
+        payload.setNote("Giao giờ hành chính");
+        payload.setFulfillmentIds(List.of(5, 6));
+        this.writer.append(STORE_ID, ORDER_ID, OrderOutboxHandlers.FULFILLMENT_CREATED, OrderOutboxHandlers.SHIPPING_REQUEST, payload);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderOutboxDto>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(this.orderOutboxDao).insert(inserted.capture());
+        var event = inserted.getValue().get(0);
+        assertEquals(OrderOutboxHandlers.SHIPPING_REQUEST, event.getHandler());
+        verifyNoInteractions(this.shippingRequestSender);
+
+        this.handlers.handle(event.getHandler(), event.getPayload());
+
+        var sent = ArgumentCaptor.forClass(ShippingRequestPayload.class);
+        verify(this.shippingRequestSender).send(sent.capture());
+        assertEquals(ORDER_ID, sent.getValue().getOrderId());
+        assertEquals(10, sent.getValue().getLocationId());
+        assertEquals("Kho chính", sent.getValue().getLocationName());
+        assertEquals("Giao giờ hành chính", sent.getValue().getNote());
+        assertEquals(List.of(5, 6), sent.getValue().getFulfillmentIds());
+    }
+
+    @Test
+    public void disabled_outbox_runs_handler_after_commit() {
+        this.properties.setEnabled(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            this.writer.append(STORE_ID, ORDER_ID, OrderOutboxHandlers.FULFILLMENT_CREATED, OrderOutboxHandlers.INVENTORY_COMMIT, payload());
+            verifyNoInteractions(this.inventoryCommitClient);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(this.inventoryCommitClient).commit(any(InventoryCommitPayload.class));
+        verify(this.orderOutboxDao, never()).insert(any());
+    }
+
+    private static OrderCreatedAppEvent orderCreated() {
+        var fulfillmentRequest = new OrderCreateRequest.FulfillmentRequest();
+        fulfillmentRequest.setDeliveryMethod(Fulfillment.DeliveryMethod.external_service);
+        fulfillmentRequest.setSendNotification(true);
+        fulfillmentRequest.setNote("Giao giờ hành chính");
+
+        return OrderCreatedAppEvent.builder()
+                .storeId(STORE_ID)
+                .orderId(new OrderId(STORE_ID, ORDER_ID))
+                .orderRoutingResponse(OrderRoutingResponse.builder()
+                        .results(List.of(OrderRoutingResponse.OrderRoutingResult.builder()
+                                .location(OrderRoutingResponse.OrderRoutingLocation.builder().id(10L).name("Kho chính").build())
+                                .indexesItems(List.of(OrderRoutingResponse.IndexesItem.builder().index(0).variantId(12).build()))
+                                .build()))
+                        .build())
+                .fulfillmentRequests(List.of(fulfillmentRequest))
+                .paymentResult(OrderPaymentResult.builder()
+                        .isFromCheckout(true)
+                        .checkoutToken("token")
+                        .paymentIds(List.of(7, 8))
+                        .transactions(List.of(Order.TransactionInput.builder()
+                                .amount(BigDecimal.valueOf(150))
+                                .kind(OrderTransaction.Kind.sale)
+                                .status(OrderTransaction.Status.success)
+                                .build()))
+                        .build())
+                .transactions(List.of(OrderTransactionCreateRequest.builder()
+                        .gateway("cod")
+                        .amount(BigDecimal.valueOf(150))
+                        .kind(OrderTransaction.Kind.sale)
+                        .status(OrderTransaction.Status.success)
+                        .processedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                        .build()))
+                .build();
+    }
+
+    private static InventoryCommitPayload payload() {
+        var lineItem = new InventoryCommitPayload.LineItem();
+        lineItem.setInventoryItemId(1005);
+        lineItem.setQuantity(BigDecimal.valueOf(2));
+        var adjustment = new InventoryCommitPayload.Adjustment();
+        adjustment.setFulfillmentId(5);
+        adjustment.setLineItems(List.of(lineItem));
+
+        var payload = new InventoryCommitPayload();
+        payload.setStoreId(STORE_ID);
+        payload.setOrderId(ORDER_ID);
+        payload.setOrderName("#1001");
+        payload.setLocationId(10);
+        payload.setIssuedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        payload.setAdjustments(List.of(adjustment));
+        return payload;
+    }
+}
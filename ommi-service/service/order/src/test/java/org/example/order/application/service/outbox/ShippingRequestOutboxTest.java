@@ -0,0 +1,204 @@
+package org.example.order.application.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.service.fulfillment.InventoryCommitClient;
+import org.example.order.order.application.service.fulfillment.ShippingCarrierClient;
+import org.example.order.order.application.service.fulfillment.ShippingRequestPayload;
+import org.example.order.order.application.service.fulfillment.ShippingRequestSender;
+import org.example.order.order.application.service.fulfillmentorder.FulfillmentOrderWriteService;
+import org.example.order.order.application.service.outbox.OrderOutboxDispatcher;
+import org.example.order.order.application.service.outbox.OrderOutboxHandlers;
+import org.example.order.order.application.service.transaction.OrderTransactionWriteService;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.model.FulfillmentId;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.configuration.OrderOutboxProperties;
+import org.example.order.order.infrastructure.configuration.ShippingDispatchProperties;
+import org.example.shipping.ShippingRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Handler shipping_request chạy qua OrderOutboxDispatcher, gửi tới carrier giả lập (giới hạn đồng thời, retry, metric)
+ */
+public class ShippingRequestOutboxTest {
+
+    private static final int STORE_ID = InMemoryOrderOutboxDao.STORE_ID;
+
+    private final InMemoryOrderOutboxDao orderOutboxDao = new InMemoryOrderOutboxDao();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<Integer, Fulfillment.DeliveryMethod> deliveryMethods = new ConcurrentHashMap<>();
+    private final StubCarrier carrier = new StubCarrier();
+    private final ShippingDispatchProperties shippingProperties = new ShippingDispatchProperties();
+
+    private OrderOutboxHandlers handlers;
+    private OrderOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        var orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findById(any(), any())).thenAnswer(invocation -> {
+            OrderId orderId = invocation.getArgument(0);
+            var order = mock(Order.class, RETURNS_DEEP_STUBS);
+            when(order.getId()).thenReturn(orderId);
+            when(order.getLineItems()).thenReturn(List.of());
+            when(order.getReferenceInfo().getName()).thenReturn("#" + orderId.getId());
+            return order;
+        });
+        var fulfillmentRepository = mock(FulfillmentRepository.class);
+        when(fulfillmentRepository.getByIds(anyList())).thenAnswer(invocation -> {
+            List<FulfillmentId> fulfillmentIds = invocation.getArgument(0);
+            return fulfillmentIds.stream().map(this::fulfillment).toList();
+        });
+
+        this.shippingProperties.setDefaultConcurrency(2);
+        this.shippingProperties.setConcurrencies(Map.of("employee", 1));
+        var sender = new ShippingRequestSender(orderRepository, fulfillmentRepository, this.carrier, this.shippingProperties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), this.meterRegistry);
+        this.handlers = new OrderOutboxHandlers(
+                mock(FulfillmentOrderWriteService.class),
+                mock(OrderTransactionWriteService.class),
+                mock(InventoryCommitClient.class),
+                sender,
+                new ObjectMapper());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (this.dispatcher != null) this.dispatcher.shutdown();
+    }
+
+    @Test
+    public void in_flight_calls_are_limited_per_delivery_method_and_failed_calls_are_retried() throws InterruptedException {
+        this.carrier.remainingFailures.put("external_service", new AtomicInteger(2));
+        for (int id = 1; id <= 12; id++) {
+            this.addShippingRequest(id, Fulfillment.DeliveryMethod.external_service);
+        }
+        for (int id = 101; id <= 104; id++) {
+            this.addShippingRequest(id, Fulfillment.DeliveryMethod.employee);
+        }
+        this.start();
+
+        OrderOutboxDispatcherTest.await(this.orderOutboxDao::isEmpty);
+        assertTrue(this.carrier.maxActive.get("external_service").get() <= 2);
+        assertEquals(1, this.carrier.maxActive.get("employee").get());
+        assertEquals(16, this.carrier.delivered.size());
+        assertTrue(this.carrier.delivered.values().stream().allMatch(count -> count.get() == 1));
+        assertEquals(2, this.orderOutboxDao.retriedAttempts.size());
+        // lag được ghi sau khi xoá event
+        OrderOutboxDispatcherTest.await(() -> this.meterRegistry.get("order.outbox.delivery.lag")
+                .tag("handler", OrderOutboxHandlers.SHIPPING_REQUEST)
+                .timer().count() == 16);
+        assertTrue(this.carrier.maxObservedPending.get() > 0);
+        OrderOutboxDispatcherTest.await(() -> this.pending() == 0);
+    }
+
+    @Test
+    public void event_waiting_too_long_for_its_delivery_method_is_retried_later() throws InterruptedException {
+        this.shippingProperties.setAcquireTimeout(Duration.ofMillis(1));
+        this.carrier.callDuration = Duration.ofMillis(30);
+        for (int id = 101; id <= 104; id++) {
+            this.addShippingRequest(id, Fulfillment.DeliveryMethod.employee);
+        }
+        this.start();
+
+        OrderOutboxDispatcherTest.await(this.orderOutboxDao::isEmpty);
+        assertEquals(1, this.carrier.maxActive.get("employee").get());
+        assertFalse(this.orderOutboxDao.retriedAttempts.isEmpty());
+        // throttle không tính attempt
+        assertTrue(this.orderOutboxDao.retriedAttempts.stream().allMatch(attempts -> attempts == 0));
+        assertEquals(4, this.carrier.delivered.size());
+        assertTrue(this.orderOutboxDao.dead.isEmpty());
+    }
+
+    private void addShippingRequest(int id, Fulfillment.DeliveryMethod deliveryMethod) {
+        this.deliveryMethods.put(id, deliveryMethod);
+        var payload = new ShippingRequestPayload();
+        payload.setStoreId(STORE_ID);
+        payload.setOrderId(id);
+        payload.setLocationId(1);
+        payload.setFulfillmentIds(List.of(id));
+        this.orderOutboxDao.add(id, OrderOutboxHandlers.SHIPPING_REQUEST, this.handlers.serialize(payload));
+    }
+
+    private Fulfillment fulfillment(FulfillmentId fulfillmentId) {
+        var fulfillment = mock(Fulfillment.class);
+        when(fulfillment.getId()).thenReturn(fulfillmentId);
+        when(fulfillment.getDeliveryMethod()).thenReturn(this.deliveryMethods.get(fulfillmentId.getId()));
+        when(fulfillment.getLineItems()).thenReturn(List.of());
+        return fulfillment;
+    }
+
+    private void start() {
+        var properties = OrderOutboxDispatcherTest.properties();
+        properties.setConcurrency(8);
+        properties.setMaxAttempts(100);
+        properties.setMetricsInterval(Duration.ofMillis(5));
+        this.dispatcher = new OrderOutboxDispatcher(
+                this.orderOutboxDao,
+                this.handlers,
+                properties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                this.meterRegistry);
+        this.dispatcher.start();
+    }
+
+    private double pending() {
+        return this.meterRegistry.get("order.outbox.pending")
+                .tag("handler", OrderOutboxHandlers.SHIPPING_REQUEST)
+                .gauge().value();
+    }
+
+    private final class StubCarrier implements ShippingCarrierClient {
+        private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> maxActive = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> remainingFailures = new ConcurrentHashMap<>();
+        private final Map<Integer, AtomicInteger> delivered = new ConcurrentHashMap<>();
+        private final AtomicLong maxObservedPending = new AtomicLong();
+        private volatile Duration callDuration = Duration.ofMillis(10);
+
+        @Override
+        public void submit(int storeId, String deliveryMethod, List<ShippingRequest> requests) {
+            var current = this.active.computeIfAbsent(deliveryMethod, key -> new AtomicInteger()).incrementAndGet();
+            this.maxActive.computeIfAbsent(deliveryMethod, key -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+            this.maxObservedPending.accumulateAndGet((long) pending(), Math::max);
+            try {
+                Thread.sleep(this.callDuration.toMillis());
+                var failures = this.remainingFailures.get(deliveryMethod);
+                if (failures != null && failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("carrier unavailable");
+                }
+                requests.forEach(request ->
+                        this.delivered.computeIfAbsent(request.getFulfillmentId(), key -> new AtomicInteger()).incrementAndGet());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                this.active.get(deliveryMethod).decrementAndGet();
+            }
+        }
+    }
+}
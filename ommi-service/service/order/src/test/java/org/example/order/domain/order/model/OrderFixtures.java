@@ -18,7 +18,7 @@ public interface OrderFixtures {
                 storeId, processedAt, customerInfo,
                 trackingInfo, currency, gateWay, processingMethod, totalWeight,
                 note, tags, null, billingAddress, shippingAddress,
-                lineItems(), shippingLines, discountCodes,
+                lineItems(), shippingLines(), discountCodes,
                 discountApplications, discountAllocations,
                 idGenerator, taxExempt, false, null, locationId, List.of()
         );
@@ -68,6 +68,10 @@ public interface OrderFixtures {
 
     List<ShippingLine> shippingLines = List.of();
 
+    default List<ShippingLine> shippingLines() {
+        return shippingLines;
+    }
+
     int lineItemId1 = 123;
     int lineQuantity1 = 15;
     BigDecimal price1 = BigDecimal.valueOf(15_000);
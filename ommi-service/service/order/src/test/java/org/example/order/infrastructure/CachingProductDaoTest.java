@@ -0,0 +1,165 @@
+package org.example.order.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.infrastructure.data.dao.CachingProductDao;
+import org.example.order.order.infrastructure.data.dao.ProductDao;
+import org.example.order.order.infrastructure.data.dao.ProductLogDao;
+import org.example.order.order.infrastructure.data.dao.ProductLogDto;
+import org.example.order.order.infrastructure.data.dto.ProductDto;
+import org.example.order.order.infrastructure.data.dto.VariantDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CachingProductDao với ProductLogs giả lập: log được "commit" không theo thứ tự id
+ */
+public class CachingProductDaoTest {
+
+    private static final int STORE_ID = 1;
+
+    private final InMemoryProductLogs productLogs = new InMemoryProductLogs();
+    private final CountingProductDao delegate = new CountingProductDao();
+
+    @Test
+    public void cached_product_is_invalidated_by_log() {
+        var cache = cache(Duration.ofMinutes(10));
+        cache.pollProductLogs();
+
+        load(cache, 1);
+        load(cache, 1);
+        assertEquals(1, this.delegate.productLoads);
+
+        this.productLogs.commit(1, 1);
+        cache.pollProductLogs();
+
+        load(cache, 1);
+        assertEquals(2, this.delegate.productLoads);
+    }
+
+    @Test
+    public void log_committed_later_with_lower_id_still_invalidates() {
+        var cache = cache(Duration.ofMinutes(10));
+        cache.pollProductLogs();
+        load(cache, 1);
+
+        // log 1 (product 1) đang trong transaction chưa commit, log 2 (product 2) commit trước
+        this.productLogs.commit(2, 2);
+        cache.pollProductLogs();
+        load(cache, 1);
+        assertEquals(1, this.delegate.productLoads);
+
+        this.productLogs.commit(1, 1);
+        cache.pollProductLogs();
+
+        load(cache, 1);
+        assertEquals(2, this.delegate.productLoads);
+        // log 1 đã thấy => không đọc lại nữa
+        this.productLogs.requestedIds.clear();
+        cache.pollProductLogs();
+        assertTrue(this.productLogs.requestedIds.isEmpty());
+    }
+
+    @Test
+    public void skipped_id_that_never_commits_is_dropped_after_ttl() throws InterruptedException {
+        var cache = cache(Duration.ofMillis(50));
+        cache.pollProductLogs();
+
+        // id 1 của transaction đã rollback
+        this.productLogs.commit(2, 2);
+        cache.pollProductLogs();
+        cache.pollProductLogs();
+        assertEquals(List.of(1L), this.productLogs.requestedIds);
+
+        Thread.sleep(100);
+        cache.pollProductLogs();
+        this.productLogs.requestedIds.clear();
+        cache.pollProductLogs();
+        assertTrue(this.productLogs.requestedIds.isEmpty());
+    }
+
+    @Test
+    public void large_identity_jump_invalidates_everything() {
+        var cache = cache(Duration.ofMinutes(10));
+        cache.pollProductLogs();
+        load(cache, 1);
+
+        this.productLogs.commit(50_000, 2);
+        cache.pollProductLogs();
+
+        load(cache, 1);
+        assertEquals(2, this.delegate.productLoads);
+        this.productLogs.requestedIds.clear();
+        cache.pollProductLogs();
+        assertTrue(this.productLogs.requestedIds.isEmpty());
+    }
+
+    private CachingProductDao cache(Duration ttl) {
+        return new CachingProductDao(this.delegate, this.productLogs, true, 1_000, ttl, new SimpleMeterRegistry());
+    }
+
+    private static void load(CachingProductDao cache, int productId) {
+        assertEquals(1, cache.findProductByListId(STORE_ID, List.of(productId)).size());
+    }
+
+    private static final class CountingProductDao implements ProductDao {
+        private int productLoads;
+
+        @Override
+        public List<ProductDto> findProductByListId(int storeId, List<Integer> productIds) {
+            this.productLoads++;
+            return productIds.stream().map(id -> {
+                var product = new ProductDto();
+                product.setId(id);
+                return product;
+            }).toList();
+        }
+
+        @Override
+        public List<VariantDto> findVariantByListId(int storeId, List<Integer> variantIds) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Chỉ log đã commit mới đọc được, id do test chỉ định (giống IDENTITY cấp trước lúc commit)
+     */
+    private static final class InMemoryProductLogs implements ProductLogDao {
+        private final Map<Long, ProductLogDto> committed = new TreeMap<>();
+        private final List<Long> requestedIds = new ArrayList<>();
+
+        void commit(long id, int productId) {
+            var productLog = new ProductLogDto();
+            productLog.setId(id);
+            productLog.setStoreId(STORE_ID);
+            productLog.setProductId(productId);
+            this.committed.put(id, productLog);
+        }
+
+        @Override
+        public long getLastLogId() {
+            return this.committed.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+        }
+
+        @Override
+        public List<ProductLogDto> getLogsAfter(long logId, int limit) {
+            return this.committed.values().stream()
+                    .filter(productLog -> productLog.getId() > logId)
+                    .limit(limit)
+                    .toList();
+        }
+
+        @Override
+        public List<ProductLogDto> getLogsByIds(List<Long> logIds) {
+            this.requestedIds.addAll(logIds);
+            return logIds.stream().map(this.committed::get).filter(productLog -> productLog != null).toList();
+        }
+    }
+}
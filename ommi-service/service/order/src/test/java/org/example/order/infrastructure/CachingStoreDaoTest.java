@@ -0,0 +1,67 @@
+package org.example.order.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.infrastructure.data.dao.CachingStoreDao;
+import org.example.order.order.infrastructure.data.dao.StoreDao;
+import org.example.order.order.infrastructure.data.dto.StoreDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * CachingStoreDao: store đã cache chỉ được đọc lại sau ttl
+ */
+public class CachingStoreDaoTest {
+
+    private static final Duration TTL = Duration.ofMillis(200);
+
+    private final InMemoryStores delegate = new InMemoryStores();
+    private final CachingStoreDao storeDao = new CachingStoreDao(
+            this.delegate, 100, TTL, new SimpleMeterRegistry());
+
+    @Test
+    public void changed_store_is_reloaded_after_ttl() throws InterruptedException {
+        this.delegate.save(1, "VND");
+        this.storeDao.getStoreById(1);
+
+        this.delegate.save(1, "USD");
+        assertEquals("VND", this.storeDao.getStoreById(1).getCurrency());
+        assertEquals(1, this.delegate.loads.get(1).get());
+
+        Thread.sleep(TTL.toMillis() * 2);
+        assertEquals("USD", this.storeDao.getStoreById(1).getCurrency());
+        assertEquals(2, this.delegate.loads.get(1).get());
+    }
+
+    @Test
+    public void missing_store_is_not_cached() {
+        assertNull(this.storeDao.getStoreById(3));
+        this.delegate.save(3, "VND");
+
+        assertEquals("VND", this.storeDao.getStoreById(3).getCurrency());
+    }
+
+    private static final class InMemoryStores implements StoreDao {
+        private final Map<Integer, StoreDto> stores = new ConcurrentHashMap<>();
+        private final Map<Integer, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+        void save(int storeId, String currency) {
+            this.stores.put(storeId, StoreDto.builder()
+                    .id(storeId)
+                    .currency(currency)
+                    .build());
+        }
+
+        @Override
+        public StoreDto getStoreById(int storeId) {
+            this.loads.computeIfAbsent(storeId, key -> new AtomicInteger()).incrementAndGet();
+            return this.stores.get(storeId);
+        }
+    }
+}
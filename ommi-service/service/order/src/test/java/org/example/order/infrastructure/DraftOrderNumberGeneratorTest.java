@@ -0,0 +1,161 @@
+package org.example.order.infrastructure;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.order.order.infrastructure.persistence.DraftOrderNumberGeneratorImpl;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 64 request tạo draft order cùng lúc trên 1 store: số cấp ra không trùng và liên tục từ 1.
+ * Gọi trong transaction tạo draft order (pool nhỏ hơn số request): dùng connection của transaction, số rollback được cấp lại
+ */
+public class DraftOrderNumberGeneratorTest {
+
+    private static final int STORE_ID = 1;
+    private static final int CREATORS = 64;
+    private static final int DRAFTS_PER_CREATOR = 50;
+    private static final String URL = "jdbc:h2:mem:draft_order_numbers;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private JdbcTemplate jdbcTemplate;
+    private DraftOrderNumberGeneratorImpl generator;
+
+    @BeforeEach
+    public void setUp() {
+        var h2 = new JdbcDataSource();
+        h2.setURL(URL);
+        h2.setUser("sa");
+        this.jdbcTemplate = new JdbcTemplate(h2);
+        this.jdbcTemplate.execute("""
+                CREATE TABLE draft_order_numbers (
+                    id INT AUTO_INCREMENT PRIMARY KEY, store_id INT NOT NULL, current_order_number INT NOT NULL,
+                    CONSTRAINT uk_draft_order_numbers_store UNIQUE (store_id)
+                )
+                """);
+        this.generator = new DraftOrderNumberGeneratorImpl(h2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.jdbcTemplate.execute("DROP TABLE draft_order_numbers");
+    }
+
+    @Test
+    public void first_number_of_store_is_1() {
+        assertEquals(1, this.generator.generateDraftNumber(STORE_ID));
+        assertEquals(2, this.generator.generateDraftNumber(STORE_ID));
+        assertEquals(1, this.generator.generateDraftNumber(STORE_ID + 1));
+        assertEquals(3, this.generator.generateDraftNumber(STORE_ID));
+    }
+
+    @Test
+    public void concurrent_creators_get_unique_dense_numbers() throws Exception {
+        // store chưa có row => các creator còn tranh nhau insert row đầu tiên
+        var numbers = generateConcurrently();
+
+        assertThat(numbers).hasSize(CREATORS * DRAFTS_PER_CREATOR);
+        assertThat(numbers).containsExactlyInAnyOrderElementsOf(
+                IntStream.rangeClosed(1, CREATORS * DRAFTS_PER_CREATOR).boxed().toList());
+        assertEquals(1, this.jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM draft_order_numbers WHERE store_id = ?", Integer.class, STORE_ID));
+    }
+
+    @Test
+    public void creators_in_outer_transactions_do_not_exhaust_pool() throws Exception {
+        try (var pool = pool(2)) {
+            var generator = new DraftOrderNumberGeneratorImpl(pool);
+            var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(pool));
+            var creators = 8;
+            var drafts = 20;
+
+            var executor = Executors.newFixedThreadPool(creators);
+            try {
+                List<Future<List<Integer>>> futures = new ArrayList<>(creators);
+                for (int i = 0; i < creators; i++) {
+                    futures.add(executor.submit(() -> {
+                        List<Integer> numbers = new ArrayList<>(drafts);
+                        for (int j = 0; j < drafts; j++) {
+                            // mỗi transaction giữ 1 connection trong lúc lấy số
+                            numbers.add(transactionTemplate.execute(status -> generator.generateDraftNumber(STORE_ID)));
+                        }
+                        return numbers;
+                    }));
+                }
+
+                List<Integer> numbers = new ArrayList<>(creators * drafts);
+                for (var future : futures) {
+                    numbers.addAll(future.get(1, TimeUnit.MINUTES));
+                }
+                assertThat(numbers).containsExactlyInAnyOrderElementsOf(
+                        IntStream.rangeClosed(1, creators * drafts).boxed().toList());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void number_of_rolled_back_draft_is_reused() {
+        try (var pool = pool(1)) {
+            var generator = new DraftOrderNumberGeneratorImpl(pool);
+            var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(pool));
+
+            Integer first = transactionTemplate.execute(status -> generator.generateDraftNumber(STORE_ID));
+            assertEquals(1, first);
+            transactionTemplate.executeWithoutResult(status -> {
+                assertEquals(2, generator.generateDraftNumber(STORE_ID));
+                status.setRollbackOnly();
+            });
+            Integer reused = transactionTemplate.execute(status -> generator.generateDraftNumber(STORE_ID));
+            assertEquals(2, reused);
+        }
+    }
+
+    private static HikariDataSource pool(int size) {
+        var pool = new HikariDataSource();
+        pool.setJdbcUrl(URL);
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(size);
+        pool.setConnectionTimeout(5_000);
+        return pool;
+    }
+
+    private List<Integer> generateConcurrently() throws Exception {
+        var executor = Executors.newFixedThreadPool(CREATORS);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<List<Integer>>> futures = new ArrayList<>(CREATORS);
+            for (int i = 0; i < CREATORS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> numbers = new ArrayList<>(DRAFTS_PER_CREATOR);
+                    for (int j = 0; j < DRAFTS_PER_CREATOR; j++) {
+                        numbers.add(this.generator.generateDraftNumber(STORE_ID));
+                    }
+                    return numbers;
+                }));
+            }
+            start.countDown();
+
+            List<Integer> numbers = new ArrayList<>(CREATORS * DRAFTS_PER_CREATOR);
+            for (var future : futures) {
+                numbers.addAll(future.get(1, TimeUnit.MINUTES));
+            }
+            return numbers;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.order.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.infrastructure.persistence.InMemoryOrderEditSessionStore;
+import org.example.order.order.infrastructure.persistence.OrderEditSessionStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InMemoryOrderEditSessionStore: ghi theo version, phiên bị đẩy khỏi store chưa ghi được DB không bị mất
+ */
+public class InMemoryOrderEditSessionStoreTest {
+
+    @Test
+    public void compare_and_set_rejects_stale_version() {
+        var store = store(10);
+
+        var first = new OrderEditSessionStore.Session(store.nextVersion(), "1");
+        assertTrue(store.compareAndSet("a", OrderEditSessionStore.NO_VERSION, first));
+        // request khác cũng đọc lúc chưa có phiên
+        assertFalse(store.compareAndSet("a", OrderEditSessionStore.NO_VERSION, new OrderEditSessionStore.Session(store.nextVersion(), "x")));
+
+        var second = new OrderEditSessionStore.Session(store.nextVersion(), "2");
+        assertTrue(store.compareAndSet("a", first.version(), second));
+        assertFalse(store.compareAndSet("a", first.version(), new OrderEditSessionStore.Session(store.nextVersion(), "y")));
+        assertEquals(second, store.get("a"));
+
+        assertTrue(store.compareAndSet("a", second.version(), null));
+        assertNull(store.get("a"));
+    }
+
+    @Test
+    public void concurrent_read_modify_write_does_not_lose_updates() throws Exception {
+        var store = store(10);
+        var writers = 8;
+        var updates = 500;
+        var executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < updates; i++) {
+                        while (true) {
+                            var current = store.get("a");
+                            var version = current == null ? OrderEditSessionStore.NO_VERSION : current.version();
+                            var value = current == null ? 0 : Integer.parseInt(current.snapshot());
+                            var next = new OrderEditSessionStore.Session(store.nextVersion(), String.valueOf(value + 1));
+                            if (store.compareAndSet("a", version, next)) break;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(String.valueOf(writers * updates), store.get("a").snapshot());
+    }
+
+    @Test
+    public void evicted_session_is_kept_until_persisted() {
+        var store = store(1);
+        var persistFails = new AtomicBoolean(true);
+        List<String> persisted = new ArrayList<>();
+        store.onExpired((key, snapshot) -> {
+            if (persistFails.get()) return false;
+            persisted.add(key + "=" + snapshot);
+            return true;
+        });
+
+        store.compareAndSet("a", OrderEditSessionStore.NO_VERSION, new OrderEditSessionStore.Session(store.nextVersion(), "1"));
+        // store đầy => "a" bị đẩy ra nhưng không ghi được DB
+        store.compareAndSet("b", OrderEditSessionStore.NO_VERSION, new OrderEditSessionStore.Session(store.nextVersion(), "2"));
+
+        assertEquals(List.of(), persisted);
+        assertEquals("1", store.localSnapshots().get("a"));
+
+        store.cleanUp();
+        assertEquals("1", store.localSnapshots().get("a"));
+
+        persistFails.set(false);
+        store.cleanUp();
+        assertEquals(List.of("a=1"), persisted);
+        assertFalse(store.localSnapshots().containsKey("a"));
+    }
+
+    @Test
+    public void unpersisted_session_can_still_be_edited() {
+        var store = store(1);
+        List<String> persisted = new ArrayList<>();
+        var persistFails = new AtomicBoolean(true);
+        store.onExpired((key, snapshot) -> {
+            if (persistFails.get()) return false;
+            persisted.add(key + "=" + snapshot);
+            return true;
+        });
+
+        var session = new OrderEditSessionStore.Session(store.nextVersion(), "1");
+        store.compareAndSet("a", OrderEditSessionStore.NO_VERSION, session);
+        store.compareAndSet("b", OrderEditSessionStore.NO_VERSION, new OrderEditSessionStore.Session(store.nextVersion(), "2"));
+
+        // "a" được đọc lại => quay lại store (đẩy "b" ra), sửa tiếp theo version cũ
+        assertEquals(session, store.get("a"));
+        assertTrue(store.compareAndSet("a", session.version(), new OrderEditSessionStore.Session(store.nextVersion(), "3")));
+
+        persistFails.set(false);
+        store.cleanUp();
+        assertEquals(List.of("b=2"), persisted);
+        assertEquals("3", store.get("a").snapshot());
+    }
+
+    private static InMemoryOrderEditSessionStore store(long maximumSize) {
+        return new InMemoryOrderEditSessionStore(maximumSize, Duration.ofMinutes(30), new SimpleMeterRegistry());
+    }
+}
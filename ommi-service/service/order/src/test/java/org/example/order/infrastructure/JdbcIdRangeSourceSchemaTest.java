@@ -0,0 +1,38 @@
+package org.example.order.infrastructure;
+
+import org.example.idgenerator.IdRange;
+import org.example.idgenerator.JdbcIdRangeSource;
+import org.example.order.order.infrastructure.data.schema.IdBlock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JdbcIdRangeSource chạy trên bảng id_blocks do Hibernate tạo từ entity IdBlock
+ */
+@DataJpaTest
+@EntityScan(basePackageClasses = IdBlock.class)
+@EnableJpaRepositories(basePackageClasses = IdBlock.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JdbcIdRangeSourceSchemaTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void reserves_on_entity_schema() {
+        var rangeSource = new JdbcIdRangeSource(this.dataSource);
+
+        assertEquals(new IdRange(1, 1001), rangeSource.reserve(1, "order", 1000));
+        assertEquals(new IdRange(1001, 2001), rangeSource.reserve(1, "order", 1000));
+        assertEquals(new IdRange(1, 11), rangeSource.reserve(1, "fulfillment", 10));
+    }
+}
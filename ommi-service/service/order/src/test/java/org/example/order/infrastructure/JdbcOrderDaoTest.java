@@ -0,0 +1,156 @@
+package org.example.order.infrastructure;
+
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.refund.model.Refund;
+import org.example.order.order.domain.transaction.model.OrderTransaction;
+import org.example.order.order.infrastructure.data.dao.JdbcOrderDao;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewFilter;
+import org.example.order.order.infrastructure.data.schema.OrderView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JdbcOrderDao trên bảng order_views (entity OrderView) và order_tags (Order.tags) do Hibernate tạo
+ */
+@DataJpaTest
+@Import(JdbcOrderDao.class)
+@EntityScan(basePackageClasses = {OrderView.class, Order.class, Refund.class, OrderTransaction.class})
+@EnableJpaRepositories(basePackageClasses = OrderView.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JdbcOrderDaoTest {
+
+    private static final int STORE_ID = 1;
+
+    @Autowired
+    private JdbcOrderDao orderDao;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    public void setUp() {
+        this.jdbcTemplate.update("DELETE FROM order_views");
+        this.jdbcTemplate.update("DELETE FROM order_tags");
+        // chỉ ghi tag, không tạo order tương ứng
+        this.jdbcTemplate.execute("ALTER TABLE order_tags SET REFERENTIAL_INTEGRITY FALSE");
+    }
+
+    @Test
+    public void save_view_inserts_then_updates() {
+        this.orderDao.saveView(view(1, Order.OrderStatus.open, "{\"v\":1}"));
+        this.orderDao.saveView(view(1, Order.OrderStatus.close, "{\"v\":2}"));
+
+        var saved = this.orderDao.getViewById(STORE_ID, 1);
+        assertEquals(Order.OrderStatus.close, saved.getOrderStatus());
+        assertEquals("{\"v\":2}", saved.getData());
+        assertEquals(this.now, saved.getCreatedOn());
+        assertEquals(0, new BigDecimal("150000").compareTo(saved.getTotalPrice()));
+        assertNull(saved.getClosedOn());
+        assertEquals(1, this.count());
+    }
+
+    /**
+     * Rebuild load order trước khi order bị sửa nhưng ghi view sau lần sửa: view cũ không ghi đè view mới.
+     * UPDATE có điều kiện không ghi dòng nào nên cũng đi qua nhánh INSERT trùng khoá rồi UPDATE lại
+     */
+    @Test
+    public void stale_view_does_not_overwrite_newer_view() {
+        var rebuilt = view(1, Order.OrderStatus.open, "{\"v\":1}");
+        var edited = view(1, Order.OrderStatus.close, "{\"v\":2}");
+        edited.setModifiedOn(this.now.plusSeconds(1));
+
+        assertTrue(this.orderDao.saveView(edited));
+        assertFalse(this.orderDao.saveView(rebuilt));
+
+        var saved = this.orderDao.getViewById(STORE_ID, 1);
+        assertEquals(Order.OrderStatus.close, saved.getOrderStatus());
+        assertEquals("{\"v\":2}", saved.getData());
+        assertEquals(this.now.plusSeconds(1), saved.getModifiedOn());
+        assertEquals(1, this.count());
+    }
+
+    /**
+     * 2 lần ghi cùng lúc cho order chưa có view: cả 2 đều thành công, không lỗi trùng khoá
+     */
+    @Test
+    public void concurrent_first_saves_do_not_fail() throws Exception {
+        var orders = 50;
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int id = 1; id <= orders; id++) {
+                var start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int writer = 0; writer < 2; writer++) {
+                    var view = view(id, Order.OrderStatus.open, "{\"writer\":" + writer + "}");
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        this.orderDao.saveView(view);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (var future : futures) future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(orders, this.count());
+    }
+
+    @Test
+    public void search_filters_by_tag() {
+        for (int id = 1; id <= 3; id++) {
+            this.orderDao.saveView(view(id, Order.OrderStatus.open, "{}"));
+        }
+        this.jdbcTemplate.update("INSERT INTO order_tags (store_id, order_id, tag, tag_alias) VALUES (?, ?, ?, ?)", STORE_ID, 2, "vip", "vip");
+
+        var filter = OrderViewFilter.builder().tag("vip").build();
+        var views = this.orderDao.searchViews(STORE_ID, filter, null, 10);
+        assertEquals(List.of(2), views.stream().map(OrderViewDto::getId).toList());
+        assertEquals(1, this.orderDao.countViews(STORE_ID, filter, 100));
+    }
+
+    private OrderViewDto view(int id, Order.OrderStatus status, String data) {
+        var view = new OrderViewDto();
+        view.setStoreId(STORE_ID);
+        view.setId(id);
+        view.setName("#" + id);
+        view.setOrderStatus(status);
+        view.setFinancialStatus(Order.FinancialStatus.paid);
+        view.setTotalPrice(new BigDecimal("150000"));
+        view.setCreatedOn(this.now);
+        view.setModifiedOn(this.now);
+        view.setData(data);
+        return view;
+    }
+
+    private int count() {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_views", Integer.class);
+    }
+}
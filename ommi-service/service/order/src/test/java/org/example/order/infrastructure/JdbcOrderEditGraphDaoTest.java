@@ -0,0 +1,150 @@
+package org.example.order.infrastructure;
+
+import org.example.order.order.infrastructure.data.dao.JdbcOrderEditGraphDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JdbcOrderEditGraphDao trên driver hỗ trợ nhiều result set: 1 statement, result set xen kẽ update count
+ * (PreparedStatement giả lập trả về lần lượt các kết quả đã dựng sẵn)
+ */
+public class JdbcOrderEditGraphDaoTest {
+
+    private static final int STORE_ID = 1;
+    private static final int EDIT_ID = 100;
+    private static final int QUERY_COUNT = 11;
+
+    private final List<Object> results = new ArrayList<>();
+    private final List<ResultSet> resultSets = new ArrayList<>();
+    private int position;
+
+    private PreparedStatement statement;
+    private JdbcOrderEditGraphDao graphDao;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.statement = this.stagedStatement();
+        var metaData = mock(DatabaseMetaData.class);
+        when(metaData.supportsMultipleResultSets()).thenReturn(true);
+        var connection = mock(Connection.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.prepareStatement(anyString())).thenReturn(this.statement);
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        this.graphDao = new JdbcOrderEditGraphDao(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @Test
+    public void result_sets_are_read_in_query_order_skipping_update_counts() throws SQLException {
+        // query thứ i (tính từ 1) trả về i dòng, order_edits 1 dòng; update count trước, giữa và sau các result set
+        this.results.add(3);
+        for (int query = 1; query <= QUERY_COUNT; query++) {
+            this.results.add(this.resultSet(query));
+            if (query % 3 == 0) {
+                this.results.add(0);
+                this.results.add(2);
+            }
+        }
+        this.results.add(1);
+
+        var graph = this.graphDao.getByOrderEditId(STORE_ID, EDIT_ID);
+
+        assertEquals(EDIT_ID, graph.getOrderEdit().getId());
+        assertEquals(2, graph.getLineItems().size());
+        assertEquals(3, graph.getDiscountApplications().size());
+        assertEquals(4, graph.getDiscountAllocations().size());
+        assertEquals(5, graph.getTaxLines().size());
+        assertEquals(6, graph.getRefundTaxLines().size());
+        assertEquals(7, graph.getEditLineItems().size());
+        assertEquals(8, graph.getEditDiscountApplications().size());
+        assertEquals(9, graph.getEditDiscountAllocations().size());
+        assertEquals(10, graph.getEditTaxLines().size());
+        assertEquals(11, graph.getStagedChanges().size());
+        for (var resultSet : this.resultSets) {
+            verify(resultSet).close();
+        }
+        verify(this.statement).execute();
+    }
+
+    @Test
+    public void missing_order_edit_returns_null() throws SQLException {
+        this.results.add(this.emptyResultSet());
+        for (int query = 2; query <= QUERY_COUNT; query++) {
+            this.results.add(this.emptyResultSet());
+        }
+
+        assertNull(this.graphDao.getByOrderEditId(STORE_ID, EDIT_ID));
+    }
+
+    @Test
+    public void fewer_result_sets_than_queries_fails() throws SQLException {
+        this.results.add(this.resultSet(1));
+        this.results.add(5);
+        this.results.add(this.resultSet(2));
+
+        var exception = assertThrows(IllegalStateException.class, () -> this.graphDao.getByOrderEditId(STORE_ID, EDIT_ID));
+        assertTrue(exception.getMessage().startsWith("Missing result set for: "));
+    }
+
+    /**
+     * execute/getMoreResults chuyển sang kết quả kế tiếp: ResultSet => true, update count (Integer) => false;
+     * getUpdateCount = -1 khi kết quả hiện tại là ResultSet hoặc đã hết kết quả
+     */
+    private PreparedStatement stagedStatement() throws SQLException {
+        var stub = mock(PreparedStatement.class);
+        when(stub.execute()).thenAnswer(invocation -> {
+            this.position = 0;
+            return this.current() instanceof ResultSet;
+        });
+        when(stub.getMoreResults()).thenAnswer(invocation -> {
+            this.position++;
+            return this.current() instanceof ResultSet;
+        });
+        when(stub.getUpdateCount()).thenAnswer(invocation -> this.current() instanceof Integer count ? count : -1);
+        when(stub.getResultSet()).thenAnswer(invocation -> this.current() instanceof ResultSet resultSet ? resultSet : null);
+        return stub;
+    }
+
+    private Object current() {
+        return this.position < this.results.size() ? this.results.get(this.position) : null;
+    }
+
+    /**
+     * query 1 (order_edits) trả về 1 dòng id = EDIT_ID, query i > 1 trả về i dòng; các cột khác để trống
+     */
+    private ResultSet resultSet(int query) throws SQLException {
+        var rowCount = query == 1 ? 1 : query;
+        var resultSet = mock(ResultSet.class);
+        var rows = new int[1];
+        when(resultSet.next()).thenAnswer(invocation -> rows[0]++ < rowCount);
+        when(resultSet.getInt("id")).thenReturn(EDIT_ID);
+        this.resultSets.add(resultSet);
+        return resultSet;
+    }
+
+    private ResultSet emptyResultSet() throws SQLException {
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(false);
+        this.resultSets.add(resultSet);
+        return resultSet;
+    }
+}
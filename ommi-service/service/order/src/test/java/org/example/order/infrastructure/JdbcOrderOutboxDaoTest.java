@@ -0,0 +1,201 @@
+package org.example.order.infrastructure;
+
+import org.example.order.order.application.service.order.OrderCreatedAppEvent;
+import org.example.order.order.application.service.outbox.OrderOutboxHandlers;
+import org.example.order.order.application.service.outbox.OrderOutboxWriter;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.infrastructure.configuration.OrderOutboxProperties;
+import org.example.order.order.infrastructure.data.dao.JdbcOrderOutboxDao;
+import org.example.order.order.infrastructure.data.dao.OrderOutboxDto;
+import org.example.order.order.infrastructure.data.schema.OrderOutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JdbcOrderOutboxDao trên bảng order_outbox_events do Hibernate tạo từ entity OrderOutboxEvent
+ * (H2 mode MSSQLServer để chạy được SELECT TOP)
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MSSQLServer;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JdbcOrderOutboxDao.class)
+@EntityScan(basePackageClasses = OrderOutboxEvent.class)
+@EnableJpaRepositories(basePackageClasses = OrderOutboxEvent.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JdbcOrderOutboxDaoTest {
+
+    private static final int STORE_ID = 1;
+
+    @Autowired
+    private JdbcOrderOutboxDao orderOutboxDao;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    public void setUp() {
+        this.jdbcTemplate.update("DELETE FROM order_outbox_events");
+    }
+
+    @Test
+    public void events_are_written_only_when_order_transaction_commits() {
+        var handlers = mock(OrderOutboxHandlers.class);
+        when(handlers.names()).thenReturn(Set.of("fulfillment_order"));
+        when(handlers.serialize(any())).thenReturn("{}");
+        var writer = new OrderOutboxWriter(this.orderOutboxDao, handlers, new OrderOutboxProperties());
+
+        assertThrows(IllegalStateException.class, () -> this.transactionTemplate.executeWithoutResult(status -> {
+            writer.handleOrderCreated(orderCreated(1));
+            // lỗi khi lưu order sau khi đã ghi outbox
+            throw new IllegalStateException("order failed");
+        }));
+        assertEquals(0, this.count());
+
+        this.transactionTemplate.executeWithoutResult(status -> writer.handleOrderCreated(orderCreated(2)));
+        var events = this.orderOutboxDao.findDispatchable(Instant.now(), 10);
+        assertEquals(1, events.size());
+        assertEquals(2, events.get(0).getOrderId());
+        assertEquals("fulfillment_order", events.get(0).getHandler());
+        assertEquals("{}", events.get(0).getPayload());
+    }
+
+    @Test
+    public void each_order_dispatches_its_oldest_event_first() {
+        this.orderOutboxDao.insert(List.of(event(1, "a"), event(1, "b"), event(2, "a")));
+
+        var dispatchable = this.orderOutboxDao.findDispatchable(this.now, 10);
+        assertEquals(List.of(1, 2), dispatchable.stream().map(OrderOutboxDto::getOrderId).toList());
+        assertEquals("a", dispatchable.get(0).getHandler());
+
+        var first = dispatchable.get(0).getId();
+        assertTrue(this.orderOutboxDao.claim(first, this.now));
+        // node khác không claim lại được
+        assertFalse(this.orderOutboxDao.claim(first, this.now));
+        // event đang processing vẫn chặn event sau của cùng order
+        assertEquals(List.of(2), this.orderIds(this.orderOutboxDao.findDispatchable(this.now, 10)));
+
+        this.orderOutboxDao.delete(first);
+        var next = this.orderOutboxDao.findDispatchable(this.now, 10);
+        assertEquals(List.of(1, 2), this.orderIds(next));
+        assertEquals("b", next.get(0).getHandler());
+    }
+
+    @Test
+    public void retried_event_waits_for_next_attempt_and_keeps_blocking_order() {
+        this.orderOutboxDao.insert(List.of(event(1, "a"), event(1, "b")));
+        var id = this.orderOutboxDao.findDispatchable(this.now, 10).get(0).getId();
+        assertTrue(this.orderOutboxDao.claim(id, this.now));
+
+        var nextAttemptAt = this.now.plusSeconds(60);
+        this.orderOutboxDao.retryLater(id, 1, nextAttemptAt, "timeout");
+        assertTrue(this.orderOutboxDao.findDispatchable(this.now, 10).isEmpty());
+
+        var retried = this.orderOutboxDao.findDispatchable(nextAttemptAt, 10);
+        assertEquals(1, retried.size());
+        assertEquals(id, retried.get(0).getId());
+        assertEquals(1, retried.get(0).getAttempts());
+        assertEquals("timeout", retried.get(0).getLastError());
+    }
+
+    @Test
+    public void dead_event_keeps_blocking_order() {
+        this.orderOutboxDao.insert(List.of(event(1, "a"), event(1, "b"), event(2, "a")));
+        var id = this.orderOutboxDao.findDispatchable(this.now, 10).get(0).getId();
+        assertTrue(this.orderOutboxDao.claim(id, this.now));
+
+        this.orderOutboxDao.markDead(id, 10, "boom");
+
+        // event sau của order 1 không chạy trước event dead, order khác không bị ảnh hưởng
+        assertEquals(List.of(2), this.orderIds(this.orderOutboxDao.findDispatchable(this.now, 10)));
+        assertEquals(3, this.count());
+
+        // xử lý tay: xoá event dead => event kế tiếp của order được xử lý
+        this.orderOutboxDao.delete(id);
+        var dispatchable = this.orderOutboxDao.findDispatchable(this.now, 10);
+        assertEquals(List.of(1, 2), this.orderIds(dispatchable));
+        assertEquals("b", dispatchable.get(0).getHandler());
+    }
+
+    @Test
+    public void stale_claim_is_released() {
+        this.orderOutboxDao.insert(List.of(event(1, "a")));
+        var id = this.orderOutboxDao.findDispatchable(this.now, 10).get(0).getId();
+        assertTrue(this.orderOutboxDao.claim(id, this.now));
+
+        assertEquals(0, this.orderOutboxDao.releaseStale(this.now.minus(Duration.ofMinutes(5))));
+        assertEquals(1, this.orderOutboxDao.releaseStale(this.now.plusSeconds(1)));
+        assertTrue(this.orderOutboxDao.claim(id, this.now));
+    }
+
+    @Test
+    public void limit_is_applied() {
+        this.orderOutboxDao.insert(List.of(event(1, "a"), event(2, "a"), event(3, "a")));
+
+        assertEquals(List.of(1, 2), this.orderIds(this.orderOutboxDao.findDispatchable(this.now, 2)));
+    }
+
+    @Test
+    public void pending_events_are_counted_per_handler_without_dead_events() {
+        this.orderOutboxDao.insert(List.of(event(1, "a"), event(1, "b"), event(2, "a"), event(3, "a"), event(4, "c")));
+        var dispatchable = this.orderOutboxDao.findDispatchable(this.now, 10);
+        assertTrue(this.orderOutboxDao.claim(dispatchable.get(0).getId(), this.now));
+        assertTrue(this.orderOutboxDao.claim(dispatchable.get(1).getId(), this.now));
+        this.orderOutboxDao.markDead(dispatchable.get(1).getId(), 10, "boom");
+
+        assertEquals(Map.of("a", 2L, "b", 1L), this.orderOutboxDao.countPendingByHandler(List.of("a", "b")));
+    }
+
+    private OrderOutboxDto event(int orderId, String handler) {
+        var event = new OrderOutboxDto();
+        event.setStoreId(STORE_ID);
+        event.setOrderId(orderId);
+        event.setEventType(OrderOutboxHandlers.ORDER_CREATED);
+        event.setHandler(handler);
+        event.setPayload("{}");
+        event.setNextAttemptAt(this.now);
+        event.setCreatedAt(this.now);
+        return event;
+    }
+
+    private static OrderCreatedAppEvent orderCreated(int orderId) {
+        return OrderCreatedAppEvent.builder()
+                .storeId(STORE_ID)
+                .orderId(new OrderId(STORE_ID, orderId))
+                .build();
+    }
+
+    private List<Integer> orderIds(List<OrderOutboxDto> events) {
+        return events.stream().map(OrderOutboxDto::getOrderId).toList();
+    }
+
+    private int count() {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_outbox_events", Integer.class);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.order.infrastructure;
+
+import jakarta.persistence.EntityManager;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.model.FulfillmentId;
+import org.example.order.order.domain.fulfillment.model.FulfillmentLineItem;
+import org.example.order.order.domain.fulfillment.persistence.JpaFulfillmentRepositoryImpl;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrder;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderId;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * saveAll không flush ngay: các saveAll trong 1 transaction được flush 1 lần khi commit
+ */
+@Import(JpaFulfillmentRepositoryImpl.class)
+@DataJpaTest
+@EntityScan(basePackageClasses = Fulfillment.class)
+@EnableJpaRepositories(basePackageClasses = Fulfillment.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JpaFulfillmentRepositoryTest {
+
+    private static final int STORE_ID = 1;
+
+    @Autowired
+    private JpaFulfillmentRepositoryImpl fulfillmentRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void save_all_calls_in_one_transaction_are_flushed_once_at_commit() {
+        var statistics = this.entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var flushesBeforeCommit = this.transactionTemplate.execute(status -> {
+            this.fulfillmentRepository.saveAll(fulfillments(1, 3));
+            this.fulfillmentRepository.saveAll(fulfillments(4, 6));
+            return statistics.getFlushCount();
+        });
+
+        assertEquals(0, flushesBeforeCommit);
+        assertEquals(1, statistics.getFlushCount());
+        assertEquals(6, this.fulfillmentRepository.getByIds(
+                IntStream.rangeClosed(1, 6).mapToObj(id -> new FulfillmentId(STORE_ID, id)).toList()).size());
+    }
+
+    private static List<Fulfillment> fulfillments(int fromId, int toId) {
+        return IntStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> new Fulfillment(
+                        new FulfillmentId(STORE_ID, id),
+                        100,
+                        1,
+                        new FulfillmentOrderId(STORE_ID, id),
+                        FulfillmentOrder.ExpectedDeliveryMethod.none,
+                        false,
+                        List.of(new FulfillmentLineItem(id * 10, 100, id, 1, 1)),
+                        null,
+                        null))
+                .toList();
+    }
+}
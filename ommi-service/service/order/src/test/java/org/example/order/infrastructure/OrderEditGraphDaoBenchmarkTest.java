@@ -0,0 +1,296 @@
+package org.example.order.infrastructure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.infrastructure.data.dao.*;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * So sánh load dữ liệu cho OrderEditCalculatorService: 11 dao riêng lẻ (BeanPropertyRowMapper) và JdbcOrderEditGraphDao.
+ * H2 không hỗ trợ nhiều result set nên ở đây JdbcOrderEditGraphDao chạy lần lượt từng câu, trên SQL Server chỉ còn 1 statement
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OrderEditGraphDaoBenchmarkTest {
+
+    private static final int STORE_ID = 1;
+    private static final int ORDER_ID = 10;
+    private static final int EDIT_ID = 100;
+    private static final int LINE_ITEM_COUNT = 200;
+    private static final int ADDED_LINE_ITEM_COUNT = 20;
+    private static final int ROUNDS = 50;
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private JdbcOrderEditGraphDao graphDao;
+
+    @BeforeAll
+    public void setUp() {
+        var h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:order_edit_graph;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+        this.jdbcTemplate = new JdbcTemplate(h2);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(countingDataSource(h2));
+        this.graphDao = new JdbcOrderEditGraphDao(this.namedJdbcTemplate);
+
+        createTables();
+        insertData();
+    }
+
+    @AfterAll
+    public void tearDown() {
+        this.jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    public void graph_matches_single_daos() {
+        var expected = loadWithSingleDaos();
+        var actual = this.graphDao.getByOrderEditId(STORE_ID, EDIT_ID);
+
+        assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+        assertEquals(LINE_ITEM_COUNT, actual.getLineItems().size());
+        assertEquals(ADDED_LINE_ITEM_COUNT, actual.getEditLineItems().size());
+        assertNull(this.graphDao.getByOrderEditId(STORE_ID, EDIT_ID + 1));
+    }
+
+    @Test
+    public void compare_statements_and_latency() {
+        var singleDaos = new ArrayList<Long>();
+        var graph = new ArrayList<Long>();
+        int singleDaoStatements = 0;
+        int graphStatements = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            singleDaoStatements = measure(singleDaos, this::loadWithSingleDaos);
+            graphStatements = measure(graph, () -> this.graphDao.getByOrderEditId(STORE_ID, EDIT_ID));
+        }
+        log.info("single daos: {} statements, p50 {} us", singleDaoStatements, p50(singleDaos));
+        log.info("graph dao: {} statements, p50 {} us", graphStatements, p50(graph));
+
+        assertEquals(11, singleDaoStatements);
+        assertThat(graphStatements).isLessThanOrEqualTo(singleDaoStatements);
+    }
+
+    private OrderEditGraphDto loadWithSingleDaos() {
+        var orderEdit = new JdbcOrderEditDao(this.namedJdbcTemplate).getById(STORE_ID, EDIT_ID);
+        int orderId = orderEdit.getOrderId();
+
+        var graph = new OrderEditGraphDto();
+        graph.setOrderEdit(orderEdit);
+        graph.setLineItems(new JdbcLineItemDao(this.namedJdbcTemplate).getByOrderId(STORE_ID, orderId));
+        graph.setDiscountApplications(new JdbcDiscountApplicationDao(this.namedJdbcTemplate).getByOrderId(STORE_ID, orderId));
+        graph.setDiscountAllocations(new JdbcDiscountAllocationDao(this.namedJdbcTemplate).getByOrderId(STORE_ID, orderId));
+        graph.setTaxLines(new JdbcTaxLineDao(this.namedJdbcTemplate).getByOrderId(STORE_ID, orderId));
+        graph.setRefundTaxLines(new JdbcRefundTaxLineDao(this.namedJdbcTemplate).getByOrderId(STORE_ID, orderId));
+        graph.setEditLineItems(new JdbcOrderEditLineItemDao(this.namedJdbcTemplate).getByOrderEditId(STORE_ID, EDIT_ID));
+        graph.setEditDiscountApplications(new JdbcOrderEditDiscountApplicationDao(this.namedJdbcTemplate).getByOrderEditId(STORE_ID, EDIT_ID));
+        graph.setEditDiscountAllocations(new JdbcOrderEditDiscountAllocationDao(this.namedJdbcTemplate).getByOrderEditId(STORE_ID, EDIT_ID));
+        graph.setEditTaxLines(new JdbcOrderEditTaxLineDao(this.namedJdbcTemplate).getByOrderEditId(STORE_ID, EDIT_ID));
+        graph.setStagedChanges(new JdbcOrderEditStagedChangeDao(this.namedJdbcTemplate).getByOrderEditId(STORE_ID, EDIT_ID));
+        return graph;
+    }
+
+    private int measure(List<Long> latencies, Supplier<OrderEditGraphDto> action) {
+        this.statementCount.set(0);
+        var start = System.nanoTime();
+        action.get();
+        latencies.add(System.nanoTime() - start);
+        return this.statementCount.get();
+    }
+
+    private static long p50(List<Long> latencies) {
+        return latencies.stream().sorted().toList().get(latencies.size() / 2) / 1000;
+    }
+
+    /**
+     * Đếm số statement gửi xuống DB
+     */
+    private DataSource countingDataSource(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            var result = invoke(method, target, args);
+            if (result instanceof Connection connection) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (c, m, a) -> {
+                    if (m.getName().equals("prepareStatement") || m.getName().equals("createStatement")) {
+                        this.statementCount.incrementAndGet();
+                    }
+                    return invoke(m, connection, a);
+                });
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void createTables() {
+        for (var ddl : List.of(
+                """
+                        CREATE TABLE order_edits (
+                            store_id INT, id INT, order_id INT, order_version INT, committed BOOLEAN, committed_at TIMESTAMP,
+                            currency VARCHAR(3), subtotal_line_item_quantity DECIMAL(20, 6), subtotal_price DECIMAL(20, 6),
+                            cart_discount_amount DECIMAL(20, 6), total_price DECIMAL(20, 6), total_outstanding DECIMAL(20, 6),
+                            created_at TIMESTAMP, updated_at TIMESTAMP, version INT, PRIMARY KEY (store_id, id)
+                        )
+                        """,
+                """
+                        CREATE TABLE line_items (
+                            store_id INT, order_id INT, id INT, quantity INT, price DECIMAL(20, 6), fulfillable_quantity INT,
+                            fulfillment_status VARCHAR(20), variant_id INT, product_id INT, product_exists BOOLEAN,
+                            name VARCHAR(2000), title VARCHAR(500), variant_title VARCHAR(1500), vendor VARCHAR(255), sku VARCHAR(50),
+                            grams INT, require_shipping BOOLEAN, inventory_management VARCHAR(50), restockable BOOLEAN,
+                            inventory_item_id INT, unit VARCHAR(50), taxable BOOLEAN, discounted_unit_price DECIMAL(20, 6),
+                            discounted_total DECIMAL(20, 6), original_total DECIMAL(20, 6), current_quantity INT,
+                            non_fulfillable_quantity INT, refundable_quantity INT, combination_line_key VARCHAR(50),
+                            editing_location_id INT, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE discount_applications (
+                            store_id INT, order_id INT, id INT, "VALUE" DECIMAL(20, 6), value_type VARCHAR(20), target_type VARCHAR(20),
+                            created_at TIMESTAMP, version INT, code VARCHAR(255), title VARCHAR(255), description VARCHAR(255),
+                            rule_type VARCHAR(20)
+                        )
+                        """,
+                // target_type không có @Enumerated nên JPA lưu ordinal
+                """
+                        CREATE TABLE discount_allocations (
+                            id INT, store_id INT, order_id INT, amount DECIMAL(20, 6), target_id INT, target_type INT,
+                            application_id INT, application_index INT, created_at TIMESTAMP, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE tax_lines (
+                            id INT, store_id INT, order_id INT, title VARCHAR(255), price DECIMAL(20, 6), rate DECIMAL(20, 6),
+                            target_id INT, target_type VARCHAR(20), quantity INT, custom BOOLEAN, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE refund_tax_lines (
+                            store_id INT, order_id INT, id INT, tax_line_id INT, amount DECIMAL(20, 6), created_at TIMESTAMP
+                        )
+                        """,
+                """
+                        CREATE TABLE order_edit_line_items (
+                            store_id INT, editing_id INT, id UUID, variant_id INT, product_id INT, location_id INT, sku VARCHAR(50),
+                            title VARCHAR(255), variant_title VARCHAR(255), taxable BOOLEAN, require_shipping BOOLEAN,
+                            restockable BOOLEAN, editable_quantity DECIMAL(20, 6), original_unit_price DECIMAL(20, 6),
+                            discounted_unit_price DECIMAL(20, 6), editable_subtotal DECIMAL(20, 6), has_staged_discount BOOLEAN,
+                            created_at TIMESTAMP, updated_at TIMESTAMP, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE order_edit_discount_applications (
+                            store_id INT, editing_id INT, id UUID, description VARCHAR(255), "VALUE" DECIMAL(20, 6),
+                            value_type VARCHAR(20), target_type VARCHAR(20), updated_at TIMESTAMP, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE order_edit_discount_allocations (
+                            store_id INT, editing_id INT, id UUID, amount DECIMAL(20, 6), application_id UUID, line_item_id UUID,
+                            updated_at TIMESTAMP, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE order_edit_tax_lines (
+                            store_id INT, editing_id INT, id UUID, target_id VARCHAR(50), title VARCHAR(255), rate DECIMAL(20, 6),
+                            price DECIMAL(20, 6), quantity DECIMAL(20, 6), updated_at TIMESTAMP, version INT
+                        )
+                        """,
+                """
+                        CREATE TABLE order_edit_staged_changes (
+                            store_id INT, editing_id INT, id UUID, type VARCHAR(30), "VALUE" VARCHAR(4000), updated_at TIMESTAMP,
+                            version INT
+                        )
+                        """
+        )) {
+            this.jdbcTemplate.execute(ddl);
+        }
+    }
+
+    private void insertData() {
+        var now = Timestamp.from(NOW);
+        this.jdbcTemplate.update("""
+                INSERT INTO order_edits VALUES (?, ?, ?, 3, FALSE, NULL, 'VND', 250, 1500000, 0, 1620000, 120000, ?, ?, 1)
+                """, STORE_ID, EDIT_ID, ORDER_ID, now, now);
+
+        List<Object[]> lineItems = new ArrayList<>();
+        List<Object[]> taxLines = new ArrayList<>();
+        List<Object[]> allocations = new ArrayList<>();
+        List<Object[]> refundTaxLines = new ArrayList<>();
+        for (int i = 1; i <= LINE_ITEM_COUNT; i++) {
+            lineItems.add(new Object[]{STORE_ID, ORDER_ID, i, i % 5 + 1, 10_000 * i, i % 5 + 1,
+                    i % 4 == 0 ? "partial" : null, i, i, true, "name " + i, "title " + i, "variant " + i, "vendor", "SKU" + i,
+                    100, true, i % 2 == 0 ? "bizweb" : null, true, i % 3 == 0 ? null : i, "cái", true, 9_000 * i,
+                    9_000 * i * (i % 5 + 1), 10_000 * i * (i % 5 + 1), i % 5 + 1, 0, i % 5 + 1, null, null, 1});
+            taxLines.add(new Object[]{i, STORE_ID, ORDER_ID, "VAT", 800 * i, "0.08", i, "line_item", i % 5 + 1, false, 1});
+            if (i % 4 == 0) {
+                allocations.add(new Object[]{i, STORE_ID, ORDER_ID, 1_000 * i, i, 0, 1, 0, now, 1});
+            }
+            if (i % 3 == 0) {
+                refundTaxLines.add(new Object[]{STORE_ID, ORDER_ID, i, i, 100, now});
+            }
+        }
+        taxLines.add(new Object[]{LINE_ITEM_COUNT + 1, STORE_ID, ORDER_ID, "VAT", 2_400, "0.08", 1, "shipping", null, false, 1});
+        this.jdbcTemplate.batchUpdate("INSERT INTO line_items VALUES (" + "?, ".repeat(30) + "?)", lineItems);
+        this.jdbcTemplate.batchUpdate("INSERT INTO tax_lines VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", taxLines);
+        this.jdbcTemplate.batchUpdate("INSERT INTO discount_allocations VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", allocations);
+        this.jdbcTemplate.batchUpdate("INSERT INTO refund_tax_lines VALUES (?, ?, ?, ?, ?, ?)", refundTaxLines);
+        this.jdbcTemplate.update("""
+                INSERT INTO discount_applications VALUES (?, ?, 1, 10, 'percentage', 'line_item', ?, 1, 'SALE10', 'Sale', NULL, 'product')
+                """, STORE_ID, ORDER_ID, now);
+
+        var editApplicationId = UUID.randomUUID();
+        this.jdbcTemplate.update("""
+                INSERT INTO order_edit_discount_applications VALUES (?, ?, ?, 'giảm giá', 5000, 'fixed_amount', 'line_item', ?, 1)
+                """, STORE_ID, EDIT_ID, editApplicationId, now);
+        List<Object[]> editLineItems = new ArrayList<>();
+        List<Object[]> editTaxLines = new ArrayList<>();
+        List<Object[]> editAllocations = new ArrayList<>();
+        List<Object[]> stagedChanges = new ArrayList<>();
+        for (int i = 1; i <= ADDED_LINE_ITEM_COUNT; i++) {
+            var lineItemId = UUID.randomUUID();
+            editLineItems.add(new Object[]{STORE_ID, EDIT_ID, lineItemId, i % 2 == 0 ? null : 1_000 + i, null, 1, null,
+                    "custom " + i, null, true, true, true, 2, 15_000, 15_000, 30_000, i == 1, now, now, 1});
+            editTaxLines.add(new Object[]{STORE_ID, EDIT_ID, UUID.randomUUID(), lineItemId.toString(), "VAT", "0.08", 2_400, 2, now, 1});
+            if (i == 1) {
+                editAllocations.add(new Object[]{STORE_ID, EDIT_ID, UUID.randomUUID(), 5_000, editApplicationId, lineItemId, now, 1});
+            }
+            stagedChanges.add(new Object[]{STORE_ID, EDIT_ID, UUID.randomUUID(), "add_custom_item",
+                    "{\"type\":\"add_custom_item\",\"line_item_id\":\"" + lineItemId + "\"}", now, 1});
+        }
+        this.jdbcTemplate.batchUpdate("INSERT INTO order_edit_line_items VALUES (" + "?, ".repeat(19) + "?)", editLineItems);
+        this.jdbcTemplate.batchUpdate("INSERT INTO order_edit_tax_lines VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", editTaxLines);
+        this.jdbcTemplate.batchUpdate("INSERT INTO order_edit_discount_allocations VALUES (?, ?, ?, ?, ?, ?, ?, ?)", editAllocations);
+        this.jdbcTemplate.batchUpdate("INSERT INTO order_edit_staged_changes VALUES (?, ?, ?, ?, ?, ?, ?)", stagedChanges);
+    }
+}
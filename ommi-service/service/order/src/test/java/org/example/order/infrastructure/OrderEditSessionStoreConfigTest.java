@@ -0,0 +1,37 @@
+package org.example.order.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.infrastructure.configuration.BeanConfig;
+import org.example.order.order.infrastructure.configuration.OrderEditSessionStoreProperties;
+import org.example.order.order.infrastructure.persistence.InMemoryOrderEditSessionStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Session store trong bộ nhớ chỉ bật được khi khai báo chạy 1 node
+ */
+public class OrderEditSessionStoreConfigTest {
+
+    private final BeanConfig beanConfig = new BeanConfig();
+
+    @Test
+    public void enabled_without_single_node_is_rejected() {
+        var properties = new OrderEditSessionStoreProperties();
+        properties.setEnabled(true);
+
+        assertThrows(IllegalStateException.class, () -> this.beanConfig.orderEditSessionStore(properties, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void enabled_on_single_node_or_disabled_uses_in_memory_store() {
+        var singleNode = new OrderEditSessionStoreProperties();
+        singleNode.setEnabled(true);
+        singleNode.setSingleNode(true);
+
+        assertInstanceOf(InMemoryOrderEditSessionStore.class, this.beanConfig.orderEditSessionStore(singleNode, new SimpleMeterRegistry()));
+        assertInstanceOf(InMemoryOrderEditSessionStore.class,
+                this.beanConfig.orderEditSessionStore(new OrderEditSessionStoreProperties(), new SimpleMeterRegistry()));
+    }
+}
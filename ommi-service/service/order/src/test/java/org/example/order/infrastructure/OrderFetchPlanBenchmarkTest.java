@@ -0,0 +1,166 @@
+package org.example.order.infrastructure;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.application.model.refund.response.RefundCalculationResponse;
+import org.example.order.order.domain.order.model.LineItem;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.order.model.VariantInfo;
+import org.example.order.order.domain.order.persistence.JpaOrderRepository;
+import org.example.order.order.domain.order.persistence.OrderFetchPlan;
+import org.example.order.order.domain.refund.model.OrderAdjustment;
+import org.example.order.order.domain.refund.model.Refund;
+import org.example.order.order.domain.refund.model.RefundLineItem;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh số câu query và thời gian load 1 order (120 line item, 5 refund x 10 refund line item,
+ * transaction sale + refund) theo từng OrderFetchPlan
+ */
+@Slf4j
+@Import({JpaOrderRepository.class})
+@DataJpaTest(showSql = false, properties = "spring.datasource.url=jdbc:h2:mem:fetch_plan;NON_KEYWORDS=AUTHORIZATION,VALUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EntityScan({"org.example.order.order.domain.order", "org.example.order.order.domain.refund", "org.example.order.order.domain.transaction"})
+@EnableJpaRepositories(basePackageClasses = Order.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrderFetchPlanBenchmarkTest implements OrderFixtures {
+
+    private static final int LINE_ITEM_COUNT = 120;
+    private static final int REFUND_COUNT = 5;
+    private static final int REFUND_LINE_ITEM_COUNT = 10;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private JpaOrderRepository orderRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderId orderId;
+
+    @Override
+    public List<LineItem> lineItems() {
+        List<LineItem> lineItems = new ArrayList<>(LINE_ITEM_COUNT);
+        for (int i = 1; i <= LINE_ITEM_COUNT; i++) {
+            lineItems.add(new LineItem(i, i % 5 + 1, BigDecimal.valueOf(10_000L * i),
+                    VariantInfo.builder().variantId(i).productId(i).title("title" + i).build(),
+                    List.of(), List.of(), false, null, null, null
+            ));
+        }
+        return lineItems;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        var order = defaultOrder();
+        for (int refundId = 1; refundId <= REFUND_COUNT; refundId++) {
+            order.addRefund(refund(refundId));
+        }
+        this.orderRepository.save(order);
+        this.orderId = order.getId();
+        this.insertTransaction(order, 1, null, "sale", BigDecimal.valueOf(100_000_000));
+        for (var refund : order.getRefunds()) {
+            this.insertTransaction(order, 100 + refund.getId(), refund.getId(), "refund", refund.getTotalRefunded());
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+    }
+
+    /**
+     * Mỗi refund trả 1 sản phẩm của REFUND_LINE_ITEM_COUNT line khác nhau, kèm phí ship
+     */
+    private static Refund refund(int refundId) {
+        Set<RefundLineItem> refundLineItems = new HashSet<>();
+        var totalRefunded = BigDecimal.valueOf(20_000);
+        for (int i = 1; i <= REFUND_LINE_ITEM_COUNT; i++) {
+            int lineItemId = (refundId - 1) * REFUND_LINE_ITEM_COUNT + i;
+            var price = BigDecimal.valueOf(10_000L * lineItemId);
+            refundLineItems.add(new RefundLineItem(refundId * 100 + i, RefundCalculationResponse.LineItem.builder()
+                    .lineItemId(lineItemId)
+                    .quantity(1)
+                    .locationId(locationId)
+                    .price(price)
+                    .subtotal(price)
+                    .totalTax(BigDecimal.ZERO)
+                    .totalCartDiscount(BigDecimal.ZERO)
+                    .restockType(RefundLineItem.RestockType.cancel)
+                    .removal(true)
+                    .build()));
+            totalRefunded = totalRefunded.add(price);
+        }
+        var shippingRefund = new OrderAdjustment(refundId, BigDecimal.valueOf(20_000), BigDecimal.ZERO, OrderAdjustment.RefundKind.shipping_refund);
+        var refund = new Refund(refundId, refundLineItems, new HashSet<>(Set.of(shippingRefund)), "refund " + refundId, null);
+        refund.setTotalRefunded(totalRefunded);
+        return refund;
+    }
+
+    /**
+     * OrderTransaction không có constructor cho dữ liệu => ghi thẳng bảng
+     */
+    private void insertTransaction(Order order, int id, Integer refundId, String kind, BigDecimal amount) {
+        var now = Timestamp.from(Instant.now());
+        this.entityManager.createNativeQuery("""
+                        INSERT INTO order_transactions (store_id, id, order_id, refund_id, gateway, amount, currency, kind, status, processed_at, created_on)
+                        VALUES (?, ?, ?, ?, 'banking', ?, 'VND', ?, 'success', ?, ?)
+                        """)
+                .setParameter(1, order.getId().getStoreId())
+                .setParameter(2, id)
+                .setParameter(3, order.getId().getId())
+                .setParameter(4, refundId)
+                .setParameter(5, amount)
+                .setParameter(6, kind)
+                .setParameter(7, now)
+                .setParameter(8, now)
+                .executeUpdate();
+    }
+
+    @Test
+    public void compare_fetch_plans() {
+        var statistics = this.entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        Map<OrderFetchPlan, Long> statementCounts = new EnumMap<>(OrderFetchPlan.class);
+        for (var plan : OrderFetchPlan.values()) {
+            long totalNanos = 0;
+            long statements = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                this.entityManager.clear();
+                statistics.clear();
+                var start = System.nanoTime();
+                this.orderRepository.findById(this.orderId, plan);
+                totalNanos += System.nanoTime() - start;
+                statements = statistics.getPrepareStatementCount();
+            }
+            statementCounts.put(plan, statements);
+            log.info("fetch plan {}: {} statements, avg {} us", plan, statements, totalNanos / ROUNDS / 1000);
+        }
+
+        assertTrue(statementCounts.get(OrderFetchPlan.HEADER) < statementCounts.get(OrderFetchPlan.LINE_ITEMS));
+        assertTrue(statementCounts.get(OrderFetchPlan.LINE_ITEMS) < statementCounts.get(OrderFetchPlan.FULFILLMENT));
+        assertTrue(statementCounts.get(OrderFetchPlan.FULFILLMENT) < statementCounts.get(OrderFetchPlan.FULL));
+    }
+}
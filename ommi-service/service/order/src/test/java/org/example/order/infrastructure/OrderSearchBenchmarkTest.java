@@ -0,0 +1,214 @@
+package org.example.order.infrastructure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.refund.model.Refund;
+import org.example.order.order.domain.transaction.model.OrderTransaction;
+import org.example.order.order.infrastructure.data.dao.JdbcOrderDao;
+import org.example.order.order.infrastructure.data.dto.OrderViewCursor;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.example.order.order.infrastructure.data.dto.OrderViewFilter;
+import org.example.order.order.infrastructure.data.schema.OrderView;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đo latency của JdbcOrderDao.searchViews/countViews trên vài triệu order sinh ngẫu nhiên (H2 file).
+ * Bảng và index do Hibernate tạo từ entity (OrderView, Order.tags) giống môi trường thật.
+ * Chạy: ./gradlew :service:order:test --tests '*OrderSearchBenchmarkTest' -Dbenchmark=true [-Dbenchmark.orders=3000000]
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JdbcOrderDao.class)
+@EntityScan(basePackageClasses = {OrderView.class, Order.class, Refund.class, OrderTransaction.class})
+@EnableJpaRepositories(basePackageClasses = OrderView.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderSearchBenchmarkTest {
+
+    private static final int STORE_ID = 1;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGES = 20;
+    private static final int ROUNDS = 30;
+    private static final Instant BASE_TIME = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private JdbcOrderDao orderDao;
+    private int orderCount;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) throws IOException {
+        var directory = Files.createTempDirectory("order-search-benchmark");
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + directory.resolve("orders").toAbsolutePath() + ";CACHE_SIZE=262144");
+    }
+
+    @BeforeAll
+    public void setUp() {
+        this.orderCount = Integer.getInteger("benchmark.orders", 2_000_000);
+        // chỉ sinh tag, không sinh order tương ứng
+        this.jdbcTemplate.execute("ALTER TABLE order_tags SET REFERENTIAL_INTEGRITY FALSE");
+
+        var start = System.nanoTime();
+        // 1 order / 10s, 5 trạng thái fulfillment, 20 location, 50_000 customer, 10% order có tag "vip"
+        this.jdbcTemplate.update("""
+                INSERT INTO order_views
+                    (store_id, id, name, order_status, financial_status, fulfillment_status, customer_id, location_id,
+                     total_price, created_on, modified_on, data)
+                SELECT ?, X, CONCAT('#', X),
+                       CASE MOD(X, 20) WHEN 0 THEN 'cancelled' WHEN 1 THEN 'close' ELSE 'open' END,
+                       CASE MOD(X, 3) WHEN 0 THEN 'pending' ELSE 'paid' END,
+                       CASE MOD(X, 5) WHEN 0 THEN 'fulfilled' WHEN 1 THEN 'partial' ELSE NULL END,
+                       MOD(X * 7919, 50000) + 1,
+                       MOD(X, 20) + 1,
+                       MOD(X, 1000) * 1000,
+                       DATEADD('SECOND', X * 10, ?),
+                       DATEADD('SECOND', X * 10, ?),
+                       '{}'
+                FROM SYSTEM_RANGE(1, ?)
+                """, STORE_ID, Timestamp.from(BASE_TIME), Timestamp.from(BASE_TIME), this.orderCount);
+        this.jdbcTemplate.update("""
+                INSERT INTO order_tags (store_id, order_id, tag, tag_alias)
+                SELECT ?, X, 'vip', 'vip' FROM SYSTEM_RANGE(1, ?) WHERE MOD(X, 10) = 0
+                """, STORE_ID, this.orderCount);
+
+        this.jdbcTemplate.execute("ANALYZE");
+        log.info("generated {} orders in {} ms", this.orderCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @AfterAll
+    public void tearDown() {
+        this.jdbcTemplate.execute("DROP ALL OBJECTS DELETE FILES");
+    }
+
+    @Test
+    public void keyset_pages() {
+        var filters = List.of(
+                new Scenario("no filter", OrderViewFilter.builder().build()),
+                new Scenario("status", OrderViewFilter.builder().status(Order.OrderStatus.open).build()),
+                new Scenario("fulfillment status", OrderViewFilter.builder().fulfillmentStatus(Order.FulfillmentStatus.partial).build()),
+                new Scenario("location", OrderViewFilter.builder().locationId(7).build()),
+                new Scenario("customer", OrderViewFilter.builder().customerId(42).build()),
+                new Scenario("tag", OrderViewFilter.builder().tag("vip").build()),
+                new Scenario("created range", OrderViewFilter.builder()
+                        .createdOnMin(BASE_TIME.plusSeconds(this.orderCount * 2L))
+                        .createdOnMax(BASE_TIME.plusSeconds(this.orderCount * 8L))
+                        .build())
+        );
+
+        for (var scenario : filters) {
+            var latencies = new ArrayList<Long>();
+            for (int round = 0; round < ROUNDS; round++) {
+                OrderViewCursor after = null;
+                var seen = new HashSet<Integer>();
+                OrderViewDto previous = null;
+                for (int page = 0; page < PAGES; page++) {
+                    var cursor = after;
+                    var views = measure(latencies, () -> this.orderDao.searchViews(STORE_ID, scenario.filter(), cursor, PAGE_SIZE));
+                    for (var view : views) {
+                        assertTrue(seen.add(view.getId()), "order " + view.getId() + " returned twice");
+                        if (previous != null) {
+                            assertTrue(view.getCreatedOn().isBefore(previous.getCreatedOn())
+                                    || (view.getCreatedOn().equals(previous.getCreatedOn()) && view.getId() < previous.getId()));
+                        }
+                        previous = view;
+                    }
+                    if (views.size() < PAGE_SIZE) break;
+                    var last = views.get(views.size() - 1);
+                    after = new OrderViewCursor(last.getCreatedOn(), last.getId());
+                }
+            }
+            report("search " + scenario.name(), latencies);
+        }
+    }
+
+    @Test
+    public void deep_page_keyset_vs_offset() {
+        int deepOffset = this.orderCount / 2;
+        var pivot = this.jdbcTemplate.queryForObject(
+                "SELECT created_on FROM order_views WHERE store_id = ? ORDER BY created_on DESC, id DESC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                Timestamp.class, STORE_ID, deepOffset);
+        var pivotId = this.jdbcTemplate.queryForObject(
+                "SELECT id FROM order_views WHERE store_id = ? ORDER BY created_on DESC, id DESC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                Integer.class, STORE_ID, deepOffset);
+        var cursor = new OrderViewCursor(pivot.toInstant(), pivotId);
+
+        var keyset = new ArrayList<Long>();
+        var offset = new ArrayList<Long>();
+        for (int round = 0; round < ROUNDS; round++) {
+            measure(keyset, () -> this.orderDao.searchViews(STORE_ID, null, cursor, PAGE_SIZE));
+            measure(offset, () -> this.jdbcTemplate.queryForList(
+                    "SELECT * FROM order_views WHERE store_id = ? ORDER BY created_on DESC, id DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+                    STORE_ID, deepOffset + 1, PAGE_SIZE));
+        }
+        report("page at offset " + deepOffset + " keyset", keyset);
+        report("page at offset " + deepOffset + " offset", offset);
+    }
+
+    @Test
+    public void capped_count() {
+        var latencies = new ArrayList<Long>();
+        int count = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            count = measure(latencies, () -> this.orderDao.countViews(STORE_ID, OrderViewFilter.builder().status(Order.OrderStatus.open).build(), 10_000));
+        }
+        assertEquals(10_000, count);
+        report("count estimate (cap 10000)", latencies);
+
+        var exact = new ArrayList<Long>();
+        for (int round = 0; round < 3; round++) {
+            measure(exact, () -> this.jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM order_views WHERE store_id = ? AND order_status = 'open'", Integer.class, STORE_ID));
+        }
+        report("exact count", exact);
+    }
+
+    private static <T> T measure(List<Long> latencies, Supplier<T> action) {
+        var start = System.nanoTime();
+        var result = action.get();
+        latencies.add(System.nanoTime() - start);
+        return result;
+    }
+
+    private static void report(String name, List<Long> latencies) {
+        var sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        log.info("{}: n={}, p50={} us, p99={} us, max={} us", name, sorted.length,
+                sorted[sorted.length / 2] / 1000,
+                sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1000,
+                sorted[sorted.length - 1] / 1000);
+    }
+
+    private record Scenario(String name, OrderViewFilter filter) {
+    }
+}
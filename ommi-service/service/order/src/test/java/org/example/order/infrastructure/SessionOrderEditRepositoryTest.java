@@ -0,0 +1,214 @@
+package org.example.order.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.order.order.application.service.orderedit.TaxContext;
+import org.example.order.order.domain.edit.model.AddedLineItem;
+import org.example.order.order.domain.edit.model.OrderEdit;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.persistence.InMemoryOrderEditSessionStore;
+import org.example.order.order.infrastructure.persistence.JpaOrderEditRepository;
+import org.example.order.order.infrastructure.persistence.SessionOrderEditRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * SessionOrderEditRepository: 2 request cùng sửa 1 phiên, rollback sau khi đã ghi phiên, phiên hết hạn khi DB lỗi
+ */
+public class SessionOrderEditRepositoryTest {
+
+    private static final OrderEditId FIRST = new OrderEditId(1, 1);
+    private static final OrderEditId SECOND = new OrderEditId(1, 2);
+
+    private final JpaOrderEditRepository delegate = mock(JpaOrderEditRepository.class);
+    private final TestTransactionManager transactionManager = new TestTransactionManager();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+
+    private InMemoryOrderEditSessionStore sessionStore;
+    private SessionOrderEditRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        when(this.delegate.findById(any())).thenAnswer(invocation -> orderEdit(invocation.getArgument(0)));
+        this.sessionStore = new InMemoryOrderEditSessionStore(1, Duration.ofMinutes(30), new SimpleMeterRegistry());
+        this.repository = new SessionOrderEditRepository(
+                this.delegate,
+                mock(EntityManager.class),
+                this.sessionStore,
+                this.transactionManager,
+                true);
+    }
+
+    @Test
+    public void later_save_of_a_concurrent_edit_is_rejected() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(ConstrainViolationException.class, () -> this.transactionTemplate.executeWithoutResult(status -> {
+                var orderEdit = this.repository.findById(FIRST);
+
+                // request khác đọc cùng phiên, sửa và commit trước
+                try {
+                    executor.submit(() -> this.addLineItem(FIRST, "other")).get(10, TimeUnit.SECONDS);
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                }
+
+                addLineItem(orderEdit, "mine");
+                this.repository.save(orderEdit);
+            }));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of("other"), titles(this.repository.findSession(FIRST)));
+    }
+
+    @Test
+    public void sequential_edits_are_kept() {
+        this.addLineItem(FIRST, "a");
+        this.addLineItem(FIRST, "b");
+
+        assertEquals(List.of("a", "b"), titles(this.repository.findSession(FIRST)));
+        verify(this.delegate, never()).save(any());
+    }
+
+    @Test
+    public void edit_reads_the_session_once_and_writes_it_once() {
+        this.addLineItem(FIRST, "a");
+        var store = spy(this.sessionStore);
+        var repository = new SessionOrderEditRepository(this.delegate, mock(EntityManager.class), store, this.transactionManager, true);
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            var orderEdit = repository.findById(FIRST);
+            addLineItem(orderEdit, "b");
+            repository.save(orderEdit);
+        });
+
+        verify(store, times(1)).get(any());
+        verify(store, times(1)).compareAndSet(any(), anyLong(), any());
+        assertEquals(List.of("a", "b"), titles(repository.findSession(FIRST)));
+    }
+
+    @Test
+    public void failed_commit_restores_session() {
+        this.addLineItem(FIRST, "a");
+
+        this.transactionManager.failCommit.set(true);
+        assertThrows(TransactionSystemException.class, () -> this.addLineItem(FIRST, "b"));
+
+        assertEquals(List.of("a"), titles(this.repository.findSession(FIRST)));
+        // phiên được trả về đúng version cũ => sửa tiếp bình thường
+        this.transactionManager.failCommit.set(false);
+        this.addLineItem(FIRST, "c");
+        assertEquals(List.of("a", "c"), titles(this.repository.findSession(FIRST)));
+    }
+
+    @Test
+    public void expired_session_is_kept_until_persisted() {
+        var dbDown = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (dbDown.get()) throw new IllegalStateException("db down");
+            return null;
+        }).when(this.delegate).save(any());
+
+        this.addLineItem(FIRST, "a");
+        // store chỉ giữ 1 phiên => phiên FIRST bị đẩy ra, ghi DB lỗi
+        this.addLineItem(SECOND, "b");
+        verify(this.delegate).save(argThat(orderEdit -> orderEdit.getId().equals(FIRST)));
+
+        assertEquals(List.of("a"), titles(this.repository.findSession(FIRST)));
+
+        // FIRST quay lại store đẩy SECOND ra, DB có lại thì lần dọn sau ghi được SECOND
+        dbDown.set(false);
+        this.sessionStore.cleanUp();
+        verify(this.delegate, times(2)).save(argThat(orderEdit -> orderEdit.getId().equals(SECOND)));
+        assertTrue(this.sessionStore.localSnapshots().keySet().stream().noneMatch(key -> key.endsWith(":2")));
+        assertEquals(List.of("a"), titles(this.repository.findSession(FIRST)));
+    }
+
+    private Void addLineItem(OrderEditId orderEditId, String title) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            var orderEdit = this.repository.findById(orderEditId);
+            addLineItem(orderEdit, title);
+            this.repository.save(orderEdit);
+        });
+        return null;
+    }
+
+    private static void addLineItem(OrderEdit orderEdit, String title) {
+        orderEdit.addLineItem(new AddedLineItem(UUID.randomUUID(), null, null, null, title, null,
+                false, true, false, BigDecimal.ONE, BigDecimal.valueOf(10_000)), new TaxContext());
+    }
+
+    private static List<String> titles(OrderEdit orderEdit) {
+        return orderEdit.getLineItems().stream().map(AddedLineItem::getTitle).toList();
+    }
+
+    private static OrderEdit orderEdit(OrderEditId orderEditId) {
+        var orderEdit = new OrderEdit(orderEditId, 1, Currency.getInstance("VND"),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        orderEdit.markNotNew();
+        return orderEdit;
+    }
+
+    /**
+     * Transaction không có tài nguyên thật, chỉ chạy TransactionSynchronization như transaction thật
+     * (kể cả REQUIRES_NEW khi ghi phiên hết hạn trong lúc đang commit transaction khác)
+     */
+    private static final class TestTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final AtomicBoolean failCommit = new AtomicBoolean();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return null;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (this.failCommit.get()) {
+                throw new TransactionSystemException("commit failed");
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.order.order.application.service.combination;
+
+import org.example.order.order.domain.draftorder.model.VariantType;
+import org.example.order.order.application.model.combination.request.CombinationCalculateRequest;
+import org.example.order.order.application.model.combination.request.CombinationLineItemRequest;
+import org.example.order.order.application.model.combination.request.ComboPacksizeDiscountAllocations;
+import org.example.order.order.application.model.combination.request.LineItemComponent;
+import org.example.order.order.application.model.combination.response.CombinationLineItemComponent;
+import org.example.order.order.application.model.combination.response.CombinationLineItemResponse;
+import org.example.order.order.application.model.combination.response.ComboPacksizeTaxLineResponse;
+import org.example.order.order.application.model.draftorder.TaxSettingValue;
+import org.example.order.order.application.model.draftorder.response.CalculateProductInfo;
+import org.example.order.order.application.service.draftorder.SapoBatchLoader;
+import org.example.order.order.application.service.draftorder.TaxHelper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Thuế của component combo tính trên subtotal => subtotal phải có giá trị kể cả khi line không có giảm giá
+ */
+public class CombinationCalculateServiceTest {
+
+    private final CombinationMapper combinationMapper = mock(CombinationMapper.class);
+    private final CombinationCalculateService calculateService = new CombinationCalculateService(
+            mock(SapoBatchLoader.class),
+            this.combinationMapper,
+            mock(TaxHelper.class),
+            mock(CombinationExpansionCache.class)
+    );
+
+    @Test
+    public void tax_without_discount_is_calculated_on_line_price() {
+        var lineItem = this.calculate(List.of());
+
+        assertEquals(List.of(10_000L, 10_000L), subtotals(lineItem));
+        assertEquals(List.of(1_000L, 1_000L), componentTaxes(lineItem));
+        assertEquals(2_000L, lineItem.getTaxLines().get(0).getPrice().longValueExact());
+    }
+
+    @Test
+    public void tax_with_discount_is_calculated_on_discounted_subtotal() {
+        var lineItem = this.calculate(List.of(ComboPacksizeDiscountAllocations.builder()
+                .amount(BigDecimal.valueOf(2_000))
+                .applicationId(1)
+                .build()));
+
+        assertEquals(List.of(9_000L, 9_000L), subtotals(lineItem));
+        assertEquals(List.of(900L, 900L), componentTaxes(lineItem));
+        assertEquals(1_800L, lineItem.getTaxLines().get(0).getPrice().longValueExact());
+    }
+
+    private CombinationLineItemResponse calculate(List<ComboPacksizeDiscountAllocations> discountAllocations) {
+        var components = IntStream.range(0, 2)
+                .mapToObj(index -> CombinationLineItemComponent.builder()
+                        .variantId(index)
+                        .productId(index)
+                        .taxable(true)
+                        .quantity(BigDecimal.ONE)
+                        .price(BigDecimal.valueOf(10_000))
+                        .linePrice(BigDecimal.valueOf(10_000))
+                        .remainder(BigDecimal.ZERO)
+                        .build())
+                .toList();
+        var lineItemRequest = CombinationLineItemRequest.builder()
+                .components(IntStream.range(0, 2).mapToObj(index -> LineItemComponent.builder().variantId(index).build()).toList())
+                .discountAllocations(discountAllocations)
+                .build();
+
+        when(this.combinationMapper.toLineItemResponse(any(CombinationLineItemRequest.class)))
+                .thenReturn(CombinationLineItemResponse.builder()
+                        .type(VariantType.combo)
+                        .linePrice(BigDecimal.valueOf(20_000))
+                        .components(components)
+                        .build());
+        when(this.combinationMapper.toLineItemComponent(any(LineItemComponent.class)))
+                .thenAnswer(invocation -> components.get(invocation.<LineItemComponent>getArgument(0).getVariantId()));
+
+        var request = CombinationCalculateRequest.builder()
+                .lineItems(List.of(lineItemRequest))
+                .calculateTax(true)
+                .build();
+        var productInfo = CalculateProductInfo.builder()
+                .remainderUnit(BigDecimal.ONE)
+                .countryTax(TaxSettingValue.builder().title("VAT").rate(new BigDecimal("0.1")).build())
+                .build();
+        return this.calculateService.calculateWithoutUpdateProduct(request, productInfo).getLineItems().get(0);
+    }
+
+    private static List<Long> subtotals(CombinationLineItemResponse lineItem) {
+        return lineItem.getComponents().stream().map(component -> component.getSubtotal().longValueExact()).toList();
+    }
+
+    private static List<Long> componentTaxes(CombinationLineItemResponse lineItem) {
+        return lineItem.getComponents().stream()
+                .map(component -> component.getTaxLines().stream()
+                        .map(ComboPacksizeTaxLineResponse::getPrice)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .longValueExact())
+                .toList();
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.order.order.application.service.combination;
+
+import org.example.order.order.application.model.combination.response.CombinationLineItemComponent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chia discount của line combo/packsize cho các component (CombinationCalculateService.splitDiscount, qua MoneyMath.allocate):
+ * tổng đúng bằng discount, mỗi component lệch tỉ lệ chính xác dưới 1 đơn vị tiền, với input ngẫu nhiên
+ */
+public class CombinationDiscountAllocationTest {
+
+    private static final Currency VND = Currency.getInstance("VND");
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    public void rounding_is_spread_instead_of_pushed_to_the_last_component() {
+        var components = new ArrayList<CombinationLineItemComponent>();
+        for (int i = 0; i < 6; i++) components.add(component(10_000, 1));
+
+        // 1.5 cho mỗi component: 3 component nhận 2, 3 component nhận 1 (cách cũ: 2, 2, 2, 2, 2, -1)
+        assertEquals(List.of(2L, 2L, 2L, 1L, 1L, 1L),
+                CombinationCalculateService.splitDiscount(components, BigDecimal.valueOf(9), VND).stream()
+                        .map(BigDecimal::longValueExact)
+                        .toList());
+    }
+
+    @Test
+    public void split_is_proportional_and_adds_up() {
+        var random = new Random(19);
+        for (int round = 0; round < 2_000; round++) {
+            var currency = random.nextBoolean() ? VND : USD;
+            var components = new ArrayList<CombinationLineItemComponent>();
+            for (int i = 0, size = 1 + random.nextInt(8); i < size; i++) {
+                // có cả component giá 0 (quà tặng trong combo)
+                var price = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1_000_000);
+                components.add(component(price, 1 + random.nextInt(5)));
+            }
+            if (components.stream().allMatch(component -> component.getLinePrice().signum() == 0)) continue;
+            var discount = BigDecimal.valueOf(random.nextInt(1_000_000), currency.getDefaultFractionDigits());
+
+            var amounts = CombinationCalculateService.splitDiscount(components, discount, currency);
+
+            var message = "discount " + discount + " amounts " + amounts;
+            assertEquals(0, discount.compareTo(amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add)), message);
+            var unit = BigDecimal.ONE.movePointLeft(currency.getDefaultFractionDigits());
+            var totalLinePrice = components.stream().map(CombinationLineItemComponent::getLinePrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+            for (int i = 0; i < components.size(); i++) {
+                var exact = discount.multiply(components.get(i).getLinePrice()).divide(totalLinePrice, 10, RoundingMode.HALF_UP);
+                assertTrue(exact.subtract(amounts.get(i)).abs().compareTo(unit) < 0, message);
+                if (components.get(i).getLinePrice().signum() == 0) assertEquals(0, amounts.get(i).signum(), message);
+            }
+        }
+    }
+
+    private static CombinationLineItemComponent component(long price, int quantity) {
+        return CombinationLineItemComponent.builder()
+                .quantity(BigDecimal.valueOf(quantity))
+                .price(BigDecimal.valueOf(price))
+                .linePrice(BigDecimal.valueOf(price * quantity))
+                .remainder(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.order.order.application.service.combination;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.model.combination.response.CombinationLineItemComponent;
+import org.example.order.order.domain.draftorder.model.VariantType;
+import org.example.order.order.infrastructure.configuration.CombinationExpansionCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * CombinationExpansionCache: hit/miss theo key (store, variant, phiên bản), luôn trả về bản copy của template
+ */
+public class CombinationExpansionCacheTest {
+
+    private static final int STORE_ID = 1;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void same_key_is_loaded_once() {
+        var cache = cache(true);
+
+        cache.get(key(List.of("v1")), this::load);
+        cache.get(key(List.of("v1")), this::load);
+
+        assertEquals(1, this.loads.get());
+        assertEquals(1.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    @Test
+    public void version_change_loads_again() {
+        var cache = cache(true);
+
+        cache.get(key(List.of("v1")), this::load);
+        cache.get(key(List.of("v2")), this::load);
+        cache.get(new CombinationExpansionCache.Key(STORE_ID + 1, VariantType.combo, 10, List.of("v2")), this::load);
+
+        assertEquals(3, this.loads.get());
+    }
+
+    @Test
+    public void reused_components_are_copies() {
+        var cache = cache(true);
+
+        var first = cache.get(key(List.of("v1")), this::load);
+        first.get(0).setQuantity(BigDecimal.valueOf(30));
+        first.get(0).setPrice(BigDecimal.ONE);
+        first.get(0).setCanBeOdd(true);
+        var second = cache.get(key(List.of("v1")), this::load);
+
+        assertEquals(1, this.loads.get());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(BigDecimal.valueOf(3), second.get(0).getQuantity());
+        assertEquals(BigDecimal.valueOf(50_000), second.get(0).getPrice());
+        assertEquals(false, second.get(0).isCanBeOdd());
+        assertEquals(List.of(1, 2), second.stream().map(CombinationLineItemComponent::getVariantId).toList());
+    }
+
+    @Test
+    public void disabled_cache_loads_every_time() {
+        var cache = cache(false);
+
+        cache.get(key(List.of("v1")), this::load);
+        cache.get(key(List.of("v1")), this::load);
+
+        assertEquals(2, this.loads.get());
+    }
+
+    private List<CombinationLineItemComponent> load() {
+        this.loads.incrementAndGet();
+        return List.of(component(1, 3, 50_000), component(2, 1, 0));
+    }
+
+    private CombinationExpansionCache cache(boolean enabled) {
+        var properties = new CombinationExpansionCacheProperties();
+        properties.setEnabled(enabled);
+        return new CombinationExpansionCache(properties, this.meterRegistry);
+    }
+
+    private double gets(String result) {
+        return this.meterRegistry.get("cache.gets")
+                .tag("cache", "combination_expansion")
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static CombinationExpansionCache.Key key(List<Object> version) {
+        return new CombinationExpansionCache.Key(STORE_ID, VariantType.combo, 10, version);
+    }
+
+    private static CombinationLineItemComponent component(int variantId, int quantity, long price) {
+        return CombinationLineItemComponent.builder()
+                .variantId(variantId)
+                .quantity(BigDecimal.valueOf(quantity))
+                .baseQuantity(BigDecimal.valueOf(quantity))
+                .price(BigDecimal.valueOf(price))
+                .type(VariantType.combo)
+                .build();
+    }
+}
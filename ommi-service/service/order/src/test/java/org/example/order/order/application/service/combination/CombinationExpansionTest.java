@@ -0,0 +1,192 @@
+package org.example.order.order.application.service.combination;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.model.combination.request.CombinationCalculateRequest;
+import org.example.order.order.application.model.combination.request.CombinationLineItemRequest;
+import org.example.order.order.application.model.combination.response.CombinationLineItemComponent;
+import org.example.order.order.application.model.combination.response.CombinationLineItemResponse;
+import org.example.order.order.application.model.draftorder.response.CalculateProductInfo;
+import org.example.order.order.application.service.draftorder.Combo;
+import org.example.order.order.application.service.draftorder.ComboItem;
+import org.example.order.order.application.service.draftorder.ProductResponse;
+import org.example.order.order.application.service.draftorder.SapoBatchLoader;
+import org.example.order.order.application.service.draftorder.TaxHelper;
+import org.example.order.order.application.service.draftorder.VariantResponse;
+import org.example.order.order.domain.draftorder.model.VariantType;
+import org.example.order.order.infrastructure.configuration.CombinationExpansionCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Line combo dùng chung template của CombinationExpansionCache nhưng số lượng, giá được phân bổ lại theo từng line
+ */
+public class CombinationExpansionTest {
+
+    private static final int STORE_ID = 1;
+    private static final int COMBO_VARIANT_ID = 100;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void combo_lines_get_components_scaled_by_line() {
+        var service = this.service(true);
+        var productInfo = productInfo(Instant.EPOCH);
+
+        var lineItems = service.calculate(request(line(1, null), line(3, BigDecimal.valueOf(100_001))), productInfo).getLineItems();
+
+        var first = lineItems.get(0).getComponents();
+        var second = lineItems.get(1).getComponents();
+        assertEquals(List.of(2L, 1L, 1L), quantities(first));
+        assertEquals(List.of(6L, 3L, 3L), quantities(second));
+        assertEquals(List.of(30_000L, 30_000L, 0L), prices(first));
+        // line 2 giá 100.001 / combo 90.000 => component 1 (2 x 30.000 / combo) = 200.002 / 2 sản phẩm
+        assertEquals(100_001L, second.get(0).getPrice().longValueExact());
+        for (int i = 0; i < first.size(); i++) {
+            assertNotSame(first.get(i), second.get(i));
+        }
+        assertEquals(1.0, this.gets("miss"));
+        assertEquals(1.0, this.gets("hit"));
+    }
+
+    @Test
+    public void modified_combo_item_rebuilds_template() {
+        var service = this.service(true);
+
+        service.calculate(request(line(1, null)), productInfo(Instant.EPOCH));
+        service.calculate(request(line(1, null)), productInfo(Instant.EPOCH.plusSeconds(1)));
+
+        assertEquals(2.0, this.gets("miss"));
+        assertEquals(0.0, this.gets("hit"));
+    }
+
+    @Test
+    public void cached_expansion_matches_uncached_expansion() {
+        var cached = this.service(true);
+        var uncached = this.service(false);
+        var random = new Random(19);
+
+        for (int round = 0; round < 200; round++) {
+            var lines = new CombinationLineItemRequest[3];
+            for (int i = 0; i < lines.length; i++) {
+                var price = random.nextBoolean() ? null : BigDecimal.valueOf(random.nextInt(500_000));
+                lines[i] = line(1 + random.nextInt(20), price);
+            }
+            var expected = uncached.calculate(request(lines), productInfo(Instant.EPOCH)).getLineItems();
+            var actual = cached.calculate(request(lines), productInfo(Instant.EPOCH)).getLineItems();
+
+            for (int i = 0; i < lines.length; i++) {
+                assertEquals(snapshot(expected.get(i)), snapshot(actual.get(i)));
+            }
+        }
+    }
+
+    private CombinationCalculateService service(boolean cacheEnabled) {
+        var combinationMapper = mock(CombinationMapper.class);
+        when(combinationMapper.toResponse(any(), any(), any()))
+                .thenAnswer(invocation -> CombinationLineItemResponse.builder().type(VariantType.combo).build());
+        var properties = new CombinationExpansionCacheProperties();
+        properties.setEnabled(cacheEnabled);
+        return new CombinationCalculateService(
+                mock(SapoBatchLoader.class),
+                combinationMapper,
+                mock(TaxHelper.class),
+                new CombinationExpansionCache(properties, cacheEnabled ? this.meterRegistry : new SimpleMeterRegistry())
+        );
+    }
+
+    private double gets(String result) {
+        return this.meterRegistry.get("cache.gets")
+                .tag("cache", "combination_expansion")
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    /**
+     * Combo giá 90.000 gồm 2 x 30.000, 1 x 30.000 và 1 quà tặng giá 0
+     */
+    private static CalculateProductInfo productInfo(Instant comboItemModifiedOn) {
+        var comboItems = List.of(
+                comboItem(1, 2, 30_000, comboItemModifiedOn),
+                comboItem(2, 1, 30_000, comboItemModifiedOn),
+                comboItem(3, 1, 0, comboItemModifiedOn));
+        Map<Integer, ProductResponse.Product> products = new HashMap<>();
+        products.put(COMBO_VARIANT_ID, ProductResponse.Product.builder().id(COMBO_VARIANT_ID).name("combo").build());
+        comboItems.forEach(item ->
+                products.put(item.getProductId(), ProductResponse.Product.builder().id(item.getProductId()).name("product " + item.getProductId()).build()));
+        return CalculateProductInfo.builder()
+                .storeId(STORE_ID)
+                .productMap(products)
+                .variantMap(Map.of(COMBO_VARIANT_ID, VariantResponse.Variant.builder()
+                        .id(COMBO_VARIANT_ID)
+                        .productId(COMBO_VARIANT_ID)
+                        .type(VariantType.combo)
+                        .price(BigDecimal.valueOf(90_000))
+                        .modifiedOn(Instant.EPOCH)
+                        .build()))
+                .comboMap(Map.of(COMBO_VARIANT_ID, Combo.builder()
+                        .variantId(COMBO_VARIANT_ID)
+                        .productId(COMBO_VARIANT_ID)
+                        .comboItems(comboItems)
+                        .build()))
+                .remainderUnit(BigDecimal.ONE)
+                .build();
+    }
+
+    private static ComboItem comboItem(int variantId, int quantity, long price, Instant modifiedOn) {
+        var comboItem = new ComboItem();
+        comboItem.setVariantId(variantId);
+        comboItem.setProductId(variantId);
+        comboItem.setQuantity(BigDecimal.valueOf(quantity));
+        comboItem.setPrice(BigDecimal.valueOf(price));
+        comboItem.setModifiedOn(modifiedOn);
+        return comboItem;
+    }
+
+    private static CombinationLineItemRequest line(int quantity, BigDecimal price) {
+        return CombinationLineItemRequest.builder()
+                .variantId(COMBO_VARIANT_ID)
+                .productId(COMBO_VARIANT_ID)
+                .quantity(BigDecimal.valueOf(quantity))
+                .price(price)
+                .build();
+    }
+
+    private static CombinationCalculateRequest request(CombinationLineItemRequest... lineItems) {
+        return CombinationCalculateRequest.builder()
+                .lineItems(List.of(lineItems))
+                .build();
+    }
+
+    private static List<Long> quantities(List<CombinationLineItemComponent> components) {
+        return components.stream().map(component -> component.getQuantity().longValueExact()).toList();
+    }
+
+    private static List<Long> prices(List<CombinationLineItemComponent> components) {
+        return components.stream().map(component -> component.getPrice().longValueExact()).toList();
+    }
+
+    private static List<List<Object>> snapshot(CombinationLineItemResponse lineItem) {
+        return lineItem.getComponents().stream()
+                .map(component -> List.<Object>of(
+                        component.getVariantId(),
+                        component.getQuantity(),
+                        component.getPrice(),
+                        component.getLinePrice(),
+                        component.getRemainder(),
+                        component.getSubtotal(),
+                        component.isCanBeOdd()))
+                .toList();
+    }
+}
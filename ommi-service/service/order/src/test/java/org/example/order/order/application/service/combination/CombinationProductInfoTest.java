@@ -0,0 +1,99 @@
+package org.example.order.order.application.service.combination;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.model.combination.request.CombinationCalculateRequest;
+import org.example.order.order.application.model.combination.request.CombinationLineItemRequest;
+import org.example.order.order.application.service.draftorder.*;
+import org.example.order.order.domain.draftorder.model.VariantType;
+import org.example.order.order.infrastructure.configuration.SapoBatchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CombinationCalculateService.getProductInfo qua SapoBatchLoader: combo chỉ lookup cho variant loại combo,
+ * packsize cho variant loại packsize
+ */
+public class CombinationProductInfoTest {
+
+    private static final int STORE_ID = 1;
+
+    private final SapoClient sapoClient = mock(SapoClient.class);
+    private final CombinationMapper combinationMapper = mock(CombinationMapper.class);
+    private final SapoBatchLoader sapoBatchLoader = new SapoBatchLoader(this.sapoClient, new SapoBatchProperties(), new SimpleMeterRegistry());
+    private final CombinationCalculateService calculateService = new CombinationCalculateService(
+            this.sapoBatchLoader,
+            this.combinationMapper,
+            mock(TaxHelper.class),
+            mock(CombinationExpansionCache.class)
+    );
+
+    @AfterEach
+    public void tearDown() {
+        this.sapoBatchLoader.shutdown();
+    }
+
+    @Test
+    public void combo_and_packsize_are_looked_up_by_variant_type() {
+        // 1: combo, 2: packsize, 3: thường, 20: variant con của packsize
+        Map<Integer, VariantResponse.Variant> variants = Map.of(
+                1, variant(1, VariantType.combo),
+                2, variant(2, VariantType.packsize),
+                3, variant(3, VariantType.normal),
+                20, variant(20, VariantType.normal));
+        when(this.sapoClient.variantFilter(eq(STORE_ID), anyList())).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(1);
+            var response = mock(VariantResponse.class);
+            when(response.getVariants()).thenReturn(ids.stream().map(variants::get).toList());
+            return response;
+        });
+        var comboItem = new ComboItem();
+        comboItem.setVariantId(10);
+        comboItem.setProductId(110);
+        when(this.sapoClient.comboFilter(eq(STORE_ID), any())).thenReturn(ComboResponse.builder()
+                .combos(List.of(Combo.builder().variantId(1).comboItems(List.of(comboItem)).build()))
+                .build());
+        when(this.combinationMapper.toVariant(comboItem)).thenReturn(variant(10, VariantType.normal));
+        when(this.sapoClient.packsizeFilter(eq(STORE_ID), anyList())).thenReturn(PacksizeResponse.builder()
+                .packsizes(List.of(Packsize.builder().id(2).variantId(20).packsizeVariantId(20).quantity(BigDecimal.TEN).build()))
+                .build());
+
+        var request = CombinationCalculateRequest.builder()
+                .lineItems(List.of(lineItem(1), lineItem(2), lineItem(3)))
+                .build();
+        var productInfo = this.calculateService.getProductInfo(STORE_ID, request);
+
+        verify(this.sapoClient).comboFilter(eq(STORE_ID), argThat(filter -> filter.getVariantIds().equals(List.of(1))));
+        verify(this.sapoClient).packsizeFilter(STORE_ID, List.of(2));
+        assertEquals(Set.of(1), productInfo.getComboMap().keySet());
+        assertEquals(Set.of(2), productInfo.getPacksizeMap().keySet());
+        assertEquals(Set.of(1, 2, 3, 10, 20), productInfo.getVariantMap().keySet());
+        // product của cả variant con combo và packsize
+        assertEquals(Set.of(101, 102, 103, 110, 120), productIdsRequested());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> productIdsRequested() {
+        ArgumentCaptor<List<Integer>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.sapoClient, atLeastOnce()).productFilter(eq(STORE_ID), captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toSet());
+    }
+
+    private static CombinationLineItemRequest lineItem(int variantId) {
+        return CombinationLineItemRequest.builder().variantId(variantId).quantity(BigDecimal.ONE).build();
+    }
+
+    private static VariantResponse.Variant variant(int id, VariantType type) {
+        return VariantResponse.Variant.builder().id(id).productId(100 + id).type(type).build();
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.order.order.application.service.draftorder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.infrastructure.configuration.SapoBatchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * SapoBatchLoader: gom id của nhiều lần tính thành 1 lần gọi, không gọi lại id đã load, chờ kết quả có giới hạn
+ */
+public class SapoBatchLoaderTest {
+
+    private static final int STORE_ID = 1;
+
+    private final SapoClient sapoClient = mock(SapoClient.class);
+    private final List<List<Integer>> variantCalls = Collections.synchronizedList(new ArrayList<>());
+    private SapoBatchLoader loader;
+
+    @AfterEach
+    public void tearDown() {
+        if (this.loader != null) this.loader.shutdown();
+    }
+
+    @Test
+    public void ids_requested_within_window_are_loaded_in_one_call() {
+        this.loader = loader(Duration.ofMillis(200), 200, Duration.ofSeconds(10));
+        this.stubVariants();
+
+        var first = this.loader.newLookup(STORE_ID);
+        var second = this.loader.newLookup(STORE_ID);
+        var firstVariants = first.variants(List.of(1, 2));
+        var secondVariants = second.variants(List.of(2, 3));
+
+        assertEquals(Set.of(1, 2), first.join(firstVariants).keySet());
+        assertEquals(Set.of(2, 3), second.join(secondVariants).keySet());
+        assertEquals(1, this.variantCalls.size());
+        assertEquals(Set.of(1, 2, 3), Set.copyOf(this.variantCalls.get(0)));
+    }
+
+    @Test
+    public void loaded_and_duplicated_ids_are_not_requested_again() {
+        this.loader = loader(Duration.ZERO, 200, Duration.ofSeconds(10));
+        this.stubVariants();
+
+        var lookup = this.loader.newLookup(STORE_ID);
+        assertEquals(Set.of(1, 2), lookup.join(lookup.variants(List.of(1, 1, 2))).keySet());
+        assertEquals(Set.of(1, 2, 3), lookup.join(lookup.variants(List.of(1, 2, 3))).keySet());
+
+        assertEquals(List.of(List.of(1, 2), List.of(3)), this.variantCalls.stream().map(ids -> ids.stream().sorted().toList()).toList());
+    }
+
+    @Test
+    public void batch_is_split_by_max_batch_size() {
+        this.loader = loader(Duration.ofMillis(200), 2, Duration.ofSeconds(10));
+        this.stubVariants();
+
+        var lookup = this.loader.newLookup(STORE_ID);
+        assertEquals(Set.of(1, 2, 3, 4, 5), lookup.join(lookup.variants(List.of(1, 2, 3, 4, 5))).keySet());
+
+        assertEquals(3, this.variantCalls.size());
+        assertTrue(this.variantCalls.stream().allMatch(ids -> ids.size() <= 2));
+    }
+
+    @Test
+    public void missing_ids_are_not_in_result() {
+        this.loader = loader(Duration.ZERO, 200, Duration.ofSeconds(10));
+        var response = mock(VariantResponse.class);
+        when(response.getVariants()).thenReturn(List.of(variant(1)));
+        when(this.sapoClient.variantFilter(anyInt(), anyList())).thenReturn(response);
+
+        var lookup = this.loader.newLookup(STORE_ID);
+        assertEquals(Set.of(1), lookup.join(lookup.variants(List.of(1, 2))).keySet());
+    }
+
+    @Test
+    public void join_gives_up_after_timeout() {
+        this.loader = loader(Duration.ZERO, 200, Duration.ofMillis(200));
+        var release = new CountDownLatch(1);
+        when(this.sapoClient.variantFilter(anyInt(), anyList())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+
+        try {
+            var lookup = this.loader.newLookup(STORE_ID);
+            var variants = lookup.variants(List.of(1));
+            var exception = assertThrows(IllegalStateException.class, () -> lookup.join(variants));
+            assertTrue(exception.getMessage().contains("timed out"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void hung_call_is_cancelled_at_timeout_and_frees_the_thread() throws InterruptedException {
+        var properties = properties(Duration.ZERO, 200, Duration.ofMillis(200));
+        properties.setThreads(1);
+        this.loader = new SapoBatchLoader(this.sapoClient, properties, new SimpleMeterRegistry());
+        var interrupted = new CountDownLatch(1);
+        when(this.sapoClient.variantFilter(anyInt(), anyList()))
+                .thenAnswer(invocation -> {
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException exception) {
+                        interrupted.countDown();
+                    }
+                    return null;
+                })
+                .thenAnswer(invocation -> {
+                    List<Integer> ids = invocation.getArgument(1);
+                    var response = mock(VariantResponse.class);
+                    when(response.getVariants()).thenReturn(ids.stream().map(SapoBatchLoaderTest::variant).toList());
+                    return response;
+                });
+
+        var hung = this.loader.newLookup(STORE_ID);
+        var hungVariants = hung.variants(List.of(1));
+        assertThrows(IllegalStateException.class, () -> hung.join(hungVariants));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+
+        // pool 1 thread: lần gọi sau chỉ chạy được khi lần gọi treo đã bị cancel
+        var next = this.loader.newLookup(STORE_ID);
+        assertEquals(Set.of(2), next.join(next.variants(List.of(2))).keySet());
+    }
+
+    @Test
+    public void blocking_task_runs_outside_the_lookup_pool_and_is_cancelled_at_timeout() {
+        this.loader = loader(Duration.ZERO, 200, Duration.ofMillis(200));
+
+        assertTrue(this.loader.supplyAsync(() -> Thread.currentThread().getName()).join().startsWith("sapo-task-"));
+
+        var hung = this.loader.supplyAsync(() -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        var exception = assertThrows(ExecutionException.class, () -> hung.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    public void join_rethrows_error_of_the_call() {
+        this.loader = loader(Duration.ZERO, 200, Duration.ofSeconds(10));
+        when(this.sapoClient.variantFilter(anyInt(), anyList())).thenThrow(new IllegalArgumentException("bad request"));
+
+        var lookup = this.loader.newLookup(STORE_ID);
+        var variants = lookup.variants(List.of(1));
+
+        assertThrows(IllegalArgumentException.class, () -> lookup.join(variants));
+    }
+
+    private void stubVariants() {
+        when(this.sapoClient.variantFilter(anyInt(), anyList())).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(1);
+            this.variantCalls.add(List.copyOf(ids));
+            var response = mock(VariantResponse.class);
+            when(response.getVariants()).thenReturn(ids.stream().map(SapoBatchLoaderTest::variant).toList());
+            return response;
+        });
+    }
+
+    private SapoBatchLoader loader(Duration window, int maxBatchSize, Duration timeout) {
+        return new SapoBatchLoader(this.sapoClient, properties(window, maxBatchSize, timeout), new SimpleMeterRegistry());
+    }
+
+    private static SapoBatchProperties properties(Duration window, int maxBatchSize, Duration timeout) {
+        var properties = new SapoBatchProperties();
+        properties.setWindow(window);
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setTimeout(timeout);
+        return properties;
+    }
+
+    private static VariantResponse.Variant variant(int id) {
+        return VariantResponse.Variant.builder().id(id).productId(100 + id).build();
+    }
+}
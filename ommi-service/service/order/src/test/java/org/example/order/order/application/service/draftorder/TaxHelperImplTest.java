@@ -0,0 +1,154 @@
+package org.example.order.order.application.service.draftorder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.model.draftorder.ProductTax;
+import org.example.order.order.application.model.draftorder.TaxSetting;
+import org.example.order.order.infrastructure.configuration.TaxCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+/**
+ * TaxHelperImpl: các request đồng thời dùng chung 1 lần gọi SapoClient, hết timeout thì huỷ lần gọi treo và gọi lại
+ */
+public class TaxHelperImplTest {
+
+    private static final int STORE_ID = 1;
+    private static final int PRODUCT_ID = 10;
+
+    private final SapoClient sapoClient = mock(SapoClient.class);
+    private TaxHelperImpl taxHelper;
+
+    @BeforeEach
+    public void setUp() {
+        this.taxHelper = taxHelper(Duration.ofMillis(200));
+
+        var productTax = new ProductTax();
+        productTax.setProductId(PRODUCT_ID);
+        productTax.setTaxRate(new BigDecimal("0.1"));
+        productTax.setTaxName("VAT");
+        when(this.sapoClient.productTaxes(anyInt(), anySet())).thenReturn(List.of(productTax));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.taxHelper.shutdown();
+    }
+
+    @Test
+    public void concurrent_requests_share_one_call() throws Exception {
+        this.taxHelper.shutdown();
+        this.taxHelper = taxHelper(Duration.ofSeconds(30));
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(this.sapoClient.taxSettingGet(STORE_ID)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return TaxSetting.builder().taxIncluded(true).build();
+        });
+
+        var first = CompletableFuture.supplyAsync(this::getTaxSetting);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var second = new Thread(this::getTaxSetting);
+        second.start();
+        waitUntilBlocked(second);
+        release.countDown();
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).isTaxIncluded());
+        second.join(5_000);
+        // kết quả đã cache
+        assertTrue(this.getTaxSetting().isTaxIncluded());
+        verify(this.sapoClient, times(1)).taxSettingGet(STORE_ID);
+        verify(this.sapoClient, times(1)).productTaxes(STORE_ID, Set.of(PRODUCT_ID));
+    }
+
+    @Test
+    public void hung_call_is_interrupted_and_retried() throws Exception {
+        var interrupted = new CountDownLatch(1);
+        var attempts = new AtomicInteger();
+        when(this.sapoClient.taxSettingGet(STORE_ID)).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException exception) {
+                    interrupted.countDown();
+                    throw exception;
+                }
+            }
+            return TaxSetting.builder().taxIncluded(true).build();
+        });
+
+        assertTrue(this.getTaxSetting().isTaxIncluded());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void gives_up_after_max_attempts_without_caching() throws Exception {
+        var interrupted = new CountDownLatch(2);
+        when(this.sapoClient.taxSettingGet(STORE_ID)).thenAnswer(invocation -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+                throw exception;
+            }
+            return null;
+        });
+
+        var taxSetting = this.getTaxSetting();
+
+        assertFalse(taxSetting.isTaxIncluded());
+        assertNull(taxSetting.getTaxes());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        verify(this.sapoClient, times(2)).taxSettingGet(STORE_ID);
+
+        // lần sau gọi lại
+        reset(this.sapoClient);
+        when(this.sapoClient.taxSettingGet(STORE_ID)).thenReturn(TaxSetting.builder().taxIncluded(true).build());
+        assertTrue(this.getTaxSetting().isTaxIncluded());
+    }
+
+    @Test
+    public void other_errors_are_not_retried() {
+        when(this.sapoClient.taxSettingGet(STORE_ID)).thenThrow(new IllegalStateException("bad request"));
+
+        assertThrows(CompletionException.class, this::getTaxSetting);
+
+        verify(this.sapoClient, times(1)).taxSettingGet(STORE_ID);
+    }
+
+    private TaxHelperImpl taxHelper(Duration fetchTimeout) {
+        var properties = new TaxCacheProperties();
+        properties.setFetchTimeout(fetchTimeout);
+        properties.setMaxAttempts(2);
+        return new TaxHelperImpl(this.sapoClient, properties, new SimpleMeterRegistry());
+    }
+
+    private TaxSetting getTaxSetting() {
+        return this.taxHelper.getTaxSetting(STORE_ID, "VN", Set.of(PRODUCT_ID), false);
+    }
+
+    private static void waitUntilBlocked(Thread thread) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > deadline) fail("thread is not blocked: " + thread.getState());
+            Thread.sleep(10);
+        }
+    }
+}
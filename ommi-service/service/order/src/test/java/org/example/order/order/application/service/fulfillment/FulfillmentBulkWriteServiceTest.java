@@ -0,0 +1,196 @@
+package org.example.order.order.application.service.fulfillment;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.example.order.order.application.model.fulfillment.request.FulfillmentBulkCreateRequest;
+import org.example.order.order.application.model.fulfillment.response.FulfillmentBulkItemResult;
+import org.example.order.order.application.model.fulfillmentorder.FulfillOrderLineItemRequest;
+import org.example.order.order.domain.fulfillment.model.Fulfillment;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentIdGenerator;
+import org.example.order.order.domain.fulfillment.persistence.FulfillmentRepository;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrder;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderId;
+import org.example.order.order.domain.fulfillmentorder.model.FulfillmentOrderLineItem;
+import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderIdGenerator;
+import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * FulfillmentBulkWriteService: chia chunk, chunk lỗi thì fulfill lại từng item, 1 event cho mỗi order + location
+ */
+public class FulfillmentBulkWriteServiceTest {
+
+    private static final int STORE_ID = 1;
+
+    private final FulfillmentIdGenerator idGenerator = mock(FulfillmentIdGenerator.class);
+    private final FulfillmentRepository fulfillmentRepository = mock(FulfillmentRepository.class);
+    private final FulfillmentOrderRepository fulfillmentOrderRepository = mock(FulfillmentOrderRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final FulfillmentBulkWriteService service = new FulfillmentBulkWriteService(
+            this.idGenerator,
+            mock(FulfillmentOrderIdGenerator.class),
+            this.fulfillmentRepository,
+            this.fulfillmentOrderRepository,
+            this.eventPublisher,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    private final Map<Integer, FulfillmentOrder> fulfillmentOrders = new HashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1000);
+
+    @BeforeEach
+    public void setUp() {
+        when(this.idGenerator.generateFulfillmentIds(anyInt())).thenAnswer(invocation -> this.ids(invocation.getArgument(0)));
+        when(this.idGenerator.generateFulfillmentLineItemIds(anyInt())).thenAnswer(invocation -> this.ids(invocation.getArgument(0)));
+        when(this.fulfillmentOrderRepository.findByIds(anyList())).thenAnswer(invocation -> {
+            List<FulfillmentOrderId> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(id -> this.fulfillmentOrders.get(id.getId()))
+                    .filter(Objects::nonNull)
+                    .toList();
+        });
+    }
+
+    @Test
+    public void items_are_saved_in_chunks_of_chunk_size() {
+        var count = FulfillmentBulkWriteService.CHUNK_SIZE * 2 + 20;
+        IntStream.rangeClosed(1, count).forEach(id -> this.fulfillmentOrder(id, 1, 1));
+
+        var results = this.service.createFulfillments(STORE_ID, request(IntStream.rangeClosed(1, count).boxed().toList()));
+
+        assertEquals(count, results.size());
+        assertTrue(results.stream().allMatch(FulfillmentBulkItemResult::isSuccess));
+        assertEquals(IntStream.range(0, count).boxed().toList(), results.stream().map(FulfillmentBulkItemResult::getIndex).toList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FulfillmentOrderId>> loaded = ArgumentCaptor.forClass(List.class);
+        verify(this.fulfillmentOrderRepository, times(3)).findByIds(loaded.capture());
+        assertEquals(List.of(50, 50, 20), loaded.getAllValues().stream().map(List::size).toList());
+        verify(this.fulfillmentRepository, times(3)).saveAll(anyList());
+        verify(this.idGenerator, times(3)).generateFulfillmentIds(anyInt());
+    }
+
+    @Test
+    public void failed_chunk_is_retried_item_by_item() {
+        this.fulfillmentOrder(1, 1, 1);
+        this.fulfillmentOrder(2, 2, 1);
+        this.fulfillmentOrder(3, 3, 1);
+        // lỗi khi flush fulfillment của fulfillment order 2
+        doAnswer(invocation -> {
+            List<Fulfillment> fulfillments = invocation.getArgument(0);
+            if (fulfillments.stream().anyMatch(fulfillment -> fulfillment.getFulfillmentOrderIds().contains(2))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return null;
+        }).when(this.fulfillmentRepository).saveAll(anyList());
+
+        var results = this.service.createFulfillments(STORE_ID, request(List.of(1, 2, 3)));
+
+        assertEquals(List.of(true, false, true), results.stream().map(FulfillmentBulkItemResult::isSuccess).toList());
+        assertEquals(List.of(0, 1, 2), results.stream().map(FulfillmentBulkItemResult::getIndex).toList());
+        assertEquals(2, results.get(1).getFulfillmentOrderId());
+        assertNotNull(results.get(1).getErrors());
+        // 1 lần cả chunk + 3 lần từng item
+        verify(this.fulfillmentRepository, times(4)).saveAll(anyList());
+    }
+
+    @Test
+    public void unknown_line_item_fails_only_that_item_before_fulfilling() {
+        this.fulfillmentOrder(1, 1, 1);
+        var invalid = this.fulfillmentOrder(2, 2, 1);
+        var request = request(List.of(1, 2));
+        request.getFulfillments().get(1).setLineItems(List.of(lineItemRequest(999, BigDecimal.ONE)));
+
+        var results = this.service.createFulfillments(STORE_ID, request);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertNotNull(results.get(1).getErrors());
+        verify(invalid, never()).markAsFulfilled(anyList());
+    }
+
+    @Test
+    public void missing_and_duplicated_fulfillment_orders_fail() {
+        this.fulfillmentOrder(1, 1, 1);
+
+        var results = this.service.createFulfillments(STORE_ID, request(List.of(1, 404, 1)));
+
+        assertEquals(List.of(true, false, false), results.stream().map(FulfillmentBulkItemResult::isSuccess).toList());
+        verify(this.fulfillmentOrders.get(1), times(1)).markAsFulfilled(anyList());
+    }
+
+    @Test
+    public void one_event_is_published_per_order_and_location() {
+        this.fulfillmentOrder(1, 1, 10);
+        this.fulfillmentOrder(2, 1, 10);
+        this.fulfillmentOrder(3, 1, 20);
+        this.fulfillmentOrder(4, 2, 10);
+
+        this.service.createFulfillments(STORE_ID, request(List.of(1, 2, 3, 4)));
+
+        var captor = ArgumentCaptor.forClass(Object.class);
+        verify(this.eventPublisher, times(3)).publishEvent(captor.capture());
+        var events = captor.getAllValues().stream().map(FulfillmentListCreatedAppEvent.class::cast).toList();
+        assertEquals(List.of("1@10", "1@20", "2@10"),
+                events.stream().map(event -> event.orderId().getId() + "@" + event.locationId()).toList());
+        assertEquals(List.of(List.of(1, 2), List.of(3), List.of(4)),
+                events.stream().map(event -> event.fulfillmentOrderIds().stream().map(FulfillmentOrderId::getId).toList()).toList());
+        assertTrue(events.stream().allMatch(event -> event.fulfillmentIds().size() == event.fulfillmentOrderIds().size()));
+    }
+
+    private Deque<Integer> ids(int size) {
+        Deque<Integer> ids = new ArrayDeque<>(size);
+        for (int i = 0; i < size; i++) ids.add(this.nextId.incrementAndGet());
+        return ids;
+    }
+
+    private FulfillmentOrder fulfillmentOrder(int id, int orderId, int locationId) {
+        var lineItem = mock(FulfillmentOrderLineItem.class);
+        when(lineItem.getId()).thenReturn(id * 10);
+        when(lineItem.getOrderId()).thenReturn(orderId);
+        when(lineItem.getLineItemId()).thenReturn(id * 100);
+        when(lineItem.getRemainingQuantity()).thenReturn(2);
+
+        var fulfillmentOrder = mock(FulfillmentOrder.class);
+        when(fulfillmentOrder.getId()).thenReturn(new FulfillmentOrderId(STORE_ID, id));
+        when(fulfillmentOrder.getOrderId()).thenReturn(orderId);
+        when(fulfillmentOrder.getAssignedLocationId()).thenReturn(locationId);
+        when(fulfillmentOrder.getLineItems()).thenReturn(List.of(lineItem));
+        when(fulfillmentOrder.markAsFulfilled(anyList()))
+                .thenReturn(Pair.<FulfillmentOrder, List<FulfillmentOrderLineItem>>of(null, List.of(lineItem)));
+        this.fulfillmentOrders.put(id, fulfillmentOrder);
+        return fulfillmentOrder;
+    }
+
+    private static FulfillmentBulkCreateRequest request(List<Integer> fulfillmentOrderIds) {
+        var request = new FulfillmentBulkCreateRequest();
+        request.setFulfillments(fulfillmentOrderIds.stream()
+                .map(fulfillmentOrderId -> {
+                    var item = new FulfillmentBulkCreateRequest.Item();
+                    item.setFulfillmentOrderId(fulfillmentOrderId);
+                    return item;
+                })
+                .toList());
+        return request;
+    }
+
+    private static FulfillOrderLineItemRequest lineItemRequest(int fulfillmentOrderLineItemId, BigDecimal quantity) {
+        var lineItemRequest = new FulfillOrderLineItemRequest();
+        lineItemRequest.setFulfillmentOrderLineItemId(fulfillmentOrderLineItemId);
+        lineItemRequest.setQuantity(quantity);
+        return lineItemRequest;
+    }
+}
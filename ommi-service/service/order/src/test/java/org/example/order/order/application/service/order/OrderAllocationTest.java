@@ -0,0 +1,131 @@
+package org.example.order.order.application.service.order;
+
+import org.example.order.order.application.model.order.request.OrderCreateRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Phân bổ khi tạo order (OrderWriteService, qua MoneyMath.allocate), với input ngẫu nhiên:
+ * discount code và thuế chia theo tỉ lệ giá, tổng luôn bằng khoản cần chia,
+ * mỗi line lệch tỉ lệ chính xác dưới 1 đơn vị tiền (không dồn sai số làm tròn cho line cuối)
+ */
+public class OrderAllocationTest {
+
+    private static final Currency VND = Currency.getInstance("VND");
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    public void discount_code_is_split_in_proportion_to_price() {
+        assertEquals(List.of(new BigDecimal("25"), new BigDecimal("75")),
+                newDiscountAllocation(BigDecimal.valueOf(100), List.of(BigDecimal.valueOf(100_000), BigDecimal.valueOf(300_000)), VND));
+        // số dư bằng nhau: 1 cent dư cho line đứng trước
+        assertEquals(List.of(new BigDecimal("33.34"), new BigDecimal("33.33"), new BigDecimal("33.33")),
+                newDiscountAllocation(BigDecimal.valueOf(100), List.of(BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN), USD));
+    }
+
+    @Test
+    public void discount_code_allocation_is_proportional_and_adds_up() {
+        var random = new Random(42);
+        for (int round = 0; round < 2_000; round++) {
+            var currency = random.nextBoolean() ? VND : USD;
+            var prices = new ArrayList<BigDecimal>();
+            for (int i = 0, size = 1 + random.nextInt(20); i < size; i++) {
+                prices.add(randomAmount(random, currency, 10_000_000).add(BigDecimal.ONE));
+            }
+            var discount = randomAmount(random, currency, 5_000_000);
+
+            assertProportional(discount, prices, newDiscountAllocation(discount, prices, currency), currency);
+        }
+    }
+
+    @Test
+    public void tax_allocation_is_proportional_and_adds_up() {
+        var random = new Random(7);
+        for (int round = 0; round < 2_000; round++) {
+            var currency = random.nextBoolean() ? VND : USD;
+            var weights = new ArrayList<BigDecimal>();
+            for (int i = 0, size = 1 + random.nextInt(20); i < size; i++) {
+                weights.add(randomAmount(random, currency, 5_000_000).add(BigDecimal.ONE));
+            }
+            var prices = List.of(randomAmount(random, currency, 1_000_000), randomAmount(random, currency, 1_000));
+            var taxLines = prices.stream().map(OrderAllocationTest::taxLine).toList();
+
+            var allocations = OrderWriteService.allocateTaxes(taxLines, weights, currency);
+
+            for (int i = 0; i < prices.size(); i++) {
+                assertProportional(prices.get(i), weights, allocations.get(i), currency);
+            }
+            // không sửa price của request
+            assertEquals(prices, taxLines.stream().map(OrderCreateRequest.TaxLineRequest::getPrice).toList());
+        }
+    }
+
+    /**
+     * Cách cũ (line cuối nhận phần còn lại sau khi các line trước làm tròn UP) dồn sai số cho line cuối
+     */
+    @Test
+    public void tax_rounding_is_not_pushed_to_the_last_line() {
+        var weights = Collections.nCopies(10, BigDecimal.ONE);
+
+        var allocations = OrderWriteService.allocateTaxes(List.of(taxLine(new BigDecimal("0.05"))), weights, USD).get(0);
+
+        // 5 cent cho 10 line: mỗi line 0 hoặc 1 cent, không line nào âm
+        assertEquals(5, allocations.stream().filter(amount -> amount.compareTo(new BigDecimal("0.01")) == 0).count());
+        assertEquals(5, allocations.stream().filter(amount -> amount.signum() == 0).count());
+    }
+
+    private static List<BigDecimal> newDiscountAllocation(BigDecimal discount, List<BigDecimal> prices, Currency currency) {
+        var resources = new LinkedHashMap<Integer, BigDecimal>();
+        for (int i = 0; i < prices.size(); i++) resources.put(i + 1, prices.get(i));
+        var applicationRequests = new ArrayList<OrderCreateRequest.DiscountApplicationRequest>();
+        var allocationRequests = new ArrayList<OrderCreateRequest.DiscountAllocationRequest>();
+
+        OrderWriteService.allocateAmount(
+                resources,
+                Function.identity(),
+                discount,
+                currency,
+                OrderCreateRequest.DiscountApplicationRequest.builder().build(),
+                OrderCreateRequest.DiscountAllocationRequest.builder().build(),
+                applicationRequests,
+                allocationRequests);
+
+        assertEquals(1, applicationRequests.size());
+        assertEquals(List.copyOf(resources.keySet()), allocationRequests.stream().map(OrderCreateRequest.DiscountAllocationRequest::getTargetId).toList());
+        return allocationRequests.stream().map(OrderCreateRequest.DiscountAllocationRequest::getAmount).toList();
+    }
+
+    private static void assertProportional(BigDecimal total, List<BigDecimal> weights, List<BigDecimal> allocations, Currency currency) {
+        var message = "total " + total + " weights " + weights + " allocations " + allocations;
+        assertEquals(0, total.compareTo(allocations.stream().reduce(BigDecimal.ZERO, BigDecimal::add)), message);
+        var unit = BigDecimal.ONE.movePointLeft(currency.getDefaultFractionDigits());
+        var weightSum = weights.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (int i = 0; i < weights.size(); i++) {
+            var exact = total.multiply(weights.get(i)).divide(weightSum, 10, RoundingMode.HALF_UP);
+            assertTrue(exact.subtract(allocations.get(i)).abs().compareTo(unit) < 0, message);
+        }
+    }
+
+    private static OrderCreateRequest.TaxLineRequest taxLine(BigDecimal price) {
+        return OrderCreateRequest.TaxLineRequest.builder()
+                .rate(new BigDecimal("0.1"))
+                .price(price)
+                .build();
+    }
+
+    private static BigDecimal randomAmount(Random random, Currency currency, int bound) {
+        return BigDecimal.valueOf(random.nextInt(bound), currency.getDefaultFractionDigits());
+    }
+}
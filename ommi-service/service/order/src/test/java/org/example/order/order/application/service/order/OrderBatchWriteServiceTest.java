@@ -0,0 +1,132 @@
+package org.example.order.order.application.service.order;
+
+import jakarta.validation.Validator;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.application.model.order.request.OrderCreateRequest;
+import org.example.order.order.application.model.order.response.OrderBatchItemResult;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderBatchWriteService với repository giả lập JPA: persist đánh dấu order không còn new (@PrePersist),
+ * order đã không còn new mà lưu lại thì lỗi (đi nhánh merge)
+ */
+public class OrderBatchWriteServiceTest implements OrderFixtures {
+
+    private static final String FAIL_ON_FLUSH = "fail_on_flush";
+
+    private final OrderWriteService orderWriteService = mock(OrderWriteService.class);
+    private final FlushingOrderRepository orderRepository = new FlushingOrderRepository();
+    private final List<Order> preparedOrders = new ArrayList<>();
+
+    private OrderBatchWriteService batchWriteService;
+
+    @BeforeEach
+    public void setUp() {
+        when(this.orderWriteService.prepareOrder(anyInt(), any(), any(), any())).thenAnswer(invocation -> {
+            OrderCreateRequest request = invocation.getArgument(2);
+            var order = defaultOrder();
+            if (FAIL_ON_FLUSH.equals(request.getNote())) this.orderRepository.failing.add(order);
+            this.preparedOrders.add(order);
+            return new OrderWriteService.PreparedOrder(order, null);
+        });
+
+        this.batchWriteService = new OrderBatchWriteService(
+                this.orderWriteService,
+                this.orderRepository,
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                // mock trả về Set rỗng => request hợp lệ
+                mock(Validator.class)
+        );
+    }
+
+    @Test
+    public void chunk_is_saved_in_one_call() {
+        var results = this.batchWriteService.createOrders(storeId, List.of(request("a"), request("b"), request("c")));
+
+        assertTrue(results.stream().allMatch(OrderBatchItemResult::isSuccess));
+        assertEquals(1, this.orderRepository.saveCalls);
+        assertEquals(3, this.orderRepository.saved.size());
+        verify(this.orderWriteService, times(3)).prepareOrder(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    public void failed_order_only_fails_its_item_and_others_are_rebuilt() {
+        var results = this.batchWriteService.createOrders(storeId, List.of(request("a"), request(FAIL_ON_FLUSH), request("c")));
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(OrderBatchItemResult::getIndex).toList());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertNotNull(results.get(1).getErrors());
+        assertTrue(results.get(2).isSuccess());
+
+        // 3 order của lần lưu cả chunk + 3 order dựng lại khi lưu từng order
+        verify(this.orderWriteService, times(6)).prepareOrder(anyInt(), any(), any(), any());
+        var firstAttempt = Collections.newSetFromMap(new IdentityHashMap<Order, Boolean>());
+        firstAttempt.addAll(this.preparedOrders.subList(0, 3));
+        assertEquals(2, this.orderRepository.saved.size());
+        assertTrue(this.orderRepository.saved.stream().noneMatch(firstAttempt::contains));
+        assertEquals(this.orderRepository.saved.get(0).getId().getId(), results.get(0).getOrderId());
+        assertEquals(this.orderRepository.saved.get(1).getId().getId(), results.get(2).getOrderId());
+    }
+
+    private static OrderCreateRequest request(String note) {
+        return OrderCreateRequest.builder().note(note).build();
+    }
+
+    private static final class FlushingOrderRepository implements OrderRepository {
+        private final Set<Order> failing = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Order> saved = new ArrayList<>();
+        private int saveCalls;
+
+        @Override
+        public void save(Order order) {
+            this.saveAll(List.of(order));
+        }
+
+        @Override
+        public void saveAll(List<Order> orders) {
+            this.saveCalls++;
+            for (var order : orders) {
+                if (!order.isNew()) {
+                    throw new IllegalStateException("detached order " + order.getId() + " would be merged");
+                }
+                // @PrePersist
+                order.markNotNew();
+            }
+            if (orders.stream().anyMatch(this.failing::contains)) {
+                throw new IllegalStateException("flush failed");
+            }
+            this.saved.addAll(orders);
+        }
+
+        @Override
+        public Order findById(OrderId orderId) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.order.order.application.service.order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.infrastructure.configuration.OrderPrefetchProperties;
+import org.example.order.order.infrastructure.configuration.exception.DependencyTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderPrefetcher: timeout huỷ lần gọi, chạy tuần tự khi tắt, hàng đợi đầy chạy trên thread gọi, metric theo lookup
+ */
+public class OrderPrefetcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderPrefetcher prefetcher;
+
+    @AfterEach
+    public void tearDown() {
+        if (this.prefetcher != null) {
+            this.prefetcher.shutdown();
+        }
+    }
+
+    @Test
+    public void timed_out_lookup_is_interrupted_and_reported_as_dependency_timeout() throws Exception {
+        var properties = properties(true, 2, 8);
+        properties.getTimeouts().put("customer_by_id", Duration.ofMillis(100));
+        this.prefetcher = new OrderPrefetcher(properties, this.meterRegistry);
+        var interrupted = new CountDownLatch(1);
+
+        var lookup = this.prefetcher.submit("customer_by_id", () -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+            return "never";
+        });
+
+        var exception = assertThrows(DependencyTimeoutException.class, lookup::join);
+        assertEquals("customer_by_id", exception.getDependency());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "thread của lookup phải bị interrupt");
+        assertEquals(1, count("customer_by_id", "timeout"));
+        assertEquals(0, count("customer_by_id", "error"));
+    }
+
+    @Test
+    public void disabled_prefetch_runs_lookup_on_caller_thread() {
+        this.prefetcher = new OrderPrefetcher(properties(false, 2, 8), this.meterRegistry);
+        var caller = Thread.currentThread();
+
+        var lookup = this.prefetcher.submit("customer_by_id", () -> Thread.currentThread());
+
+        assertSame(caller, lookup.join());
+        assertEquals(1, count("customer_by_id", "success"));
+        var error = new IllegalArgumentException("not found");
+        assertSame(error, assertThrows(IllegalArgumentException.class, () -> this.prefetcher.submit("customer_by_email", () -> {
+            throw error;
+        })));
+        assertEquals(1, count("customer_by_email", "error"));
+    }
+
+    @Test
+    public void saturated_pool_runs_lookup_on_caller_thread() throws Exception {
+        this.prefetcher = new OrderPrefetcher(properties(true, 1, 1), this.meterRegistry);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var caller = Thread.currentThread();
+
+        var running = this.prefetcher.submit("customer_by_id", () -> {
+            started.countDown();
+            await(release);
+            return Thread.currentThread();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var queued = this.prefetcher.submit("customer_by_id", Thread::currentThread);
+        // thread bận, hàng đợi đầy
+        var callerRuns = this.prefetcher.submit("customer_by_email", Thread::currentThread);
+
+        assertSame(caller, callerRuns.join());
+        release.countDown();
+        assertNotSame(caller, running.join());
+        assertNotSame(caller, queued.join());
+    }
+
+    @Test
+    public void each_lookup_is_timed_with_its_name_and_outcome() {
+        this.prefetcher = new OrderPrefetcher(properties(true, 2, 8), this.meterRegistry);
+
+        assertEquals("a", this.prefetcher.submit("customer_by_id", () -> "a").join());
+        var error = new IllegalStateException("admin api down");
+        var failed = this.prefetcher.submit("customer_by_email", () -> {
+            throw error;
+        });
+
+        assertSame(error, assertThrows(IllegalStateException.class, failed::join));
+        assertEquals(1, count("customer_by_id", "success"));
+        assertEquals(1, count("customer_by_email", "error"));
+        assertEquals(0, count("customer_by_email", "success"));
+    }
+
+    private long count(String lookup, String outcome) {
+        var timer = this.meterRegistry.find("order.create.prefetch").tag("lookup", lookup).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OrderPrefetchProperties properties(boolean enabled, int poolSize, int queueCapacity) {
+        var properties = new OrderPrefetchProperties();
+        properties.setEnabled(enabled);
+        properties.setPoolSize(poolSize);
+        properties.setQueueCapacity(queueCapacity);
+        return properties;
+    }
+}
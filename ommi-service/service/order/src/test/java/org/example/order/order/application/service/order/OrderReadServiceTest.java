@@ -0,0 +1,71 @@
+package org.example.order.order.application.service.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.domain.order.model.OrderId;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.example.order.order.infrastructure.data.dao.OrderDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderReadService.getById: đọc view đã có, view chưa có thì build lại từ aggregate
+ */
+public class OrderReadServiceTest implements OrderFixtures {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderDao orderDao = mock(OrderDao.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderViewProjector projector = new OrderViewProjector(
+            this.orderRepository,
+            this.orderDao,
+            this.objectMapper,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    private final OrderReadService readService = new OrderReadService(this.orderDao, this.projector, this.objectMapper);
+
+    @Test
+    public void existing_view_is_returned_without_loading_order() {
+        var order = defaultOrder();
+        var view = this.projector.toView(order);
+        when(this.orderDao.getViewById(storeId, order.getId().getId())).thenReturn(view);
+
+        var response = this.readService.getById(order.getId());
+
+        assertEquals(order.getId().getId(), response.getId());
+        assertEquals(4, response.getLineItems().size());
+        verify(this.orderRepository, never()).findById(any());
+        verify(this.orderDao, never()).saveView(any());
+    }
+
+    @Test
+    public void missing_view_is_rebuilt_and_saved() {
+        var order = defaultOrder();
+        when(this.orderRepository.findById(any())).thenReturn(order);
+        when(this.orderDao.saveView(any())).thenReturn(true);
+
+        var response = this.readService.getById(order.getId());
+
+        assertEquals(order.getId().getId(), response.getId());
+        assertEquals(customerInfo.getEmail(), response.getEmail());
+        verify(this.orderDao).saveView(any());
+    }
+
+    @Test
+    public void missing_order_is_not_found() {
+        when(this.orderDao.getViewById(anyInt(), anyInt())).thenReturn(null);
+
+        assertThrows(ConstrainViolationException.class, () -> this.readService.getById(new OrderId(storeId, 1)));
+        verify(this.orderDao, never()).saveView(any());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.order.order.application.service.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.application.model.order.response.OrderResponse;
+import org.example.order.order.domain.order.model.Order;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.domain.refund.model.Refund;
+import org.example.order.order.domain.transaction.model.OrderTransaction;
+import org.example.order.order.infrastructure.data.dao.JdbcOrderDao;
+import org.example.order.order.infrastructure.data.schema.OrderView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+/**
+ * View ghi trong transaction tạo order (beforeCommit) vào bảng order_views thật, rồi đọc theo trang bằng page_info
+ */
+@DataJpaTest
+@Import(JdbcOrderDao.class)
+@EntityScan(basePackageClasses = {OrderView.class, Order.class, Refund.class, OrderTransaction.class})
+@EnableJpaRepositories(basePackageClasses = OrderView.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderViewProjectorJdbcTest implements OrderFixtures {
+
+    @Autowired
+    private JdbcOrderDao orderDao;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private OrderViewProjector projector;
+    private OrderReadService readService;
+
+    @BeforeEach
+    public void setUp() {
+        this.jdbcTemplate.update("DELETE FROM order_views");
+        this.projector = new OrderViewProjector(mock(OrderRepository.class), this.orderDao, this.objectMapper, this.transactionTemplate);
+        this.readService = new OrderReadService(this.orderDao, this.projector, this.objectMapper);
+    }
+
+    @Test
+    public void created_orders_are_saved_as_views_and_paged_by_cursor() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var order = defaultOrder();
+            orders.add(order);
+            this.transactionTemplate.executeWithoutResult(status -> this.projector.handleOrderCreated(OrderCreatedAppEvent.builder()
+                    .storeId(storeId)
+                    .orderId(order.getId())
+                    .order(order)
+                    .build()));
+        }
+        var expected = orders.stream()
+                .sorted(Comparator.comparing(Order::getCreatedOn).thenComparing(order -> order.getId().getId()).reversed())
+                .map(order -> order.getId().getId())
+                .toList();
+
+        var firstPage = this.readService.search(storeId, null, null, 2, true);
+        assertEquals(expected.subList(0, 2), firstPage.getOrders().stream().map(OrderResponse::getId).toList());
+        assertNotNull(firstPage.getNextPageInfo());
+        assertEquals(3, firstPage.getCount());
+
+        var secondPage = this.readService.search(storeId, null, firstPage.getNextPageInfo(), 2, false);
+        assertEquals(expected.subList(2, 3), secondPage.getOrders().stream().map(OrderResponse::getId).toList());
+        assertNull(secondPage.getNextPageInfo());
+
+        var saved = this.orderDao.getViewById(storeId, orders.get(0).getId().getId());
+        assertNotNull(saved.getCreatedOn());
+    }
+}
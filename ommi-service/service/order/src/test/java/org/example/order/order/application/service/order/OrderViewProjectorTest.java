@@ -0,0 +1,160 @@
+package org.example.order.order.application.service.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.application.model.order.response.OrderResponse;
+import org.example.order.order.application.service.orderedit.OrderEditedAppEvent;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.data.dao.OrderDao;
+import org.example.order.order.infrastructure.data.dto.OrderViewDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderViewProjector: view build từ aggregate trong event ngay trước commit, không load lại order
+ */
+public class OrderViewProjectorTest implements OrderFixtures {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderDao orderDao = mock(OrderDao.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderViewProjector projector = new OrderViewProjector(
+            this.orderRepository,
+            this.orderDao,
+            this.objectMapper,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(this.projector);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void events_of_one_transaction_write_view_once_from_in_memory_order() throws Exception {
+        var order = defaultOrder();
+        beginTransaction();
+
+        this.projector.handleOrderCreated(OrderCreatedAppEvent.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .order(order)
+                .build());
+        this.projector.handleOrderEdited(new OrderEditedAppEvent(order, Map.of(), List.of(), List.of()));
+        this.projector.handleRefundCreated(new RefundCreatedAppEvent(order, List.of(), List.of()));
+        verify(this.orderDao, never()).saveView(any());
+
+        commit();
+
+        var view = ArgumentCaptor.forClass(OrderViewDto.class);
+        verify(this.orderDao, times(1)).saveView(view.capture());
+        verify(this.orderRepository, never()).findById(any());
+        verify(this.orderRepository, never()).findById(any(), any());
+        assertEquals(order.getId().getId(), view.getValue().getId());
+        assertEquals(4, this.objectMapper.readValue(view.getValue().getData(), OrderResponse.class).getLineItems().size());
+        assertFalse(TransactionSynchronizationManager.hasResource(this.projector));
+    }
+
+    @Test
+    public void rolled_back_transaction_writes_no_view() {
+        var order = defaultOrder();
+        beginTransaction();
+
+        this.projector.handleRefundCreated(new RefundCreatedAppEvent(order, List.of(), List.of()));
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(this.orderDao, never()).saveView(any());
+        assertFalse(TransactionSynchronizationManager.hasResource(this.projector));
+    }
+
+    @Test
+    public void event_outside_transaction_reloads_order() {
+        var order = defaultOrder();
+        when(this.orderRepository.findById(any())).thenReturn(order);
+
+        this.projector.handleRefundCreated(new RefundCreatedAppEvent(order, List.of(), List.of()));
+
+        verify(this.orderRepository).findById(any());
+        verify(this.orderDao).saveView(any());
+    }
+
+    /**
+     * Order bị sửa (và view mới được ghi) sau khi rebuild load order => rebuild không ghi được, trả về view mới
+     */
+    @Test
+    public void rebuild_overtaken_by_edit_returns_stored_view() {
+        var order = defaultOrder();
+        when(this.orderRepository.findById(any())).thenReturn(order);
+        var edited = this.projector.toView(order);
+        edited.setData("{\"edited\":true}");
+        when(this.orderDao.saveView(any())).thenReturn(false);
+        when(this.orderDao.getViewById(storeId, order.getId().getId())).thenReturn(edited);
+
+        assertSame(edited, this.projector.rebuild(order.getId()));
+    }
+
+    @Test
+    public void rebuild_of_missing_order_returns_null() {
+        assertNull(this.projector.rebuild(defaultOrder().getId()));
+        verify(this.orderDao, never()).saveView(any());
+    }
+
+    @Test
+    public void view_columns_and_data_follow_order() throws Exception {
+        var order = defaultOrder();
+
+        var view = this.projector.toView(order);
+
+        assertEquals(storeId, view.getStoreId());
+        assertEquals(order.getId().getId(), view.getId());
+        assertEquals(order.getOrderStatus(), view.getOrderStatus());
+        assertEquals(order.getFinancialStatus(), view.getFinancialStatus());
+        assertEquals(customerInfo.getEmail(), view.getEmail());
+        assertEquals(customerInfo.getPhone(), view.getPhone());
+        assertEquals(locationId, view.getLocationId());
+        assertEquals(order.getMoneyInfo().getTotalPrice(), view.getTotalPrice());
+
+        var response = this.objectMapper.readValue(view.getData(), OrderResponse.class);
+        assertEquals(tags, response.getTags());
+        assertEquals(List.of(lineItemId1, lineItemId2, lineItemId3, lineItemId4),
+                response.getLineItems().stream().map(OrderResponse.LineItemResponse::getId).toList());
+        assertEquals(currency.getCurrencyCode(), response.getCurrency());
+        assertEquals(shippingAddress.getAddress().getAddress1(), response.getShippingAddress().getAddress1());
+        assertEquals(List.of(), response.getRefunds());
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static void commit() {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.order.order.application.service.order;
+
+import org.example.AdminClient;
+import org.example.order.domain.order.model.OrderFixtures;
+import org.example.order.order.application.model.refund.request.RefundRequest;
+import org.example.order.order.domain.fulfillmentorder.persistence.FulfillmentOrderRepository;
+import org.example.order.order.domain.transaction.persistence.TransactionRepository;
+import org.example.order.order.infrastructure.data.dao.ProductDao;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+public class RefundCalculationServiceTest implements OrderFixtures {
+
+    private final RefundCalculationService refundCalculationService = new RefundCalculationService(
+            mock(AdminClient.class),
+            mock(ProductDao.class),
+            mock(FulfillmentOrderRepository.class),
+            mock(TransactionRepository.class)
+    );
+
+    /**
+     * suggestRefundTransactions từng trả null => calculateRefund lỗi NPE
+     */
+    @Test
+    public void calculate_refund_returns_suggested_transactions() {
+        var refundRequest = new RefundRequest();
+        refundRequest.setRefundLineItems(List.of());
+        refundRequest.setOption(new RefundRequest.Option(false, false));
+
+        var result = this.refundCalculationService.calculateRefund(defaultOrder(), refundRequest);
+
+        assertNotNull(result.getTransactions());
+        assertEquals(List.of(), result.getTransactions());
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.getShipping().getAmount()));
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.order.order.application.service.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RefundCalculationService.subtotalWithRounding phải cho kết quả giống hệt cách tính cũ (trước MoneyMath), với input ngẫu nhiên
+ */
+public class RefundRoundingTest {
+
+    @Test
+    public void subtotal_matches_old_formula() {
+        var random = new Random(11);
+        for (int round = 0; round < 5_000; round++) {
+            long total = random.nextInt(3) == 0 ? random.nextLong() / 1_000 : random.nextInt(10_000_000);
+            var totalQuantity = 1 + random.nextInt(50);
+            var refunded = random.nextInt(totalQuantity);
+            var quantity = 1 + random.nextInt(totalQuantity - refunded);
+            for (var style : RefundCalculationService.RoundingStyle.values()) {
+                assertEquals(oldSubtotal(total, totalQuantity, quantity),
+                        RefundCalculationService.subtotalWithRounding(total, totalQuantity, refunded, quantity, style),
+                        "total " + total + " quantity " + quantity + "/" + totalQuantity);
+            }
+        }
+    }
+
+    @Test
+    public void zero_quantity_still_fails() {
+        assertThrows(ArithmeticException.class, () -> oldSubtotal(100, 0, 1));
+        assertThrows(ArithmeticException.class,
+                () -> RefundCalculationService.subtotalWithRounding(100, 0, 0, 1, RefundCalculationService.RoundingStyle.last_n));
+    }
+
+    /**
+     * RefundCalculationService.subtotalWithRounding trước MoneyMath
+     */
+    private static long oldSubtotal(long totalAmountL, int totalQuantity, int suggestQuantity) {
+        var remain = totalAmountL % totalQuantity;
+        if (remain == 0) {
+            return (totalAmountL / totalQuantity) * suggestQuantity;
+        }
+
+        return (totalAmountL / totalQuantity) * suggestQuantity;
+    }
+}
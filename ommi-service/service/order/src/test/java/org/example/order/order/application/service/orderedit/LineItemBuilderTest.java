@@ -0,0 +1,53 @@
+package org.example.order.order.application.service.orderedit;
+
+import org.example.order.order.application.model.orderedit.response.CalculatedLineItem;
+import org.example.order.order.infrastructure.data.dao.DiscountAllocationDto;
+import org.example.order.order.infrastructure.data.dao.LineItemDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Line không thay đổi số lượng trong phiên edit vẫn phải có quantity / editableQuantity để tính subtotal
+ */
+public class LineItemBuilderTest {
+
+    @Test
+    public void unchanged_line_keeps_order_quantities() {
+        var lineItem = build(List.of());
+
+        assertEquals(0, BigDecimal.valueOf(3).compareTo(lineItem.getQuantity()));
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(lineItem.getEditableQuantity()));
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(lineItem.getEditableQuantityBeforeChanges()));
+        assertEquals(0, BigDecimal.valueOf(20_000).compareTo(lineItem.getEditableSubtotal()));
+        assertEquals(0, BigDecimal.valueOf(10_000).compareTo(lineItem.getUneditableSubtotal()));
+    }
+
+    @Test
+    public void unchanged_line_with_discount_splits_discounted_total() {
+        var allocation = new DiscountAllocationDto();
+        allocation.setAmount(BigDecimal.valueOf(3_000));
+        allocation.setApplicationId(1);
+
+        var lineItem = build(List.of(allocation));
+
+        assertEquals(0, BigDecimal.valueOf(3).compareTo(lineItem.getQuantity()));
+        assertEquals(0, BigDecimal.valueOf(18_000).compareTo(lineItem.getEditableSubtotal()));
+        assertEquals(0, BigDecimal.valueOf(9_000).compareTo(lineItem.getUneditableSubtotal()));
+        assertEquals(1, lineItem.getDiscountAllocations().size());
+    }
+
+    private static CalculatedLineItem build(List<DiscountAllocationDto> allocations) {
+        var lineItem = new LineItemDto();
+        lineItem.setId(1);
+        lineItem.setQuantity(3);
+        lineItem.setFulfillableQuantity(2);
+        lineItem.setPrice(BigDecimal.valueOf(10_000));
+
+        var context = new LineItemBuilder.Context(lineItem, LineItemBuilder.QuantityAction.defaultValue(), List.of(), List.of(), allocations);
+        return LineItemBuilder.forLineItem(context).build().lineItem();
+    }
+}
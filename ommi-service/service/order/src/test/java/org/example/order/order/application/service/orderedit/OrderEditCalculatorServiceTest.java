@@ -0,0 +1,250 @@
+package org.example.order.order.application.service.orderedit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.order.order.application.model.orderedit.response.CalculatedOrder;
+import org.example.order.order.application.utils.JsonUtils;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.domain.edit.model.OrderStagedChange;
+import org.example.order.order.domain.order.model.DiscountAllocation;
+import org.example.order.order.domain.order.model.DiscountApplication;
+import org.example.order.order.infrastructure.configuration.OrderEditSessionCacheProperties;
+import org.example.order.order.infrastructure.data.dao.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tính lại theo OrderEditSessionCache phải ra đúng kết quả tính lại toàn bộ sau mỗi thao tác sửa
+ */
+public class OrderEditCalculatorServiceTest {
+
+    private static final int STORE_ID = 1;
+    private static final int ORDER_ID = 1;
+    private static final int EDIT_ID = 1;
+
+    private final OrderStagedChange.BaseAction.Converter converter = new OrderStagedChange.BaseAction.Converter();
+
+    private OrderEditGraphDto graph;
+    private OrderEditSessionCache sessionCache;
+    private OrderEditCalculatorService incremental;
+    private OrderEditCalculatorService full;
+
+    @BeforeEach
+    public void setUp() {
+        var lineItems = new ArrayList<LineItemDto>();
+        for (int i = 1; i <= 4; i++) {
+            var lineItem = new LineItemDto();
+            lineItem.setStoreId(STORE_ID);
+            lineItem.setOrderId(ORDER_ID);
+            lineItem.setId(i);
+            lineItem.setQuantity(3);
+            lineItem.setFulfillableQuantity(i == 4 ? 1 : 3);
+            lineItem.setPrice(BigDecimal.valueOf(10_000L * i));
+            lineItem.setTitle("title" + i);
+            lineItem.setVersion(1);
+            lineItems.add(lineItem);
+        }
+
+        var application = new DiscountApplicationDto();
+        application.setStoreId(STORE_ID);
+        application.setOrderId(ORDER_ID);
+        application.setId(1);
+        application.setValue(BigDecimal.valueOf(3_000));
+        application.setValueType(DiscountApplication.ValueType.fixed_amount);
+        application.setRuleType(DiscountApplication.RuleType.product);
+        application.setVersion(1);
+
+        var allocation = new DiscountAllocationDto();
+        allocation.setStoreId(STORE_ID);
+        allocation.setOrderId(ORDER_ID);
+        allocation.setId(1);
+        allocation.setAmount(BigDecimal.valueOf(3_000));
+        allocation.setTargetId(1);
+        allocation.setTargetType(DiscountAllocation.TargetType.line_item);
+        allocation.setApplicationId(1);
+        allocation.setVersion(1);
+
+        var orderEdit = new OrderEditDto();
+        orderEdit.setStoreId(STORE_ID);
+        orderEdit.setId(EDIT_ID);
+        orderEdit.setOrderId(ORDER_ID);
+        orderEdit.setCurrency(Currency.getInstance("VND"));
+        orderEdit.setSubtotalLineItemQuantity(BigDecimal.valueOf(12));
+        orderEdit.setSubtotalPrice(BigDecimal.ZERO);
+        orderEdit.setCartDiscountAmount(BigDecimal.ZERO);
+        orderEdit.setTotalPrice(BigDecimal.ZERO);
+        orderEdit.setTotalOutstanding(BigDecimal.ZERO);
+        orderEdit.setVersion(1);
+
+        this.graph = new OrderEditGraphDto();
+        this.graph.setOrderEdit(orderEdit);
+        this.graph.setLineItems(lineItems);
+        this.graph.setDiscountApplications(new ArrayList<>(List.of(application)));
+        this.graph.setDiscountAllocations(new ArrayList<>(List.of(allocation)));
+        this.graph.setEditLineItems(new ArrayList<>());
+        this.graph.setEditDiscountApplications(new ArrayList<>());
+        this.graph.setEditDiscountAllocations(new ArrayList<>());
+        this.graph.setStagedChanges(new ArrayList<>());
+
+        OrderEditGraphDao graphDao = (storeId, orderEditId) -> this.graph;
+        this.sessionCache = new OrderEditSessionCache(new OrderEditSessionCacheProperties(), new SimpleMeterRegistry());
+        this.incremental = new OrderEditCalculatorService(graphDao, this.sessionCache);
+        var disabled = new OrderEditSessionCacheProperties();
+        disabled.setEnabled(false);
+        this.full = new OrderEditCalculatorService(graphDao, new OrderEditSessionCache(disabled, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void incremental_matches_full_recompute_after_each_edit() throws Exception {
+        this.assertSameAsFull();
+
+        var increment = this.addStagedChange(new OrderStagedChange.IncrementItem(2, BigDecimal.ONE));
+        this.assertSameAsFull();
+
+        this.addStagedChange(new OrderStagedChange.DecrementItem(3, BigDecimal.valueOf(2), true));
+        this.assertSameAsFull();
+
+        // sửa staged change đã có
+        this.updateStagedChange(increment, new OrderStagedChange.IncrementItem(2, BigDecimal.valueOf(5)));
+        this.assertSameAsFull();
+
+        // bỏ staged change
+        this.graph.getStagedChanges().remove(increment);
+        this.bumpEditVersion();
+        this.assertSameAsFull();
+
+        // fulfill/refund trong lúc sửa: line item đổi version
+        var lineItem = this.graph.getLineItems().get(3);
+        lineItem.setFulfillableQuantity(0);
+        lineItem.setVersion(2);
+        this.bumpEditVersion();
+        this.assertSameAsFull();
+    }
+
+    @Test
+    public void incremental_matches_full_recompute_after_discount_changes() throws Exception {
+        var lineItemId = this.addCustomItem();
+        this.assertSameAsFull();
+
+        // thêm giảm giá cho line mới: staged change + discount application + allocation
+        var applicationId = UUID.randomUUID();
+        var allocationId = UUID.randomUUID();
+        var application = new OrderEditDiscountApplicationDto();
+        application.setStoreId(STORE_ID);
+        application.setEditingId(EDIT_ID);
+        application.setId(applicationId);
+        application.setValue(BigDecimal.valueOf(1_000));
+        application.setValueType(DiscountApplication.ValueType.fixed_amount);
+        application.setTargetType(DiscountApplication.TargetType.line_item);
+        application.setVersion(1);
+        this.graph.getEditDiscountApplications().add(application);
+        var allocation = new OrderEditDiscountAllocationDto();
+        allocation.setStoreId(STORE_ID);
+        allocation.setEditingId(EDIT_ID);
+        allocation.setId(allocationId);
+        allocation.setAmount(BigDecimal.valueOf(1_000));
+        allocation.setApplicationId(applicationId);
+        allocation.setLineItemId(lineItemId);
+        allocation.setVersion(1);
+        this.graph.getEditDiscountAllocations().add(allocation);
+        var discount = this.addStagedChange(new OrderStagedChange.AddItemDiscount(
+                lineItemId, "sale", BigDecimal.valueOf(1_000), applicationId, allocationId, BigDecimal.valueOf(1_000)));
+        this.assertSameAsFull();
+
+        // đổi giá trị giảm giá
+        application.setValue(BigDecimal.valueOf(2_000));
+        application.setVersion(2);
+        allocation.setAmount(BigDecimal.valueOf(2_000));
+        allocation.setVersion(2);
+        this.updateStagedChange(discount, new OrderStagedChange.AddItemDiscount(
+                lineItemId, "sale", BigDecimal.valueOf(2_000), applicationId, allocationId, BigDecimal.valueOf(2_000)));
+        this.assertSameAsFull();
+
+        // chỉ discount application của order đổi version => line có allocation của nó vẫn phải build lại
+        var orderApplication = this.graph.getDiscountApplications().get(0);
+        orderApplication.setValue(BigDecimal.valueOf(6_000));
+        orderApplication.setVersion(2);
+        var orderAllocation = this.graph.getDiscountAllocations().get(0);
+        orderAllocation.setAmount(BigDecimal.valueOf(6_000));
+        this.bumpEditVersion();
+        this.assertSameAsFull();
+    }
+
+    /**
+     * Sửa CalculatedOrder đã trả ra không làm sai lần tính sau
+     */
+    @Test
+    public void returned_line_items_are_not_shared_with_cache() throws Exception {
+        this.addStagedChange(new OrderStagedChange.IncrementItem(2, BigDecimal.ONE));
+        var first = this.incremental.calculateOrder(new OrderEditId(STORE_ID, EDIT_ID));
+        for (var lineItem : first.getLineItems()) {
+            lineItem.setQuantity(BigDecimal.valueOf(999));
+            lineItem.getStagedChanges().clear();
+        }
+
+        this.assertSameAsFull();
+    }
+
+    @Test
+    public void session_is_found_with_an_equal_order_edit_id() {
+        this.incremental.calculateOrder(new OrderEditId(STORE_ID, EDIT_ID));
+
+        assertNotNull(this.sessionCache.get(new OrderEditId(STORE_ID, EDIT_ID), this.graph.getOrderEdit().getVersion()));
+    }
+
+    private void assertSameAsFull() throws Exception {
+        var orderEditId = new OrderEditId(STORE_ID, EDIT_ID);
+        CalculatedOrder incremental = this.incremental.calculateOrder(orderEditId);
+        CalculatedOrder full = this.full.calculateOrder(orderEditId);
+        assertEquals(JsonUtils.marshal(full), JsonUtils.marshal(incremental));
+    }
+
+    private UUID addCustomItem() {
+        var lineItemId = UUID.randomUUID();
+        var lineItem = new OrderEditLineItemDto();
+        lineItem.setStoreId(STORE_ID);
+        lineItem.setEditingId(EDIT_ID);
+        lineItem.setId(lineItemId);
+        lineItem.setTitle("custom");
+        lineItem.setEditableQuantity(BigDecimal.ONE);
+        lineItem.setOriginalUnitPrice(BigDecimal.valueOf(50_000));
+        lineItem.setDiscountedUnitPrice(BigDecimal.valueOf(50_000));
+        lineItem.setEditableSubtotal(BigDecimal.valueOf(50_000));
+        lineItem.setVersion(1);
+        this.graph.getEditLineItems().add(lineItem);
+        this.addStagedChange(new OrderStagedChange.AddCustomItem("custom", BigDecimal.ONE, null, BigDecimal.valueOf(50_000), false, true, lineItemId));
+        return lineItemId;
+    }
+
+    private OrderEditStagedChangeDto addStagedChange(OrderStagedChange.BaseAction action) {
+        var stagedChange = new OrderEditStagedChangeDto();
+        stagedChange.setStoreId(STORE_ID);
+        stagedChange.setEditingId(EDIT_ID);
+        stagedChange.setId(UUID.randomUUID());
+        stagedChange.setType(action.getType());
+        stagedChange.setValue(this.converter.convertToDatabaseColumn(action));
+        stagedChange.setVersion(1);
+        this.graph.getStagedChanges().add(stagedChange);
+        this.bumpEditVersion();
+        return stagedChange;
+    }
+
+    private void updateStagedChange(OrderEditStagedChangeDto stagedChange, OrderStagedChange.BaseAction action) {
+        stagedChange.setValue(this.converter.convertToDatabaseColumn(action));
+        stagedChange.setVersion(stagedChange.getVersion() + 1);
+        this.bumpEditVersion();
+    }
+
+    private void bumpEditVersion() {
+        var orderEdit = this.graph.getOrderEdit();
+        orderEdit.setVersion(orderEdit.getVersion() + 1);
+    }
+}
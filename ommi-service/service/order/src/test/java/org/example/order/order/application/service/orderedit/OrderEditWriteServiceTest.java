@@ -0,0 +1,89 @@
+package org.example.order.order.application.service.orderedit;
+
+import org.example.order.order.application.model.orderedit.request.OrderEditRequest;
+import org.example.order.order.application.service.order.OrderWriteService;
+import org.example.order.order.domain.edit.model.AddedLineItem;
+import org.example.order.order.domain.edit.model.OrderEdit;
+import org.example.order.order.domain.edit.model.OrderEditId;
+import org.example.order.order.domain.edit.persistence.OrderEditIdGenerator;
+import org.example.order.order.domain.edit.persistence.OrderEditRepository;
+import org.example.order.order.domain.order.persistence.OrderRepository;
+import org.example.order.order.infrastructure.configuration.exception.ConstrainViolationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderEditWriteService.applyChanges: lỗi của change trả về cho người dùng, không lưu order edit
+ */
+public class OrderEditWriteServiceTest {
+
+    private static final OrderEditId ORDER_EDIT_ID = new OrderEditId(1, 1);
+
+    private final OrderEditRepository orderEditRepository = mock(OrderEditRepository.class);
+    private final OrderEditContext orderEditContext = mock(OrderEditContext.class);
+    private final OrderEditWriteService writeService = new OrderEditWriteService(
+            mock(OrderEditIdGenerator.class),
+            mock(OrderRepository.class),
+            this.orderEditRepository,
+            this.orderEditContext,
+            mock(OrderWriteService.class),
+            mock(OrderEditSessionCache.class)
+    );
+
+    @Test
+    public void unknown_location_is_a_user_error() {
+        var addCustomItem = new OrderEditRequest.AddCustomItem();
+        addCustomItem.setTitle("custom");
+        addCustomItem.setPrice(BigDecimal.valueOf(10_000));
+        addCustomItem.setQuantity(BigDecimal.ONE);
+        addCustomItem.setLocationId(99);
+        var change = new OrderEditRequest.Change();
+        change.setType(OrderEditRequest.ChangeType.add_custom_item);
+        change.setAddCustomItem(addCustomItem);
+        var request = new OrderEditRequest.ApplyChanges();
+        request.setChanges(List.of(change));
+
+        var context = mock(OrderEditContext.ApplyChangesContext.class);
+        when(context.orderEdit()).thenReturn(orderEdit());
+        when(context.request()).thenReturn(request);
+        when(context.getLocationById(any())).thenReturn(null);
+        when(this.orderEditContext.createContext(any(OrderEditId.class), any(OrderEditRequest.ApplyChanges.class))).thenReturn(context);
+
+        assertThrows(ConstrainViolationException.class, () -> this.writeService.applyChanges(ORDER_EDIT_ID, request));
+        verify(this.orderEditRepository, never()).save(any());
+    }
+
+    @Test
+    public void added_line_items_are_found_by_id_after_add_and_remove() {
+        var orderEdit = orderEdit();
+        var taxContext = new TaxContext();
+        var lineItems = new ArrayList<AddedLineItem>();
+        for (int i = 0; i < 3; i++) {
+            var lineItem = new AddedLineItem(UUID.randomUUID(), null, null, null, "custom" + i, null,
+                    false, true, false, BigDecimal.ONE, BigDecimal.valueOf(10_000));
+            orderEdit.addLineItem(lineItem, taxContext);
+            lineItems.add(lineItem);
+        }
+
+        orderEdit.removeAddedLineItem(lineItems.get(1).getId(), taxContext);
+
+        assertSame(lineItems.get(0), orderEdit.findLineItemById(lineItems.get(0).getId()));
+        assertSame(lineItems.get(2), orderEdit.findLineItemById(lineItems.get(2).getId()));
+        assertThrows(IllegalStateException.class, () -> orderEdit.findLineItemById(lineItems.get(1).getId()));
+    }
+
+    private static OrderEdit orderEdit() {
+        return new OrderEdit(ORDER_EDIT_ID, 1, Currency.getInstance("VND"),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+}
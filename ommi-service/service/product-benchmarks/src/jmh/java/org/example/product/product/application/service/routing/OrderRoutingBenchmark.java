@@ -0,0 +1,105 @@
+package org.example.product.product.application.service.routing;
+
+import org.example.product.product.application.model.product.OrderRoutingRequest;
+import org.example.product.product.infrastructure.configuration.OrderRoutingProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderRoutingFetcher.process với itemCount item (variant khác nhau, policy deny => có kiểm tra tồn kho)
+ * trên locationCount location. Location đầu tiên có đủ mọi variant, các location khác thiếu 1/5 số variant.
+ * Dữ liệu dựng sẵn trong bộ nhớ (không query DB)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderRoutingBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final int INVENTORY_ITEM_OFFSET = 1_000_000;
+
+    @Param({"10", "100", "1000"})
+    public int itemCount;
+
+    @Param({"10", "200"})
+    public int locationCount;
+
+    private List<LocationInfo> locations;
+    private OrderRoutingDataService dataService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.locations = new ArrayList<>(this.locationCount);
+        for (int location = 1; location <= this.locationCount; location++) {
+            this.locations.add(LocationInfo.builder().id(location).rank(this.locationCount - location).build());
+        }
+
+        List<VariantInfo> variants = new ArrayList<>(this.itemCount);
+        List<InventoryItemInfo> inventoryItems = new ArrayList<>(this.itemCount);
+        List<InventoryLevelInfo> inventoryLevels = new ArrayList<>(this.itemCount * this.locationCount);
+        for (int variantId = 1; variantId <= this.itemCount; variantId++) {
+            var inventoryItemId = INVENTORY_ITEM_OFFSET + variantId;
+            variants.add(VariantInfo.builder().id(variantId).inventoryItemId(inventoryItemId).inventoryPolicy("deny").build());
+            inventoryItems.add(InventoryItemInfo.builder().id(inventoryItemId).variantId(variantId).tracked(true).build());
+            for (var location : this.locations) {
+                if (location.getId() != 1 && (variantId + location.getId()) % 5 == 0) continue;
+                inventoryLevels.add(InventoryLevelInfo.builder()
+                        .id(inventoryLevels.size() + 1)
+                        .locationId(location.getId())
+                        .inventoryItemId(inventoryItemId)
+                        .variantId(variantId)
+                        .available(BigDecimal.valueOf(variantId % 7 + 1))
+                        .build());
+            }
+        }
+        this.dataService = new InMemoryRoutingDataService(this.locations, variants, inventoryItems, inventoryLevels);
+    }
+
+    @Benchmark
+    public OrderRoutingResult process() {
+        List<RoutingItem> routingItems = new ArrayList<>(this.itemCount);
+        for (int i = 0; i < this.itemCount; i++) {
+            routingItems.add(new OrderRoutingNormalItem(i, BigDecimal.ONE, i + 1));
+        }
+        return new OrderRoutingFetcher(STORE_ID, routingItems, this.locations, Behavior.decrement_obeying_policy, null, this.dataService,
+                new OrderRoutingProperties())
+                .process();
+    }
+
+    record InMemoryRoutingDataService(
+            List<LocationInfo> locations,
+            List<VariantInfo> variants,
+            List<InventoryItemInfo> inventoryItems,
+            List<InventoryLevelInfo> inventoryLevels
+    ) implements OrderRoutingDataService {
+
+        @Override
+        public List<LocationInfo> getAvailableLocations(int storeId) {
+            return this.locations;
+        }
+
+        @Override
+        public List<VariantInfo> getVariantInfos(int storeId, List<Integer> variantIds) {
+            return this.variants;
+        }
+
+        @Override
+        public List<InventoryItemInfo> getInventoryItemInfos(int storeId, List<Integer> inventoryItemIds, List<Integer> variantIds) {
+            return this.inventoryItems;
+        }
+
+        @Override
+        public List<InventoryLevelInfo> getInventoryLevelInfos(int storeId, List<Integer> inventoryItemIds, List<Integer> availableLocationIds) {
+            return this.inventoryLevels;
+        }
+
+        @Override
+        public Boolean checkShippingAddressCanFulfill(int storeId, OrderRoutingRequest.ShippingAddress shippingAddress) {
+            return true;
+        }
+    }
+}
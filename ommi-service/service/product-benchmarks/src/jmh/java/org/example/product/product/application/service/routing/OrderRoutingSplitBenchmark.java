@@ -0,0 +1,82 @@
+package org.example.product.product.application.service.routing;
+
+import org.example.product.product.infrastructure.configuration.OrderRoutingProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderRoutingFetcher.process khi không location nào có đủ hàng => tách đơn.
+ * Mỗi location thiếu 1/4 số variant, variant chia hết cho 10 chỉ có ở 1 location.
+ * exactSearch = false: chỉ greedy; true: tìm vét cạn với đơn <= 32 item trong 20ms
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderRoutingSplitBenchmark {
+
+    private static final int STORE_ID = 1;
+    private static final int INVENTORY_ITEM_OFFSET = 1_000_000;
+
+    @Param({"5", "20", "100"})
+    public int itemCount;
+
+    @Param({"5", "20", "50", "200"})
+    public int locationCount;
+
+    @Param({"false", "true"})
+    public boolean exactSearch;
+
+    private List<LocationInfo> locations;
+    private OrderRoutingDataService dataService;
+    private OrderRoutingProperties properties;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.locations = new ArrayList<>(this.locationCount);
+        for (int location = 0; location < this.locationCount; location++) {
+            this.locations.add(LocationInfo.builder().id(location + 1).rank(location % 3 == 0 ? null : location).build());
+        }
+
+        List<VariantInfo> variants = new ArrayList<>(this.itemCount);
+        List<InventoryItemInfo> inventoryItems = new ArrayList<>(this.itemCount);
+        List<InventoryLevelInfo> inventoryLevels = new ArrayList<>();
+        for (int variantId = 1; variantId <= this.itemCount; variantId++) {
+            var inventoryItemId = INVENTORY_ITEM_OFFSET + variantId;
+            variants.add(VariantInfo.builder().id(variantId).inventoryItemId(inventoryItemId).inventoryPolicy("deny").build());
+            inventoryItems.add(InventoryItemInfo.builder().id(inventoryItemId).variantId(variantId).tracked(true).build());
+            for (int location = 0; location < this.locationCount; location++) {
+                var stocked = variantId % 10 == 0
+                        ? location == (variantId / 10) % this.locationCount
+                        : (variantId + location) % 4 != 0;
+                if (!stocked) continue;
+                inventoryLevels.add(InventoryLevelInfo.builder()
+                        .id(inventoryLevels.size() + 1)
+                        .locationId(location + 1)
+                        .inventoryItemId(inventoryItemId)
+                        .variantId(variantId)
+                        .available(BigDecimal.valueOf((variantId + location) % 3))
+                        .build());
+            }
+        }
+        this.dataService = new OrderRoutingBenchmark.InMemoryRoutingDataService(this.locations, variants, inventoryItems, inventoryLevels);
+
+        this.properties = new OrderRoutingProperties();
+        this.properties.setExactSearchMaxItems(this.exactSearch ? 32 : 0);
+        this.properties.setSplitTimeBudget(Duration.ofMillis(20));
+    }
+
+    @Benchmark
+    public OrderRoutingResult process() {
+        List<RoutingItem> routingItems = new ArrayList<>(this.itemCount);
+        for (int i = 0; i < this.itemCount; i++) {
+            routingItems.add(new OrderRoutingNormalItem(i, BigDecimal.ONE, i + 1));
+        }
+        return new OrderRoutingFetcher(STORE_ID, routingItems, this.locations, Behavior.bypass, null, this.dataService, this.properties)
+                .process();
+    }
+}
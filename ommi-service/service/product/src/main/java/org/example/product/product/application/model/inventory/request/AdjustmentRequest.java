@@ -26,5 +26,12 @@ public class AdjustmentRequest {
 
     private String referenceDocumentUrl;
 
+    /**
+     * Chứng từ gây ra adjustment (vd fulfillment): cùng 1 chứng từ chỉ được commit 1 lần dù idempotency key của request khác nhau
+     */
+    private String referenceDocumentType;
+
+    private Long referenceDocumentId;
+
     private Instant issuedAt;
 }
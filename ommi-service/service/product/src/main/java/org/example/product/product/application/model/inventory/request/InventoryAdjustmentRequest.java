@@ -15,4 +15,9 @@ public class InventoryAdjustmentRequest {
     private String idempotencyKey;
 
     private List<InventoryAdjustmentTransactionRequest> transactions;
+
+    /**
+     * Key theo chứng từ của các adjustment trong request, lưu cùng idempotency key của request
+     */
+    private List<String> referenceKeys = List.of();
 }
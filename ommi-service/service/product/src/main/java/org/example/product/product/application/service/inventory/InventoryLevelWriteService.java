@@ -4,20 +4,25 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.example.product.product.application.model.inventory.request.*;
+import org.example.product.product.application.service.routing.CachingOrderRoutingDataService;
 import org.example.product.product.domain.inventory.model.InventoryItem;
 import org.example.product.product.domain.inventory.model.InventoryLevel;
+import org.example.product.product.domain.inventory.model.InventoryTrackingRequest;
 import org.example.product.product.domain.inventory.repository.InventoryItemRepository;
 import org.example.product.product.domain.inventory.repository.InventoryLevelRepository;
 import org.example.product.product.domain.inventory.repository.InventoryTrackingRepository;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -32,12 +37,21 @@ public class InventoryLevelWriteService {
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryLevelRepository inventoryLevelRepository;
     private final TransactionTemplate transactionTemplate;
+    private final CachingOrderRoutingDataService orderRoutingDataService;
 
     private final MessageSource messageSource;
 
 
+    /**
+     * Request không có idempotency key không được chống gọi lại (chỉ dựa vào chứng từ tham chiếu nếu có)
+     */
     public void commitInventory(int storeId, InventoryRequest request) {
-        if (this.inventoryTrackingRepository.existsByStoreIdAndIdempotencyKey(storeId, request.getIdempotencyKey())) {
+        if (this.isCommitted(storeId, request.getIdempotencyKey())) {
+            return;
+        }
+
+        skipCommittedAdjustments(storeId, request);
+        if (CollectionUtils.isEmpty(request.getAdjustments())) {
             return;
         }
 
@@ -70,6 +84,11 @@ public class InventoryLevelWriteService {
 
         var inventoryAdjustmentRequest = new InventoryAdjustmentRequest();
         inventoryAdjustmentRequest.setIdempotencyKey(request.getIdempotencyKey());
+        inventoryAdjustmentRequest.setReferenceKeys(request.getAdjustments().stream()
+                .map(InventoryLevelWriteService::referenceKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
 
         var transactions = new ArrayList<InventoryAdjustmentTransactionRequest>();
 
@@ -106,55 +125,144 @@ public class InventoryLevelWriteService {
 
     private void adjustForTransactions(int storeId, InventoryAdjustmentRequest adjustmentRequest) {
         if (CollectionUtils.isEmpty(adjustmentRequest.getTransactions())
-                && this.inventoryTrackingRepository.existsByStoreIdAndIdempotencyKey(storeId, adjustmentRequest.getIdempotencyKey())) {
+                && this.isCommitted(storeId, adjustmentRequest.getIdempotencyKey())) {
             return;
         }
-        var locationIds = adjustmentRequest.getTransactions().stream()
-                .map(InventoryAdjustmentTransactionRequest::getLocationId)
-                .filter(locationId -> locationId > 0)
-                .distinct().toList();
         var inventoryItemIds = adjustmentRequest.getTransactions().stream()
                 .map(InventoryAdjustmentTransactionRequest::getInventoryItemId)
                 .filter(id -> id > 0)
                 .distinct().toList();
-        var inventoryLevelFetched = this.inventoryLevelRepository.getByStoreIdAndInventoryItemIdIn(storeId, inventoryItemIds);
-        if (CollectionUtils.isEmpty(inventoryLevelFetched)) {
-            return;
-        }
 
         var inventoryItems = this.inventoryItemRepository.getByStoreIdAndIdIn(storeId, inventoryItemIds)
                 .stream().collect(Collectors.toMap(InventoryItem::getId, Function.identity()));
+        var trackedTransactions = adjustmentRequest.getTransactions().stream()
+                .filter(transactionRequest -> {
+                    var inventoryItem = inventoryItems.get(transactionRequest.getInventoryItemId());
+                    return inventoryItem != null && inventoryItem.isTracked();
+                })
+                .toList();
 
-        var inventoryOutboxKafkaMessages = new ArrayList<InventoryOutboxMessage>();
-        List<InventoryLevel> inventoryLevels = new ArrayList<>();
-        for (var transactionRequest : adjustmentRequest.getTransactions()) {
-            var inventoryItemOptional = inventoryItems.get(transactionRequest.getInventoryItemId());
-            if (inventoryItemOptional == null || !inventoryItemOptional.isTracked()) {
-                continue;
-            }
-            enrichInventoryLevelAndInventoryOutboxKafkaMessage(
-                    storeId,
-                    adjustmentRequest.getIdempotencyKey(),
-                    inventoryLevelFetched,
-                    inventoryLevels,
-                    inventoryOutboxKafkaMessages,
-                    transactionRequest
-            );
+        store(storeId, inventoryItemIds, trackedTransactions, adjustmentRequest.getIdempotencyKey(), adjustmentRequest.getReferenceKeys());
+    }
+
+    private boolean isCommitted(int storeId, String idempotencyKey) {
+        return idempotencyKey != null && this.inventoryTrackingRepository.existsByStoreIdAndIdempotencyKey(storeId, idempotencyKey);
+    }
+
+    /**
+     * Bỏ các adjustment có chứng từ đã commit ở request trước. Client gộp adjustment của nhiều chứng từ vào 1 request
+     * và lần gọi lại có thể gộp khác => idempotency key của request không đủ để tránh trừ kho 2 lần
+     */
+    private void skipCommittedAdjustments(int storeId, InventoryRequest request) {
+        var referenceKeys = request.getAdjustments().stream()
+                .map(InventoryLevelWriteService::referenceKey)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (referenceKeys.isEmpty()) {
+            return;
+        }
+        var committedKeys = this.inventoryTrackingRepository.getByStoreIdAndIdempotencyKeyIn(storeId, referenceKeys).stream()
+                .map(InventoryTrackingRequest::getIdempotencyKey)
+                .collect(Collectors.toSet());
+        if (committedKeys.isEmpty()) {
+            return;
         }
+        var adjustments = new ArrayList<>(request.getAdjustments());
+        adjustments.removeIf(adjustment -> committedKeys.contains(referenceKey(adjustment)));
+        request.setAdjustments(adjustments);
+    }
 
-        store(inventoryLevels, adjustmentRequest.getIdempotencyKey(), inventoryOutboxKafkaMessages);
+    private static String referenceKey(AdjustmentRequest adjustment) {
+        if (adjustment.getReferenceDocumentType() == null || adjustment.getReferenceDocumentId() == null) {
+            return null;
+        }
+        return adjustment.getReferenceDocumentType() + ":" + adjustment.getReferenceDocumentId();
     }
 
+    /**
+     * Adjust inventory level và lưu idempotency key trong 1 transaction. Level được đọc lại trong transaction với khóa ghi:
+     * adjustment song song cùng level chờ nhau thay vì ghi đè số của nhau.
+     * Snapshot routing (CachingOrderRoutingDataService) chỉ được cập nhật sau khi transaction commit, bằng số đọc lại từ DB
+     */
     private void store(
-            List<InventoryLevel> inventoryLevels,
+            int storeId,
+            List<Integer> inventoryItemIds,
+            List<InventoryAdjustmentTransactionRequest> transactionRequests,
             String idempotencyKey,
-            ArrayList<InventoryOutboxMessage> inventoryOutboxKafkaMessages
+            List<String> referenceKeys
     ) {
-        this.transactionTemplate.executeWithoutResult((status) -> {
+        var afterCommitRegistered = new boolean[1];
+        var adjustedInventoryItemIds = this.transactionTemplate.execute((status) -> {
+            var inventoryLevelFetched = this.inventoryLevelRepository.findByStoreIdAndInventoryItemIdInOrderByIdAsc(storeId, inventoryItemIds);
+            if (CollectionUtils.isEmpty(inventoryLevelFetched)) {
+                return List.<Integer>of();
+            }
+
+            var inventoryOutboxKafkaMessages = new ArrayList<InventoryOutboxMessage>();
+            List<InventoryLevel> inventoryLevels = new ArrayList<>();
+            for (var transactionRequest : transactionRequests) {
+                enrichInventoryLevelAndInventoryOutboxKafkaMessage(
+                        storeId,
+                        idempotencyKey,
+                        inventoryLevelFetched,
+                        inventoryLevels,
+                        inventoryOutboxKafkaMessages,
+                        transactionRequest
+                );
+            }
             if (!inventoryLevels.isEmpty()) {
+                var now = Instant.now();
+                inventoryLevels.forEach(level -> level.setUpdatedAt(now));
+                this.inventoryLevelRepository.saveAll(inventoryLevels);
+            }
+
+            // unique (storeId, idempotencyKey): request trùng chạy song song bị rollback, lần gọi lại sẽ bỏ qua chứng từ đã commit.
+            // Request không có key thì không lưu (nhiều dòng null trùng unique)
+            var trackingRequests = new ArrayList<InventoryTrackingRequest>();
+            if (idempotencyKey != null) {
+                trackingRequests.add(trackingRequest(storeId, idempotencyKey));
+            }
+            referenceKeys.forEach(referenceKey -> trackingRequests.add(trackingRequest(storeId, referenceKey)));
+            if (!trackingRequests.isEmpty()) {
+                this.inventoryTrackingRepository.saveAll(trackingRequests);
+            }
 
+            var adjustedIds = inventoryLevels.stream().map(InventoryLevel::getInventoryItemId).distinct().toList();
+            if (!adjustedIds.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        refreshRoutingAvailability(storeId, adjustedIds);
+                    }
+                });
+                afterCommitRegistered[0] = true;
             }
+            return adjustedIds;
         });
+        // transaction manager không hỗ trợ synchronization: execute trả về là đã commit
+        if (!afterCommitRegistered[0] && !CollectionUtils.isEmpty(adjustedInventoryItemIds)) {
+            refreshRoutingAvailability(storeId, adjustedInventoryItemIds);
+        }
+    }
+
+    private static InventoryTrackingRequest trackingRequest(int storeId, String idempotencyKey) {
+        var trackingRequest = new InventoryTrackingRequest();
+        trackingRequest.setStoreId(storeId);
+        trackingRequest.setIdempotencyKey(idempotencyKey);
+        trackingRequest.setCreatedAt(Instant.now());
+        return trackingRequest;
+    }
+
+    /**
+     * Adjustment đã commit, lỗi cập nhật snapshot không được làm fail request: bỏ snapshot của store, lần sau đọc lại DB
+     */
+    private void refreshRoutingAvailability(int storeId, List<Integer> inventoryItemIds) {
+        try {
+            this.orderRoutingDataService.refreshInventoryLevels(storeId, inventoryItemIds);
+        } catch (RuntimeException e) {
+            log.warn("refresh routing availability failed, store {}", storeId, e);
+            this.orderRoutingDataService.invalidate(storeId);
+        }
     }
 
     private void enrichInventoryLevelAndInventoryOutboxKafkaMessage(
@@ -166,7 +274,8 @@ public class InventoryLevelWriteService {
             InventoryAdjustmentTransactionRequest transactionRequest
     ) {
         var inventoryLevelOptional = inventoryLevelFetched.stream()
-                .filter(level -> level.getInventoryItemId() == transactionRequest.getInventoryItemId())
+                .filter(level -> level.getInventoryItemId() == transactionRequest.getInventoryItemId()
+                        && level.getLocationId() == transactionRequest.getLocationId())
                 .findFirst()
                 .orElse(null);
         if (inventoryLevelOptional == null) {
@@ -187,7 +296,12 @@ public class InventoryLevelWriteService {
         }
 
         for (var change : transactionRequest.getChanges()) {
-            if (change.getValueType() == InventoryAdjustmentTransactionChangeRequest.ValueType.delta) {
+            if (change.getValueType() == InventoryAdjustmentTransactionChangeRequest.ValueType.delta
+                    && change.getChangeType() == InventoryAdjustmentChangeType.available) {
+                change.setBeforeValue(inventoryLevelOptional.getAvailable());
+                inventoryLevelOptional.setAvailable(inventoryLevelOptional.getAvailable().add(change.getValue()));
+                updateStock = true;
+            } else if (change.getValueType() == InventoryAdjustmentTransactionChangeRequest.ValueType.delta) {
                 change.setBeforeValue(inventoryLevelOptional.getOnHand());
                 inventoryLevelOptional.setOnHand(inventoryLevelOptional.getOnHand().add(change.getValue()));
                 updateStock = true;
@@ -200,7 +314,7 @@ public class InventoryLevelWriteService {
             }
         }
 
-        if (updateStock) {
+        if (updateStock && !inventoryLevels.contains(inventoryLevelOptional)) {
             inventoryLevels.add(inventoryLevelOptional);
         }
 
@@ -221,13 +335,13 @@ public class InventoryLevelWriteService {
         for (int i = 0; i < request.getAdjustments().size(); i++) {
             var adjustment = request.getAdjustments().get(i);
 
-            for (int lineIndex = 0; lineIndex < adjustment.getLineItems().size(); i++) {
+            for (int lineIndex = 0; lineIndex < adjustment.getLineItems().size(); lineIndex++) {
                 var lineItem = adjustment.getLineItems().get(lineIndex);
 
                 var inventoryLevelsOfItem = inventoryLevelMap.getOrDefault(lineItem.getInventoryItemId(), List.of());
 
                 boolean isNotInLocation = inventoryLevelsOfItem.stream()
-                        .anyMatch(level -> level.getLocationId() != adjustment.getLocationId());
+                        .noneMatch(level -> level.getLocationId() == adjustment.getLocationId());
 
                 if (isNotInLocation) {
                     errorTracerBuilder.addError(UserError.builder()
@@ -6,6 +6,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.example.product.product.application.model.images.StoredImageResult;
 import org.example.product.product.application.model.product.*;
+import org.example.product.product.application.service.routing.CachingOrderRoutingDataService;
 import org.example.product.product.domain.inventory.model.InventoryItem;
 import org.example.product.product.domain.inventory.model.InventoryLevel;
 import org.example.product.product.domain.inventory.repository.InventoryItemRepository;
@@ -22,6 +23,7 @@ import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -49,6 +51,8 @@ public class ProductWriteService {
 
     private final ImageProcessorService imageProcessorService;
 
+    private final CachingOrderRoutingDataService orderRoutingDataService;
+
     @Transactional
     public ProductId create(int storeId, ProductRequest productRequest) throws ExecutionException, InterruptedException, IOException {
 
@@ -453,6 +457,15 @@ public class ProductWriteService {
         var product = event.product();
     }
 
+    /**
+     * Variant, inventory item, inventory level vừa được ghi không qua adjustment: bỏ snapshot routing của store sau khi commit.
+     * Node khác nhận thay đổi qua ProductLogs (CachingOrderRoutingDataService.pollModified)
+     */
+    @TransactionalEventListener(classes = ProductRepositoryImpl.StoreProductSuccessAppEvent.class, fallbackExecution = true)
+    public void invalidateRoutingAvailability(ProductRepositoryImpl.StoreProductSuccessAppEvent event) {
+        orderRoutingDataService.invalidate(event.product().getId().getStoreId());
+    }
+
     @Transactional
     public void updateProduct(ProductId productId, ProductRequest productRequest) throws IOException, ExecutionException, InterruptedException {
         var product = productRepository.findById(productId);
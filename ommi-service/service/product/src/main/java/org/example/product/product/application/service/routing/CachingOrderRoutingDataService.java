@@ -0,0 +1,272 @@
+package org.example.product.product.application.service.routing;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.product.product.application.model.product.OrderRoutingRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Snapshot tồn kho cho order routing theo store, đặt trước OrderRoutingDataService đọc DB.
+ * - Mỗi store 1 snapshot: location (kèm rank), variant (inventory policy), inventory item (tracked, require shipping),
+ * inventory level theo inventory item. Load dần khi routing cần: chỉ phần còn thiếu mới đọc DB
+ * - Inventory level chỉ cache khi hỏi đúng các location available của store (luôn đúng với routing)
+ * - Adjustment tồn kho đã commit: đọc lại level đã commit của các item có trong snapshot (refreshInventoryLevels).
+ * Load đang chạy khi có adjustment thì không ghi vào snapshot (có thể là số cũ), so version và ghi dưới lock của store
+ * - refreshInventoryLevels chỉ cập nhật node hiện tại. pollModified trên mỗi node đọc các thay đổi đã commit:
+ * inventory level có updatedAt mới => bỏ item đó khỏi snapshot, store có ProductLogs mới (variant, inventory item) => bỏ snapshot.
+ * Mỗi lần poll đọc lùi lại modifiedLookback để không sót transaction commit muộn
+ * - Giới hạn số store (maximumSize), snapshot hết hạn sau ttl kể từ lúc tạo: thay đổi không có log (location)
+ * có hiệu lực chậm nhất sau ttl
+ * - Metric: cache.gets{cache=order_routing_availability, result=hit|miss}, cache.evictions, ...
+ */
+@Slf4j
+public class CachingOrderRoutingDataService implements OrderRoutingDataService {
+
+    private final OrderRoutingDataService delegate;
+    private final Duration modifiedLookback;
+    private final Cache<Integer, StoreAvailability> stores;
+    /**
+     * Mốc của lần pollModified thành công gần nhất (ban đầu là lúc tạo: chưa có snapshot nào)
+     */
+    private Instant lastPolledAt = Instant.now();
+
+    public CachingOrderRoutingDataService(
+            OrderRoutingDataService delegate,
+            long maximumSize,
+            Duration ttl,
+            Duration modifiedLookback,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.modifiedLookback = modifiedLookback;
+        this.stores = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, this.stores, "order_routing_availability");
+    }
+
+    @Override
+    public List<LocationInfo> getAvailableLocations(int storeId) {
+        var store = this.store(storeId);
+        var locations = store.locations;
+        if (locations == null) {
+            locations = List.copyOf(this.delegate.getAvailableLocations(storeId));
+            store.locations = locations;
+        }
+        return locations;
+    }
+
+    @Override
+    public List<VariantInfo> getVariantInfos(int storeId, List<Integer> variantIds) {
+        var store = this.store(storeId);
+        return store.variants.getAll(variantIds, missingIds -> this.delegate.getVariantInfos(storeId, missingIds), VariantInfo::getId);
+    }
+
+    @Override
+    public List<InventoryItemInfo> getInventoryItemInfos(int storeId, List<Integer> inventoryItemIds, List<Integer> variantIds) {
+        var store = this.store(storeId);
+        return store.inventoryItems.getAll(inventoryItemIds, missingIds -> this.delegate.getInventoryItemInfos(storeId, missingIds, variantIds), InventoryItemInfo::getId);
+    }
+
+    @Override
+    public List<InventoryLevelInfo> getInventoryLevelInfos(int storeId, List<Integer> inventoryItemIds, List<Integer> availableLocationIds) {
+        var store = this.store(storeId);
+        var locations = store.locations;
+        if (locations == null || !sameLocations(locations, availableLocationIds)) {
+            return this.delegate.getInventoryLevelInfos(storeId, inventoryItemIds, availableLocationIds);
+        }
+
+        List<InventoryLevelInfo> result = new ArrayList<>();
+        List<Integer> missingIds = new ArrayList<>();
+        for (var inventoryItemId : inventoryItemIds) {
+            var levels = store.inventoryLevels.get(inventoryItemId);
+            if (levels == null) {
+                missingIds.add(inventoryItemId);
+            } else {
+                result.addAll(levels.values());
+            }
+        }
+        if (missingIds.isEmpty()) return result;
+
+        var version = store.version.get();
+        var loaded = this.delegate.getInventoryLevelInfos(storeId, missingIds, availableLocationIds);
+        var levelsByItem = groupByInventoryItem(missingIds, loaded);
+        // adjustment chen giữa lúc load => số vừa load có thể đã cũ, không cache.
+        // So version và ghi cùng lock với refreshInventoryLevels để refresh không lọt vào giữa
+        synchronized (store) {
+            if (store.version.get() == version) {
+                levelsByItem.forEach((inventoryItemId, levels) -> store.inventoryLevels.putIfAbsent(inventoryItemId, Collections.unmodifiableMap(levels)));
+            }
+        }
+        result.addAll(loaded);
+        return result;
+    }
+
+    @Override
+    public Boolean checkShippingAddressCanFulfill(int storeId, OrderRoutingRequest.ShippingAddress shippingAddress) {
+        return this.delegate.checkShippingAddressCanFulfill(storeId, shippingAddress);
+    }
+
+    @Override
+    public List<Integer> getStoreIdsModifiedSince(Instant since) {
+        return this.delegate.getStoreIdsModifiedSince(since);
+    }
+
+    @Override
+    public List<ModifiedInventoryItem> getInventoryItemsModifiedSince(Instant since) {
+        return this.delegate.getInventoryItemsModifiedSince(since);
+    }
+
+    /**
+     * Gọi sau khi transaction adjustment tồn kho đã commit: đọc lại từ DB level của các inventory item đã có trong snapshot
+     * (số đã commit, gồm cả adjustment khác commit trước đó). Item chưa load sẽ đọc DB khi cần.
+     * Refresh khác chen giữa lúc đọc => không biết lần đọc nào mới hơn, bỏ item khỏi snapshot, lần sau đọc lại DB
+     */
+    public void refreshInventoryLevels(int storeId, List<Integer> inventoryItemIds) {
+        var store = this.stores.getIfPresent(storeId);
+        if (store == null || inventoryItemIds.isEmpty()) return;
+
+        // tăng version trước khi đọc: load đang chạy (có thể đọc trước commit) không ghi vào snapshot
+        var version = store.version.incrementAndGet();
+        var cachedIds = inventoryItemIds.stream().distinct().filter(store.inventoryLevels::containsKey).toList();
+        if (cachedIds.isEmpty()) return;
+        var locations = store.locations;
+        if (locations == null) {
+            this.invalidateInventoryItems(storeId, cachedIds);
+            return;
+        }
+
+        var loaded = this.delegate.getInventoryLevelInfos(storeId, cachedIds, locations.stream().map(LocationInfo::getId).toList());
+        var levelsByItem = groupByInventoryItem(cachedIds, loaded);
+        synchronized (store) {
+            if (store.version.get() == version) {
+                levelsByItem.forEach((inventoryItemId, levels) -> store.inventoryLevels.put(inventoryItemId, Collections.unmodifiableMap(levels)));
+            } else {
+                cachedIds.forEach(store.inventoryLevels::remove);
+            }
+        }
+    }
+
+    /**
+     * Gọi khi location, variant hoặc inventory item của store thay đổi (không đi qua adjustment)
+     */
+    public void invalidate(int storeId) {
+        this.stores.invalidate(storeId);
+    }
+
+    /**
+     * Áp các thay đổi đã commit trên mọi node vào snapshot. Lỗi => giữ mốc cũ, lần poll sau đọc lại
+     */
+    @Scheduled(fixedDelayString = "${routing-availability-cache.modified-poll-interval-ms:2000}")
+    public synchronized void pollModified() {
+        if (this.stores.size() == 0) {
+            this.lastPolledAt = Instant.now();
+            return;
+        }
+        try {
+            var now = Instant.now();
+            var since = this.lastPolledAt.minus(this.modifiedLookback);
+            this.stores.invalidateAll(this.delegate.getStoreIdsModifiedSince(since));
+
+            Map<Integer, List<Integer>> inventoryItemIdsByStore = new HashMap<>();
+            for (var modified : this.delegate.getInventoryItemsModifiedSince(since)) {
+                inventoryItemIdsByStore.computeIfAbsent(modified.storeId(), storeId -> new ArrayList<>()).add(modified.inventoryItemId());
+            }
+            inventoryItemIdsByStore.forEach(this::invalidateInventoryItems);
+            this.lastPolledAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Poll modified routing availability since {} failed", this.lastPolledAt, e);
+        }
+    }
+
+    /**
+     * Bỏ level của các inventory item khỏi snapshot, lần sau đọc lại DB.
+     * Tăng version để load đang chạy (có thể đọc số cũ) không ghi vào snapshot
+     */
+    private void invalidateInventoryItems(int storeId, List<Integer> inventoryItemIds) {
+        var store = this.stores.getIfPresent(storeId);
+        if (store == null) return;
+        synchronized (store) {
+            store.version.incrementAndGet();
+            inventoryItemIds.forEach(store.inventoryLevels::remove);
+        }
+    }
+
+    private StoreAvailability store(int storeId) {
+        try {
+            return this.stores.get(storeId, StoreAvailability::new);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * inventoryItemId -> locationId -> level, item không có level nào vẫn có map rỗng
+     */
+    private static Map<Integer, Map<Integer, InventoryLevelInfo>> groupByInventoryItem(List<Integer> inventoryItemIds, List<InventoryLevelInfo> levels) {
+        Map<Integer, Map<Integer, InventoryLevelInfo>> levelsByItem = new HashMap<>();
+        inventoryItemIds.forEach(inventoryItemId -> levelsByItem.put(inventoryItemId, new LinkedHashMap<>()));
+        for (var level : levels) {
+            levelsByItem.computeIfAbsent(level.getInventoryItemId(), id -> new LinkedHashMap<>()).putIfAbsent(level.getLocationId(), level);
+        }
+        return levelsByItem;
+    }
+
+    private static boolean sameLocations(List<LocationInfo> locations, List<Integer> locationIds) {
+        var expected = new HashSet<Integer>(locations.size() * 2);
+        locations.forEach(location -> expected.add(location.getId()));
+        return expected.equals(new HashSet<>(locationIds));
+    }
+
+    private static final class StoreAvailability {
+        private volatile List<LocationInfo> locations;
+        private final Entries<VariantInfo> variants = new Entries<>();
+        private final Entries<InventoryItemInfo> inventoryItems = new Entries<>();
+        /**
+         * inventoryItemId -> locationId -> level; item không có level nào vẫn được cache (map rỗng)
+         */
+        private final ConcurrentHashMap<Integer, Map<Integer, InventoryLevelInfo>> inventoryLevels = new ConcurrentHashMap<>();
+        private final AtomicLong version = new AtomicLong();
+    }
+
+    private static final class Entries<T> {
+        private final ConcurrentHashMap<Integer, T> entries = new ConcurrentHashMap<>();
+
+        /**
+         * Id không tồn tại (load không trả về) không được cache, lần sau vẫn load lại
+         */
+        List<T> getAll(List<Integer> ids, Function<List<Integer>, List<T>> loader, Function<T, Integer> idOf) {
+            List<T> result = new ArrayList<>(ids.size());
+            List<Integer> missingIds = new ArrayList<>();
+            for (var id : ids) {
+                var entry = this.entries.get(id);
+                if (entry == null) {
+                    missingIds.add(id);
+                } else {
+                    result.add(entry);
+                }
+            }
+            if (missingIds.isEmpty()) return result;
+
+            for (var loaded : loader.apply(missingIds)) {
+                this.entries.putIfAbsent(idOf.apply(loaded), loaded);
+                result.add(loaded);
+            }
+            return result;
+        }
+    }
+}
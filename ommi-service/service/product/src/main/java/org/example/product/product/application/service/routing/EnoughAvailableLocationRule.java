@@ -15,12 +15,19 @@ public class EnoughAvailableLocationRule extends RankingLocationRule {
         for (var fulfillmentGroup : fulfillmentGroups) {
             var locationRanks = new ArrayList<Pair<Integer, Integer>>();
 
-            var normalItems = fulfillmentGroup.getItems().stream()
+            var normalItemGroups = fulfillmentGroup.getItems().stream()
                     .filter(OrderRoutingNormalItem.class::isInstance)
                     .map(OrderRoutingNormalItem.class::cast)
-                    .toList();
+                    .collect(Collectors.groupingBy(OrderRoutingNormalItem::getVariantId));
+            var requestedQuantities = new ArrayList<Pair<OrderRoutingNormalItem, BigDecimal>>(normalItemGroups.size());
+            for (var items : normalItemGroups.values()) {
+                var lineItemQuantity = items.stream()
+                        .map(RoutingItem::getQuantity)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                requestedQuantities.add(Pair.of(items.get(0), lineItemQuantity));
+            }
             for (var locationId : fulfillmentGroup.getLocationIds()) {
-                if (checkLocationAvailableCanFulfillAllItems(locationId, normalItems)) {
+                if (checkLocationAvailableCanFulfillAllItems(locationId, requestedQuantities)) {
                     locationRanks.add(Pair.of(locationId, 0));
                 } else {
                     locationRanks.add(Pair.of(locationId, 1));
@@ -32,18 +39,14 @@ public class EnoughAvailableLocationRule extends RankingLocationRule {
         return results;
     }
 
-    private boolean checkLocationAvailableCanFulfillAllItems(Integer locationId, List<OrderRoutingNormalItem> normalItems) {
-        var normalItemGroups = normalItems.stream()
-                .collect(Collectors.groupingBy(OrderRoutingNormalItem::getVariantId));
-        for (var entry : normalItemGroups.entrySet()) {
-            var lineItemQuantity = entry.getValue().stream()
-                    .map(RoutingItem::getQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            var normalLine = entry.getValue().get(0);
-
-            var inventoryLevels = normalLine.routingFetcher.getInventoryLevels(normalLine);
-            var availableQuantity = inventoryLevels.map(InventoryLevelInfo::getAvailable).reduce(BigDecimal.ZERO, BigDecimal::add);
-            if (lineItemQuantity.compareTo(availableQuantity) > 0) {
+    /**
+     * So với available tại chính location (mỗi item của group sẽ được lấy hàng tại location này)
+     */
+    private boolean checkLocationAvailableCanFulfillAllItems(int locationId, List<Pair<OrderRoutingNormalItem, BigDecimal>> requestedQuantities) {
+        for (var requestedQuantity : requestedQuantities) {
+            var normalLine = requestedQuantity.getKey();
+            var availableQuantity = normalLine.routingFetcher.getAvailable(normalLine.getVariantId(), locationId);
+            if (requestedQuantity.getValue().compareTo(availableQuantity) > 0) {
                 return false;
             }
         }
@@ -0,0 +1,7 @@
+package org.example.product.product.application.service.routing;
+
+/**
+ * Inventory item có inventory level vừa thay đổi (updatedAt)
+ */
+public record ModifiedInventoryItem(int storeId, int inventoryItemId) {
+}
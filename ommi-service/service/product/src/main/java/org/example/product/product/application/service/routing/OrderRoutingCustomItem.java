@@ -16,8 +16,14 @@ public class OrderRoutingCustomItem extends RoutingItem {
         return false;
     }
 
+    /**
+     * Item không có variant (không quản lý tồn kho): location nào cũng fulfill được
+     */
     @Override
     public List<Integer> detectLocationCanFulfill(List<LocationInfo> availableLocations) {
-        return null;
+        return availableLocations.stream()
+                .map(LocationInfo::getId)
+                .distinct()
+                .toList();
     }
 }
@@ -2,6 +2,7 @@ package org.example.product.product.application.service.routing;
 
 import org.example.product.product.application.model.product.OrderRoutingRequest;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface OrderRoutingDataService {
@@ -15,4 +16,18 @@ public interface OrderRoutingDataService {
     List<InventoryLevelInfo> getInventoryLevelInfos(int storeId, List<Integer> inventoryItemIds, List<Integer> availableLocationIds);
 
     Boolean checkShippingAddressCanFulfill(int storeId, OrderRoutingRequest.ShippingAddress shippingAddress);
+
+    /**
+     * Id các store có variant/inventory item thay đổi sau since (ProductLogs), dùng để invalidate snapshot trên mọi node
+     */
+    default List<Integer> getStoreIdsModifiedSince(Instant since) {
+        return List.of();
+    }
+
+    /**
+     * Inventory item có inventory level thay đổi sau since (kể cả adjustment trên node khác)
+     */
+    default List<ModifiedInventoryItem> getInventoryItemsModifiedSince(Instant since) {
+        return List.of();
+    }
 }
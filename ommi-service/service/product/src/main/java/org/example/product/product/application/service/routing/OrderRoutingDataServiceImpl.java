@@ -6,6 +6,8 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
 
 @Component
@@ -75,5 +77,34 @@ public class OrderRoutingDataServiceImpl implements OrderRoutingDataService {
     public Boolean checkShippingAddressCanFulfill(int storeId, OrderRoutingRequest.ShippingAddress shippingAddress) {
         return null;
     }
-}
 
+    @Override
+    public List<Integer> getStoreIdsModifiedSince(Instant since) {
+        return this.jdbcTemplate.queryForList(
+                """
+                        SELECT DISTINCT store_id
+                        FROM product_logs
+                        WHERE created_on > :since
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("since", Timestamp.from(since)),
+                Integer.class
+        );
+    }
+
+    @Override
+    public List<ModifiedInventoryItem> getInventoryItemsModifiedSince(Instant since) {
+        return this.jdbcTemplate.query(
+                """
+                        SELECT DISTINCT
+                            store_id,
+                            inventory_item_id
+                        FROM inventory_levels
+                        WHERE updated_at > :since
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("since", Timestamp.from(since)),
+                (rs, rowNum) -> new ModifiedInventoryItem(rs.getInt(1), rs.getInt(2))
+        );
+    }
+}
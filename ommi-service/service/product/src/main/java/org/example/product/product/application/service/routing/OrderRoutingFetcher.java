@@ -3,12 +3,18 @@ package org.example.product.product.application.service.routing;
 import com.google.common.base.Suppliers;
 import org.apache.commons.lang3.StringUtils;
 import org.example.product.product.application.model.product.OrderRoutingRequest;
+import org.example.product.product.infrastructure.configuration.OrderRoutingProperties;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigDecimal;
+import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Dữ liệu variant, inventory item, inventory level được load 1 lần cho cả request
+ * và đánh index theo variantId: item tra cứu O(1) thay vì duyệt lại cả list mỗi lần gọi
+ */
 public class OrderRoutingFetcher {
 
     private final int storeId;
@@ -18,10 +24,12 @@ public class OrderRoutingFetcher {
     private final OrderRoutingRequest.ShippingAddress shippingAddress;
 
     private final OrderRoutingDataService dataService;
+    private final OrderRoutingProperties properties;
 
-    private final Supplier<List<VariantInfo>> getVariantsSupplier;
-    private final Supplier<List<InventoryItemInfo>> getInventoryItemsSupplier;
-    private final Supplier<List<InventoryLevelInfo>> getInventoryLevelsSupplier;
+    private final Supplier<Map<Integer, VariantInfo>> variantIndexSupplier;
+    private final Supplier<Map<Integer, InventoryItemInfo>> inventoryItemIndexSupplier;
+    private final Supplier<Map<Integer, VariantLevels>> inventoryLevelIndexSupplier;
+    private final Supplier<Map<Integer, BigDecimal>> requestedQuantitySupplier;
 
     private final Supplier<Boolean> checkShippingAddressCanFulfillSupplier;
 
@@ -33,11 +41,17 @@ public class OrderRoutingFetcher {
             List<LocationInfo> availableLocations,
             Behavior behavior,
             OrderRoutingRequest.ShippingAddress shippingAddress,
-            OrderRoutingDataService routingDataService
+            OrderRoutingDataService routingDataService,
+            OrderRoutingProperties properties
     ) {
         this.storeId = storeId;
 
         this.routingItems = routingItems;
+        for (var item : routingItems) {
+            if (item instanceof OrderRoutingNormalItem normalItem) {
+                normalItem.routingFetcher = this;
+            }
+        }
 
         this.availableLocations = availableLocations;
 
@@ -45,10 +59,16 @@ public class OrderRoutingFetcher {
         this.shippingAddress = shippingAddress;
 
         this.dataService = routingDataService;
+        this.properties = properties;
 
-        this.getVariantsSupplier = Suppliers.memoize(() -> this.dataService.getVariantInfos(this.storeId, getVariantIds()));
-        this.getInventoryItemsSupplier = Suppliers.memoize(() -> this.dataService.getInventoryItemInfos(this.storeId, getInventoryItemIds(), getVariantIds()));
-        this.getInventoryLevelsSupplier = Suppliers.memoize(() -> this.dataService.getInventoryLevelInfos(storeId, getInventoryItemIds(), getAvailableLocationIds()));
+        this.variantIndexSupplier = Suppliers.memoize(() -> this.dataService.getVariantInfos(this.storeId, getVariantIds())
+                .stream()
+                .collect(Collectors.toMap(VariantInfo::getId, variant -> variant, (first, second) -> first)));
+        this.inventoryItemIndexSupplier = Suppliers.memoize(() -> this.dataService.getInventoryItemInfos(this.storeId, getInventoryItemIds(), getVariantIds())
+                .stream()
+                .collect(Collectors.toMap(InventoryItemInfo::getVariantId, inventoryItem -> inventoryItem, (first, second) -> first)));
+        this.inventoryLevelIndexSupplier = Suppliers.memoize(() -> indexInventoryLevels(this.dataService.getInventoryLevelInfos(storeId, getInventoryItemIds(), getAvailableLocationIds())));
+        this.requestedQuantitySupplier = Suppliers.memoize(this::sumRequestedQuantities);
 
         this.checkShippingAddressCanFulfillSupplier = Suppliers.memoize(() -> this.dataService.checkShippingAddressCanFulfill(storeId, this.shippingAddress));
 
@@ -65,10 +85,15 @@ public class OrderRoutingFetcher {
                 .toList();
     }
 
+    /**
+     * Variant không tồn tại bị bỏ qua (không có inventory item, level), chỉ lỗi khi tra cứu chính variant đó
+     */
     private List<Integer> getInventoryItemIds() {
-        return this.routingItems.stream()
-                .filter(OrderRoutingNormalItem.class::isInstance)
-                .map(item -> ((OrderRoutingNormalItem) item).getVariantInfo().getInventoryItemId())
+        var variants = this.variantIndexSupplier.get();
+        return getVariantIds().stream()
+                .map(variants::get)
+                .filter(Objects::nonNull)
+                .map(VariantInfo::getInventoryItemId)
                 .distinct()
                 .toList();
     }
@@ -81,12 +106,32 @@ public class OrderRoutingFetcher {
                 .toList();
     }
 
+    private static Map<Integer, VariantLevels> indexInventoryLevels(List<InventoryLevelInfo> inventoryLevels) {
+        Map<Integer, List<InventoryLevelInfo>> levelsByVariant = new HashMap<>();
+        for (var inventoryLevel : inventoryLevels) {
+            levelsByVariant.computeIfAbsent(inventoryLevel.getVariantId(), variantId -> new ArrayList<>()).add(inventoryLevel);
+        }
+        Map<Integer, VariantLevels> index = new HashMap<>(levelsByVariant.size() * 2);
+        levelsByVariant.forEach((variantId, levels) -> index.put(variantId, VariantLevels.of(levels)));
+        return index;
+    }
+
+    private Map<Integer, BigDecimal> sumRequestedQuantities() {
+        Map<Integer, BigDecimal> quantities = new HashMap<>();
+        for (var item : this.routingItems) {
+            if (item instanceof OrderRoutingNormalItem normalItem) {
+                quantities.merge(normalItem.getVariantId(), normalItem.getQuantity(), BigDecimal::add);
+            }
+        }
+        return quantities;
+    }
+
     public VariantInfo getVariantInfo(OrderRoutingNormalItem orderRoutingNormalItem) {
-        return getVariantsSupplier.get()
-                .stream()
-                .filter(v -> v.getId() == orderRoutingNormalItem.getVariantId())
-                .findFirst()
-                .orElseThrow();
+        var variant = this.variantIndexSupplier.get().get(orderRoutingNormalItem.getVariantId());
+        if (variant == null) {
+            throw new NoSuchElementException("variant not found: " + orderRoutingNormalItem.getVariantId());
+        }
+        return variant;
     }
 
     public OrderRoutingResult process() {
@@ -96,7 +141,7 @@ public class OrderRoutingFetcher {
         var fulfillmentGroups = matrix.groups();
 
         if (fulfillmentGroups.isEmpty()) {
-            return new OrderRoutingResult(List.of());
+            return this.properties.isSplitEnabled() ? split(matrix) : new OrderRoutingResult(List.of());
         }
 
         List<RankingLocationResult> rankingResults = new ArrayList<>();
@@ -114,6 +159,53 @@ public class OrderRoutingFetcher {
         return new OrderRoutingResult(List.of(routingGroup));
     }
 
+    /**
+     * Không location nào fulfill được tất cả item: tách đơn cho ít location nhất.
+     * Các tập location cùng số lượng được chấm bằng rankingLocationRules (mỗi location 1 group gồm các item nó nhận),
+     * so lần lượt theo thứ tự rule như chooseLocationForGroup, tổng rank nhỏ hơn là tốt hơn
+     */
+    private OrderRoutingResult split(OrderRoutingMatrix matrix) {
+        var deadline = System.nanoTime() + this.properties.getSplitTimeBudget().toNanos();
+        var priorityLocationIds = PriorityLocationRule.sortRank(this.availableLocations).stream()
+                .map(LocationInfo::getId)
+                .toList();
+        var covers = matrix.splitCovers(priorityLocationIds, this.properties.getExactSearchMaxItems(), this.properties.getMaxCandidateCovers(), deadline);
+        if (covers.isEmpty()) {
+            return new OrderRoutingResult(List.of());
+        }
+
+        List<FulfillmentGroup> bestGroups = null;
+        long[] bestScore = null;
+        for (var cover : covers) {
+            var groups = matrix.assign(cover);
+            var score = score(groups);
+            if (bestScore == null || Arrays.compare(score, bestScore) < 0) {
+                bestGroups = groups;
+                bestScore = score;
+            }
+        }
+
+        var routingGroups = bestGroups.stream()
+                .map(group -> OrderRoutingGroup.builder()
+                        .locationId(group.getLocationIds().get(0))
+                        .itemIndexes(group.getItems().stream().map(s -> s.index).toList())
+                        .build())
+                .toList();
+        return new OrderRoutingResult(routingGroups);
+    }
+
+    private long[] score(List<FulfillmentGroup> groups) {
+        var score = new long[this.rankingLocationRules.size()];
+        for (int i = 0; i < score.length; i++) {
+            for (var rankingResult : this.rankingLocationRules.get(i).process(groups)) {
+                for (var locationRank : rankingResult.getLocationIds()) {
+                    score[i] += locationRank.getValue();
+                }
+            }
+        }
+        return score;
+    }
+
     private int chooseLocationForGroup(FulfillmentGroup group, List<RankingLocationResult> rankingResults) {
         var rankingForGroup = rankingResults.stream()
                 .filter(r -> StringUtils.equals(r.getFulfillmentGroupId(), group.getId().toString()))
@@ -138,17 +230,44 @@ public class OrderRoutingFetcher {
     }
 
     public Stream<InventoryLevelInfo> getInventoryLevels(OrderRoutingNormalItem normalItem) {
-        return this.getInventoryLevelsSupplier.get()
-                .stream()
-                .filter(l -> l.getVariantId() == normalItem.getVariantId());
+        return this.getVariantLevels(normalItem.getVariantId()).levels().stream();
+    }
+
+    /**
+     * Các location có inventory level của variant, không trùng, theo thứ tự level trả về
+     */
+    public List<Integer> getConnectedLocationIds(OrderRoutingNormalItem normalItem) {
+        return this.getVariantLevels(normalItem.getVariantId()).locationIds();
+    }
+
+    /**
+     * Tổng available của variant trên tất cả location
+     */
+    public BigDecimal getAvailable(OrderRoutingNormalItem normalItem) {
+        return this.getVariantLevels(normalItem.getVariantId()).available();
+    }
+
+    public BigDecimal getAvailable(int variantId, int locationId) {
+        return this.getVariantLevels(variantId).availableByLocation().getOrDefault(locationId, BigDecimal.ZERO);
+    }
+
+    /**
+     * Tổng số lượng cần của variant trên tất cả item cùng variant trong request
+     */
+    public BigDecimal getRequestedQuantity(OrderRoutingNormalItem normalItem) {
+        return this.requestedQuantitySupplier.get().getOrDefault(normalItem.getVariantId(), BigDecimal.ZERO);
+    }
+
+    private VariantLevels getVariantLevels(int variantId) {
+        return this.inventoryLevelIndexSupplier.get().getOrDefault(variantId, VariantLevels.EMPTY);
     }
 
     public InventoryItemInfo getInventoryItem(OrderRoutingNormalItem normalItem) {
-        return getInventoryItemsSupplier.get()
-                .stream()
-                .filter(i -> i.getVariantId() == normalItem.getVariantId())
-                .findFirst()
-                .orElseThrow();
+        var inventoryItem = this.inventoryItemIndexSupplier.get().get(normalItem.getVariantId());
+        if (inventoryItem == null) {
+            throw new NoSuchElementException("inventory item not found for variant: " + normalItem.getVariantId());
+        }
+        return inventoryItem;
     }
 
     public boolean checkShippingAddressCanFulfill() {
@@ -161,4 +280,26 @@ public class OrderRoutingFetcher {
     public List<RoutingItem> getItems() {
         return this.routingItems;
     }
+
+    /**
+     * Inventory level của 1 variant
+     */
+    private record VariantLevels(
+            List<InventoryLevelInfo> levels,
+            List<Integer> locationIds,
+            Map<Integer, BigDecimal> availableByLocation,
+            BigDecimal available
+    ) {
+        static final VariantLevels EMPTY = new VariantLevels(List.of(), List.of(), Map.of(), BigDecimal.ZERO);
+
+        static VariantLevels of(List<InventoryLevelInfo> levels) {
+            Map<Integer, BigDecimal> availableByLocation = new LinkedHashMap<>();
+            var available = BigDecimal.ZERO;
+            for (var level : levels) {
+                availableByLocation.merge(level.getLocationId(), level.getAvailable(), BigDecimal::add);
+                available = available.add(level.getAvailable());
+            }
+            return new VariantLevels(levels, List.copyOf(availableByLocation.keySet()), availableByLocation, available);
+        }
+    }
 }
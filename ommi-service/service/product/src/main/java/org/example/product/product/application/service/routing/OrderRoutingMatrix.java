@@ -1,15 +1,22 @@
 package org.example.product.product.application.service.routing;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
+/**
+ * Ma trận location x item: mỗi location 1 BitSet, bit i bật khi location fulfill được item có index i.
+ * Không location nào fulfill được tất cả item => splitCovers tìm tập ít location nhất phủ được mọi item:
+ * - Greedy set cover: mỗi bước chọn location phủ nhiều item chưa phủ nhất (hoà => location ưu tiên hơn)
+ * - Đơn nhỏ (itemSize <= exactSearchMaxItems): tìm vét cạn các tập ít location hơn hoặc bằng greedy, có deadline.
+ * Chỉ xét location không bị location khác phủ trọn (location bị phủ trọn không làm giảm số location)
+ */
 public class OrderRoutingMatrix {
 
-    private final boolean[][] matrix;
+    private final BitSet[] matrix;
     private final int locationSize;
     private final int itemSize;
     private final List<LocationInfo> locations;
     private final List<RoutingItem> items;
+    private final Map<Integer, Integer> locationIndexes;
 
     public OrderRoutingMatrix(
             List<LocationInfo> availableLocations,
@@ -21,13 +28,21 @@ public class OrderRoutingMatrix {
         this.locations = availableLocations;
         this.items = routingItems;
 
-        this.matrix = new boolean[locationSize][itemSize];
+        this.matrix = new BitSet[locationSize];
+        this.locationIndexes = new HashMap<>(locationSize * 2);
+        for (int i = 0; i < locationSize; i++) {
+            this.matrix[i] = new BitSet(itemSize);
+            // location trùng id => giữ dòng đầu tiên như indexOf
+            this.locationIndexes.putIfAbsent(availableLocations.get(i).getId(), i);
+        }
     }
 
     public void markCanFulfill(Integer locationId, int index) {
-        var location = locations.stream().filter(l -> l.getId() == locationId).findFirst().orElseThrow();
-        var locationIndex = locations.indexOf(location);
-        matrix[locationIndex][index] = true;
+        var locationIndex = locationIndexes.get(locationId);
+        if (locationIndex == null) {
+            throw new NoSuchElementException("location is not available: " + locationId);
+        }
+        matrix[locationIndex].set(index);
     }
 
     public List<FulfillmentGroup> groups() {
@@ -51,11 +66,187 @@ public class OrderRoutingMatrix {
     }
 
     private boolean checkFulfillAllItems(int locationIndex) {
-        for (var itemIndex = 0; itemIndex < itemSize; itemIndex++) {
-            if (!matrix[locationIndex][itemIndex]) {
-                return false;
+        return matrix[locationIndex].nextClearBit(0) >= itemSize;
+    }
+
+    /**
+     * @param priorityLocationIds location theo thứ tự ưu tiên giảm dần, location không có trong list xếp cuối
+     * @return các tập location (id) cùng số location ít nhất tìm được, tập greedy đứng đầu nếu cùng số location;
+     * rỗng nếu có item không location nào fulfill được
+     */
+    public List<List<Integer>> splitCovers(List<Integer> priorityLocationIds, int exactSearchMaxItems, int maxCovers, long deadlineNanos) {
+        var uncovered = new BitSet(itemSize);
+        uncovered.set(0, itemSize);
+        var coverable = new BitSet(itemSize);
+        for (var row : matrix) {
+            coverable.or(row);
+        }
+        if (coverable.nextClearBit(0) < itemSize) {
+            return List.of();
+        }
+
+        var candidates = candidateLocationIndexes(priorityLocationIds);
+        var greedy = greedyCover(candidates, uncovered);
+        if (itemSize > exactSearchMaxItems || greedy.size() <= 1) {
+            return List.of(toLocationIds(greedy));
+        }
+
+        var search = new ExactSearch(candidates, Math.max(1, maxCovers), deadlineNanos);
+        for (int size = 2; size <= greedy.size() && !search.timedOut; size++) {
+            search.run(uncovered, size);
+            if (!search.covers.isEmpty()) break;
+        }
+
+        List<List<Integer>> covers = new ArrayList<>();
+        var found = search.covers;
+        if (found.isEmpty() || found.get(0).size() >= greedy.size()) {
+            covers.add(toLocationIds(greedy));
+        }
+        for (var cover : found) {
+            if (cover.size() > greedy.size() || covers.size() >= Math.max(1, maxCovers)) break;
+            var locationIds = toLocationIds(cover);
+            if (!covers.contains(locationIds)) covers.add(locationIds);
+        }
+        return covers;
+    }
+
+    /**
+     * Chia item cho các location của tập phủ: location phủ nhiều item hơn nhận trước, mỗi item thuộc 1 location.
+     * Mỗi group chỉ có 1 location
+     */
+    public List<FulfillmentGroup> assign(List<Integer> coverLocationIds) {
+        var rows = coverLocationIds.stream()
+                .map(locationIndexes::get)
+                .sorted(Comparator.comparingInt((Integer index) -> -matrix[index].cardinality()))
+                .toList();
+
+        var unassigned = new BitSet(itemSize);
+        unassigned.set(0, itemSize);
+        var groups = new ArrayList<FulfillmentGroup>(rows.size());
+        for (var row : rows) {
+            var assigned = (BitSet) matrix[row].clone();
+            assigned.and(unassigned);
+            if (assigned.isEmpty()) continue;
+            unassigned.andNot(assigned);
+
+            groups.add(FulfillmentGroup.builder()
+                    .items(assigned.stream().mapToObj(this.items::get).toList())
+                    .locationIds(List.of(locations.get(row).getId()))
+                    .build());
+        }
+        return groups;
+    }
+
+    /**
+     * Location có ít nhất 1 item, bỏ location bị location khác phủ trọn (trùng nhau thì giữ location ưu tiên hơn),
+     * sắp theo thứ tự ưu tiên
+     */
+    private List<Integer> candidateLocationIndexes(List<Integer> priorityLocationIds) {
+        var priorities = new int[locationSize];
+        Arrays.fill(priorities, Integer.MAX_VALUE);
+        for (int i = 0; i < priorityLocationIds.size(); i++) {
+            var index = locationIndexes.get(priorityLocationIds.get(i));
+            if (index != null && priorities[index] == Integer.MAX_VALUE) priorities[index] = i;
+        }
+
+        List<Integer> ordered = new ArrayList<>(locationSize);
+        for (int i = 0; i < locationSize; i++) {
+            if (!matrix[i].isEmpty()) ordered.add(i);
+        }
+        ordered.sort(Comparator.comparingInt((Integer index) -> priorities[index]).thenComparingInt(index -> index));
+
+        var cardinalities = ordered.stream().mapToInt(index -> matrix[index].cardinality()).toArray();
+        List<Integer> candidates = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            var row = matrix[ordered.get(i)];
+            var dominated = false;
+            for (int j = 0; j < ordered.size() && !dominated; j++) {
+                // other phủ trọn row: bỏ row nếu other phủ nhiều hơn, hoặc bằng nhau nhưng other ưu tiên hơn
+                if (i == j || cardinalities[j] < cardinalities[i] || (cardinalities[j] == cardinalities[i] && j > i)) continue;
+                var missing = (BitSet) row.clone();
+                missing.andNot(matrix[ordered.get(j)]);
+                dominated = missing.isEmpty();
+            }
+            if (!dominated) candidates.add(ordered.get(i));
+        }
+        return candidates;
+    }
+
+    private List<Integer> greedyCover(List<Integer> candidates, BitSet items) {
+        var uncovered = (BitSet) items.clone();
+        List<Integer> cover = new ArrayList<>();
+        while (!uncovered.isEmpty()) {
+            int best = -1;
+            int bestCount = 0;
+            for (var candidate : candidates) {
+                var covered = (BitSet) matrix[candidate].clone();
+                covered.and(uncovered);
+                var count = covered.cardinality();
+                // candidates đã theo thứ tự ưu tiên => hoà thì giữ location đứng trước
+                if (count > bestCount) {
+                    best = candidate;
+                    bestCount = count;
+                }
+            }
+            cover.add(best);
+            uncovered.andNot(matrix[best]);
+        }
+        return cover;
+    }
+
+    private List<Integer> toLocationIds(List<Integer> locationIndexes) {
+        return locationIndexes.stream().map(index -> locations.get(index).getId()).toList();
+    }
+
+    /**
+     * Tìm các tập đúng size location phủ hết item: rẽ nhánh theo item chưa phủ đầu tiên,
+     * thử lần lượt các location fulfill được item đó
+     */
+    private final class ExactSearch {
+        private final List<Integer> candidates;
+        private final int maxCovers;
+        private final long deadlineNanos;
+
+        private final List<List<Integer>> covers = new ArrayList<>();
+        private final Set<BitSet> seen = new HashSet<>();
+        private boolean timedOut;
+        private int visited;
+
+        private ExactSearch(List<Integer> candidates, int maxCovers, long deadlineNanos) {
+            this.candidates = candidates;
+            this.maxCovers = maxCovers;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void run(BitSet uncovered, int size) {
+            search(uncovered, new ArrayList<>(size), size);
+        }
+
+        private void search(BitSet uncovered, List<Integer> chosen, int size) {
+            if (timedOut || covers.size() >= maxCovers) return;
+            if ((++visited & 0xFF) == 0 && System.nanoTime() - deadlineNanos > 0) {
+                timedOut = true;
+                return;
+            }
+            if (uncovered.isEmpty()) {
+                var key = new BitSet(locationSize);
+                chosen.forEach(key::set);
+                if (seen.add(key)) covers.add(List.copyOf(chosen));
+                return;
+            }
+            if (chosen.size() >= size) return;
+
+            var item = uncovered.nextSetBit(0);
+            for (var candidate : candidates) {
+                var row = matrix[candidate];
+                if (!row.get(item)) continue;
+                var remaining = (BitSet) uncovered.clone();
+                remaining.andNot(row);
+                chosen.add(candidate);
+                search(remaining, chosen, size);
+                chosen.remove(chosen.size() - 1);
+                if (timedOut || covers.size() >= maxCovers) return;
             }
         }
-        return true;
     }
 }
@@ -50,7 +50,7 @@ public class OrderRoutingNormalItem extends RoutingItem {
                 return locationConnected();
             } else if (StringUtils.equals(inventoryPolicy, "deny")) {
                 if (checkEnoughQuantity()) {
-                    return locationConnected();
+                    return locationEnoughQuantity();
                 } else {
                     throw new IllegalArgumentException();
                 }
@@ -60,19 +60,22 @@ public class OrderRoutingNormalItem extends RoutingItem {
     }
 
     private boolean checkEnoughQuantity() {
-        var inventoryLevelStream = this.routingFetcher.getInventoryLevels(this);
-        var availableQuantity = inventoryLevelStream
-                .map(InventoryLevelInfo::getAvailable)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        var needCheckQuantity = routingFetcher.getItems().stream()
-                .filter(item -> item instanceof OrderRoutingNormalItem normalItem && normalItem.getVariantId() == this.getVariantId())
-                .map(RoutingItem::getQuantity)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+        var availableQuantity = this.routingFetcher.getAvailable(this);
+        var needCheckQuantity = this.routingFetcher.getRequestedQuantity(this);
         return needCheckQuantity.compareTo(availableQuantity) <= 0;
     }
 
+    /**
+     * Location có available đủ số lượng cần của variant: item không lấy hàng từ nhiều location,
+     * tổng đủ nhưng không location nào đủ thì không location nào fulfill được
+     */
+    private List<Integer> locationEnoughQuantity() {
+        var needCheckQuantity = this.routingFetcher.getRequestedQuantity(this);
+        return locationConnected().stream()
+                .filter(locationId -> needCheckQuantity.compareTo(this.routingFetcher.getAvailable(this.variantId, locationId)) <= 0)
+                .toList();
+    }
+
     private String getInventoryPolicy() {
         return this.routingFetcher.getVariantInfo(this).getInventoryPolicy();
     }
@@ -82,10 +85,7 @@ public class OrderRoutingNormalItem extends RoutingItem {
     }
 
     private List<Integer> locationConnected() {
-        return this.routingFetcher.getInventoryLevels(this)
-                .map(InventoryLevelInfo::getLocationId)
-                .distinct()
-                .toList();
+        return this.routingFetcher.getConnectedLocationIds(this);
     }
 
     public boolean isRequireShipping() {
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.example.product.product.application.model.product.OrderRoutingItemResponse;
 import org.example.product.product.application.model.product.OrderRoutingRequest;
 import org.example.product.product.application.model.product.OrderRoutingResultResponse;
+import org.example.product.product.infrastructure.configuration.OrderRoutingProperties;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -14,6 +15,7 @@ import java.util.List;
 public class OrderRoutingService {
 
     private final OrderRoutingDataService routingDataService;
+    private final OrderRoutingProperties routingProperties;
 
     public List<OrderRoutingResultResponse> process(int storeId, OrderRoutingRequest orderRoutingRequest) {
         // Tách riêng loại item
@@ -36,7 +38,8 @@ public class OrderRoutingService {
                 availableLocations,
                 orderRoutingRequest.getBehavior(),
                 orderRoutingRequest.getShippingAddress(),
-                routingDataService
+                routingDataService,
+                routingProperties
         );
 
         var routingProcessResult = orderRoutingFetcher.process();
@@ -44,6 +47,7 @@ public class OrderRoutingService {
         for (var routingGroup : routingProcessResult.getRoutingGroups()) {
             var resultResponse = new OrderRoutingResultResponse();
             resultResponse.setLocationId(routingGroup.getLocationId());
+            resultResponse.setItems(new ArrayList<>(routingGroup.getItemIndexes().size()));
             for (var itemIndex : routingGroup.getItemIndexes()) {
                 var item = orderRoutingFetcher.getItems().get(itemIndex);
                 if (item instanceof OrderRoutingNormalItem normalItem) {
@@ -52,6 +56,7 @@ public class OrderRoutingService {
                     resultResponse.getItems().add(new OrderRoutingItemResponse(itemIndex));
                 }
             }
+            response.add(resultResponse);
         }
         return response;
     }
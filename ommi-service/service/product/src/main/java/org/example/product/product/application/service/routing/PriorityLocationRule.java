@@ -3,6 +3,7 @@ package org.example.product.product.application.service.routing;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 public class PriorityLocationRule extends RankingLocationRule {
@@ -25,7 +26,8 @@ public class PriorityLocationRule extends RankingLocationRule {
         return result;
     }
 
-    private List<Pair<Integer, Integer>> ranking(List<LocationInfo> rankSortedLocations, List<Integer> locationIds) {
+    private List<Pair<Integer, Integer>> ranking(List<LocationInfo> rankSortedLocations, List<Integer> groupLocationIds) {
+        var locationIds = new HashSet<>(groupLocationIds);
         var tmpResult = new ArrayList<Pair<Integer, Integer>>();
         for (int i = 0; i < rankSortedLocations.size(); i++) {
             var location = rankSortedLocations.get(i);
@@ -38,7 +40,10 @@ public class PriorityLocationRule extends RankingLocationRule {
         return tmpResult;
     }
 
-    private List<LocationInfo> sortRank(List<LocationInfo> availableLocations) {
+    /**
+     * Rank nhỏ hơn ưu tiên hơn, location không có rank xếp cuối (theo id)
+     */
+    static List<LocationInfo> sortRank(List<LocationInfo> availableLocations) {
         return availableLocations.stream()
                 .sorted((o1, o2) -> {
                     if (o1.getRank() == null && o2.getRank() == null) {
@@ -17,13 +17,18 @@ public class RankingLocationResult {
         this.locationIds = locationIds;
     }
 
+    /**
+     * Các location rank tốt nhất (nhỏ nhất) trong số location các rule trước đã chọn (rỗng => xét tất cả)
+     */
     public List<Integer> getHighestRankLocations(List<Integer> resultLocationIds) {
-        var maxRank = locationIds.stream()
-                .filter(id -> CollectionUtils.isEmpty(resultLocationIds) || resultLocationIds.contains(id))
+        var candidates = locationIds.stream()
+                .filter(r -> CollectionUtils.isEmpty(resultLocationIds) || resultLocationIds.contains(r.getKey()))
+                .toList();
+        var maxRank = candidates.stream()
                 .map(Pair::getValue)
                 .min(Integer::compare)
                 .orElse(0);
-        return locationIds.stream()
+        return candidates.stream()
                 .filter(r -> Objects.equals(r.getValue(), maxRank))
                 .map(Pair::getKey)
                 .toList();
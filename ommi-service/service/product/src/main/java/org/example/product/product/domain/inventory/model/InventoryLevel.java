@@ -12,7 +12,7 @@ import java.time.Instant;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "InventoryLevels")
+@Table(name = "InventoryLevels", indexes = @Index(name = "IX_InventoryLevels_UpdatedAt", columnList = "updatedAt"))
 public class InventoryLevel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
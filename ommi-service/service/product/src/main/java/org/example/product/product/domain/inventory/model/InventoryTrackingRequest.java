@@ -1,8 +1,6 @@
 package org.example.product.product.domain.inventory.model;
 
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -10,6 +8,8 @@ import java.time.Instant;
 
 @Getter
 @Setter
+@Entity
+@Table(name = "InventoryTrackingRequests", uniqueConstraints = @UniqueConstraint(columnNames = {"storeId", "idempotencyKey"}))
 public class InventoryTrackingRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
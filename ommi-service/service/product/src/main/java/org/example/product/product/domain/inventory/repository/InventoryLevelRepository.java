@@ -1,7 +1,9 @@
 package org.example.product.product.domain.inventory.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.product.product.domain.inventory.model.InventoryLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 
 import java.util.List;
 
@@ -9,4 +11,11 @@ public interface InventoryLevelRepository extends JpaRepository<InventoryLevel,
 
     List<InventoryLevel> getByStoreIdAndInventoryItemIdIn(int storeId, List<Integer> inventoryItemIds);
 
-}
\ No newline at end of file
+    /**
+     * Đọc và khóa ghi (UPDLOCK) các level đến hết transaction, phải gọi trong transaction.
+     * Khóa theo thứ tự id để các adjustment cùng nhiều item không deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<InventoryLevel> findByStoreIdAndInventoryItemIdInOrderByIdAsc(int storeId, List<Integer> inventoryItemIds);
+
+}
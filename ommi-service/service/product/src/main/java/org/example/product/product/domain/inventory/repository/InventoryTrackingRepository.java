@@ -3,6 +3,11 @@ package org.example.product.product.domain.inventory.repository;
 import org.example.product.product.domain.inventory.model.InventoryTrackingRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface InventoryTrackingRepository extends JpaRepository<InventoryTrackingRequest, Integer> {
     boolean existsByStoreIdAndIdempotencyKey(int storeId, String idempotencyKey);
+
+    List<InventoryTrackingRequest> getByStoreIdAndIdempotencyKeyIn(int storeId, Collection<String> idempotencyKeys);
 }
@@ -13,7 +13,7 @@ import java.time.Instant;
 @Setter
 @Getter
 @Entity
-@Table(name = "ProductLogs")
+@Table(name = "ProductLogs", indexes = @Index(name = "IX_ProductLogs_CreatedOn", columnList = "createdOn"))
 @NoArgsConstructor
 public class ProductLog {
 
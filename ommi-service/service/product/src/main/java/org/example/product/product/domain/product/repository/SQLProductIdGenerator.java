@@ -1,39 +1,46 @@
 package org.example.product.product.domain.product.repository;
 
+import lombok.RequiredArgsConstructor;
+import org.example.idgenerator.BlockIdAllocator;
 import org.springframework.stereotype.Component;
 
 import java.util.Deque;
 
+import static org.example.idgenerator.BlockIdAllocator.GLOBAL_STORE_ID;
+
 @Component
+@RequiredArgsConstructor
 public class SQLProductIdGenerator implements ProductIdGenerator {
 
+    private final BlockIdAllocator idAllocator;
+
     @Override
     public Deque<Integer> generateImageIds(long validImageCount) {
-        return null;
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "image", Math.toIntExact(validImageCount));
     }
 
     @Override
     public int generateVariantId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "variant");
     }
 
     @Override
     public int generateInventoryItemId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "inventory_item");
     }
 
     @Override
     public int generateProductId() {
-        return 0;
+        return idAllocator.nextId(GLOBAL_STORE_ID, "product");
     }
 
     @Override
     public Deque<Integer> generateVariantIds(int size) {
-        return null;
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "variant", size);
     }
 
     @Override
     public Deque<Integer> generateInventoryItemIds(int size) {
-        return null;
+        return idAllocator.nextIds(GLOBAL_STORE_ID, "inventory_item", size);
     }
 }
@@ -0,0 +1,62 @@
+package org.example.product.product.infrastructure.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.idgenerator.BlockIdAllocator;
+import org.example.idgenerator.JdbcIdRangeSource;
+import org.example.product.product.application.service.routing.CachingOrderRoutingDataService;
+import org.example.product.product.application.service.routing.OrderRoutingDataServiceImpl;
+import org.example.product.product.infrastructure.data.dao.CachingStoreDao;
+import org.example.product.product.infrastructure.data.dao.StoreDaoImpl;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties({IdGeneratorProperties.class, StoreCacheProperties.class, OrderRoutingProperties.class,
+        RoutingAvailabilityCacheProperties.class})
+@EnableScheduling
+public class BeanConfig {
+
+    @Bean(destroyMethod = "close")
+    public BlockIdAllocator blockIdAllocator(DataSource dataSource, IdGeneratorProperties properties) {
+        return BlockIdAllocator.builder(new JdbcIdRangeSource(dataSource))
+                .blockSize(properties.getBlockSize())
+                .refillThreshold(properties.getRefillThreshold())
+                .build();
+    }
+
+    /**
+     * StoreDao mặc định được inject. store-cache.enabled=false => không giữ store nào trong cache
+     */
+    @Bean
+    @Primary
+    public CachingStoreDao cachingStoreDao(StoreDaoImpl delegate, StoreCacheProperties properties, MeterRegistry meterRegistry) {
+        return new CachingStoreDao(
+                delegate,
+                properties.isEnabled() ? properties.getMaximumSize() : 0,
+                properties.getTtl(),
+                meterRegistry);
+    }
+
+    /**
+     * OrderRoutingDataService mặc định được inject. routing-availability-cache.enabled=false => không giữ store nào trong cache
+     */
+    @Bean
+    @Primary
+    public CachingOrderRoutingDataService cachingOrderRoutingDataService(
+            OrderRoutingDataServiceImpl delegate,
+            RoutingAvailabilityCacheProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        return new CachingOrderRoutingDataService(
+                delegate,
+                properties.isEnabled() ? properties.getMaximumSize() : 0,
+                properties.getTtl(),
+                properties.getModifiedLookback(),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.product.product.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "id-generator")
+public class IdGeneratorProperties {
+
+    private int blockSize = 1000;
+
+    private int refillThreshold = -1;
+}
@@ -0,0 +1,33 @@
+package org.example.product.product.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order-routing")
+public class OrderRoutingProperties {
+
+    /**
+     * false => không location nào fulfill được tất cả item thì trả về rỗng (không tách đơn)
+     */
+    private boolean splitEnabled = true;
+
+    /**
+     * Thời gian tối đa cho tìm kiếm vét cạn khi tách đơn, hết thời gian thì dùng kết quả tốt nhất đã tìm được
+     */
+    private Duration splitTimeBudget = Duration.ofMillis(20);
+
+    /**
+     * Chỉ tìm vét cạn khi số item không quá ngưỡng này, đơn lớn hơn chỉ dùng greedy
+     */
+    private int exactSearchMaxItems = 32;
+
+    /**
+     * Số tập location (cùng số location ít nhất) tối đa đưa vào chấm điểm bằng RankingLocationRule
+     */
+    private int maxCandidateCovers = 32;
+}
@@ -0,0 +1,38 @@
+package org.example.product.product.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "routing-availability-cache")
+public class RoutingAvailabilityCacheProperties {
+
+    /**
+     * false => order routing đọc thẳng DB mỗi lần
+     */
+    private boolean enabled = true;
+
+    /**
+     * Số store tối đa giữ snapshot tồn kho
+     */
+    private long maximumSize = 1_000;
+
+    /**
+     * Giới hạn độ cũ của thay đổi không có log (location)
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * Chu kỳ đọc inventory level/ProductLogs vừa thay đổi để cập nhật snapshot
+     */
+    private long modifiedPollIntervalMs = 2_000;
+
+    /**
+     * Mỗi lần poll đọc lùi lại khoảng này (transaction commit muộn, lệch giờ giữa các node)
+     */
+    private Duration modifiedLookback = Duration.ofSeconds(10);
+}
@@ -0,0 +1,25 @@
+package org.example.product.product.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "store-cache")
+public class StoreCacheProperties {
+
+    /**
+     * false => mọi lần đọc store đều đi thẳng xuống StoreDao
+     */
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    /**
+     * Store đã cache không được làm mới trước khi hết ttl: độ trễ tối đa để thay đổi store settings có hiệu lực
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,211 @@
+package org.example.product.product.application.service.inventory;
+
+import org.example.product.product.application.model.inventory.request.*;
+import org.example.product.product.application.service.routing.CachingOrderRoutingDataService;
+import org.example.product.product.domain.inventory.model.InventoryItem;
+import org.example.product.product.domain.inventory.model.InventoryLevel;
+import org.example.product.product.domain.inventory.model.InventoryTrackingRequest;
+import org.example.product.product.domain.inventory.repository.InventoryItemRepository;
+import org.example.product.product.domain.inventory.repository.InventoryLevelRepository;
+import org.example.product.product.domain.inventory.repository.InventoryTrackingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * InventoryLevelWriteService.commitInventory: fulfillment đã commit không bị trừ kho lại khi client gộp lại thành request
+ * có idempotency key khác
+ */
+public class InventoryLevelWriteServiceTest {
+
+    private static final int STORE_ID = 1;
+    private static final int LOCATION_ID = 10;
+
+    private final InventoryTrackingRepository inventoryTrackingRepository = mock(InventoryTrackingRepository.class);
+    private final InventoryItemRepository inventoryItemRepository = mock(InventoryItemRepository.class);
+    private final InventoryLevelRepository inventoryLevelRepository = mock(InventoryLevelRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final CachingOrderRoutingDataService orderRoutingDataService = mock(CachingOrderRoutingDataService.class);
+
+    private final InventoryLevelWriteService service = new InventoryLevelWriteService(
+            this.inventoryTrackingRepository,
+            this.inventoryItemRepository,
+            this.inventoryLevelRepository,
+            this.transactionTemplate,
+            this.orderRoutingDataService,
+            mock(MessageSource.class));
+
+    private final Map<Integer, InventoryLevel> levels = new HashMap<>();
+    private final Set<String> trackedKeys = new HashSet<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        IntStream.rangeClosed(1, 3).forEach(fulfillmentId -> {
+            var level = new InventoryLevel(STORE_ID, 1, 1, 1000 + fulfillmentId, LOCATION_ID,
+                    BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO);
+            this.levels.put(level.getInventoryItemId(), level);
+        });
+        when(this.inventoryLevelRepository.getByStoreIdAndInventoryItemIdIn(eq(STORE_ID), anyList())).thenAnswer(invocation -> {
+            List<Integer> inventoryItemIds = invocation.getArgument(1);
+            return inventoryItemIds.stream().map(this.levels::get).filter(Objects::nonNull).toList();
+        });
+        when(this.inventoryLevelRepository.findByStoreIdAndInventoryItemIdInOrderByIdAsc(eq(STORE_ID), anyList())).thenAnswer(invocation -> {
+            List<Integer> inventoryItemIds = invocation.getArgument(1);
+            return inventoryItemIds.stream().map(this.levels::get).filter(Objects::nonNull).toList();
+        });
+        when(this.inventoryItemRepository.getByStoreIdAndIdIn(eq(STORE_ID), anyList())).thenAnswer(invocation -> {
+            List<Integer> inventoryItemIds = invocation.getArgument(1);
+            return inventoryItemIds.stream().map(InventoryLevelWriteServiceTest::trackedItem).toList();
+        });
+        when(this.inventoryTrackingRepository.existsByStoreIdAndIdempotencyKey(eq(STORE_ID), anyString()))
+                .thenAnswer(invocation -> this.trackedKeys.contains(invocation.<String>getArgument(1)));
+        when(this.inventoryTrackingRepository.getByStoreIdAndIdempotencyKeyIn(eq(STORE_ID), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(1);
+            return keys.stream().filter(this.trackedKeys::contains).map(key -> {
+                var trackingRequest = new InventoryTrackingRequest();
+                trackingRequest.setStoreId(STORE_ID);
+                trackingRequest.setIdempotencyKey(key);
+                return trackingRequest;
+            }).toList();
+        });
+        when(this.inventoryTrackingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<InventoryTrackingRequest> trackingRequests = invocation.getArgument(0);
+            trackingRequests.forEach(trackingRequest -> this.trackedKeys.add(trackingRequest.getIdempotencyKey()));
+            return trackingRequests;
+        });
+        when(this.transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    public void retry_with_different_group_does_not_deduct_committed_fulfillment_again() {
+        // lần đầu nhóm {1, 2, 3} chia batch {1, 2} (thành công) và {3} (lỗi)
+        this.service.commitInventory(STORE_ID, request("batch-1-2", 1, 2));
+
+        // lần gọi lại fulfillment 1 đã dead, nhóm còn {2, 3} => idempotency key mới
+        this.service.commitInventory(STORE_ID, request("batch-2-3", 2, 3));
+
+        assertThat(available(1001)).isEqualByComparingTo("7");
+        assertThat(available(1002)).isEqualByComparingTo("7");
+        assertThat(available(1003)).isEqualByComparingTo("7");
+        assertThat(this.trackedKeys).contains("fulfillment:1", "fulfillment:2", "fulfillment:3");
+    }
+
+    @Test
+    public void retry_of_committed_fulfillments_only_is_skipped() {
+        this.service.commitInventory(STORE_ID, request("batch-1-2", 1, 2));
+
+        this.service.commitInventory(STORE_ID, request("batch-2", 2));
+
+        assertThat(available(1002)).isEqualByComparingTo("7");
+        assertThat(this.trackedKeys).doesNotContain("batch-2");
+    }
+
+    @Test
+    public void same_request_is_applied_once() {
+        this.service.commitInventory(STORE_ID, request("batch-1", 1));
+        this.service.commitInventory(STORE_ID, request("batch-1", 1));
+
+        assertThat(available(1001)).isEqualByComparingTo("7");
+    }
+
+    @Test
+    public void requests_without_idempotency_key_are_all_applied() {
+        var first = request(null, 1);
+        first.getAdjustments().get(0).setReferenceDocumentType(null);
+        var second = request(null, 1);
+        second.getAdjustments().get(0).setReferenceDocumentType(null);
+
+        this.service.commitInventory(STORE_ID, first);
+        this.service.commitInventory(STORE_ID, second);
+
+        assertThat(available(1001)).isEqualByComparingTo("4");
+        verify(this.inventoryTrackingRepository, never()).existsByStoreIdAndIdempotencyKey(anyInt(), isNull());
+        verify(this.inventoryTrackingRepository, never()).saveAll(anyList());
+        assertThat(this.trackedKeys).isEmpty();
+    }
+
+    @Test
+    public void adjustment_applies_to_levels_read_under_lock_inside_the_transaction() {
+        // lần đọc ngoài transaction (validate) trả số cũ, adjustment khác đã commit available = 8
+        when(this.inventoryLevelRepository.getByStoreIdAndInventoryItemIdIn(eq(STORE_ID), anyList())).thenAnswer(invocation -> {
+            List<Integer> inventoryItemIds = invocation.getArgument(1);
+            return inventoryItemIds.stream().map(this.levels::get).filter(Objects::nonNull)
+                    .map(level -> new InventoryLevel(STORE_ID, 1, 1, level.getInventoryItemId(), level.getLocationId(),
+                            BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO))
+                    .toList();
+        });
+        this.levels.get(1001).setAvailable(BigDecimal.valueOf(8));
+
+        this.service.commitInventory(STORE_ID, request("batch-1", 1));
+
+        assertThat(available(1001)).isEqualByComparingTo("5");
+        var inOrder = inOrder(this.transactionTemplate, this.inventoryLevelRepository);
+        inOrder.verify(this.transactionTemplate).execute(any());
+        inOrder.verify(this.inventoryLevelRepository).findByStoreIdAndInventoryItemIdInOrderByIdAsc(STORE_ID, List.of(1001));
+        inOrder.verify(this.inventoryLevelRepository).saveAll(List.of(this.levels.get(1001)));
+    }
+
+    @Test
+    public void routing_snapshot_is_refreshed_after_commit_with_adjusted_items() {
+        this.service.commitInventory(STORE_ID, request("batch-1-2", 1, 2));
+
+        verify(this.orderRoutingDataService).refreshInventoryLevels(STORE_ID, List.of(1001, 1002));
+    }
+
+    private BigDecimal available(int inventoryItemId) {
+        return this.levels.get(inventoryItemId).getAvailable();
+    }
+
+    private static InventoryItem trackedItem(int inventoryItemId) {
+        var inventoryItem = new InventoryItem();
+        inventoryItem.setId(inventoryItemId);
+        inventoryItem.setStoreId(STORE_ID);
+        inventoryItem.setTracked(true);
+        return inventoryItem;
+    }
+
+    private static InventoryRequest request(String idempotencyKey, int... fulfillmentIds) {
+        var request = new InventoryRequest();
+        request.setIdempotencyKey(idempotencyKey);
+        request.setAdjustments(IntStream.of(fulfillmentIds)
+                .mapToObj(fulfillmentId -> {
+                    var changes = List.of(
+                            change(InventoryAdjustmentChangeType.available),
+                            change(InventoryAdjustmentChangeType.on_hand));
+                    var lineItem = new InventoryTransactionLineItemRequest();
+                    lineItem.setInventoryItemId(1000 + fulfillmentId);
+                    lineItem.setChanges(changes);
+                    var adjustment = new AdjustmentRequest();
+                    adjustment.setLocationId(LOCATION_ID);
+                    adjustment.setReason(InventoryAdjustmentReason.order_fulfill);
+                    adjustment.setReferenceDocumentType("fulfillment");
+                    adjustment.setReferenceDocumentId((long) fulfillmentId);
+                    adjustment.setIssuedAt(Instant.now());
+                    adjustment.setLineItems(List.of(lineItem));
+                    return adjustment;
+                })
+                .toList());
+        return request;
+    }
+
+    private static InventoryAdjustmentTransactionChangeRequest change(InventoryAdjustmentChangeType changeType) {
+        return InventoryAdjustmentTransactionChangeRequest.builder()
+                .value(BigDecimal.valueOf(-3))
+                .valueType(InventoryAdjustmentTransactionChangeRequest.ValueType.delta)
+                .changeType(changeType)
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.product.product.application.service.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * CachingOrderRoutingDataService: snapshot theo store, chỉ load phần thiếu, adjustment đã commit được đọc lại vào snapshot,
+ * thay đổi từ node khác được áp qua pollModified
+ */
+public class CachingOrderRoutingDataServiceTest {
+
+    private static final int STORE_ID = 1;
+    private static final List<Integer> LOCATION_IDS = List.of(10, 20);
+
+    private final OrderRoutingDataService delegate = mock(OrderRoutingDataService.class);
+    private final CachingOrderRoutingDataService service = new CachingOrderRoutingDataService(
+            this.delegate, 100, Duration.ofMinutes(5), Duration.ofSeconds(10), new SimpleMeterRegistry());
+
+    @BeforeEach
+    public void setUp() {
+        when(this.delegate.getAvailableLocations(STORE_ID)).thenReturn(List.of(
+                LocationInfo.builder().id(10).rank(1).build(),
+                LocationInfo.builder().id(20).rank(2).build()));
+        when(this.delegate.getInventoryLevelInfos(eq(STORE_ID), anyList(), anyList())).thenAnswer(invocation -> {
+            List<Integer> inventoryItemIds = invocation.getArgument(1);
+            return inventoryItemIds.stream()
+                    .filter(inventoryItemId -> inventoryItemId != 3)
+                    .map(inventoryItemId -> levelInfo(inventoryItemId, 10, 5))
+                    .toList();
+        });
+    }
+
+    @Test
+    public void only_missing_inventory_items_are_loaded() {
+        this.service.getAvailableLocations(STORE_ID);
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1, 2), LOCATION_IDS);
+
+        var levels = this.service.getInventoryLevelInfos(STORE_ID, List.of(1, 2, 3), LOCATION_IDS);
+
+        assertThat(levels).extracting(InventoryLevelInfo::getInventoryItemId).containsExactlyInAnyOrder(1, 2);
+        verify(this.delegate).getInventoryLevelInfos(STORE_ID, List.of(1, 2), LOCATION_IDS);
+        verify(this.delegate).getInventoryLevelInfos(STORE_ID, List.of(3), LOCATION_IDS);
+
+        // item không có level cũng được cache
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1, 2, 3), LOCATION_IDS);
+        verify(this.delegate, times(2)).getInventoryLevelInfos(anyInt(), anyList(), anyList());
+        verify(this.delegate, times(1)).getAvailableLocations(STORE_ID);
+    }
+
+    @Test
+    public void levels_are_not_cached_for_other_locations() {
+        this.service.getAvailableLocations(STORE_ID);
+
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), List.of(10));
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), List.of(10));
+
+        verify(this.delegate, times(2)).getInventoryLevelInfos(STORE_ID, List.of(1), List.of(10));
+    }
+
+    @Test
+    public void committed_adjustment_refreshes_snapshot_from_db() {
+        this.service.getAvailableLocations(STORE_ID);
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        when(this.delegate.getInventoryLevelInfos(eq(STORE_ID), anyList(), anyList()))
+                .thenReturn(List.of(levelInfo(1, 10, 2), levelInfo(1, 20, 7)));
+
+        this.service.refreshInventoryLevels(STORE_ID, List.of(1));
+
+        var levels = this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        assertThat(levels).extracting(level -> level.getLocationId() + "=" + level.getAvailable().intValue())
+                .containsExactlyInAnyOrder("10=2", "20=7");
+        verify(this.delegate, times(2)).getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+    }
+
+    @Test
+    public void inventory_item_not_in_snapshot_is_not_refreshed() {
+        this.service.getAvailableLocations(STORE_ID);
+
+        this.service.refreshInventoryLevels(STORE_ID, List.of(1));
+
+        verify(this.delegate, never()).getInventoryLevelInfos(anyInt(), anyList(), anyList());
+    }
+
+    @Test
+    public void load_overlapping_adjustment_is_returned_but_not_cached() {
+        this.service.getAvailableLocations(STORE_ID);
+        when(this.delegate.getInventoryLevelInfos(eq(STORE_ID), anyList(), anyList())).thenAnswer(invocation -> {
+            // adjustment commit trong lúc đang đọc DB
+            this.service.refreshInventoryLevels(STORE_ID, List.of(1));
+            return List.of(levelInfo(1, 10, 5));
+        });
+
+        var levels = this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        assertThat(levels.get(0).getAvailable()).isEqualByComparingTo("5");
+
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        verify(this.delegate, times(2)).getInventoryLevelInfos(anyInt(), anyList(), anyList());
+    }
+
+    @Test
+    public void overlapping_refreshes_drop_inventory_item() {
+        this.service.getAvailableLocations(STORE_ID);
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        when(this.delegate.getInventoryLevelInfos(eq(STORE_ID), anyList(), anyList()))
+                .thenAnswer(invocation -> {
+                    // refresh khác chạy trong lúc đang đọc, không biết lần đọc nào mới hơn
+                    this.service.refreshInventoryLevels(STORE_ID, List.of(1));
+                    return List.of(levelInfo(1, 10, 4));
+                })
+                .thenReturn(List.of(levelInfo(1, 10, 3)))
+                .thenReturn(List.of(levelInfo(1, 10, 3)));
+
+        this.service.refreshInventoryLevels(STORE_ID, List.of(1));
+
+        var levels = this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        assertThat(levels.get(0).getAvailable()).isEqualByComparingTo("3");
+        verify(this.delegate, times(4)).getInventoryLevelInfos(anyInt(), anyList(), anyList());
+    }
+
+    @Test
+    public void invalidate_drops_store_snapshot() {
+        this.service.getAvailableLocations(STORE_ID);
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+
+        this.service.invalidate(STORE_ID);
+        this.service.getAvailableLocations(STORE_ID);
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+
+        verify(this.delegate, times(2)).getAvailableLocations(STORE_ID);
+        verify(this.delegate, times(2)).getInventoryLevelInfos(anyInt(), anyList(), anyList());
+    }
+
+    @Test
+    public void poll_drops_inventory_items_modified_on_other_nodes() {
+        this.service.getAvailableLocations(STORE_ID);
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1, 2), LOCATION_IDS);
+        when(this.delegate.getInventoryItemsModifiedSince(any())).thenReturn(List.of(
+                new ModifiedInventoryItem(STORE_ID, 1),
+                new ModifiedInventoryItem(2, 2)));
+
+        this.service.pollModified();
+        this.service.getInventoryLevelInfos(STORE_ID, List.of(1, 2), LOCATION_IDS);
+
+        verify(this.delegate).getInventoryLevelInfos(STORE_ID, List.of(1), LOCATION_IDS);
+        verify(this.delegate, times(1)).getAvailableLocations(STORE_ID);
+    }
+
+    @Test
+    public void poll_drops_snapshot_of_store_with_product_changes() {
+        this.service.getAvailableLocations(STORE_ID);
+        when(this.delegate.getStoreIdsModifiedSince(any())).thenReturn(List.of(STORE_ID));
+
+        this.service.pollModified();
+        this.service.getAvailableLocations(STORE_ID);
+
+        verify(this.delegate, times(2)).getAvailableLocations(STORE_ID);
+    }
+
+    @Test
+    public void failed_poll_is_retried_from_the_same_mark() {
+        this.service.getAvailableLocations(STORE_ID);
+        when(this.delegate.getStoreIdsModifiedSince(any()))
+                .thenThrow(new IllegalStateException("db unavailable"))
+                .thenReturn(List.of());
+
+        this.service.pollModified();
+        this.service.pollModified();
+
+        var captor = ArgumentCaptor.forClass(Instant.class);
+        verify(this.delegate, times(2)).getStoreIdsModifiedSince(captor.capture());
+        assertThat(captor.getAllValues().get(1)).isEqualTo(captor.getAllValues().get(0));
+    }
+
+    private static InventoryLevelInfo levelInfo(int inventoryItemId, int locationId, int available) {
+        return InventoryLevelInfo.builder()
+                .id(inventoryItemId * 100 + locationId)
+                .inventoryItemId(inventoryItemId)
+                .variantId(inventoryItemId)
+                .locationId(locationId)
+                .available(BigDecimal.valueOf(available))
+                .build();
+    }
+}
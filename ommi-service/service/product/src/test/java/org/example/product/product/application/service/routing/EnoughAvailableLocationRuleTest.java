@@ -0,0 +1,88 @@
+package org.example.product.product.application.service.routing;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.example.product.product.infrastructure.configuration.OrderRoutingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * EnoughAvailableLocationRule: so số lượng cần với available tại chính location được xếp hạng, không phải tổng các location
+ */
+public class EnoughAvailableLocationRuleTest {
+
+    private final OrderRoutingDataService dataService = mock(OrderRoutingDataService.class);
+
+    @Test
+    public void location_without_enough_available_ranks_lower_even_if_total_is_enough() {
+        // tổng available = 6 >= 3, nhưng location 1 chỉ có 1
+        stubLevels(level(1, 1, 1), level(1, 2, 5));
+        var item = new OrderRoutingNormalItem(0, BigDecimal.valueOf(3), 1);
+        fetcher(item);
+
+        var results = new EnoughAvailableLocationRule().process(List.of(group(List.of(item), List.of(1, 2))));
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getLocationIds()).containsExactly(Pair.of(1, 1), Pair.of(2, 0));
+    }
+
+    @Test
+    public void quantities_of_same_variant_are_summed_per_location() {
+        stubLevels(level(1, 1, 4), level(1, 2, 5));
+        var first = new OrderRoutingNormalItem(0, BigDecimal.valueOf(2), 1);
+        var second = new OrderRoutingNormalItem(1, BigDecimal.valueOf(3), 1);
+        fetcher(first, second);
+
+        var results = new EnoughAvailableLocationRule().process(List.of(group(List.of(first, second), List.of(1, 2))));
+
+        assertThat(results.get(0).getLocationIds()).containsExactly(Pair.of(1, 1), Pair.of(2, 0));
+    }
+
+    @Test
+    public void location_with_enough_available_wins_over_higher_priority() {
+        stubLevels(level(1, 1, 1), level(1, 2, 5));
+        var item = new OrderRoutingNormalItem(0, BigDecimal.valueOf(3), 1);
+        var fetcher = fetcher(item);
+
+        var result = fetcher.process();
+
+        assertThat(result.getRoutingGroups()).hasSize(1);
+        assertThat(result.getRoutingGroups().get(0).getLocationId()).isEqualTo(2);
+    }
+
+    private void stubLevels(InventoryLevelInfo... levels) {
+        when(this.dataService.getInventoryLevelInfos(anyInt(), anyList(), anyList())).thenReturn(List.of(levels));
+        when(this.dataService.getVariantInfos(anyInt(), anyList())).thenReturn(List.of(
+                VariantInfo.builder().id(1).inventoryItemId(1001).inventoryPolicy("continue").build()));
+        when(this.dataService.getInventoryItemInfos(anyInt(), anyList(), anyList())).thenReturn(List.of(
+                InventoryItemInfo.builder().id(1001).variantId(1).tracked(true).build()));
+    }
+
+    private OrderRoutingFetcher fetcher(RoutingItem... items) {
+        // location 1 ưu tiên hơn location 2
+        var locations = List.of(
+                LocationInfo.builder().id(1).rank(1).build(),
+                LocationInfo.builder().id(2).rank(2).build());
+        return new OrderRoutingFetcher(1, List.of(items), locations, Behavior.bypass, null, this.dataService, new OrderRoutingProperties());
+    }
+
+    private static FulfillmentGroup group(List<RoutingItem> items, List<Integer> locationIds) {
+        return FulfillmentGroup.builder().items(items).locationIds(locationIds).build();
+    }
+
+    private static InventoryLevelInfo level(int variantId, int locationId, int available) {
+        return InventoryLevelInfo.builder()
+                .variantId(variantId)
+                .inventoryItemId(1000 + variantId)
+                .locationId(locationId)
+                .available(BigDecimal.valueOf(available))
+                .build();
+    }
+}
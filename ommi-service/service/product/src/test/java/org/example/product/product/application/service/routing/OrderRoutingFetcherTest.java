@@ -0,0 +1,161 @@
+package org.example.product.product.application.service.routing;
+
+import org.example.product.product.infrastructure.configuration.OrderRoutingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderRoutingFetcher: variant, inventory item, inventory level load 1 lần và tra cứu theo variantId
+ */
+public class OrderRoutingFetcherTest {
+
+    private static final int STORE_ID = 1;
+
+    private final OrderRoutingDataService dataService = mock(OrderRoutingDataService.class);
+
+    @BeforeEach
+    public void setUp() {
+        when(this.dataService.getVariantInfos(anyInt(), anyList())).thenReturn(List.of(
+                variant(1, "deny"),
+                variant(2, "continue")));
+        when(this.dataService.getInventoryItemInfos(anyInt(), anyList(), anyList())).thenReturn(List.of(
+                inventoryItem(1, true),
+                inventoryItem(2, true)));
+        when(this.dataService.getInventoryLevelInfos(anyInt(), anyList(), anyList())).thenReturn(List.of(
+                level(1, 10, 2),
+                level(1, 20, 5),
+                level(1, 10, 1),
+                level(2, 20, 4)));
+    }
+
+    @Test
+    public void lookups_are_indexed_by_variant_and_loaded_once() {
+        var first = new OrderRoutingNormalItem(0, BigDecimal.ONE, 1);
+        var second = new OrderRoutingNormalItem(1, BigDecimal.ONE, 2);
+        var fetcher = fetcher(Behavior.bypass, first, second);
+
+        assertThat(fetcher.getVariantInfo(second).getInventoryPolicy()).isEqualTo("continue");
+        assertThat(fetcher.getInventoryItem(first).getId()).isEqualTo(1001);
+        assertThat(fetcher.getInventoryLevels(first)).hasSize(3);
+        assertThat(fetcher.getConnectedLocationIds(first)).containsExactly(10, 20);
+        assertThat(fetcher.getConnectedLocationIds(second)).containsExactly(20);
+        assertThat(fetcher.getAvailable(first)).isEqualByComparingTo("8");
+        assertThat(fetcher.getAvailable(1, 10)).isEqualByComparingTo("3");
+        assertThat(fetcher.getAvailable(2, 10)).isEqualByComparingTo("0");
+
+        fetcher.getVariantInfo(first);
+        fetcher.getInventoryItem(second);
+        fetcher.getConnectedLocationIds(second);
+        verify(this.dataService, times(1)).getVariantInfos(anyInt(), anyList());
+        verify(this.dataService, times(1)).getInventoryItemInfos(anyInt(), anyList(), anyList());
+        verify(this.dataService, times(1)).getInventoryLevelInfos(anyInt(), anyList(), anyList());
+    }
+
+    @Test
+    public void variant_without_level_has_no_location_and_no_available() {
+        var item = new OrderRoutingNormalItem(0, BigDecimal.ONE, 3);
+        var fetcher = fetcher(Behavior.bypass, item);
+
+        assertThat(fetcher.getConnectedLocationIds(item)).isEmpty();
+        assertThat(fetcher.getAvailable(item)).isEqualByComparingTo("0");
+        assertThatThrownBy(() -> fetcher.getVariantInfo(item)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void requested_quantity_is_summed_over_items_of_same_variant() {
+        var first = new OrderRoutingNormalItem(0, BigDecimal.valueOf(2), 1);
+        var second = new OrderRoutingNormalItem(1, BigDecimal.valueOf(3), 1);
+        var other = new OrderRoutingNormalItem(2, BigDecimal.ONE, 2);
+        var fetcher = fetcher(Behavior.bypass, first, second, other);
+
+        assertThat(fetcher.getRequestedQuantity(first)).isEqualByComparingTo("5");
+        assertThat(fetcher.getRequestedQuantity(second)).isEqualByComparingTo("5");
+        assertThat(fetcher.getRequestedQuantity(other)).isEqualByComparingTo("1");
+    }
+
+    @Test
+    public void deny_policy_marks_only_locations_with_enough_available() {
+        // location 10 có 3, location 20 có 5
+        var small = new OrderRoutingNormalItem(0, BigDecimal.valueOf(3), 1);
+        fetcher(Behavior.decrement_obeying_policy, small);
+        assertThat(small.detectLocationCanFulfill(List.of())).containsExactly(10, 20);
+
+        var large = new OrderRoutingNormalItem(0, BigDecimal.valueOf(4), 1);
+        fetcher(Behavior.decrement_obeying_policy, large);
+        assertThat(large.detectLocationCanFulfill(List.of())).containsExactly(20);
+
+        // tổng 8 đủ nhưng không location nào đủ
+        var total = new OrderRoutingNormalItem(0, BigDecimal.valueOf(8), 1);
+        fetcher(Behavior.decrement_obeying_policy, total);
+        assertThat(total.detectLocationCanFulfill(List.of())).isEmpty();
+    }
+
+    @Test
+    public void deny_item_is_not_routed_to_location_without_enough_available() {
+        // variant 1 (deny) cần 4: location 10 chỉ có 3 => phải tách đơn dù location 10 có cả 2 variant
+        when(this.dataService.getInventoryLevelInfos(anyInt(), anyList(), anyList())).thenReturn(List.of(
+                level(1, 10, 3),
+                level(1, 20, 5),
+                level(2, 10, 4)));
+        var denyItem = new OrderRoutingNormalItem(0, BigDecimal.valueOf(4), 1);
+        var continueItem = new OrderRoutingNormalItem(1, BigDecimal.ONE, 2);
+
+        var result = fetcher(Behavior.decrement_obeying_policy, denyItem, continueItem).process();
+
+        assertThat(result.getRoutingGroups())
+                .extracting(group -> group.getLocationId() + "=" + group.getItemIndexes())
+                .containsExactlyInAnyOrder("20=[0]", "10=[1]");
+    }
+
+    @Test
+    public void deny_policy_checks_requested_quantity_against_total_available() {
+
+        // 2 item cùng variant: tổng 9 > 8
+        var first = new OrderRoutingNormalItem(0, BigDecimal.valueOf(5), 1);
+        var second = new OrderRoutingNormalItem(1, BigDecimal.valueOf(4), 1);
+        fetcher(Behavior.decrement_obeying_policy, first, second);
+        assertThatThrownBy(() -> first.detectLocationCanFulfill(List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void continue_policy_ignores_available() {
+        var item = new OrderRoutingNormalItem(0, BigDecimal.valueOf(100), 2);
+        fetcher(Behavior.decrement_obeying_policy, item);
+
+        assertThat(item.detectLocationCanFulfill(List.of())).containsExactly(20);
+    }
+
+    private OrderRoutingFetcher fetcher(Behavior behavior, RoutingItem... items) {
+        var locations = List.of(
+                LocationInfo.builder().id(10).rank(1).build(),
+                LocationInfo.builder().id(20).rank(2).build());
+        return new OrderRoutingFetcher(STORE_ID, List.of(items), locations, behavior, null, this.dataService, new OrderRoutingProperties());
+    }
+
+    private static VariantInfo variant(int id, String inventoryPolicy) {
+        return VariantInfo.builder().id(id).inventoryItemId(1000 + id).inventoryPolicy(inventoryPolicy).build();
+    }
+
+    private static InventoryItemInfo inventoryItem(int variantId, boolean tracked) {
+        return InventoryItemInfo.builder().id(1000 + variantId).variantId(variantId).tracked(tracked).build();
+    }
+
+    private static InventoryLevelInfo level(int variantId, int locationId, int available) {
+        return InventoryLevelInfo.builder()
+                .variantId(variantId)
+                .inventoryItemId(1000 + variantId)
+                .locationId(locationId)
+                .available(BigDecimal.valueOf(available))
+                .build();
+    }
+}
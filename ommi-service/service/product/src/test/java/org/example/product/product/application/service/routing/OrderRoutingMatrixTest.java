@@ -0,0 +1,124 @@
+package org.example.product.product.application.service.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderRoutingMatrixTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    @Test
+    public void location_fulfilling_all_items_is_single_group() {
+        var matrix = matrix(3, List.of(
+                List.of(0, 1),
+                List.of(0, 1, 2)
+        ));
+
+        var groups = matrix.groups();
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).getLocationIds()).containsExactly(2);
+    }
+
+    /**
+     * Greedy chọn location 3 (phủ 4 item) rồi cần thêm 2 location, tối ưu chỉ cần location 1 + 2
+     */
+    @Test
+    public void exact_search_finds_fewer_locations_than_greedy() {
+        var matrix = matrix(6, List.of(
+                List.of(0, 1, 2),
+                List.of(3, 4, 5),
+                List.of(0, 1, 3, 4)
+        ));
+        var priority = List.of(1, 2, 3);
+
+        assertThat(matrix.groups()).isEmpty();
+        assertThat(matrix.splitCovers(priority, 0, 32, NO_DEADLINE)).containsExactly(List.of(3, 1, 2));
+        assertThat(matrix.splitCovers(priority, 32, 32, NO_DEADLINE)).containsExactly(List.of(1, 2));
+    }
+
+    @Test
+    public void covers_of_same_size_are_all_returned_for_ranking() {
+        var matrix = matrix(4, List.of(
+                List.of(0, 1),
+                List.of(2, 3),
+                List.of(0, 2),
+                List.of(1, 3)
+        ));
+
+        var covers = matrix.splitCovers(List.of(1, 2, 3, 4), 32, 32, NO_DEADLINE);
+
+        assertThat(covers).containsExactly(List.of(1, 2), List.of(3, 4));
+    }
+
+    @Test
+    public void item_without_location_cannot_be_split() {
+        var matrix = matrix(3, List.of(
+                List.of(0),
+                List.of(1)
+        ));
+
+        assertThat(matrix.splitCovers(List.of(1, 2), 32, 32, NO_DEADLINE)).isEmpty();
+    }
+
+    @Test
+    public void assign_gives_each_item_to_one_location() {
+        var matrix = matrix(4, List.of(
+                List.of(0, 1, 2),
+                List.of(2, 3)
+        ));
+
+        var groups = matrix.assign(List.of(2, 1));
+
+        assertThat(groups).hasSize(2);
+        assertThat(groups.get(0).getLocationIds()).containsExactly(1);
+        assertThat(groups.get(0).getItems()).extracting(RoutingItem::getIndex).containsExactly(0, 1, 2);
+        assertThat(groups.get(1).getLocationIds()).containsExactly(2);
+        assertThat(groups.get(1).getItems()).extracting(RoutingItem::getIndex).containsExactly(3);
+    }
+
+    @Test
+    public void large_cart_uses_greedy_within_budget() {
+        var itemCount = 500;
+        List<List<Integer>> rows = new ArrayList<>();
+        for (int location = 0; location < 200; location++) {
+            var offset = location;
+            rows.add(IntStream.range(0, itemCount).filter(item -> (item + offset) % 7 != 0).boxed().toList());
+        }
+        var matrix = matrix(itemCount, rows);
+
+        var covers = matrix.splitCovers(List.of(), 32, 32, System.nanoTime());
+
+        assertThat(covers).hasSize(1);
+        var groups = matrix.assign(covers.get(0));
+        assertThat(groups).flatExtracting(FulfillmentGroup::getItems).hasSize(itemCount);
+    }
+
+    /**
+     * Location id = vị trí trong rows + 1
+     */
+    private static OrderRoutingMatrix matrix(int itemCount, List<List<Integer>> rows) {
+        List<LocationInfo> locations = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            locations.add(LocationInfo.builder().id(i + 1).build());
+        }
+        List<RoutingItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new OrderRoutingCustomItem(i, BigDecimal.ONE, true));
+        }
+
+        var matrix = new OrderRoutingMatrix(locations, items);
+        for (int i = 0; i < rows.size(); i++) {
+            for (var item : rows.get(i)) {
+                matrix.markCanFulfill(i + 1, item);
+            }
+        }
+        return matrix;
+    }
+}